@@ -1,7 +1,12 @@
 package it.unibo.exam;
 
 import it.unibo.exam.controller.input.KeyHandler;
+import it.unibo.exam.model.leaderboard.LeaderboardStore;
+import it.unibo.exam.model.leaderboard.ScoreBoard;
+import it.unibo.exam.utility.medialoader.AssetManager;
 import it.unibo.exam.utility.medialoader.AudioManager;
+import it.unibo.exam.utility.persistence.WriteBehindExecutor;
+import it.unibo.exam.view.panel.LoadingPanel;
 import it.unibo.exam.view.panel.MainMenuPanel;
 
 import javax.swing.JFrame;
@@ -14,6 +19,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 /**
@@ -23,6 +29,10 @@ import java.util.logging.Logger;
 public final class Main {
 
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
+    /** Time given to the pending disk writes when the window closes. */
+    private static final long WRITE_SHUTDOWN_MILLIS = 5000;
+    /** Set by the first exit path to clean up, so that the others do not. */
+    private static final AtomicBoolean CLEANED_UP = new AtomicBoolean();
 
     /**
      * Private constructor to prevent instantiation.
@@ -41,6 +51,9 @@ public final class Main {
         // Initialize audio system
         initializeAudio();
 
+        // Last resort for the exits that close no window, such as a signal
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::cleanUp, "shutdown-cleanup"));
+
         // Execute UI code in the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             final KeyHandler keyHandler = new KeyHandler();
@@ -55,8 +68,8 @@ public final class Main {
             final GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
             final GraphicsDevice gd = ge.getDefaultScreenDevice();
 
-            // Create main menu panel
-            final MainMenuPanel mainMenu = new MainMenuPanel(window);
+            // Loading screen shown until the assets are preloaded
+            final LoadingPanel loadingPanel = new LoadingPanel();
 
             // Configure window
             window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -64,8 +77,8 @@ public final class Main {
             window.setTitle("UniversityEscape");
             window.addKeyListener(keyHandler);
 
-            // Add main menu panel
-            window.getContentPane().add(mainMenu);
+            // Add loading panel, replaced by the main menu once assets are ready
+            window.getContentPane().add(loadingPanel);
 
             // Set fullscreen mode
             final int initialWidth = (int) (screenWidth * 0.8);
@@ -73,12 +86,17 @@ public final class Main {
             window.setSize(initialWidth, initialHeight);
             window.setLocationRelativeTo(null);
 
-            // Add window listeners
+            // Add window listeners: closing the window exits at once, while
+            // the exit button and keys dispose of it, which only closes it
             window.addWindowListener(new WindowAdapter() {
                 @Override
                 public void windowClosing(final WindowEvent e) {
-                    LOGGER.info("Game window closing, cleaning up audio...");
-                    AudioManager.cleanup();
+                    cleanUp();
+                }
+
+                @Override
+                public void windowClosed(final WindowEvent e) {
+                    cleanUp();
                 }
             });
 
@@ -114,9 +132,51 @@ public final class Main {
             // Ensure we start in fullscreen
             window.setExtendedState(JFrame.MAXIMIZED_BOTH);
             LOGGER.info("Game window displayed successfully");
+
+            // Decode assets in the background, then show the main menu
+            AssetManager.getInstance()
+                .preloadManifest(AssetManager.DEFAULT_MANIFEST, loadingPanel)
+                .whenComplete((done, error) -> SwingUtilities.invokeLater(() -> showMainMenu(window)));
         });
     }
 
+    /**
+     * Replaces the loading screen with the main menu.
+     * @param window the main window
+     */
+    private static void showMainMenu(final JFrame window) {
+        window.getContentPane().removeAll();
+        window.getContentPane().add(new MainMenuPanel(window));
+        window.revalidate();
+        window.repaint();
+        LOGGER.info("Assets loaded, main menu displayed");
+    }
+
+    /**
+     * Stops the audio and writes what is pending to disk, once, whichever
+     * exit path gets there first.
+     */
+    private static void cleanUp() {
+        if (CLEANED_UP.compareAndSet(false, true)) {
+            LOGGER.info("Game closing, cleaning up audio...");
+            AudioManager.cleanup();
+            LOGGER.info("Image cache: " + AssetManager.getInstance().getCacheStats());
+            flushWrites();
+        }
+    }
+
+    /**
+     * Closes the leaderboard files and waits, for a while, for the writes
+     * still pending.
+     */
+    private static void flushWrites() {
+        LeaderboardStore.closeAll();
+        ScoreBoard.closeAll();
+        final WriteBehindExecutor writes = WriteBehindExecutor.getInstance();
+        writes.shutdown(WRITE_SHUTDOWN_MILLIS);
+        LOGGER.info("Disk writes: " + writes.getStats());
+    }
+
     /**
      * Initializes the audio system with background music.
      */
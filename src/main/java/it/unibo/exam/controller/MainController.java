@@ -1,5 +1,6 @@
 package it.unibo.exam.controller;
 
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -8,16 +9,12 @@ import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 import it.unibo.exam.controller.input.KeyHandler;
-import it.unibo.exam.controller.position.PlayerPositionManager;
 import it.unibo.exam.controller.minigame.MinigameManager;
+import it.unibo.exam.controller.simulation.SimulationEngine;
+import it.unibo.exam.controller.simulation.SimulationListener;
 import it.unibo.exam.model.entity.Player;
 import it.unibo.exam.model.entity.Npc;
-import it.unibo.exam.model.entity.RoamingNpc;
-import it.unibo.exam.model.entity.enviroments.Door;
-import it.unibo.exam.model.entity.enviroments.Room;
 import it.unibo.exam.model.game.GameState;
-import it.unibo.exam.utility.generator.NpcGenerator;
-import it.unibo.exam.utility.generator.RoomGenerator;
 import it.unibo.exam.utility.geometry.Point2D;
 import it.unibo.exam.view.GameRenderer;
 import it.unibo.exam.view.hud.ScoreHud;
@@ -27,22 +24,25 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 /**
  * Main controller of the game.
  * Updated version with integrated minigame system.
+ * World updates are delegated to a {@link SimulationEngine}; this class paces
+ * it in real time and turns its events into dialogs, minigames and menus.
  */
 @SuppressFBWarnings(value = "IS2_INCONSISTENT_SYNC", 
                    justification = "Game loop thread safety is managed externally")
 public class MainController {
     private static final Logger LOGGER = Logger.getLogger(MainController.class.getName());
 
-    private static final int FPS = 60;
+    private static final int FPS = SimulationEngine.DEFAULT_STEPS_PER_SECOND;
     private static final double SECOND = 1_000_000_000.0;
-    private static final int TOTALPUZZLEROOMS = 5; // Rooms 1–5
-
-    private final KeyHandler      keyHandler;
-    private final GameState       gameState;
-    private final GameRenderer    gameRenderer;
-    private MinigameManager       minigameManager;
-    private boolean               running;
-    private Point2D               environmentSize;
+
+    private final KeyHandler       keyHandler;
+    private final SimulationEngine engine;
+    private final GameState        gameState;
+    private final GameRenderer     gameRenderer;
+    private MinigameManager        minigameManager;
+    private volatile boolean       running;
+    private volatile Runnable      frameRenderer;
+    private volatile long          nsPerFrame;
     private boolean               minigameActive;
     private int                   currentMinigameRoomId = -1;
     @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, 
@@ -58,24 +58,24 @@ public class MainController {
     public MainController(final Point2D environmentSize, final JFrame parentFrame) {
         // Core setup
         this.keyHandler      = new KeyHandler();
-        this.gameState       = new GameState(environmentSize);
-        this.environmentSize = new Point2D(environmentSize);
-        this.parentFrame     = parentFrame;
+        this.engine          = new SimulationEngine(environmentSize, keyHandler, new SimulationListener() {
+            @Override
+            public void onExitLocked() {
+                showExitLocked();
+            }
 
-        // ── ADDED: spawn both interactive and roaming NPCs via generator ──
-        final NpcGenerator npcGen = new NpcGenerator(environmentSize);
-        for (final Room r : gameState.getAllRooms()) {
-            // Only attach an interactive NPC for puzzle rooms
-            if (r.getRoomType() == RoomGenerator.PUZZLE_ROOM) {
-                final Npc interactive = npcGen.generate(r.getId());
-                r.attachNpc(interactive);
+            @Override
+            public void onGameCompleted() {
+                MainController.this.onGameCompleted();
             }
 
-            // Always (or conditionally) add roaming NPCs
-            final RoamingNpc wanderer = npcGen.generateRoamingNpc(r);
-            r.addRoamingNpc(wanderer);
-        }
-        // ─────────────────────────────────────────────────────────────────────
+            @Override
+            public void onNpcInteraction(final int roomId, final Npc npc) {
+                MainController.this.onNpcInteraction(roomId, npc);
+            }
+        }, FPS);
+        this.gameState       = engine.getGameState();
+        this.parentFrame     = parentFrame;
 
         this.gameRenderer    = new GameRenderer(gameState);
 
@@ -120,8 +120,7 @@ public class MainController {
      * @param newSize new size of the Game Panel
      */
     public void resize(final Point2D newSize) {
-        this.environmentSize = new Point2D(newSize);
-        this.gameState.resize(newSize);
+        this.engine.resize(newSize);
     }
 
     /**
@@ -142,6 +141,22 @@ public class MainController {
         }
     }
 
+    /**
+     * Sets the callback that produces a frame, invoked from the game-loop thread
+     * after the world has been updated. At most one frame is produced per batch
+     * of updates, so frames are never drawn for an unchanged world.
+     *
+     * @param renderer the frame callback, or null to stop producing frames
+     * @param frameCap maximum frames per second, or 0 for one frame per update batch
+     */
+    public void setFrameRenderer(final Runnable renderer, final int frameCap) {
+        if (frameCap < 0) {
+            throw new IllegalArgumentException("Frame cap cannot be negative: " + frameCap);
+        }
+        this.nsPerFrame    = frameCap == 0 ? 0 : (long) (SECOND / frameCap);
+        this.frameRenderer = renderer;
+    }
+
     /**
      * Gets the game renderer for external rendering calls.
      * @return the game renderer
@@ -168,59 +183,79 @@ public class MainController {
         return minigameManager;
     }
 
+    /**
+     * Gets the simulation engine driving the world.
+     * @return the simulation engine
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP",
+                       justification = "Engine is shared so tools can step the same world the UI shows")
+    public SimulationEngine getSimulationEngine() {
+        return engine;
+    }
+
     /**
      * Main game loop.
+     * Runs fixed steps to catch up with real time, draws a frame if the world
+     * changed and the frame cap allows it, then parks until the next step is
+     * due instead of polling.
      */
-    @SuppressFBWarnings(value = "NN_NAKED_NOTIFY", 
-                       justification = "Thread sleep is intentional for frame rate control")
     private void gameLoop() {
         long lastTime = System.nanoTime();
         final long nsPerUpdate = (long) (SECOND / FPS);
         long accumulatedTime = 0;
+        // When the next frame is due: scheduled, so a late wakeup does not push later frames back
+        long nextFrame = lastTime;
+        boolean dirty = true;
 
         while (running) {
             final long now = System.nanoTime();
             accumulatedTime += now - lastTime;
             lastTime = now;
 
-            while (accumulatedTime >= nsPerUpdate) {
-                update();
+            while (running && accumulatedTime >= nsPerUpdate) {
+                engine.step();
                 accumulatedTime -= nsPerUpdate;
+                dirty = true;
+            }
+
+            final Runnable renderer = frameRenderer;
+            if (dirty && renderer != null && now - nextFrame >= 0) {
+                renderer.run();
+                nextFrame += nsPerFrame;
+                // More than a frame behind: resync instead of bursting to catch up
+                if (now - nextFrame > nsPerFrame) {
+                    nextFrame = now;
+                }
+                dirty = false;
             }
 
-            try {
-                Thread.sleep(1);
-            } catch (final InterruptedException e) {
-                LOGGER.log(Level.WARNING, "Game loop interrupted", e);
+            // Account for the time spent drawing when computing the wait
+            LockSupport.parkNanos(nsPerUpdate - accumulatedTime - (System.nanoTime() - lastTime));
+            if (Thread.interrupted()) {
+                LOGGER.log(Level.WARNING, "Game loop interrupted");
+                running = false;
             }
         }
     }
 
     /**
-     * Updates the game state.
+     * Shows the locked-exit warning.
      */
-    private void update() {
-        final double deltaTime = 1.0 / FPS;
-        final Player player = gameState.getPlayer();
-        final Room room     = gameState.getCurrentRoom();
-
-        for (final RoamingNpc rn : room.getRoamingNpcs()) {
-            rn.update(deltaTime, room);
-        }
-        // ─────────────────────────────────────────────
-
-        movePlayer(player);
-        checkInteraction(player, room);
+    private void showExitLocked() {
+        JOptionPane.showMessageDialog(
+            null,
+            "Complete all minigames first!",
+            "Locked",
+            JOptionPane.WARNING_MESSAGE
+        );
     }
 
     /**
-     * Check win condition.
+     * Stops the loop and schedules the end-game menu.
      */
-    private void checkWin() {
-        if (gameState.getPlayer().allRoomsCompleted(TOTALPUZZLEROOMS)) {
-            running = false;
-            SwingUtilities.invokeLater(this::showEndGameMenu);
-        }
+    private void onGameCompleted() {
+        running = false;
+        SwingUtilities.invokeLater(this::showEndGameMenu);
     }
 
     /**
@@ -256,181 +291,22 @@ public class MainController {
     }
 
     /**
-     * Check interaction with doors and NPCs.
-     * @param player Player
-     * @param room Current Room
+     * Shows the NPC dialogue and starts the room's minigame.
+     * @param roomId the room the NPC belongs to
+     * @param npc the NPC the player interacted with
      */
-    private void checkInteraction(final Player player, final Room room) {
-        if (!keyHandler.isInteractJustPressed()) {
-            return;
-        }
-        // 1 Handle door interactions
-        room.getDoors().forEach(door -> {
-            if (!isNearDoor(player, door)) {
-                return;
-            }
-            if (room.getId() == 0 && door.isEndgameDoor()) {
-                checkWin();
-                if (running) {
-                    JOptionPane.showMessageDialog(
-                        null,
-                        "Complete all minigames first!",
-                        "Locked",
-                        JOptionPane.WARNING_MESSAGE
-                    );
-                }
-            } else {
-                gameState.changeRoom(door.getToId());
-                positionPlayerAfterRoomChange(door);
-                LOGGER.info("Moved from room "
-                    + door.getFromId() + " to room " + door.getToId());
-            }
-        });
-
-        // 2) Handle NPC interactions (unchanged)
-        if (room.getRoomType() == RoomGenerator.PUZZLE_ROOM
-            && room.getNpc() != null
-            && isNearNpc(player, room.getNpc())) {
-
-            if (gameState.getPlayer().getRoomScore(room.getId()) != null) {
-                LOGGER.info("Room " + room.getId() + " already completed!");
-                return;
-            }
-
-            room.getNpc().interact();
-            final int roomId = gameState.getCurrentRoom().getId();
-            JOptionPane.showMessageDialog(
-                null,
-                room.getNpc().getDialogue(),
-                room.getNpc().getName(),
-                JOptionPane.INFORMATION_MESSAGE
-            );
+    private void onNpcInteraction(final int roomId, final Npc npc) {
+        JOptionPane.showMessageDialog(
+            null,
+            npc.getDialogue(),
+            npc.getName(),
+            JOptionPane.INFORMATION_MESSAGE
+        );
 
-            if (minigameManager != null) {
-                minigameManager.startMinigame(roomId);
-            } else {
-                LOGGER.warning("MinigameManager not initialized - cannot start minigame");
-            }
-        }
-    }
-
-    /**
-     * Checks if player is near a door (with expanded detection area).
-     * @param player the player
-     * @param door the door
-     * @return true if player is close enough to interact
-     */
-    private boolean isNearDoor(final Player player, final Door door) {
-        final int proximityBuffer = 30;
-        final Point2D playerPos = player.getPosition();
-        final Point2D playerSize = player.getDimension();
-        final Point2D doorPos = door.getPosition();
-        final Point2D doorSize = door.getDimension();
-
-        return playerPos.getX() + playerSize.getX() >= doorPos.getX() - proximityBuffer
-            && playerPos.getX() <= doorPos.getX() + doorSize.getX() + proximityBuffer 
-            && playerPos.getY() + playerSize.getY() >= doorPos.getY() - proximityBuffer 
-            && playerPos.getY() <= doorPos.getY() + doorSize.getY() + proximityBuffer;
-    }
-
-    /**
-     * Checks if player is near an NPC.
-     * @param player the player
-     * @param npc the NPC
-     * @return true if player is close enough to interact
-     */
-    private boolean isNearNpc(final Player player, final Npc npc) {
-        final int proximityBuffer = 30;
-        final Point2D playerPos = player.getPosition();
-        final Point2D playerSize = player.getDimension();
-        final Point2D npcPos = npc.getPosition();
-        final Point2D npcSize = npc.getDimension();
-
-        return playerPos.getX() + playerSize.getX() >= npcPos.getX() - proximityBuffer
-            && playerPos.getX() <= npcPos.getX() + npcSize.getX() + proximityBuffer 
-            && playerPos.getY() + playerSize.getY() >= npcPos.getY() - proximityBuffer 
-            && playerPos.getY() <= npcPos.getY() + npcSize.getY() + proximityBuffer;
-    }
-
-    /**
-     * Positions the player after changing rooms based on the door used.
-     * 
-     * @param usedDoor the door that was used to transition
-     */
-    private void positionPlayerAfterRoomChange(final Door usedDoor) {
-        final Player player = gameState.getPlayer();
-        final Room newRoom = gameState.getCurrentRoom();
-
-        Door correspondingDoor = null;
-        for (final Door door : newRoom.getDoors()) {
-            if (door.getToId() == usedDoor.getFromId()) {
-                correspondingDoor = door;
-                break;
-            }
-        }
-
-        if (correspondingDoor != null) {
-            PlayerPositionManager.positionPlayerAfterTransition(player, correspondingDoor, environmentSize);
+        if (minigameManager != null) {
+            minigameManager.startMinigame(roomId);
         } else {
-            player.setPosition(PlayerPositionManager.getDefaultSpawnPosition(environmentSize));
-        }
-    }
-
-    /**
-     * Moves the player based on input.
-     * @param player the player to move
-     */
-    private void movePlayer(final Player player) {
-        final int speed = player.getSpeed();
-        final Point2D currentPos = player.getPosition();
-        final Point2D playerSize = player.getDimension();
-
-        if (keyHandler.isUpPressed()) {
-            final int newY = currentPos.getY() - speed;
-            if (newY >= 10) {
-                player.move(0, -speed);
-            }
-        }
-        if (keyHandler.isDownPressed()) {
-            final int newY = currentPos.getY() + speed;
-            if (newY + playerSize.getY() <= environmentSize.getY() - 10) {
-                player.move(0, speed);
-            }
-        }
-        if (keyHandler.isLeftPressed()) {
-            final int newX = currentPos.getX() - speed;
-            if (newX >= 10) {
-                player.move(-speed, 0);
-            }
-        }
-        if (keyHandler.isRightPressed()) {
-            final int newX = currentPos.getX() + speed;
-            if (newX + playerSize.getX() <= environmentSize.getX() - 10) {
-                player.move(speed, 0);
-                ensurePlayerInBounds(player);
-            }
-        }
-    }
-
-    /**
-     * Ensures the player stays within bounds (safety check).
-     * @param player the player to check
-     */
-    private void ensurePlayerInBounds(final Player player) {
-        final Point2D currentPos = player.getPosition();
-        final Point2D playerSize = player.getDimension();
-
-        final int margin = 10;
-        final int minX = margin;
-        final int minY = margin;
-        final int maxX = environmentSize.getX() - playerSize.getX() - margin;
-        final int maxY = environmentSize.getY() - playerSize.getY() - margin;
-
-        final int newX = Math.max(minX, Math.min(currentPos.getX(), maxX));
-        final int newY = Math.max(minY, Math.min(currentPos.getY(), maxY));
-
-        if (newX != currentPos.getX() || newY != currentPos.getY()) {
-            player.setPosition(newX, newY);
+            LOGGER.warning("MinigameManager not initialized - cannot start minigame");
         }
     }
 
@@ -0,0 +1,44 @@
+package it.unibo.exam.controller.input;
+
+/**
+ * Source of player commands consumed by the simulation on every tick.
+ * Implemented by {@link KeyHandler} for real keyboard input and by
+ * {@link ScriptedInput} for headless, scripted sessions.
+ */
+public interface InputSource {
+
+    /**
+     * @return true if the up command is active
+     */
+    boolean isUpPressed();
+
+    /**
+     * @return true if the down command is active
+     */
+    boolean isDownPressed();
+
+    /**
+     * @return true if the left command is active
+     */
+    boolean isLeftPressed();
+
+    /**
+     * @return true if the right command is active
+     */
+    boolean isRightPressed();
+
+    /**
+     * Single-shot interaction check: returns true at most once per press.
+     *
+     * @return true if the interact command was just issued
+     */
+    boolean isInteractJustPressed();
+
+    /**
+     * Called by the simulation at the start of every tick.
+     * Event-driven sources can ignore it; scripted sources use it to advance.
+     */
+    default void tick() {
+        // Nothing to do for event-driven sources
+    }
+}
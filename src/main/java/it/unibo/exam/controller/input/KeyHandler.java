@@ -7,7 +7,7 @@ import java.awt.event.KeyListener;
  * Handles keyboard input for the application.
  * Improved version with better interaction handling.
  */
-public final class KeyHandler implements KeyListener {
+public final class KeyHandler implements KeyListener, InputSource {
     private boolean upPressed;
     private boolean downPressed;
     private boolean leftPressed;
@@ -19,6 +19,7 @@ public final class KeyHandler implements KeyListener {
     /**
      * @return true if up key is pressed
      */
+    @Override
     public boolean isUpPressed() {
         return upPressed;
     }
@@ -26,6 +27,7 @@ public final class KeyHandler implements KeyListener {
     /**
      * @return true if down key is pressed
      */
+    @Override
     public boolean isDownPressed() {
         return downPressed;
     } 
@@ -33,6 +35,7 @@ public final class KeyHandler implements KeyListener {
     /**
      * @return true if left key is pressed
      */
+    @Override
     public boolean isLeftPressed() {
         return leftPressed;
     }
@@ -40,6 +43,7 @@ public final class KeyHandler implements KeyListener {
     /**
      * @return true if right key is pressed
      */
+    @Override
     public boolean isRightPressed() {
         return rightPressed;
     }
@@ -65,6 +69,7 @@ public final class KeyHandler implements KeyListener {
     /**
      * @return true if interact key was just pressed (single press detection)
      */
+    @Override
     public boolean isInteractJustPressed() {
         if (interactJustPressed) {
             interactJustPressed = false; // Reset after reading
@@ -0,0 +1,170 @@
+package it.unibo.exam.controller.input;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Input source that replays a fixed script of commands, one step per tick.
+ * Used to drive headless simulations without a keyboard or a display.
+ *
+ * <p>A script is a sequence of steps, each holding a set of commands for a
+ * given number of ticks. {@link Command#INTERACT} fires once, on the first
+ * tick of the step that contains it, mirroring the single-press semantics of
+ * {@link KeyHandler#isInteractJustPressed()}.</p>
+ */
+public final class ScriptedInput implements InputSource {
+
+    /**
+     * Commands a script step can hold.
+     */
+    public enum Command {
+        /** Move up. */
+        UP,
+        /** Move down. */
+        DOWN,
+        /** Move left. */
+        LEFT,
+        /** Move right. */
+        RIGHT,
+        /** Interact with doors and NPCs. */
+        INTERACT
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+    private final boolean looping;
+
+    private int stepIndex = -1;
+    private int ticksLeftInStep;
+    private Set<Command> active = EnumSet.noneOf(Command.class);
+    private boolean interactPending;
+
+    /**
+     * Creates an empty script that idles once exhausted.
+     */
+    public ScriptedInput() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty script.
+     *
+     * @param looping true to restart from the first step once the script is exhausted
+     */
+    public ScriptedInput(final boolean looping) {
+        this.looping = looping;
+    }
+
+    /**
+     * Appends a step holding the given commands.
+     *
+     * @param ticks    how many ticks the commands are held for
+     * @param commands the commands to hold (none means idle)
+     * @return this script, for chaining
+     * @throws IllegalArgumentException if {@code ticks} is not positive
+     */
+    public ScriptedInput hold(final int ticks, final Command... commands) {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("Step duration must be positive: " + ticks);
+        }
+        final Set<Command> set = EnumSet.noneOf(Command.class);
+        set.addAll(List.of(commands));
+        steps.add(new Step(ticks, set));
+        return this;
+    }
+
+    /**
+     * Appends an idle step.
+     *
+     * @param ticks how many ticks to stay idle
+     * @return this script, for chaining
+     */
+    public ScriptedInput idle(final int ticks) {
+        return hold(ticks);
+    }
+
+    /**
+     * Appends a single-tick interaction.
+     *
+     * @return this script, for chaining
+     */
+    public ScriptedInput interact() {
+        return hold(1, Command.INTERACT);
+    }
+
+    /**
+     * @return true once every step has been consumed (never for looping scripts)
+     */
+    public boolean isExhausted() {
+        return !looping && stepIndex >= steps.size() - 1 && ticksLeftInStep == 0;
+    }
+
+    /**
+     * Advances the script by one tick.
+     */
+    @Override
+    public void tick() {
+        if (ticksLeftInStep > 0) {
+            ticksLeftInStep--;
+        }
+        if (ticksLeftInStep > 0) {
+            return;
+        }
+        if (stepIndex + 1 < steps.size()) {
+            stepIndex++;
+        } else if (looping && !steps.isEmpty()) {
+            stepIndex = 0;
+        } else {
+            active = EnumSet.noneOf(Command.class);
+            interactPending = false;
+            return;
+        }
+        final Step step = steps.get(stepIndex);
+        active = step.commands;
+        ticksLeftInStep = step.ticks;
+        interactPending = active.contains(Command.INTERACT);
+    }
+
+    @Override
+    public boolean isUpPressed() {
+        return active.contains(Command.UP);
+    }
+
+    @Override
+    public boolean isDownPressed() {
+        return active.contains(Command.DOWN);
+    }
+
+    @Override
+    public boolean isLeftPressed() {
+        return active.contains(Command.LEFT);
+    }
+
+    @Override
+    public boolean isRightPressed() {
+        return active.contains(Command.RIGHT);
+    }
+
+    @Override
+    public boolean isInteractJustPressed() {
+        if (interactPending) {
+            interactPending = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A script step: a set of commands held for a number of ticks.
+     */
+    private static final class Step {
+        private final int ticks;
+        private final Set<Command> commands;
+
+        Step(final int ticks, final Set<Command> commands) {
+            this.ticks = ticks;
+            this.commands = commands;
+        }
+    }
+}
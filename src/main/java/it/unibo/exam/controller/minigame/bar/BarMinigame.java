@@ -10,6 +10,7 @@ import it.unibo.exam.model.scoring.CapDecorator;
 import it.unibo.exam.model.scoring.ScoringStrategy;
 import it.unibo.exam.model.scoring.TimeBonusDecorator;
 import it.unibo.exam.model.scoring.TieredScoringStrategy;
+import it.unibo.exam.utility.random.RandomService;
 
 import javax.swing.AbstractAction;
 import javax.swing.JComponent;
@@ -23,14 +24,16 @@ import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.Objects;
-import java.util.Random;
+import java.util.function.Consumer;
 
 /**
  * A “Sort & Serve” bar‐puzzle minigame.
  * Displays glasses of mixed colored layers that the player
  * must pour until each glass is uniform.
  * Fires a callback on completion.
- * Allows restart ('R') with the original shuffle for fairness.
+ * Allows restart ('R') with the original shuffle for fairness,
+ * undo ('Z') and redo ('Y') of pours.
+ * Shows a hint ('H') by selecting the glass to pour from next.
  * Now includes a flexible points system via Strategy and Decorator.
  * Will report failure if the window is closed prematurely.
  */
@@ -43,14 +46,13 @@ public final class BarMinigame implements Minigame {
     private static final int TOTAL_GLASSES                = 6;
     private static final int FRAME_WIDTH                  = 1000;
     private static final int FRAME_HEIGHT                 = 600;
-    private static final Random RNG                       = new Random();
 
     private JFrame             frame;
     private MinigameCallback   callback;
     private long               initialSeed;
-    private int                moveCount;
     private long               startTimeMillis;
     private boolean            won;    // tracks whether the puzzle was completed
+    private BarModel           currentModel;  // the puzzle currently shown
 
     private final ScoringStrategy scoringStrategy;
 
@@ -86,7 +88,7 @@ public final class BarMinigame implements Minigame {
     @Override
     public void start(final JFrame parent, final MinigameCallback callback) {
         this.callback    = Objects.requireNonNull(callback, "callback must not be null");
-        this.initialSeed = RNG.nextLong();
+        this.initialSeed = RandomService.getInstance().nextSeed(BarMinigame.class);
 
         final BarPanel panel = buildAndShowPanel(initialSeed);
 
@@ -112,22 +114,41 @@ public final class BarMinigame implements Minigame {
             }
         });
 
-        moveCount       = 0;
         startTimeMillis = System.currentTimeMillis();
 
+        bindPanelAction(KeyEvent.VK_R, "restart", this::restart);
+        bindPanelAction(KeyEvent.VK_H, "hint", this::showHint);
+        bindPanelAction(KeyEvent.VK_Z, "undo", shown -> {
+            shown.clearSelection();
+            currentModel.undo();
+        });
+        bindPanelAction(KeyEvent.VK_Y, "redo", shown -> {
+            shown.clearSelection();
+            currentModel.redo();
+        });
+    }
+
+    /**
+     * Binds a key of the window to an action on the puzzle panel.
+     *
+     * @param keyCode the key
+     * @param name    the name of the action
+     * @param action  what the key does to the panel
+     */
+    private void bindPanelAction(final int keyCode, final String name, final Consumer<BarPanel> action) {
         frame.getRootPane()
             .getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
-            .put(javax.swing.KeyStroke.getKeyStroke(KeyEvent.VK_R, 0), "restart");
+            .put(javax.swing.KeyStroke.getKeyStroke(keyCode, 0), name);
         frame.getRootPane()
             .getActionMap()
-            .put("restart", new AbstractAction() {
+            .put(name, new AbstractAction() {
                 @Override
                 public void actionPerformed(final ActionEvent e) {
                     if (frame.getContentPane().getComponentCount() > 0) {
                         final java.awt.Component current =
                             frame.getContentPane().getComponent(0);
                         if (current instanceof BarPanel) {
-                            restart((BarPanel) current);
+                            action.accept((BarPanel) current);
                         }
                     }
                 }
@@ -135,19 +156,31 @@ public final class BarMinigame implements Minigame {
     }
 
     /**
-     * Restarts the puzzle panel with the original shuffle/seed.
+     * Solves the current position in the background, then selects the glass
+     * to pour from so that the player only has to pick the target.
      *
-     * @param oldPanel the panel to remove before adding the new one
+     * @param panel the panel showing the puzzle
      */
-    private void restart(final BarPanel oldPanel) {
-        frame.remove(oldPanel);
-        final BarPanel panel = buildAndShowPanel(initialSeed);
-        frame.add(panel);
-        frame.revalidate();
-        frame.repaint();
+    private void showHint(final BarPanel panel) {
+        currentModel.hint().thenAccept(move -> SwingUtilities.invokeLater(() -> {
+            if (move.length > 0 && panel.isShowing()) {
+                panel.setSelected(move[0]);
+                panel.repaint();
+            }
+        }));
+    }
+
+    /**
+     * Restarts the puzzle with the original shuffle, taking back every pour
+     * instead of dealing again.
+     *
+     * @param panel the panel showing the puzzle
+     */
+    private void restart(final BarPanel panel) {
+        panel.clearSelection();
+        currentModel.restart();
         panel.requestFocusInWindow();
 
-        moveCount       = 0;
         startTimeMillis = System.currentTimeMillis();
         won        = false;
     }
@@ -168,14 +201,13 @@ public final class BarMinigame implements Minigame {
             .build();
 
         final BarPanel panel = new BarPanel(model);
+        this.currentModel = model;
 
         panel.setGlassClickListener(idx -> {
             if (panel.getSelected() < 0) {
                 panel.setSelected(idx);
             } else {
-                if (model.attemptPour(panel.getSelected(), idx)) {
-                    moveCount++;
-                }
+                model.attemptPour(panel.getSelected(), idx);
                 panel.clearSelection();
             }
             panel.repaint();
@@ -187,6 +219,11 @@ public final class BarMinigame implements Minigame {
                 SwingUtilities.invokeLater(panel::repaint);
             }
 
+            @Override
+            public void onRestored() {
+                SwingUtilities.invokeLater(panel::repaint);
+            }
+
             @Override
             public void onCompleted() {
                 won = true;  // mark as successfully finished
@@ -196,7 +233,7 @@ public final class BarMinigame implements Minigame {
                 final int  score          = scoringStrategy.calculate(elapsedSeconds);
 
                 JOptionPane.showMessageDialog(frame,
-                    "Puzzle completed!\nMoves: " + moveCount
+                    "Puzzle completed!\nMoves: " + currentModel.getMoveCount()
                     + "\nTime: "   + elapsedSeconds + " seconds"
                     + "\nScore: "  + score
                 );
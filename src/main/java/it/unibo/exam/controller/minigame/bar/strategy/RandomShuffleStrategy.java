@@ -4,17 +4,17 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
- * Shuffles layers using Collections.shuffle with a seeded Random.
+ * Shuffles layers using Collections.shuffle with a seeded SplittableRandom.
  */
 public final class RandomShuffleStrategy implements ShuffleStrategy {
 
     @Override
     public List<Color> shuffle(final List<Color> layers, final long seed) {
         final List<Color> copy = new ArrayList<>(layers);
-        Collections.shuffle(copy, new Random(seed));
+        Collections.shuffle(copy, new SplittableRandom(seed));
         return copy;
     }
 }
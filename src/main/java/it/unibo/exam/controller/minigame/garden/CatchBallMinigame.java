@@ -17,12 +17,14 @@ import java.util.Objects;
 
 /**
  * Controller for the CatchBall minigame (MVC pattern).
+ * Launching with {@code -Due.garden.storm=true} plays the storm difficulty.
  */
 public final class CatchBallMinigame implements Minigame {
 
     private static final int WIDTH = 600;
     private static final int HEIGHT = 400;
     private static final int TIMER_DELAY = 16;
+    private static final String STORM_PROPERTY = "ue.garden.storm";
 
     private JFrame frame;
     private CatchBallModel model;
@@ -58,7 +60,9 @@ public final class CatchBallMinigame implements Minigame {
     @Override
     public void start(final JFrame parentFrame, final MinigameCallback onComplete) {
         this.callback = onComplete;
-        this.model = new CatchBallModel();
+        this.model = new CatchBallModel(Boolean.getBoolean(STORM_PROPERTY)
+            ? CatchBallModel.Mode.STORM
+            : CatchBallModel.Mode.NORMAL);
         this.panel = new CatchBallPanel(model);
 
         frame = new JFrame("Catch the Balls");
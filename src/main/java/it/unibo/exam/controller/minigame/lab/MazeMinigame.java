@@ -14,6 +14,7 @@ import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import java.awt.Dimension;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The MazeMinigame class manages the maze game, including the logic for generating 
@@ -38,6 +39,8 @@ public final class MazeMinigame implements Minigame {
     private MazePanel panel;
     private long startTimeMillis;
     private int level;  // Variable to track the current level
+    private CompletableFuture<int[][]> nextMaze;  // Maze of the next level, generated in the background
+    private int nextMazeLevel;  // Level the background maze is for
 
         /**
          * No‐arg constructor for factory instantiation (uses default scoring).
@@ -80,9 +83,12 @@ public final class MazeMinigame implements Minigame {
             this.callback = Objects.requireNonNull(callback, "callback cannot be null");
         }
 
-        // Generate maze based on the current level
-        final MazeGenerator generator = new MazeGenerator();
-        final int[][] maze = generator.generateMaze(level);  // Pass the current level to generate the maze
+        // Use the maze prepared while the previous level was played, or generate it now
+        final int[][] maze = nextMaze != null && nextMazeLevel == level
+            ? nextMaze.join()
+            : new MazeGenerator().generateMaze(level);
+        nextMaze = level < MAX_LEVEL ? prepareMaze(level + 1) : null;
+        nextMazeLevel = level + 1;
 
         // Initialize model, panel, and set the view
         this.model = new MazeModel(maze);
@@ -108,6 +114,17 @@ public final class MazeMinigame implements Minigame {
         }
     }
 
+    /**
+     * Generates the maze of a level on a background thread: candidate mazes are
+     * measured until one is hard enough, which should not delay the level start.
+     *
+     * @param nextLevel the level of the maze
+     * @return a handle completing with the maze
+     */
+    private static CompletableFuture<int[][]> prepareMaze(final int nextLevel) {
+        return CompletableFuture.supplyAsync(() -> new MazeGenerator().generateMaze(nextLevel));
+    }
+
     /**
      * Handles player movement within the maze and checks if the player has reached the exit.
      * If the maze is completed, it transitions to the next level.
@@ -118,8 +135,8 @@ public final class MazeMinigame implements Minigame {
     public void handleKeyPress(final int dx, final int dy) {
 
         if (model.movePlayer(dx, dy)) {
+            // Repaints only the cells the player left and entered
             panel.updatePlayerPosition(model.getPlayerX(), model.getPlayerY());
-            panel.repaint();
 
             // Check if player reached the exit
             if (model.isCompleted()) {
@@ -141,6 +158,25 @@ public final class MazeMinigame implements Minigame {
         }
     }
 
+    /**
+     * Takes back the last move of the player.
+     */
+    public void handleUndo() {
+        if (model.undo()) {
+            panel.updatePlayerPosition(model.getPlayerX(), model.getPlayerY());
+        }
+    }
+
+    /**
+     * Makes again the last move taken back, which cannot be the exit: reaching
+     * it ends the level.
+     */
+    public void handleRedo() {
+        if (model.redo()) {
+            panel.updatePlayerPosition(model.getPlayerX(), model.getPlayerY());
+        }
+    }
+
     /**
      * Stops the MazeMinigame by disposing of the game window.
      */
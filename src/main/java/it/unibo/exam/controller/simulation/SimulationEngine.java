@@ -0,0 +1,363 @@
+package it.unibo.exam.controller.simulation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import it.unibo.exam.controller.input.InputSource;
+import it.unibo.exam.controller.position.PlayerPositionManager;
+import it.unibo.exam.model.entity.Entity;
+import it.unibo.exam.model.entity.Npc;
+import it.unibo.exam.model.entity.Player;
+import it.unibo.exam.model.entity.RoamingNpc;
+import it.unibo.exam.model.entity.enviroments.Door;
+import it.unibo.exam.model.entity.enviroments.Room;
+import it.unibo.exam.model.game.GameState;
+import it.unibo.exam.utility.generator.NpcGenerator;
+import it.unibo.exam.utility.generator.RoomGenerator;
+import it.unibo.exam.utility.geometry.Point2D;
+import it.unibo.exam.utility.random.RandomService;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Fixed-step simulation of the hub world, independent of Swing.
+ * Advances roaming NPCs, player movement and door/NPC interactions by one
+ * step per {@link #step()} call, reading commands from an {@link InputSource}
+ * and reporting UI-relevant events to a {@link SimulationListener}.
+ *
+ * <p>The simulated time of a step is always {@code 1 / stepsPerSecond}; the
+ * wall-clock rate at which steps are executed is chosen by {@link #run(long, int)},
+ * so the same session can be replayed in real time or as fast as possible.</p>
+ */
+public final class SimulationEngine {
+
+    /** Default number of simulated steps per second of game time. */
+    public static final int DEFAULT_STEPS_PER_SECOND = 60;
+
+    /** Tick rate meaning "do not pace, run as fast as possible". */
+    public static final int UNLIMITED_TICK_RATE = 0;
+
+    /** Number of puzzle rooms that must be completed to win (rooms 1–5). */
+    public static final int TOTAL_PUZZLE_ROOMS = 5;
+
+    private static final Logger LOGGER = Logger.getLogger(SimulationEngine.class.getName());
+    private static final double SECOND = 1_000_000_000.0;
+    private static final int PROXIMITY_BUFFER = 30;
+    private static final int MARGIN = 10;
+
+    private final GameState gameState;
+    private final InputSource input;
+    private final SimulationListener listener;
+    private final double deltaTime;
+    private Point2D environmentSize;
+    private long tickCount;
+    private boolean finished;
+
+    /**
+     * Creates a simulation of a new game world.
+     *
+     * @param environmentSize size of the simulated play area
+     * @param input           source of player commands
+     * @param listener        receiver of UI-relevant events
+     * @param stepsPerSecond  number of simulated steps per second of game time
+     */
+    public SimulationEngine(final Point2D environmentSize, final InputSource input,
+                            final SimulationListener listener, final int stepsPerSecond) {
+        this(environmentSize, input, listener, stepsPerSecond, RandomService.getInstance());
+    }
+
+    /**
+     * Creates a simulation drawing its random numbers from the given service.
+     * Engines given services with the same seed evolve identically under the
+     * same input, even when run in parallel.
+     *
+     * @param environmentSize size of the simulated play area
+     * @param input           source of player commands
+     * @param listener        receiver of UI-relevant events
+     * @param stepsPerSecond  number of simulated steps per second of game time
+     * @param random          source of random numbers of this simulation
+     */
+    public SimulationEngine(final Point2D environmentSize, final InputSource input,
+                            final SimulationListener listener, final int stepsPerSecond,
+                            final RandomService random) {
+        if (stepsPerSecond <= 0) {
+            throw new IllegalArgumentException("Steps per second must be positive: " + stepsPerSecond);
+        }
+        this.input           = Objects.requireNonNull(input, "input cannot be null");
+        this.listener        = Objects.requireNonNull(listener, "listener cannot be null");
+        this.environmentSize = new Point2D(environmentSize);
+        this.deltaTime       = 1.0 / stepsPerSecond;
+        this.gameState       = new GameState(environmentSize);
+        populateNpcs(environmentSize, Objects.requireNonNull(random, "random cannot be null"));
+    }
+
+    /**
+     * Creates a simulation stepping at {@link #DEFAULT_STEPS_PER_SECOND}.
+     *
+     * @param environmentSize size of the simulated play area
+     * @param input           source of player commands
+     * @param listener        receiver of UI-relevant events
+     */
+    public SimulationEngine(final Point2D environmentSize, final InputSource input,
+                            final SimulationListener listener) {
+        this(environmentSize, input, listener, DEFAULT_STEPS_PER_SECOND);
+    }
+
+    /**
+     * Creates a headless simulation that ignores UI events.
+     *
+     * @param environmentSize size of the simulated play area
+     * @param input           source of player commands
+     */
+    public SimulationEngine(final Point2D environmentSize, final InputSource input) {
+        this(environmentSize, input, new SimulationListener() { });
+    }
+
+    /**
+     * Spawns the interactive NPCs of puzzle rooms and one roaming NPC per room.
+     *
+     * @param size   size of the play area
+     * @param random source of the roaming NPC walks
+     */
+    private void populateNpcs(final Point2D size, final RandomService random) {
+        final NpcGenerator npcGen = new NpcGenerator(size, random);
+        for (final Room r : gameState.getAllRooms()) {
+            // Only attach an interactive NPC for puzzle rooms
+            if (r.getRoomType() == RoomGenerator.PUZZLE_ROOM) {
+                final Npc interactive = npcGen.generate(r.getId());
+                r.attachNpc(interactive);
+            }
+            r.addRoamingNpc(npcGen.generateRoamingNpc(r));
+        }
+    }
+
+    /**
+     * Advances the simulation by one fixed step.
+     * Does nothing once the game has been completed.
+     */
+    public void step() {
+        if (finished) {
+            return;
+        }
+        input.tick();
+        final Player player = gameState.getPlayer();
+        final Room room     = gameState.getCurrentRoom();
+
+        // Indexed loop: no iterator per tick, however many NPCs the room holds
+        final List<RoamingNpc> roaming = room.getRoamingNpcs();
+        for (int i = 0; i < roaming.size(); i++) {
+            roaming.get(i).update(deltaTime, room);
+        }
+
+        movePlayer(player);
+        checkInteraction(player, room);
+        tickCount++;
+    }
+
+    /**
+     * Runs up to {@code maxTicks} steps, stopping early if the game is completed.
+     *
+     * @param maxTicks maximum number of steps to execute
+     * @param tickRate wall-clock steps per second, or {@link #UNLIMITED_TICK_RATE}
+     *                 to run as fast as possible
+     * @return the number of steps actually executed
+     */
+    public long run(final long maxTicks, final int tickRate) {
+        if (tickRate < 0) {
+            throw new IllegalArgumentException("Tick rate cannot be negative: " + tickRate);
+        }
+        final long nsPerTick = tickRate == UNLIMITED_TICK_RATE ? 0 : (long) (SECOND / tickRate);
+        long deadline = System.nanoTime();
+        long executed = 0;
+        while (executed < maxTicks && !finished) {
+            step();
+            executed++;
+            if (nsPerTick > 0) {
+                deadline += nsPerTick;
+                final long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Resizes the simulated world.
+     *
+     * @param newSize new size of the play area
+     */
+    public void resize(final Point2D newSize) {
+        this.environmentSize = new Point2D(newSize);
+        this.gameState.resize(newSize);
+    }
+
+    /**
+     * @return the simulated game state
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP",
+                        justification = "GameState is shared with the renderer and the controller by design")
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * @return the number of steps executed so far
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return the simulated time of a single step, in seconds
+     */
+    public double getDeltaTime() {
+        return deltaTime;
+    }
+
+    /**
+     * @return true once the player has left through the exit with all rooms completed
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Check win condition.
+     */
+    private void checkWin() {
+        if (gameState.getPlayer().allRoomsCompleted(TOTAL_PUZZLE_ROOMS)) {
+            finished = true;
+            listener.onGameCompleted();
+        } else {
+            listener.onExitLocked();
+        }
+    }
+
+    /**
+     * Check interaction with doors and NPCs.
+     * @param player Player
+     * @param room Current Room
+     */
+    private void checkInteraction(final Player player, final Room room) {
+        if (!input.isInteractJustPressed()) {
+            return;
+        }
+        // 1) Handle door interactions: only one door in reach is used,
+        //    so a transition cannot chain through another door of the old room
+        final List<Entity> nearby = room.queryRect(
+            player.getX() - PROXIMITY_BUFFER, player.getY() - PROXIMITY_BUFFER,
+            player.getWidth() + 2 * PROXIMITY_BUFFER, player.getHeight() + 2 * PROXIMITY_BUFFER);
+        for (final Entity candidate : nearby) {
+            if (!(candidate instanceof Door)) {
+                continue;
+            }
+            final Door door = (Door) candidate;
+            if (!isNear(player, door)) {
+                continue;
+            }
+            if (room.getId() == 0 && door.isEndgameDoor()) {
+                checkWin();
+            } else {
+                gameState.changeRoom(door.getToId());
+                positionPlayerAfterRoomChange(door);
+                LOGGER.fine("Moved from room " + door.getFromId() + " to room " + door.getToId());
+            }
+            return;
+        }
+
+        // 2) Handle NPC interactions
+        if (room.getRoomType() == RoomGenerator.PUZZLE_ROOM
+            && room.getNpc() != null
+            && isNear(player, room.getNpc())) {
+
+            if (gameState.getPlayer().getRoomScore(room.getId()) != null) {
+                LOGGER.info("Room " + room.getId() + " already completed!");
+                return;
+            }
+
+            room.getNpc().interact();
+            listener.onNpcInteraction(gameState.getCurrentRoom().getId(), room.getNpc());
+        }
+    }
+
+    /**
+     * Checks if the player is near an entity (with expanded detection area).
+     * @param player the player
+     * @param entity the entity
+     * @return true if player is close enough to interact
+     */
+    private boolean isNear(final Player player, final Entity entity) {
+        return player.getX() + player.getWidth() >= entity.getX() - PROXIMITY_BUFFER
+            && player.getX() <= entity.getX() + entity.getWidth() + PROXIMITY_BUFFER
+            && player.getY() + player.getHeight() >= entity.getY() - PROXIMITY_BUFFER
+            && player.getY() <= entity.getY() + entity.getHeight() + PROXIMITY_BUFFER;
+    }
+
+    /**
+     * Positions the player after changing rooms based on the door used.
+     *
+     * @param usedDoor the door that was used to transition
+     */
+    private void positionPlayerAfterRoomChange(final Door usedDoor) {
+        final Player player = gameState.getPlayer();
+        final Room newRoom = gameState.getCurrentRoom();
+
+        Door correspondingDoor = null;
+        for (final Door door : newRoom.getDoors()) {
+            if (door.getToId() == usedDoor.getFromId()) {
+                correspondingDoor = door;
+                break;
+            }
+        }
+
+        if (correspondingDoor != null) {
+            PlayerPositionManager.positionPlayerAfterTransition(player, correspondingDoor, environmentSize);
+        } else {
+            player.setPosition(PlayerPositionManager.getDefaultSpawnPosition(environmentSize));
+        }
+    }
+
+    /**
+     * Moves the player based on input.
+     * @param player the player to move
+     */
+    private void movePlayer(final Player player) {
+        final int speed = player.getSpeed();
+
+        if (input.isUpPressed() && player.getY() - speed >= MARGIN) {
+            player.move(0, -speed);
+        }
+        if (input.isDownPressed()
+            && player.getY() + speed + player.getHeight() <= environmentSize.getY() - MARGIN) {
+            player.move(0, speed);
+        }
+        if (input.isLeftPressed() && player.getX() - speed >= MARGIN) {
+            player.move(-speed, 0);
+        }
+        if (input.isRightPressed()
+            && player.getX() + speed + player.getWidth() <= environmentSize.getX() - MARGIN) {
+            player.move(speed, 0);
+            ensurePlayerInBounds(player);
+        }
+    }
+
+    /**
+     * Ensures the player stays within bounds (safety check).
+     * @param player the player to check
+     */
+    private void ensurePlayerInBounds(final Player player) {
+        final int maxX = environmentSize.getX() - player.getWidth() - MARGIN;
+        final int maxY = environmentSize.getY() - player.getHeight() - MARGIN;
+
+        final int newX = Math.max(MARGIN, Math.min(player.getX(), maxX));
+        final int newY = Math.max(MARGIN, Math.min(player.getY(), maxY));
+
+        if (newX != player.getX() || newY != player.getY()) {
+            player.setPosition(newX, newY);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package it.unibo.exam.controller.simulation;
+
+import it.unibo.exam.model.entity.Npc;
+
+/**
+ * Receives the events of a {@link SimulationEngine} that need a reaction
+ * outside the model (dialogs, minigames, end-game screen).
+ * Every method defaults to a no-op so headless runs can ignore them.
+ */
+public interface SimulationListener {
+
+    /**
+     * Called when the player interacts with the exit door before completing all rooms.
+     */
+    default void onExitLocked() {
+        // Headless runs ignore locked exits
+    }
+
+    /**
+     * Called when the player interacts with the exit door after completing all rooms.
+     * The engine is finished once this has been called.
+     */
+    default void onGameCompleted() {
+        // Headless runs just stop stepping
+    }
+
+    /**
+     * Called when the player interacts with the NPC of a room not yet completed.
+     *
+     * @param roomId the ID of the room the NPC belongs to
+     * @param npc    the NPC the player interacted with
+     */
+    default void onNpcInteraction(final int roomId, final Npc npc) {
+        // Headless runs have no minigame windows
+    }
+}
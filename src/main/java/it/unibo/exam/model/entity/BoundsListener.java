@@ -0,0 +1,16 @@
+package it.unibo.exam.model.entity;
+
+/**
+ * Listener notified when the position or size of an {@link Entity} changes,
+ * used to keep spatial indexes in sync with moving entities.
+ */
+@FunctionalInterface
+public interface BoundsListener {
+
+    /**
+     * Called after the hitbox of an entity has been updated.
+     *
+     * @param entity the entity that moved or was resized
+     */
+    void onBoundsChanged(Entity entity);
+}
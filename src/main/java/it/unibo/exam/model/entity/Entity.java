@@ -13,12 +13,13 @@ public class Entity {
 
     private static final int SCALE_FACTOR = 20;
 
-    private Point2D position;
-    private Point2D dimension;
-    private Rectangle hitbox;
-    private Point2D enviromentSize;
+    private final Point2D position;
+    private final Point2D dimension;
+    private final Rectangle hitbox;
+    private final Point2D enviromentSize;
     private int xFactor = 1;
     private int yFactor = 1;
+    private BoundsListener boundsListener;
 
     /**
      * Constructor for Entity.
@@ -101,14 +102,42 @@ public class Entity {
         return new Point2D(dimension);
     }
 
+    /**
+     * @return the x coordinate of the entity, without copying its position
+     */
+    public int getX() {
+        return position.getX();
+    }
+
+    /**
+     * @return the y coordinate of the entity, without copying its position
+     */
+    public int getY() {
+        return position.getY();
+    }
+
+    /**
+     * @return the width of the entity, without copying its dimension
+     */
+    public int getWidth() {
+        return dimension.getX();
+    }
+
+    /**
+     * @return the height of the entity, without copying its dimension
+     */
+    public int getHeight() {
+        return dimension.getY();
+    }
+
     /**
      * Sets the new dimension of the entity.
      * 
      * @param newEnviromentSize the new enviroment size
      */
     public void resize(final Point2D newEnviromentSize) {
-        this.enviromentSize = new Point2D(newEnviromentSize);
-        this.dimension = new Point2D(
+        this.enviromentSize.setXY(newEnviromentSize.getX(), newEnviromentSize.getY());
+        this.dimension.setXY(
             xFactor * enviromentSize.getX() / SCALE_FACTOR, 
             yFactor * enviromentSize.getY() / SCALE_FACTOR
         );
@@ -116,10 +145,24 @@ public class Entity {
     }
 
     /**
-     * Updates the hitbox position based on current position.
+     * Updates the hitbox in place from the current position and dimension,
+     * so moving an entity does not allocate.
      */
     private void updateHitbox() {
-        this.hitbox = new Rectangle(this.position, dimension);
+        this.hitbox.setBounds(position.getX(), position.getY(), dimension.getX(), dimension.getY());
+        if (boundsListener != null) {
+            boundsListener.onBoundsChanged(this);
+        }
+    }
+
+    /**
+     * Sets the listener notified whenever the entity moves or is resized.
+     * An entity belongs to at most one spatial index, so there is a single listener.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public final void setBoundsListener(final BoundsListener listener) {
+        this.boundsListener = listener;
     }
 
     /**
@@ -139,8 +182,10 @@ public class Entity {
     }
 
     /**
-     * @return the hitbox of the entity
+     * @return the hitbox of the entity, updated in place as the entity moves
      */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP",
+                        justification = "The hitbox is updated in place every move, copying it would allocate per tick")
     public Rectangle getHitbox() {
         return hitbox;
     }
@@ -56,7 +56,7 @@ public class MovementEntity extends Entity {
      * @param environmentSize the size of the environment
      * @return the computed speed (at least {@code MIN_SPEED})
      */
-    private int calculateSpeed(final Point2D environmentSize) {
+    protected static int calculateSpeed(final Point2D environmentSize) {
         return Math.max(MIN_SPEED,
                         environmentSize.getX() / DEFAULT_SIZE * DEFAULT_SPEED);
     }
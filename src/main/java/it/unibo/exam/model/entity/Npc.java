@@ -67,6 +67,7 @@ public final class Npc extends Entity {
      */
     public void setPosition(final Point2D position) {
         this.getPosition().setXY(position.getX(), position.getY());
+        this.updateHitboxPosition();
     }
 
     /**
@@ -5,15 +5,22 @@ import java.util.Collections; // ADDED
 import java.util.List;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import it.unibo.exam.model.entity.BoundsListener;
+import it.unibo.exam.model.entity.Entity;
 import it.unibo.exam.model.entity.Npc;
 import it.unibo.exam.model.entity.minigame.Minigame;
 import it.unibo.exam.model.entity.RoamingNpc; // ADDED
 import it.unibo.exam.utility.generator.RoomGenerator;
+import it.unibo.exam.utility.geometry.SpatialGrid;
 
 /**
  * A simple Room class representing a room.
+ * Doors and NPCs are kept in a {@link SpatialGrid}, updated as they move,
+ * so proximity checks only look at the entities near the queried area.
  */
 public class Room {
+    private static final int GRID_CELL_SIZE = 128;
+
     private final int id;
     private String name;
     private Minigame minigame;
@@ -21,6 +28,9 @@ public class Room {
     private Npc npc;
     private List<Door> doors;
     private final List<RoamingNpc> roamingNpcs = new ArrayList<>(); // ADDED
+    private final List<RoamingNpc> roamingNpcsView = Collections.unmodifiableList(roamingNpcs);
+    private final SpatialGrid<Entity> grid = new SpatialGrid<>(GRID_CELL_SIZE);
+    private final BoundsListener gridUpdater = this::index;
 
     /**
      * Constructor.
@@ -33,6 +43,7 @@ public class Room {
         this.doors = new ArrayList<>(doors);
         this.roomType = roomType;
         this.name = "Room " + id;
+        this.doors.forEach(this::track);
     }
 
     /**
@@ -40,7 +51,9 @@ public class Room {
      * @param newDoors the new list of doors
      */
     public final void updateDoors(final List<Door> newDoors) {
+        this.doors.forEach(this::untrack);
         this.doors = new ArrayList<>(newDoors);
+        this.doors.forEach(this::track);
     }
 
     /**
@@ -113,7 +126,13 @@ public class Room {
         if (roomType == RoomGenerator.MAIN_ROOM) {
             throw new IllegalStateException("Main room has no npc");
         }
+        if (this.npc != null) {
+            untrack(this.npc);
+        }
         this.npc = npc;
+        if (npc != null) {
+            track(npc);
+        }
     }
 
     /**
@@ -135,12 +154,54 @@ public class Room {
      */
     public void addRoamingNpc(final RoamingNpc npc) {
         this.roamingNpcs.add(npc);
+        track(npc);
     }
 
     /**
      * @return unmodifiable list of roaming NPCs in this room
      */
     public List<RoamingNpc> getRoamingNpcs() {
-        return Collections.unmodifiableList(roamingNpcs);
+        return roamingNpcsView;
+    }
+
+    // ------------------- SPATIAL QUERIES -------------------
+
+    /**
+     * Finds the doors and NPCs of this room whose bounds overlap a rectangle, edges included.
+     *
+     * @param x left edge of the rectangle
+     * @param y top edge of the rectangle
+     * @param w width of the rectangle
+     * @param h height of the rectangle
+     * @return the entities found, in no particular order
+     */
+    public List<Entity> queryRect(final int x, final int y, final int w, final int h) {
+        return grid.queryRect(x, y, w, h);
+    }
+
+    /**
+     * Finds the doors and NPCs of this room whose bounds are within a distance of a point.
+     *
+     * @param cx     x of the center
+     * @param cy     y of the center
+     * @param radius the distance
+     * @return the entities found, in no particular order
+     */
+    public List<Entity> queryRadius(final int cx, final int cy, final int radius) {
+        return grid.queryRadius(cx, cy, radius);
+    }
+
+    private void track(final Entity entity) {
+        entity.setBoundsListener(gridUpdater);
+        index(entity);
+    }
+
+    private void untrack(final Entity entity) {
+        entity.setBoundsListener(null);
+        grid.remove(entity);
+    }
+
+    private void index(final Entity entity) {
+        grid.update(entity, entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight());
     }
 }
@@ -0,0 +1,148 @@
+package it.unibo.exam.model.entity.minigame.bar;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import it.unibo.exam.controller.minigame.bar.strategy.ShuffleStrategy;
+
+/**
+ * Deals Sort-&-Serve puzzles that are known to be solvable.
+ * <p>
+ * A deal is the shuffle of the layers for a seed. Deals are tried from a seed
+ * and then from seeds derived from it, so the same seed always gives the same
+ * puzzle, and each deal is checked with a {@link BarSolver}.
+ * </p>
+ */
+public final class BarDealer {
+
+    private final int numGlasses;
+    private final int capacity;
+    private final List<Color> colors;
+    private final List<Color> pool;
+    private final ShuffleStrategy shuffleStrategy;
+    private final BarSolver solver;
+
+    /**
+     * @param numGlasses      how many glasses the puzzle has
+     * @param capacity        how many layers each glass holds
+     * @param colors          the distinct colors, each dealt {@code capacity} times
+     * @param shuffleStrategy the algorithm shuffling the layers
+     * @param solver          the solver checking the deals
+     */
+    public BarDealer(final int numGlasses, final int capacity, final List<Color> colors,
+                     final ShuffleStrategy shuffleStrategy, final BarSolver solver) {
+        this.numGlasses = numGlasses;
+        this.capacity = capacity;
+        this.colors = List.copyOf(colors);
+        this.shuffleStrategy = shuffleStrategy;
+        this.solver = solver;
+        final List<Color> layers = new ArrayList<>(colors.size() * capacity);
+        for (final Color c : colors) {
+            for (int i = 0; i < capacity; i++) {
+                layers.add(c);
+            }
+        }
+        this.pool = Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * Shuffles and solves the deal of a seed.
+     *
+     * @param seed the shuffle seed
+     * @return the deal
+     */
+    public Deal deal(final long seed) {
+        final List<Color> layers = List.copyOf(shuffleStrategy.shuffle(pool, seed));
+        final BarSolution solution = solver.solve(BarState.ofLayers(layers, numGlasses, capacity, colors));
+        return new Deal(seed, layers, solution == null ? -1 : solution.getMoveCount());
+    }
+
+    /**
+     * Finds the first solvable deal from a seed.
+     *
+     * @param seed     the first seed tried
+     * @param attempts the number of seeds tried at most
+     * @return the first solvable deal, or the last one tried if none is
+     */
+    public Deal firstSolvable(final long seed, final int attempts) {
+        long current = seed;
+        Deal deal = deal(current);
+        for (int i = 1; i < attempts && !deal.isSolvable(); i++) {
+            current = nextSeed(current);
+            deal = deal(current);
+        }
+        return deal;
+    }
+
+    /**
+     * Deals from successive seeds and ranks the solvable deals by difficulty.
+     *
+     * @param seed       the first seed tried
+     * @param candidates the number of seeds tried
+     * @return the solvable deals, fewest minimum moves first
+     */
+    public List<Deal> rank(final long seed, final int candidates) {
+        final List<Deal> solvable = new ArrayList<>();
+        long current = seed;
+        for (int i = 0; i < candidates; i++) {
+            final Deal deal = deal(current);
+            if (deal.isSolvable()) {
+                solvable.add(deal);
+            }
+            current = nextSeed(current);
+        }
+        solvable.sort(Comparator.comparingInt(Deal::getMinimumMoves));
+        return solvable;
+    }
+
+    private static long nextSeed(final long seed) {
+        return new SplittableRandom(seed).nextLong();
+    }
+
+    /**
+     * A shuffled deal and the length of its shortest solution.
+     */
+    public static final class Deal {
+        private final long seed;
+        private final List<Color> layers;
+        private final int minimumMoves;
+
+        private Deal(final long seed, final List<Color> layers, final int minimumMoves) {
+            this.seed = seed;
+            this.layers = layers;
+            this.minimumMoves = minimumMoves;
+        }
+
+        /**
+         * @return the shuffle seed of the deal
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return the shuffled layers, glass after glass, bottom first
+         */
+        public List<Color> getLayers() {
+            return layers;
+        }
+
+        /**
+         * @return the pours of a shortest solution, or -1 if none was found
+         */
+        public int getMinimumMoves() {
+            return minimumMoves;
+        }
+
+        /**
+         * @return true if a solution was found
+         */
+        public boolean isSolvable() {
+            return minimumMoves >= 0;
+        }
+    }
+}
@@ -1,23 +1,47 @@
 package it.unibo.exam.model.entity.minigame.bar;
 
 import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import it.unibo.exam.controller.minigame.bar.strategy.RandomShuffleStrategy;
 import it.unibo.exam.controller.minigame.bar.strategy.ShuffleStrategy;
+import it.unibo.exam.model.history.CommandLog;
+import it.unibo.exam.model.history.Rewindable;
+import it.unibo.exam.utility.random.RandomService;
 
 /**
  * The model for the Sort-&-Serve bar puzzle.
  * Manages a fixed number of glasses, each holding a fixed capacity of colored layers.
+ * Only deals a {@link BarSolver} can solve are used, and the solver also
+ * suggests moves on request.
+ * Pours are recorded in a {@link CommandLog}, so they can be undone, redone,
+ * or all taken back to restart the deal.
  */
 public final class BarModel {
+    /**
+     * Most glasses a {@link Builder} accepts. The deal is solved on the caller's
+     * thread, the EDT in the game, and the search grows quickly with the glasses:
+     * up to this many it stays within a few frames.
+     */
+    public static final int MAX_GLASSES = 8;
+    /** Seeds tried before settling for a deal not known to be solvable. */
+    private static final int MAX_DEALS = 64;
+    private static final BarSolver SOLVER = new BarSolver();
+
     private final List<Glass> glasses;
     private final int numGlasses;
     private final int capacity;
+    private final List<Color> colors;
     private final List<PuzzleListener> listeners = new CopyOnWriteArrayList<>();
+    private final CommandLog<BarState> history;
+    private int uniformGlasses;
 
     /**
      * Creates a BarModel with the given configuration.
@@ -25,7 +49,8 @@ public final class BarModel {
      * @param numGlasses      how many glasses to create
      * @param capacity        how many layers each glass holds
      * @param colors          exactly numGlasses distinct colors
-     * @param shuffleSeed     the RNG seed to use when shuffling layers
+     * @param shuffleSeed     the RNG seed to use when shuffling layers; if its
+     *                        deal is not solvable, seeds derived from it are tried
      * @param shuffleStrategy the algorithm to apply when shuffling the layers
      */
         public BarModel(final int numGlasses,
@@ -35,20 +60,17 @@ public final class BarModel {
                     final ShuffleStrategy shuffleStrategy) {
         this.numGlasses = numGlasses;
         this.capacity   = capacity;
+        this.colors     = List.copyOf(colors);
 
         this.glasses = new ArrayList<>(this.numGlasses);
         for (int i = 0; i < this.numGlasses; i++) {
             this.glasses.add(new Glass(this.capacity));
         }
-        final int coloredGlasses = this.numGlasses - 2; // one extra empty glass
-        final List<Color> pool = new ArrayList<>(coloredGlasses * this.capacity);
-        for (final Color c : colors) {
-            for (int i = 0; i < this.capacity; i++) {
-                pool.add(c);
-            }
-        }
+        final int coloredGlasses = this.numGlasses - 2; // two extra empty glasses
 
-        final List<Color> shuffled = shuffleStrategy.shuffle(pool, shuffleSeed);
+        final List<Color> shuffled = new BarDealer(numGlasses, capacity, colors, shuffleStrategy, SOLVER)
+            .firstSolvable(shuffleSeed, MAX_DEALS)
+            .getLayers();
         final Iterator<Color> it = shuffled.iterator();
         for (int i = 0; i < this.numGlasses; i++) {
             final Glass g = this.glasses.get(i);
@@ -60,6 +82,12 @@ public final class BarModel {
             }
             // else: leave last glass empty
         }
+        for (final Glass g : this.glasses) {
+            if (g.isUniform(this.capacity)) {
+                uniformGlasses++;
+            }
+        }
+        this.history = new CommandLog<>(new Pours());
     }
 
     /**
@@ -75,22 +103,133 @@ public final class BarModel {
         if (!a.canPourInto(b)) {
             return false;
         }
-        a.pourInto(b);
+        pour(a, b);
+        history.record(from << Byte.SIZE | to);
 
         // fire pour event
         for (final PuzzleListener lst : listeners) {
             lst.onPoured(from, to);
         }
+        checkCompleted();
+        return true;
+    }
+
+    /**
+     * Takes back the last pour.
+     *
+     * @return false if there is no pour to take back
+     */
+    public boolean undo() {
+        return changed(history.undo());
+    }
+
+    /**
+     * Pours again the last pour taken back.
+     *
+     * @return false if no pour was taken back
+     */
+    public boolean redo() {
+        return changed(history.redo());
+    }
+
+    /**
+     * Brings the glasses back to the deal, without dealing again. The pours
+     * taken back can still be redone.
+     */
+    public void restart() {
+        history.rewind();
+        changed(true);
+    }
+
+    /**
+     * @return true if a pour can be taken back
+     */
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    /**
+     * @return true if a pour taken back can be redone
+     */
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    /**
+     * @return the number of pours from the deal to the current position
+     */
+    public int getMoveCount() {
+        return history.getPosition();
+    }
+
+    /**
+     * Writes the pours made so far, including those taken back.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeHistory(final DataOutput out) throws IOException {
+        history.write(out);
+    }
+
+    /**
+     * Replays pours written by {@link #writeHistory(DataOutput)} from the deal;
+     * the model must have been built with the same deal.
+     *
+     * @param in the source
+     * @throws IOException if reading fails
+     */
+    public void readHistory(final DataInput in) throws IOException {
+        history.read(in);
+        changed(true);
+    }
+
+    private boolean changed(final boolean done) {
+        if (done) {
+            for (final PuzzleListener lst : listeners) {
+                lst.onRestored();
+            }
+            checkCompleted();
+        }
+        return done;
+    }
 
-        // check for completion
-        final boolean nowCompleted = glasses.stream()
-                                            .allMatch(g -> g.isUniform(capacity));
-        if (nowCompleted) {
+    private void checkCompleted() {
+        if (uniformGlasses == numGlasses) {
             for (final PuzzleListener lst : listeners) {
                 lst.onCompleted();
             }
         }
-        return true;
+    }
+
+    /**
+     * Moves the top layer of a glass, rules already checked, counting the
+     * finished glasses.
+     */
+    private void pour(final Glass a, final Glass b) {
+        // Only the two glasses involved can change: track completion incrementally
+        uniformGlasses -= (a.isUniform(capacity) ? 1 : 0) + (b.isUniform(capacity) ? 1 : 0);
+        a.moveTopTo(b);
+        uniformGlasses += (a.isUniform(capacity) ? 1 : 0) + (b.isUniform(capacity) ? 1 : 0);
+    }
+
+    /**
+     * @return a compact copy of the current position
+     */
+    public BarState toState() {
+        return BarState.of(glasses, capacity, colors);
+    }
+
+    /**
+     * Suggests the next pour. The current position is copied now and solved in
+     * the background, so pours made meanwhile do not disturb the search.
+     *
+     * @return a handle completing with the {@code from, to} glass indices of the
+     *         pour, or with an empty array if the puzzle is solved or stuck
+     */
+    public CompletableFuture<int[]> hint() {
+        final BarState snapshot = toState();
+        return CompletableFuture.supplyAsync(() -> SOLVER.hint(snapshot));
     }
 
     /**
@@ -132,6 +271,44 @@ public final class BarModel {
         listeners.remove(listener);
     }
 
+    /**
+     * Replays pours on the glasses: a command is the source glass index
+     * shifted by a byte, or-ed with the target glass index.
+     */
+    private final class Pours implements Rewindable<BarState> {
+        private static final int GLASS_MASK = 0xFF;
+
+        @Override
+        public void apply(final int command) {
+            pour(glasses.get(command >>> Byte.SIZE), glasses.get(command & GLASS_MASK));
+        }
+
+        @Override
+        public void revert(final int command) {
+            pour(glasses.get(command & GLASS_MASK), glasses.get(command >>> Byte.SIZE));
+        }
+
+        @Override
+        public BarState snapshot() {
+            return toState();
+        }
+
+        @Override
+        public void restore(final BarState snapshot) {
+            uniformGlasses = 0;
+            for (int i = 0; i < numGlasses; i++) {
+                final Glass g = glasses.get(i);
+                g.clear();
+                for (int level = 0; level < snapshot.size(i); level++) {
+                    g.addLayer(colors.get(snapshot.layer(i, level) - 1));
+                }
+                if (g.isUniform(capacity)) {
+                    uniformGlasses++;
+                }
+            }
+        }
+    }
+
     /**
      * Fluent builder for BarModel.
      */
@@ -141,7 +318,7 @@ public final class BarModel {
         private List<Color> colors  = List.of(
             Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW
         );
-        private long shuffleSeed    = System.currentTimeMillis();
+        private long shuffleSeed    = RandomService.getInstance().nextSeed(BarModel.class);
         private ShuffleStrategy shuffleStrategy = new RandomShuffleStrategy();
 
         /**
@@ -149,8 +326,12 @@ public final class BarModel {
          *
          * @param n how many glasses
          * @return this Builder instance
+         * @throws IllegalArgumentException if there are more than {@link #MAX_GLASSES}
          */
         public Builder numGlasses(final int n) {
+            if (n > MAX_GLASSES) {
+                throw new IllegalArgumentException("At most " + MAX_GLASSES + " glasses, got " + n);
+            }
             this.numGlasses = n;
             return this;
         }
@@ -0,0 +1,48 @@
+package it.unibo.exam.model.entity.minigame.bar;
+
+/**
+ * A sequence of pours solving a deal, as found by {@link BarSolver}.
+ */
+public final class BarSolution {
+
+    private final int[] froms;
+    private final int[] tos;
+
+    /**
+     * @param moves the pours, as consecutive {@code from, to} pairs of glass indices; copied
+     */
+    public BarSolution(final int[] moves) {
+        if (moves.length % 2 != 0) {
+            throw new IllegalArgumentException("Moves must come in from/to pairs");
+        }
+        this.froms = new int[moves.length / 2];
+        this.tos = new int[moves.length / 2];
+        for (int i = 0; i < froms.length; i++) {
+            froms[i] = moves[2 * i];
+            tos[i] = moves[2 * i + 1];
+        }
+    }
+
+    /**
+     * @return the number of pours
+     */
+    public int getMoveCount() {
+        return froms.length;
+    }
+
+    /**
+     * @param move index of a pour
+     * @return the glass poured from
+     */
+    public int getFrom(final int move) {
+        return froms[move];
+    }
+
+    /**
+     * @param move index of a pour
+     * @return the glass poured into
+     */
+    public int getTo(final int move) {
+        return tos[move];
+    }
+}
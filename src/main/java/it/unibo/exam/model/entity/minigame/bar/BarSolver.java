@@ -0,0 +1,316 @@
+package it.unibo.exam.model.entity.minigame.bar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Finds the shortest sequence of pours solving a Sort-&-Serve deal.
+ * <p>
+ * The search is IDA*: depth-first searches bounded by the number of moves so
+ * far plus a lower bound of the moves left, raising the bound until a
+ * solution appears, so memory stays small whatever the size of the deal. The
+ * first levels of each search are split into tasks of a {@link ForkJoinPool}.
+ * A transposition table shared by the tasks remembers the fewest moves with
+ * which each position, glasses in any order, has been reached, and prunes
+ * positions reached again in as many moves or more.
+ * </p>
+ * <p>
+ * The lower bound counts the layers that must move at least once: every layer
+ * above the bottom run of its glass, and, for each color, the bottom runs of
+ * that color except the longest. A node budget bounds the work on large deals.
+ * </p>
+ */
+public final class BarSolver {
+
+    /** Positions examined before a search gives up, by default. */
+    public static final long DEFAULT_NODE_LIMIT = 2_000_000L;
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+    /** Depth up to which the search is split into parallel tasks. */
+    private static final int SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final long nodeLimit;
+
+    /**
+     * Creates a solver running on the common pool with the default budget.
+     */
+    public BarSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * @param pool      the pool running the search tasks
+     * @param nodeLimit positions examined before a search gives up
+     */
+    public BarSolver(final ForkJoinPool pool, final long nodeLimit) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (nodeLimit <= 0) {
+            throw new IllegalArgumentException("Node limit must be positive: " + nodeLimit);
+        }
+        this.pool = pool;
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Searches for a solution with the fewest pours.
+     *
+     * @param start the deal; not modified
+     * @return a shortest solution, or null if the deal has no solution or the
+     *         budget ran out first
+     */
+    public BarSolution solve(final BarState start) {
+        final AtomicLong nodes = new AtomicLong();
+        int bound = estimate(start);
+        while (true) {
+            final Search search = new Search(bound, nodes);
+            pool.invoke(new Branch(search, start.copy(), 0, new int[2 * bound]));
+            if (search.solution.get() != null) {
+                return new BarSolution(search.solution.get());
+            }
+            // Nothing left beyond the bound: every reachable position has been seen
+            if (nodes.get() > nodeLimit || search.next.get() == UNBOUNDED) {
+                return null;
+            }
+            bound = search.next.get();
+        }
+    }
+
+    /**
+     * Suggests the next pour: the first of a shortest solution, or, if none is
+     * found within the budget, the pour leaving the fewest layers to move.
+     *
+     * @param state the current position; not modified
+     * @return the {@code from, to} glass indices of the pour, or an empty array
+     *         if the deal is solved or no pour is possible
+     */
+    public int[] hint(final BarState state) {
+        if (state.isSolved()) {
+            return new int[0];
+        }
+        final BarSolution solution = solve(state);
+        if (solution != null) {
+            return new int[] {solution.getFrom(0), solution.getTo(0)};
+        }
+        final BarState work = state.copy();
+        final int firstEmpty = firstEmpty(work);
+        int[] best = new int[0];
+        int bestEstimate = UNBOUNDED;
+        for (int from = 0; from < work.getGlassCount(); from++) {
+            for (int to = 0; to < work.getGlassCount(); to++) {
+                if (isUseful(work, from, to, firstEmpty)) {
+                    work.move(from, to);
+                    final int estimate = estimate(work);
+                    work.move(to, from);
+                    if (estimate < bestEstimate) {
+                        bestEstimate = estimate;
+                        best = new int[] {from, to};
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lower bound of the pours needed to solve a position.
+     *
+     * @param state the position
+     * @return a number of pours no solution can beat
+     */
+    public static int estimate(final BarState state) {
+        final int[] runTotal = new int[BarState.MAX_COLORS + 1];
+        final int[] runMax = new int[BarState.MAX_COLORS + 1];
+        int moves = 0;
+        for (int glass = 0; glass < state.getGlassCount(); glass++) {
+            final int size = state.size(glass);
+            if (size == 0) {
+                continue;
+            }
+            final int run = state.bottomRun(glass);
+            final int color = state.layer(glass, 0);
+            moves += size - run;
+            runTotal[color] += run;
+            runMax[color] = Math.max(runMax[color], run);
+        }
+        // A color ends in a single glass: all its bottom runs but one must move
+        for (int color = 1; color <= BarState.MAX_COLORS; color++) {
+            moves += runTotal[color] - runMax[color];
+        }
+        return moves;
+    }
+
+    /**
+     * Filters the pours that cannot shorten a solution: pouring a single-color
+     * glass into an empty one, and pouring into an empty glass other than the
+     * first, since empty glasses are interchangeable.
+     */
+    private static boolean isUseful(final BarState state, final int from, final int to, final int firstEmpty) {
+        if (!state.canPour(from, to)) {
+            return false;
+        }
+        if (state.size(to) == 0) {
+            return to == firstEmpty && state.bottomRun(from) < state.size(from);
+        }
+        return true;
+    }
+
+    private static int firstEmpty(final BarState state) {
+        for (int glass = 0; glass < state.getGlassCount(); glass++) {
+            if (state.size(glass) == 0) {
+                return glass;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * State of one bounded search, shared by its tasks.
+     */
+    private final class Search {
+        private final int bound;
+        private final AtomicLong nodes;
+        private final Map<Key, Integer> table = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger(UNBOUNDED);
+        private final AtomicReference<int[]> solution = new AtomicReference<>();
+
+        Search(final int bound, final AtomicLong nodes) {
+            this.bound = bound;
+            this.nodes = nodes;
+        }
+
+        boolean isOver() {
+            return solution.get() != null || nodes.get() > nodeLimit;
+        }
+
+        /**
+         * Decides whether a position is worth expanding.
+         *
+         * @return true if its children must be searched
+         */
+        boolean enter(final BarState state, final int depth, final int[] path) {
+            if (isOver()) {
+                return false;
+            }
+            final int cost = depth + estimate(state);
+            if (cost > bound) {
+                next.accumulateAndGet(cost, Math::min);
+                return false;
+            }
+            if (state.isSolved()) {
+                solution.compareAndSet(null, Arrays.copyOf(path, 2 * depth));
+                return false;
+            }
+            if (nodes.incrementAndGet() > nodeLimit) {
+                return false;
+            }
+            final Key key = new Key(state.canonicalKey());
+            final Integer seen = table.get(key);
+            if (seen != null && seen <= depth) {
+                return false;
+            }
+            table.put(key, depth);
+            return true;
+        }
+
+        void dfs(final BarState state, final int depth, final int[] path) {
+            if (!enter(state, depth, path)) {
+                return;
+            }
+            final int firstEmpty = firstEmpty(state);
+            for (int from = 0; from < state.getGlassCount(); from++) {
+                for (int to = 0; to < state.getGlassCount(); to++) {
+                    if (isUseful(state, from, to, firstEmpty)) {
+                        state.move(from, to);
+                        path[2 * depth] = from;
+                        path[2 * depth + 1] = to;
+                        dfs(state, depth + 1, path);
+                        state.move(to, from);
+                        if (isOver()) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches below a position, in parallel tasks near the root and
+     * sequentially deeper.
+     */
+    private static final class Branch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Search search;
+        private final transient BarState state;
+        private final int depth;
+        private final int[] path;
+
+        Branch(final Search search, final BarState state, final int depth, final int[] path) {
+            this.search = search;
+            this.state = state;
+            this.depth = depth;
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= SPLIT_DEPTH) {
+                search.dfs(state, depth, path);
+                return;
+            }
+            if (!search.enter(state, depth, path)) {
+                return;
+            }
+            final int firstEmpty = firstEmpty(state);
+            final List<Branch> children = new ArrayList<>();
+            for (int from = 0; from < state.getGlassCount(); from++) {
+                for (int to = 0; to < state.getGlassCount(); to++) {
+                    if (isUseful(state, from, to, firstEmpty)) {
+                        final BarState child = state.copy();
+                        child.move(from, to);
+                        final int[] childPath = path.clone();
+                        childPath[2 * depth] = from;
+                        childPath[2 * depth + 1] = to;
+                        children.add(new Branch(search, child, depth + 1, childPath));
+                    }
+                }
+            }
+            invokeAll(children);
+        }
+    }
+
+    /**
+     * Canonical position used as a key of the transposition table.
+     */
+    private static final class Key {
+        private final long[] glasses;
+        private final int hash;
+
+        Key(final long[] glasses) {
+            this.glasses = glasses;
+            this.hash = Arrays.hashCode(glasses);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key && Arrays.equals(glasses, ((Key) other).glasses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package it.unibo.exam.model.entity.minigame.bar;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact copy of a Sort-&-Serve deal, for the solver.
+ * <p>
+ * Each glass is a single {@code long}: layer {@code i} from the bottom takes
+ * the four bits at {@code 4 * i}, holding the color number (1 to 15, 0 meaning
+ * no layer). A pour moves one nibble from the top of a glass to the top of
+ * another with a few shifts, and since glasses are interchangeable for the
+ * solver, the sorted array of glasses identifies the position.
+ * </p>
+ * <p>
+ * Mutable and not thread-safe: the solver pours and undoes moves in place.
+ * </p>
+ */
+public final class BarState {
+
+    /** Maximum number of layers of a glass. */
+    public static final int MAX_CAPACITY = Long.SIZE / 4;
+    /** Maximum number of distinct colors. */
+    public static final int MAX_COLORS = 15;
+
+    private static final int BITS = 4;
+    private static final long MASK = 0xFL;
+
+    private final long[] glasses;
+    private final int capacity;
+
+    /**
+     * @param glasses  the packed glasses; copied
+     * @param capacity the number of layers of a glass
+     */
+    public BarState(final long[] glasses, final int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.glasses = glasses.clone();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Packs glasses of colored layers.
+     *
+     * @param glasses  the glasses of the deal
+     * @param capacity the number of layers of a glass
+     * @param palette  the colors of the deal; a color is numbered by its position
+     * @return the packed state
+     */
+    public static BarState of(final List<Glass> glasses, final int capacity, final List<Color> palette) {
+        if (palette.size() > MAX_COLORS) {
+            throw new IllegalArgumentException("At most " + MAX_COLORS + " colors can be packed: " + palette.size());
+        }
+        final long[] packed = new long[glasses.size()];
+        for (int i = 0; i < packed.length; i++) {
+            int level = 0;
+            // Layers are listed top first: pack them from the bottom
+            final Iterator<Color> bottomFirst = glasses.get(i).getLayers().descendingIterator();
+            while (bottomFirst.hasNext()) {
+                final int color = palette.indexOf(bottomFirst.next()) + 1;
+                if (color == 0) {
+                    throw new IllegalArgumentException("Color missing from the palette");
+                }
+                packed[i] |= (long) color << BITS * level++;
+            }
+        }
+        return new BarState(packed, capacity);
+    }
+
+    /**
+     * Packs a deal as {@link BarModel} pours it: the first glasses are filled in
+     * order, {@code capacity} layers each, bottom first, and the others stay empty.
+     *
+     * @param layers   the layers of the deal
+     * @param glasses  the number of glasses
+     * @param capacity the number of layers of a glass
+     * @param palette  the colors of the deal; a color is numbered by its position
+     * @return the packed state
+     */
+    public static BarState ofLayers(final List<Color> layers, final int glasses, final int capacity,
+                                    final List<Color> palette) {
+        if (palette.size() > MAX_COLORS) {
+            throw new IllegalArgumentException("At most " + MAX_COLORS + " colors can be packed: " + palette.size());
+        }
+        final long[] packed = new long[glasses];
+        for (int i = 0; i < layers.size(); i++) {
+            final int color = palette.indexOf(layers.get(i)) + 1;
+            if (color == 0) {
+                throw new IllegalArgumentException("Color missing from the palette");
+            }
+            packed[i / capacity] |= (long) color << BITS * (i % capacity);
+        }
+        return new BarState(packed, capacity);
+    }
+
+    /**
+     * @return a copy of this state
+     */
+    public BarState copy() {
+        return new BarState(glasses, capacity);
+    }
+
+    /**
+     * @return the number of glasses
+     */
+    public int getGlassCount() {
+        return glasses.length;
+    }
+
+    /**
+     * @return the number of layers of a glass
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param glass index of a glass
+     * @return the number of layers in the glass
+     */
+    public int size(final int glass) {
+        return size(glasses[glass]);
+    }
+
+    /**
+     * @param glass index of a glass
+     * @param level level of the layer, 0 being the bottom
+     * @return the color number of the layer, 0 if there is none
+     */
+    public int layer(final int glass, final int level) {
+        return (int) (glasses[glass] >>> BITS * level & MASK);
+    }
+
+    /**
+     * @param glass index of a glass
+     * @return the color number of the top layer, 0 if the glass is empty
+     */
+    public int top(final int glass) {
+        final int size = size(glass);
+        return size == 0 ? 0 : layer(glass, size - 1);
+    }
+
+    /**
+     * Same rule as {@link Glass#canPourInto(Glass)}.
+     *
+     * @param from index of the source glass
+     * @param to   index of the target glass
+     * @return true if the top layer of the source can be poured into the target
+     */
+    public boolean canPour(final int from, final int to) {
+        if (from == to || glasses[from] == 0) {
+            return false;
+        }
+        final int targetSize = size(to);
+        return targetSize < capacity && (targetSize == 0 || top(to) == top(from));
+    }
+
+    /**
+     * Moves the top layer of a glass onto another, without checking the rules:
+     * moving it back undoes a pour.
+     *
+     * @param from index of the source glass, not empty
+     * @param to   index of the target glass, not full
+     */
+    public void move(final int from, final int to) {
+        final int fromLevel = size(from) - 1;
+        final long layer = glasses[from] >>> BITS * fromLevel & MASK;
+        glasses[from] &= ~(MASK << BITS * fromLevel);
+        glasses[to] |= layer << BITS * size(to);
+    }
+
+    /**
+     * @param glass index of a glass
+     * @return true if the glass is empty, or full of a single color
+     */
+    public boolean isUniform(final int glass) {
+        final long packed = glasses[glass];
+        if (packed == 0) {
+            return true;
+        }
+        return size(packed) == capacity && packed == repeat(packed & MASK, capacity);
+    }
+
+    /**
+     * @return true if every glass is empty or full of a single color
+     */
+    public boolean isSolved() {
+        for (int i = 0; i < glasses.length; i++) {
+            if (!isUniform(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param glass index of a glass
+     * @return the number of bottom layers of the same color as the bottom one
+     */
+    public int bottomRun(final int glass) {
+        final long packed = glasses[glass];
+        final int size = size(packed);
+        final long bottom = packed & MASK;
+        int run = 0;
+        while (run < size && (packed >>> BITS * run & MASK) == bottom) {
+            run++;
+        }
+        return run;
+    }
+
+    /**
+     * @return the sorted glasses, identifying the position whatever the order of the glasses
+     */
+    public long[] canonicalKey() {
+        final long[] key = glasses.clone();
+        Arrays.sort(key);
+        return key;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BarState)) {
+            return false;
+        }
+        final BarState state = (BarState) other;
+        return capacity == state.capacity && Arrays.equals(glasses, state.glasses);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(capacity, Arrays.hashCode(glasses));
+    }
+
+    private static int size(final long packed) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(packed) + BITS - 1) / BITS;
+    }
+
+    private static long repeat(final long color, final int count) {
+        long packed = 0;
+        for (int i = 0; i < count; i++) {
+            packed |= color << BITS * i;
+        }
+        return packed;
+    }
+}
@@ -61,6 +61,23 @@ public final class Glass {
         other.layers.push(layers.pop());
     }
 
+    /**
+     * Moves the top layer into another glass without checking the rules,
+     * to take back a pour.
+     *
+     * @param other the glass to move the layer into
+     */
+    void moveTopTo(final Glass other) {
+        other.layers.push(layers.pop());
+    }
+
+    /**
+     * Removes every layer.
+     */
+    void clear() {
+        layers.clear();
+    }
+
     /**
      * Exposes a snapshot of the current layers (top first).
      *
@@ -17,4 +17,11 @@ public interface PuzzleListener {
      * Invoked once when the puzzle reaches completion.
      */
     void onCompleted();
+
+    /**
+     * Invoked after the glasses changed by undo, redo or restart.
+     */
+    default void onRestored() {
+        // Nothing to do by default
+    }
 }
@@ -7,59 +7,43 @@ import java.awt.Image;
 import it.unibo.exam.utility.medialoader.AssetLoader;
 
 /**
- * Represents a falling ball in the CatchBall minigame.
+ * Shape and look of the falling balls in the CatchBall minigame.
+ * The balls themselves live in a {@link BallStore}, as plain coordinates.
  */
 public final class BallEntity {
 
     /** Ball radius in pixels. */
-    private static final int RADIUS = 15;
+    public static final int RADIUS = 15;
     /** Falling speed in pixels per update. */
-    private static final int FALL_SPEED = 4;
+    public static final int FALL_SPEED = 4;
     private static final Image DROP_IMAGE;
 
     static {
         DROP_IMAGE = AssetLoader.loadImage("Garden/water.png");
     }
 
-    @SuppressWarnings("PMD.ImmutableField")
-    private int x;
-    @SuppressWarnings("PMD.ImmutableField")
-    private int y;
-
-    /**
-     * Constructs a BallEntity at the given position.
-     *
-     * @param x the x coordinate of the ball's center
-     * @param y the y coordinate of the ball's center
-     */
-    public BallEntity(final int x, final int y) {
-        this.x = x;
-        this.y = y;
-    }
-
-    /**
-     * Updates the ball's position by moving it down.
-     */
-    public void update() {
-        y += FALL_SPEED;
+    private BallEntity() {
     }
 
      /**
-     * Checks if the ball is off the screen (below the given height).
+     * Checks if a ball is off the screen (below the given height).
      *
+     * @param y      the y coordinate of the ball's center
      * @param height the height of the screen/panel
      * @return true if the ball is below the screen, false otherwise
      */
-    public boolean isOffScreen(final int height) {
+    public static boolean isOffScreen(final int y, final int height) {
         return y - RADIUS > height;
     }
 
      /**
-     * Draws the ball on the provided graphics context.
+     * Draws a ball on the provided graphics context.
      *
      * @param g2 the Graphics2D context to draw on
+     * @param x  the x coordinate of the ball's center
+     * @param y  the y coordinate of the ball's center
      */
-    public void draw(final Graphics2D g2) {
+    public static void draw(final Graphics2D g2, final int x, final int y) {
         if (DROP_IMAGE != null) {
             g2.drawImage(DROP_IMAGE, x - RADIUS, y - RADIUS, RADIUS * 2, RADIUS * 2, null);
         } else {
@@ -67,31 +51,4 @@ public final class BallEntity {
             g2.fillOval(x - RADIUS, y - RADIUS, RADIUS * 2, RADIUS * 2);
         }
     }
-
-    /**
-     * Returns the x coordinate of the ball's center.
-     *
-     * @return the x coordinate
-     */
-    public int getX() {
-        return x;
-    }
-
-    /**
-     * Returns the y coordinate of the ball's center.
-     *
-     * @return the y coordinate
-     */
-    public int getY() {
-        return y;
-    }
-
-    /**
-     * Returns the radius of the ball.
-     *
-     * @return the radius
-     */
-    public int getRadius() {
-        return RADIUS;
-    }
 }
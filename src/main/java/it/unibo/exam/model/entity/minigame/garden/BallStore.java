@@ -0,0 +1,102 @@
+package it.unibo.exam.model.entity.minigame.garden;
+
+/**
+ * Fixed-capacity store of falling balls, one array per field.
+ * <p>
+ * The live balls are packed at the start of the arrays: a spawn writes the
+ * slot after the last ball and a removal moves the last ball into the freed
+ * slot, so slots are recycled and no object is allocated once the store is
+ * built, however many balls fall.
+ * </p>
+ */
+public final class BallStore implements BallView {
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] speeds;
+    private int size;
+
+    /**
+     * @param capacity the maximum number of balls falling at once
+     */
+    public BallStore(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.speeds = new int[capacity];
+    }
+
+    /**
+     * Adds a ball, unless the store is full.
+     *
+     * @param x     the x coordinate of the ball's center
+     * @param y     the y coordinate of the ball's center
+     * @param speed the falling speed in pixels per update
+     * @return false if the store is full and the ball was not added
+     */
+    public boolean spawn(final int x, final int y, final int speed) {
+        if (size == xs.length) {
+            return false;
+        }
+        xs[size] = x;
+        ys[size] = y;
+        speeds[size] = speed;
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves a ball down by its speed.
+     *
+     * @param index index of the ball
+     * @return the new y coordinate of the ball's center
+     */
+    public int fall(final int index) {
+        ys[index] += speeds[index];
+        return ys[index];
+    }
+
+    /**
+     * Removes a ball, moving the last ball into its slot: when iterating,
+     * go from the last index down to 0 so that no ball is skipped.
+     *
+     * @param index index of the ball
+     */
+    public void remove(final int index) {
+        size--;
+        xs[index] = xs[size];
+        ys[index] = ys[size];
+        speeds[index] = speeds[size];
+    }
+
+    /**
+     * Removes every ball.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the maximum number of balls falling at once
+     */
+    public int getCapacity() {
+        return xs.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getX(final int index) {
+        return xs[index];
+    }
+
+    @Override
+    public int getY(final int index) {
+        return ys[index];
+    }
+}
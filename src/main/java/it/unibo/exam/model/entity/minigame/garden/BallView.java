@@ -0,0 +1,25 @@
+package it.unibo.exam.model.entity.minigame.garden;
+
+/**
+ * Read-only view of the falling balls, indexed from 0 to {@code size() - 1}.
+ * Indices are only valid until the next update of the model.
+ */
+public interface BallView {
+
+    /**
+     * @return the number of falling balls
+     */
+    int size();
+
+    /**
+     * @param index index of a ball
+     * @return the x coordinate of the ball's center
+     */
+    int getX(int index);
+
+    /**
+     * @param index index of a ball
+     * @return the y coordinate of the ball's center
+     */
+    int getY(int index);
+}
@@ -60,14 +60,15 @@ public final class BottleEntity {
     /**
      * Checks if the bottle catches a given ball.
      *
-     * @param ball the BallEntity to check collision with
+     * @param ballX the x coordinate of the ball's center
+     * @param ballY the y coordinate of the ball's center
      * @return true if the ball is caught by the bottle, false otherwise
      */
-    public boolean catchBall(final BallEntity ball) {
-        return ball.getX() + ball.getRadius() > x
-            && ball.getX() - ball.getRadius() < x + width
-            && ball.getY() + ball.getRadius() >= y
-            && ball.getY() - ball.getRadius() <= y + height;
+    public boolean catchBall(final int ballX, final int ballY) {
+        return ballX + BallEntity.RADIUS > x
+            && ballX - BallEntity.RADIUS < x + width
+            && ballY + BallEntity.RADIUS >= y
+            && ballY - BallEntity.RADIUS <= y + height;
     }
 
     /**
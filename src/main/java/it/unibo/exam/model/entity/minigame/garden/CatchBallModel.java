@@ -1,37 +1,86 @@
 package it.unibo.exam.model.entity.minigame.garden;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import it.unibo.exam.utility.random.RandomService;
 
 /**
  * The model for the CatchBallMinigame.
  * Generate the balls that falls from up, and manage the bottle entity catching them.
+ * Balls are kept in a fixed-capacity {@link BallStore}, so a frame allocates
+ * nothing even in {@link Mode#STORM}, where hundreds of balls fall at once.
  */
 public final class CatchBallModel {
 
     private static final int WIDTH = 600;
     private static final int HEIGHT = 400;
-    private static final int TARGET_SCORE = 10;
     private static final int BALL_INTERVAL = 80; // frames
     private static final int BOTTLE_WIDTH = 60;
     private static final int BOTTLE_HEIGHT = 100;
     private static final int BOTTLE_Y_OFFSET = 120;
     private static final int BALL_START_Y = 10;
-
-    private final List<BallEntity> balls = new ArrayList<>();
+    private static final int SPAWN_MARGIN = 10;
+    /** Balls falling at once, at most. */
+    private static final int MAX_BALLS = 512;
+    /** Frames after which the storm spawns one frame sooner. */
+    private static final int STORM_RAMP_FRAMES = 5;
+    /** Frames after which the storm spawns one more ball at a time. */
+    private static final int STORM_BURST_FRAMES = 120;
+    private static final int STORM_MAX_BURST = 8;
+    private static final int NORMAL_LIVES = 3;
+    private static final int NORMAL_TARGET = 10;
+    private static final int STORM_LIVES = 1000;
+    private static final int STORM_TARGET = 250;
+
+    private final BallStore balls = new BallStore(MAX_BALLS);
     private final BottleEntity bottle;
-    private final Random random = new Random();
+    private final RandomGenerator random = RandomService.getInstance().stream(CatchBallModel.class);
+    private final Mode mode;
 
     private int score;
-    private int lives = 3; // 3 palline possono cadere
+    private int lives; // palline che possono cadere
     private int ballSpawnTimer;
+    private int frames;
+
+    /**
+     * Difficulty of the minigame.
+     */
+    public enum Mode {
+        /** One ball at a time, at a steady pace: 3 misses lose, 10 catches win. */
+        NORMAL(NORMAL_LIVES, NORMAL_TARGET),
+        /**
+         * Balls spawn faster and faster, several at a time and at different
+         * speeds, until hundreds fall at once; most are missed, so misses
+         * are counted by the thousand.
+         */
+        STORM(STORM_LIVES, STORM_TARGET);
+
+        private final int lives;
+        private final int target;
+
+        Mode(final int lives, final int target) {
+            this.lives = lives;
+            this.target = target;
+        }
+    }
 
      /**
      * Creates a new CatchBallModel with default size and bottle position.
      */
     public CatchBallModel() {
+        this(Mode.NORMAL);
+    }
+
+    /**
+     * Creates a new CatchBallModel with default size and bottle position.
+     *
+     * @param mode the difficulty
+     */
+    public CatchBallModel(final Mode mode) {
+        this.mode = mode;
+        this.lives = mode.lives;
         this.bottle = new BottleEntity(WIDTH / 2 - BOTTLE_WIDTH, HEIGHT - BOTTLE_Y_OFFSET, BOTTLE_WIDTH, BOTTLE_HEIGHT);
     }
 
@@ -49,35 +98,50 @@ public final class CatchBallModel {
             bottle.moveRight(WIDTH);
         }
 
-        final Iterator<BallEntity> it = balls.iterator();
-        while (it.hasNext()) {
-            final BallEntity ball = it.next();
-            ball.update();
+        // Backwards, since a removal moves the last ball into the freed slot
+        for (int i = balls.size() - 1; i >= 0; i--) {
+            final int y = balls.fall(i);
 
-            if (bottle.catchBall(ball)) {
-                it.remove();
+            if (bottle.catchBall(balls.getX(i), y)) {
+                balls.remove(i);
                 score++;
-            } else if (ball.isOffScreen(HEIGHT)) {
-                it.remove();
+            } else if (BallEntity.isOffScreen(y, HEIGHT)) {
+                balls.remove(i);
                 lives--;
             }
         }
 
+        frames++;
         ballSpawnTimer++;
-        if (ballSpawnTimer > BALL_INTERVAL) {
+        if (ballSpawnTimer > spawnInterval()) {
             ballSpawnTimer = 0;
-            final int x = random.nextInt(WIDTH - 10);
-            balls.add(new BallEntity(x, BALL_START_Y));
+            spawnBalls();
+        }
+    }
+
+    private int spawnInterval() {
+        return mode == Mode.STORM ? Math.max(0, BALL_INTERVAL - frames / STORM_RAMP_FRAMES) : BALL_INTERVAL;
+    }
+
+    private void spawnBalls() {
+        if (mode == Mode.NORMAL) {
+            balls.spawn(random.nextInt(WIDTH - SPAWN_MARGIN), BALL_START_Y, BallEntity.FALL_SPEED);
+            return;
+        }
+        final int burst = Math.min(STORM_MAX_BURST, 1 + frames / STORM_BURST_FRAMES);
+        for (int i = 0; i < burst; i++) {
+            balls.spawn(random.nextInt(WIDTH - SPAWN_MARGIN), BALL_START_Y,
+                random.nextInt(BallEntity.FALL_SPEED, 2 * BallEntity.FALL_SPEED + 1));
         }
     }
 
      /**
      * Returns true if the player has won the game.
      *
-     * @return true if the score is at least TARGET_SCORE
+     * @return true if the score is at least the target of the mode
      */
     public boolean hasWon() {
-        return score >= TARGET_SCORE;
+        return score >= mode.target;
     }
 
     /**
@@ -89,13 +153,24 @@ public final class CatchBallModel {
         return score;
     }
 
-     /**
-     * Returns the list of active balls in the game.
+    /**
+     * Returns the active balls in the game. The view is live, not a copy: read
+     * it on the thread updating the model, as the Swing timer and the panel do.
      *
-     * @return the list of BallEntity
+     * @return the falling balls
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP",
+                        justification = "The panel reads the balls every frame;"
+                        + " copying the pooled store would defeat the pooling")
+    public BallView getBalls() {
+        return balls;
+    }
+
+    /**
+     * @return the difficulty of the game
      */
-    public List<BallEntity> getBalls() {
-        return List.copyOf(balls);
+    public Mode getMode() {
+        return mode;
     }
 
     /**
@@ -44,12 +44,14 @@ public class Cannon extends MovementEntity {
     /**
      * @return the cannon width
      */
+    @Override
     public int getWidth() { 
         return size.getX(); 
     }
     /**
      * @return the cannon height
      */
+    @Override
     public int getHeight() { 
         return size.getY(); 
     }
@@ -2,16 +2,22 @@ package it.unibo.exam.model.entity.minigame.gym;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import it.unibo.exam.controller.minigame.gym.GymMinigame;
 import it.unibo.exam.utility.geometry.Point2D;
+import it.unibo.exam.utility.geometry.SweptCircle;
+import it.unibo.exam.utility.random.RandomService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
  * Logical model for the Gym minigame.
  * Manages game logic, disk creation, cannon, projectile, score, and win conditions.
+ * Disks live in a {@link HexBoard}: shots snap to the nearest free cell, clusters
+ * of the same color are found by flood fill and disks cut off from the ceiling fall.
+ * Projectiles use continuous collision detection and bounce off the side walls.
  */
 public class GymModel {
 
@@ -21,6 +27,11 @@ public class GymModel {
     private static final int ROWS = 4;
     private static final int COLS = 8;
     private static final int DISK_GAP = 2; // Gap between disks in the grid
+    private static final int MIN_CLUSTER = 3;
+    private static final int MAX_BOUNCES_PER_UPDATE = 4;
+    private static final int MAX_BANK_SHOTS = 16;
+    // The board has room for the disks to grow down to the cannon
+    private static final int BOARD_ROWS_PER_ROW = 3;
 
     private static final Color[] DISK_COLORS = {
         Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW,
@@ -30,12 +41,15 @@ public class GymModel {
     private static final int MAX_DISK_RADIUS = 40;
 
     private Cannon cannon;
-    private List<Disk> disks;
+    private final HexBoard board;
+    private final int initialRows;
+    private final BitSet matched;
+    private final int[] candidates;
     private Projectile projectile;
     private int score;
     private boolean gameOver;
     private final Point2D env; 
-    private final Random random;
+    private final RandomGenerator random;
     private GymMinigame minigame;
     private Color nextProjectileColor = Color.RED;
     private long startTimeMillis;
@@ -47,15 +61,33 @@ public class GymModel {
      * @param env the game environment size
      */
     public GymModel(final Point2D env) {
+        this(env, ROWS, COLS);
+    }
+
+    /**
+     * Constructs the Gym minigame model with a custom board.
+     * @param env  the game environment size
+     * @param rows the number of rows of disks at the start
+     * @param cols the number of disks per row
+     */
+    public GymModel(final Point2D env, final int rows, final int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Board size must be positive: " + rows + "x" + cols);
+        }
         this.env = new Point2D(env);
-        this.random = new Random();
+        this.random = RandomService.getInstance().stream(GymModel.class);
+        this.initialRows = rows;
+        this.board = new HexBoard(rows * BOARD_ROWS_PER_ROW, cols);
+        this.matched = new BitSet(board.size());
+        this.candidates = new int[board.size()];
         initializeGame();
     }
 
     private void initializeGame() {
         updateDiskRadius();
         cannon = createCannon();
-        disks = new ArrayList<>();
+        board.clear();
+        layoutBoard();
         createDisks();
         score = 0;
         gameOver = false;
@@ -68,9 +100,12 @@ public class GymModel {
     private void updateDiskRadius() {
         final int availableWidth = env.getX() - 2 * CANNON_PADDING;
         final int availableHeight = env.getY() / 2;
-        final int maxRadiusX = (availableWidth - (COLS - 1) * DISK_GAP) / (2 * COLS);
-        final int maxRadiusY = (availableHeight - (ROWS - 1) * DISK_GAP) / (2 * ROWS);
-        this.diskRadius = Math.max(MIN_DISK_RADIUS, Math.min(MAX_DISK_RADIUS, Math.min(maxRadiusX, maxRadiusY)));
+        final int cols = board.getCols();
+        final int maxRadiusX = (availableWidth - (cols - 1) * DISK_GAP) / (2 * cols + 1);
+        final int maxRadiusY = (availableHeight - (initialRows - 1) * DISK_GAP) / (2 * initialRows);
+        final int fit = Math.min(maxRadiusX, maxRadiusY);
+        // Large boards may need disks below the usual minimum to fit on screen
+        this.diskRadius = fit >= MIN_DISK_RADIUS ? Math.min(MAX_DISK_RADIUS, fit) : Math.max(1, fit);
     }
 
     /**
@@ -96,103 +131,141 @@ public class GymModel {
      */
     public void update() {
         if (projectile != null && projectile.isActive()) {
-            projectile.update();
-            checkProjectileCollisions();
+            moveProjectile();
         }
         // Controllo: se almeno un disco è troppo in basso, ricomincia il gioco
         final int thresholdY = env.getY() - 2 * CANNON_PADDING; // 100px sopra il bordo inferiore, puoi regolare
-        for (final Disk disk : disks) {
-            if (!disk.isPopped() && disk.getPosition().getY() + disk.getRadius() > thresholdY) {
-                initializeGame();
-                return;
+        // Only the rows below the threshold can hold such a disk; scan them from the bottom
+        for (int row = board.getRows() - 1; row >= 0; row--) {
+            if (board.centerY(board.index(row, 0)) + diskRadius <= thresholdY) {
+                break;
+            }
+            for (int col = 0; col < board.getCols(); col++) {
+                if (board.get(board.index(row, col)) != null) {
+                    initializeGame();
+                    return;
+                }
             }
         }
-        if (disks.isEmpty() && minigame != null) {
+        if (board.isEmpty() && minigame != null) {
             minigame.onGameCompleted();
         }
     }
 
-    private void checkProjectileCollisions() {
-        final Point2D projPos = projectile.getPosition();
-        final int projRadius = projectile.getRadius();
-
-        // Collisione con i bordi
-        if (projPos.getX() - projRadius <= 0 || projPos.getX() + projRadius >= env.getX() 
-            || projPos.getY() - projRadius <= 0) {
-            projectile.setActive(false);
-            attachDisk();
-            return;
-        }
+    /**
+     * Moves the projectile by one update with continuous collision detection:
+     * the exact time of the first contact along the path is computed, so fast
+     * projectiles cannot pass through disks. Side walls reflect the projectile;
+     * the ceiling row and disks stop it.
+     */
+    private void moveProjectile() {
+        final int radius = projectile.getRadius();
+        final double reach = radius + diskRadius;
+        double remaining = 1.0;
+        for (int bounce = 0; bounce <= MAX_BOUNCES_PER_UPDATE && remaining > 0; bounce++) {
+            final double x = projectile.getExactX();
+            final double y = projectile.getExactY();
+            final double dx = projectile.getVelocityX() * remaining;
+            final double dy = projectile.getVelocityY() * remaining;
+
+            final double wallTime = dx < 0
+                ? SweptCircle.timeToWall(x, dx, radius)
+                : SweptCircle.timeToWall(x, dx, env.getX() - radius);
+            final double ceilingTime = dy < 0 ? SweptCircle.timeToWall(y, dy, CANNON_PADDING) : SweptCircle.NO_HIT;
+            final double floorTime = dy > 0 ? SweptCircle.timeToWall(y, dy, env.getY() + radius) : SweptCircle.NO_HIT;
+
+            // Broad phase: only the disks around the swept path
+            final int n = board.occupiedInRect(
+                (int) Math.floor(Math.min(x, x + dx) - reach), (int) Math.floor(Math.min(y, y + dy) - reach),
+                (int) Math.ceil(Math.max(x, x + dx) + reach), (int) Math.ceil(Math.max(y, y + dy) + reach),
+                candidates);
+            double diskTime = SweptCircle.NO_HIT;
+            for (int i = 0; i < n; i++) {
+                final int cell = candidates[i];
+                diskTime = Math.min(diskTime,
+                    SweptCircle.timeOfImpact(x, y, dx, dy, board.centerX(cell), board.centerY(cell), reach));
+            }
 
-        // Collisione con le bolle esistenti
-        for (final Disk disk : disks) {
-            if (!disk.isPopped() && disk.getPosition().distance(projPos) < projRadius + disk.getRadius()) {
+            final double stopTime = Math.min(diskTime, ceilingTime);
+            final double first = Math.min(stopTime, Math.min(wallTime, floorTime));
+            if (first == SweptCircle.NO_HIT) {
+                projectile.advance(remaining);
+                return;
+            }
+            projectile.advance(remaining * first);
+            if (first == stopTime) {
+                projectile.setActive(false);
+                attachDisk();
+                return;
+            }
+            if (first == floorTime) {
+                // Fell out of the bottom of the screen
+                projectile = null;
+                return;
+            }
+            projectile.reflectX();
+            remaining -= remaining * first;
+            if (projectile.getBounces() > MAX_BANK_SHOTS) {
+                // A near-horizontal shot would bounce forever: stick where it is
                 projectile.setActive(false);
                 attachDisk();
-                checkForMatches();
                 return;
             }
         }
     }
 
     /**
-     * Creates the initial grid of disks, centered horizontally.
+     * Places the board centered horizontally below the top padding.
+     */
+    private void layoutBoard() {
+        final int startX = (env.getX() - HexBoard.widthFor(diskRadius, board.getCols())) / 2;
+        board.setLayout(startX, CANNON_PADDING - diskRadius, diskRadius);
+    }
+
+    /**
+     * Fills the first rows of the board with disks of random colors.
      */
     private void createDisks() {
-        final int radius = diskRadius;
-        final int startY = CANNON_PADDING;
-        final int totalWidth = COLS * radius * 2;
-        final int startX = (env.getX() - totalWidth) / 2;
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                final int x = startX + col * radius * 2 + (row % 2 == 0 ? 0 : radius + 2);
-                final int y = row * radius * 2 + startY;
+        for (int row = 0; row < initialRows; row++) {
+            for (int col = 0; col < board.getCols(); col++) {
+                final int index = board.index(row, col);
                 final Color color = DISK_COLORS[random.nextInt(DISK_COLORS.length)];
-                disks.add(new Disk(new Point2D(x, y), color, radius, env));
+                board.place(index, new Disk(new Point2D(board.centerX(index), board.centerY(index)), color, diskRadius, env));
             }
         }
     }
 
     /**
-     * Attaches a new disk at the projectile's position, clamping it within the environment bounds.
+     * Snaps a new disk to the free cell nearest to the projectile, then pops its cluster.
      */
     private void attachDisk() {
         if (projectile != null) {
             final Point2D pos = projectile.getPosition();
-            // Clamp la posizione dentro i limiti dell'ambiente
-            final int x = Math.max(0, Math.min(pos.getX(), env.getX() - 1));
-            final int y = Math.max(0, Math.min(pos.getY(), env.getY() - 1));
-            disks.add(new Disk(new Point2D(x, y), projectile.getColor(), projectile.getRadius(), env));
+            final int cell = board.nearestFreeCell(pos.getX(), pos.getY());
+            if (cell >= 0) {
+                // Created at the clamped projectile position, then moved to the center of its cell
+                final int x = Math.max(0, Math.min(pos.getX(), env.getX() - 1));
+                final int y = Math.max(0, Math.min(pos.getY(), env.getY() - 1));
+                board.place(cell, new Disk(new Point2D(x, y), projectile.getColor(), diskRadius, env));
+                checkForMatches(cell);
+            }
             projectile = null;
         }
     }
 
     /**
-     * Checks if the new disk creates a winning combination and updates the score.
+     * Pops the cluster of the disk just placed if it has at least {@value #MIN_CLUSTER}
+     * disks, then drops every disk no longer connected to the ceiling.
      * Ends the game if the score threshold is reached.
-     * Supporta cluster a catena: dopo ogni scoppio, rilancia la ricerca su tutti i dischi finché non ci sono più cluster validi.
+     * @param cell the cell of the disk just placed
      */
-    private void checkForMatches() {
-        boolean foundCluster;
-        do {
-            foundCluster = false;
-            // Copia la lista per evitare ConcurrentModificationException
-            final List<Disk> currentDisks = new ArrayList<>(disks);
-            for (final Disk disk : currentDisks) {
-                if (!disk.isPopped()) {
-                    final List<Disk> matches = findMatches(disk);
-                    if (matches.size() >= 3) {
-                        for (final Disk d : matches) {
-                            d.pop();
-                            score += POINTS_PER_DISK;
-                        }
-                        removePoppedDisk();
-                        foundCluster = true;
-                        break; // Ricomincia la ricerca dopo la rimozione
-                    }
-                }
-            }
-        } while (foundCluster);
+    private void checkForMatches(final int cell) {
+        if (board.collectCluster(cell, matched) >= MIN_CLUSTER) {
+            removeMatched();
+        }
+        if (board.collectFloating(matched) > 0) {
+            removeMatched();
+        }
 
         if (score >= WIN_SCORE && minigame != null) {
             minigame.onGameCompleted();
@@ -200,45 +273,15 @@ public class GymModel {
     }
 
     /**
-     * Finds all adjacent disks of the same color.
-     * @param startDisk the starting disk
-     * @return list of connected disks
-     */
-    private List<Disk> findMatches(final Disk startDisk) {
-        final List<Disk> matches = new ArrayList<>();
-        findMatchesRecursive(startDisk, matches);
-        return matches;
-    }
-
-    /**
-     * Recursively finds adjacent disks of the same color.
-     * @param current the current disk
-     * @param matches the accumulated list of found disks
+     * Pops and removes the disks of the {@code matched} cells, scoring each of them.
      */
-    private void findMatchesRecursive(final Disk current, final List<Disk> matches) {
-        if (current.isPopped() || matches.contains(current)) {
-            return;
-        }
-        matches.add(current);
-        final int r = current.getRadius();
-
-        for (final Disk neighbor : disks) {
-            if (!neighbor.isPopped() 
-                && !matches.contains(neighbor)
-                && current.getColor().equals(neighbor.getColor())
-                && current.getPosition().distance(neighbor.getPosition()) <= 2 * r) {
-                findMatchesRecursive(neighbor, matches);
-            }
+    private void removeMatched() {
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            board.remove(i).pop();
+            score += POINTS_PER_DISK;
         }
     }
 
-    /**
-     * Removes disks marked as "popped" from the list.
-     */
-    private void removePoppedDisk() {
-        disks.removeIf(Disk::isPopped);
-    }
-
     /**
      * Fires a new projectile from the cannon, using the prepared color.
      */
@@ -282,25 +325,8 @@ public class GymModel {
                 final int y = newHeight - CANNON_PADDING - cannonHeight;
                 cannon.setPosition(new Point2D(x, y));
             }
-            // Recalculate the grid of disks at the top, preserving color and popped state
-            if (disks != null && !disks.isEmpty()) {
-                final int radius = diskRadius;
-                final int startY = CANNON_PADDING;
-                final int totalWidth = COLS * radius * 2;
-                final int startX = (newWidth - totalWidth) / 2;
-                int diskIdx = 0;
-                for (int row = 0; row < ROWS; row++) {
-                    for (int col = 0; col < COLS; col++) {
-                        if (diskIdx < disks.size()) {
-                            final Disk disk = disks.get(diskIdx);
-                            final int x = startX + col * radius * 2 + (row % 2 == 0 ? 0 : radius + 2);
-                            final int y = row * radius * 2 + startY;
-                            disk.setPosition(new Point2D(x, y));
-                            diskIdx++;
-                        }
-                    }
-                }
-            }
+            // Move the board to the top; every disk keeps its cell
+            layoutBoard();
             // Clamp the projectile within the new bounds if present
             if (projectile != null && projectile.isActive()) {
                 final int px = Math.max(0, Math.min(projectile.getPosition().getX(), newWidth - 1));
@@ -316,7 +342,13 @@ public class GymModel {
      * @return the list of active disks
      */
     public final List<Disk> getDisks() { 
-        return disks != null ? new ArrayList<>(disks) : new ArrayList<>(); 
+        final List<Disk> disks = new ArrayList<>(board.getCount());
+        for (int i = 0; i < board.size(); i++) {
+            if (board.get(i) != null) {
+                disks.add(board.get(i));
+            }
+        }
+        return disks;
     }
 
     /**
@@ -0,0 +1,376 @@
+package it.unibo.exam.model.entity.minigame.gym;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Hexagonal grid of disks for the Gym minigame, in "odd-r" offset layout:
+ * cells are addressed by integer row and column, and odd rows are shifted
+ * right by one disk radius so that every cell touches at most six others.
+ * <p>
+ * Cells are stored in a flat row-major array, so neighbours are found by
+ * index arithmetic and flood fills mark visited cells in a {@link BitSet}
+ * instead of searching lists. Row 0 is the ceiling: disks not connected to it
+ * through other disks are floating and fall.
+ * </p>
+ */
+public final class HexBoard {
+
+    /** Maximum number of neighbours of a cell. */
+    public static final int MAX_NEIGHBORS = 6;
+
+    private static final double ROW_HEIGHT_FACTOR = Math.sqrt(3);
+
+    // {row, col} offsets of the neighbours of a cell in an even row and in an odd row
+    private static final int[][] EVEN_ROW_NEIGHBORS = {{0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {1, -1}, {1, 0}};
+    private static final int[][] ODD_ROW_NEIGHBORS = {{0, -1}, {0, 1}, {-1, 0}, {-1, 1}, {1, 0}, {1, 1}};
+
+    private final int rows;
+    private final int cols;
+    private final Disk[] cells;
+    private final BitSet visited;
+    private final int[] queue;
+    private final int[] neighbors = new int[MAX_NEIGHBORS];
+    private int count;
+
+    private int originX;
+    private int originY;
+    private int radius;
+    private double rowHeight;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param rows number of rows
+     * @param cols number of cells per row
+     */
+    public HexBoard(final int rows, final int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Board size must be positive: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new Disk[rows * cols];
+        this.visited = new BitSet(cells.length);
+        this.queue = new int[cells.length];
+        setLayout(0, 0, 1);
+    }
+
+    /**
+     * Places the board on screen and moves every disk to the center of its cell.
+     *
+     * @param originX left edge of the board
+     * @param originY top edge of the board
+     * @param radius  radius of a cell
+     */
+    public void setLayout(final int originX, final int originY, final int radius) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius must be positive: " + radius);
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.radius = radius;
+        this.rowHeight = radius * ROW_HEIGHT_FACTOR;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null) {
+                cells[i].setPosition(centerX(i), centerY(i));
+            }
+        }
+    }
+
+    /**
+     * @param radius radius of a cell
+     * @param cols   number of cells per row
+     * @return the width of a board with odd rows shifted by one radius
+     */
+    public static int widthFor(final int radius, final int cols) {
+        return cols * 2 * radius + radius;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of cells per row
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return the number of cells, occupied or not
+     */
+    public int size() {
+        return cells.length;
+    }
+
+    /**
+     * @return the number of disks on the board
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if the board holds no disk
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @param row the row
+     * @param col the column
+     * @return the index of the cell
+     */
+    public int index(final int row, final int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IllegalArgumentException("Cell out of board: " + row + "," + col);
+        }
+        return row * cols + col;
+    }
+
+    /**
+     * @param index a cell index
+     * @return the row of the cell
+     */
+    public int rowOf(final int index) {
+        return index / cols;
+    }
+
+    /**
+     * @param index a cell index
+     * @return the column of the cell
+     */
+    public int colOf(final int index) {
+        return index % cols;
+    }
+
+    /**
+     * @param index a cell index
+     * @return the x coordinate of the center of the cell
+     */
+    public int centerX(final int index) {
+        final int row = rowOf(index);
+        return originX + colOf(index) * 2 * radius + radius + (row % 2 == 0 ? 0 : radius);
+    }
+
+    /**
+     * @param index a cell index
+     * @return the y coordinate of the center of the cell
+     */
+    public int centerY(final int index) {
+        return originY + radius + (int) Math.round(rowOf(index) * rowHeight);
+    }
+
+    /**
+     * @param index a cell index
+     * @return the disk in the cell, or null if it is free
+     */
+    public Disk get(final int index) {
+        return cells[index];
+    }
+
+    /**
+     * Puts a disk in a free cell and moves it to the center of the cell.
+     *
+     * @param index a free cell index
+     * @param disk  the disk
+     */
+    public void place(final int index, final Disk disk) {
+        if (cells[index] != null) {
+            throw new IllegalStateException("Cell " + index + " is already occupied");
+        }
+        cells[index] = disk;
+        disk.setPosition(centerX(index), centerY(index));
+        count++;
+    }
+
+    /**
+     * Empties a cell.
+     *
+     * @param index a cell index
+     * @return the disk that was in the cell, or null if it was free
+     */
+    public Disk remove(final int index) {
+        final Disk disk = cells[index];
+        if (disk != null) {
+            cells[index] = null;
+            count--;
+        }
+        return disk;
+    }
+
+    /**
+     * Empties every cell.
+     */
+    public void clear() {
+        Arrays.fill(cells, null);
+        count = 0;
+    }
+
+    /**
+     * Writes the indices of the cells adjacent to a cell.
+     *
+     * @param index a cell index
+     * @param out   receives the neighbour indices; at least {@link #MAX_NEIGHBORS} long
+     * @return the number of neighbours written
+     */
+    public int neighbors(final int index, final int[] out) {
+        final int row = rowOf(index);
+        final int col = colOf(index);
+        final int[][] offsets = row % 2 == 0 ? EVEN_ROW_NEIGHBORS : ODD_ROW_NEIGHBORS;
+        int n = 0;
+        for (final int[] offset : offsets) {
+            final int r = row + offset[0];
+            final int c = col + offset[1];
+            if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                out[n++] = r * cols + c;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Flood-fills the disks of the same color connected to a cell.
+     *
+     * @param start an occupied cell index
+     * @param out   receives the cells of the cluster, start included; cleared first
+     * @return the number of disks in the cluster
+     */
+    public int collectCluster(final int start, final BitSet out) {
+        out.clear();
+        final Disk first = cells[start];
+        if (first == null) {
+            return 0;
+        }
+        visited.clear();
+        visited.set(start);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            final int current = queue[head++];
+            out.set(current);
+            final int n = neighbors(current, neighbors);
+            for (int i = 0; i < n; i++) {
+                final int next = neighbors[i];
+                if (!visited.get(next) && cells[next] != null && cells[next].getColor().equals(first.getColor())) {
+                    visited.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Finds the disks that are not connected to the ceiling (row 0) through other disks.
+     *
+     * @param out receives the floating cells; cleared first
+     * @return the number of floating disks
+     */
+    public int collectFloating(final BitSet out) {
+        out.clear();
+        visited.clear();
+        int head = 0;
+        int tail = 0;
+        for (int col = 0; col < cols; col++) {
+            if (cells[col] != null) {
+                visited.set(col);
+                queue[tail++] = col;
+            }
+        }
+        while (head < tail) {
+            final int current = queue[head++];
+            final int n = neighbors(current, neighbors);
+            for (int i = 0; i < n; i++) {
+                final int next = neighbors[i];
+                if (!visited.get(next) && cells[next] != null) {
+                    visited.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null && !visited.get(i)) {
+                out.set(i);
+            }
+        }
+        return count - tail;
+    }
+
+    /**
+     * Finds the free cell whose center is nearest to a point, among the cells
+     * around it. A shot disk snaps there.
+     *
+     * @param x x of the point
+     * @param y y of the point
+     * @return the cell index, or -1 if every nearby cell is occupied
+     */
+    public int nearestFreeCell(final int x, final int y) {
+        final int approxRow = clamp((int) Math.round((y - originY - radius) / rowHeight), rows);
+        final int approxCol = clamp(Math.floorDiv(x - originX - radius, 2 * radius), cols);
+        int best = -1;
+        long bestSq = Long.MAX_VALUE;
+        // Two rows up and down, two columns each side: covers every cell within two radii
+        for (int row = Math.max(0, approxRow - 2); row <= Math.min(rows - 1, approxRow + 2); row++) {
+            for (int col = Math.max(0, approxCol - 2); col <= Math.min(cols - 1, approxCol + 2); col++) {
+                final int index = row * cols + col;
+                if (cells[index] != null) {
+                    continue;
+                }
+                final long dx = centerX(index) - x;
+                final long dy = centerY(index) - y;
+                final long distSq = dx * dx + dy * dy;
+                if (distSq < bestSq) {
+                    bestSq = distSq;
+                    best = index;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Broad phase for moving disks: lists the occupied cells whose center lies in
+     * a rectangle. Only the rows and columns spanned by the rectangle are examined.
+     *
+     * @param minX left edge of the rectangle
+     * @param minY top edge of the rectangle
+     * @param maxX right edge of the rectangle
+     * @param maxY bottom edge of the rectangle
+     * @param out  receives the cell indices; at least {@link #size()} long
+     * @return the number of cells written
+     */
+    public int occupiedInRect(final int minX, final int minY, final int maxX, final int maxY, final int[] out) {
+        final int firstRow = clamp((int) Math.floor((minY - originY - radius) / rowHeight), rows);
+        final int lastRow = clamp((int) Math.ceil((maxY - originY - radius) / rowHeight), rows);
+        // One column of slack on the left for the shifted odd rows
+        final int firstCol = clamp(Math.floorDiv(minX - originX - radius, 2 * radius) - 1, cols);
+        final int lastCol = clamp(Math.floorDiv(maxX - originX - radius, 2 * radius) + 1, cols);
+        int n = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                final int index = row * cols + col;
+                if (cells[index] == null) {
+                    continue;
+                }
+                final int x = centerX(index);
+                final int y = centerY(index);
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    out[n++] = index;
+                }
+            }
+        }
+        return n;
+    }
+
+    private static int clamp(final int value, final int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+}
@@ -7,11 +7,18 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
  * Represents the projectile fired by the cannon in the Gym minigame.
+ * The position and velocity are tracked in floating point so that the path
+ * does not drift from integer truncation; the integer position follows it.
  */
 public class Projectile extends Disk {
 
     private final double angle;
     private boolean active;
+    private double exactX;
+    private double exactY;
+    private double velocityX;
+    private double velocityY;
+    private int bounces;
 
     /**
      * Constructs a new projectile.
@@ -27,6 +34,11 @@ public class Projectile extends Disk {
         super(startPosition, color, radius, env);
         this.angle = angle;
         this.active = true;
+        this.exactX = startPosition.getX();
+        this.exactY = startPosition.getY();
+        final int speed = calculateSpeed(env);
+        this.velocityX = speed * Math.cos(angle);
+        this.velocityY = -speed * Math.sin(angle); // NOTE THE MINUS SIGN!
     }
     /**
      * Constructs a new projectile.
@@ -34,6 +46,12 @@ public class Projectile extends Disk {
      */
     public Projectile(final Projectile p) {
         this(p.getPosition(), p.getColor(), p.getRadius(), p.getAngle(), p.getEnviromentSize());
+        this.active = p.active;
+        this.exactX = p.exactX;
+        this.exactY = p.exactY;
+        this.velocityX = p.velocityX;
+        this.velocityY = p.velocityY;
+        this.bounces = p.bounces;
     }
 
     /**
@@ -73,14 +91,83 @@ public class Projectile extends Disk {
     public double getAngle() {
         return angle;
     }
+    /**
+     * @return the exact x coordinate of the center
+     */
+    public double getExactX() {
+        return exactX;
+    }
+
+    /**
+     * @return the exact y coordinate of the center
+     */
+    public double getExactY() {
+        return exactY;
+    }
+
+    /**
+     * @return the x displacement per update
+     */
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * @return the y displacement per update
+     */
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * Bounces the projectile off a vertical wall.
+     */
+    public void reflectX() {
+        velocityX = -velocityX;
+        bounces++;
+    }
+
+    /**
+     * @return the number of times the projectile bounced off a wall
+     */
+    public int getBounces() {
+        return bounces;
+    }
+
+    /**
+     * Moves the projectile along its velocity.
+     * @param fraction the fraction of an update to move by, in [0, 1]
+     */
+    public void advance(final double fraction) {
+        exactX += velocityX * fraction;
+        exactY += velocityY * fraction;
+        super.setPosition((int) Math.round(exactX), (int) Math.round(exactY));
+    }
+
     /**
      * Updates the projectile position based on angle and speed.
      */
     public void update() {
         if (active) {
-            final int dx = (int) (super.getSpeed() * Math.cos(angle));
-            final int dy = (int) (-super.getSpeed() * Math.sin(angle)); // NOTE THE MINUS SIGN!
-            this.move(new Point2D(dx, dy));
+            advance(1.0);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPosition(final Point2D position) {
+        setPosition(position.getX(), position.getY());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPosition(final int x, final int y) {
+        super.setPosition(x, y);
+        this.exactX = x;
+        this.exactY = y;
+    }
 }
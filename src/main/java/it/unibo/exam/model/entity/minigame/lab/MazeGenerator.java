@@ -1,14 +1,24 @@
 package it.unibo.exam.model.entity.minigame.lab;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
+import java.util.random.RandomGenerator;
+
+import it.unibo.exam.model.entity.minigame.lab.algorithm.BacktrackerAlgorithm;
+import it.unibo.exam.model.entity.minigame.lab.algorithm.MazeAlgorithm;
+import it.unibo.exam.utility.random.RandomService;
 
 /**
- * Generates random mazes using recursive backtracking algorithm.
+ * Generates random perfect mazes with a pluggable {@link MazeAlgorithm}.
  * The maze consists of walls and paths, with guaranteed path from start to end.
+ * Algorithms work on a flat {@link MazeGrid} without recursion, so mazes of
+ * millions of rooms can be generated.
+ * <p>
+ * Start and end are the two rooms farthest apart. Candidate mazes are measured
+ * with a {@link MazeSolver} and rejected until one meets a difficulty target, so
+ * the levels do not depend on the luck of a single draw.
+ * </p>
  */
 public class MazeGenerator {
 
@@ -32,19 +42,44 @@ public class MazeGenerator {
     /** Hard maze “internal” size (9×9 display). */
     private static final int HARD   = 15;
 
+    /** Candidate mazes tried per level before settling for the hardest one. */
+    private static final int CANDIDATES = 200;
+
     /** Logger for debug messages. */
     private static final Logger LOGGER = Logger.getLogger(MazeGenerator.class.getName());
 
     // --- instance fields ----------------------------------------------
 
     /** Random‐number generator for carving paths. */
-    private final Random random;
+    private final RandomGenerator random;
+    /** Algorithm carving the paths. */
+    private final MazeAlgorithm algorithm;
 
     /**
-     * Creates a new MazeGenerator.
+     * Creates a new MazeGenerator drawing from the shared {@link RandomService}.
      */
     public MazeGenerator() {
-        this.random = new Random();
+        this(RandomService.getInstance().stream(MazeGenerator.class));
+    }
+
+    /**
+     * Creates a new MazeGenerator with its own generator, for reproducible mazes.
+     *
+     * @param random the generator used to carve paths
+     */
+    public MazeGenerator(final RandomGenerator random) {
+        this(random, new BacktrackerAlgorithm());
+    }
+
+    /**
+     * Creates a new MazeGenerator with its own generator and algorithm.
+     *
+     * @param random    the generator used to carve paths
+     * @param algorithm the algorithm carving the paths
+     */
+    public MazeGenerator(final RandomGenerator random, final MazeAlgorithm algorithm) {
+        this.random = Objects.requireNonNull(random, "random cannot be null");
+        this.algorithm = Objects.requireNonNull(algorithm, "algorithm cannot be null");
     }
 
     /**
@@ -61,11 +96,64 @@ public class MazeGenerator {
             default -> throw new IllegalArgumentException("Difficulty must be 1, 2, or 3");
         };
 
-        final int[][] maze = new int[size][size];
-        initializeWalls(maze, size, size);
-        generatePaths(maze, 1, 1, size, size);
-        setStartAndEnd(maze, size, size);
-        return maze;
+        final int rooms = size / 2;
+        return generate(rooms, rooms, minimumDifficulty(rooms * rooms), CANDIDATES).toArray();
+    }
+
+    /**
+     * Generates a maze of any size, with start and end as far apart as possible.
+     *
+     * @param columns number of rooms per row
+     * @param rows    number of rows of rooms
+     * @return the maze, with WALL, PATH, START and END markers
+     */
+    public MazeGrid generate(final int columns, final int rows) {
+        final MazeGrid grid = new MazeGrid(columns, rows);
+        carve(grid, new MazeSolver(grid));
+        return grid;
+    }
+
+    /**
+     * Generates mazes until one meets a difficulty target.
+     *
+     * @param columns    number of rooms per row
+     * @param rows       number of rows of rooms
+     * @param target     accepts the metrics of a maze hard enough
+     * @param candidates maximum number of mazes to try
+     * @return the first maze accepted, or the one with the longest solution if none is
+     */
+    public MazeGrid generate(final int columns, final int rows, final Predicate<MazeMetrics> target,
+                             final int candidates) {
+        if (candidates <= 0) {
+            throw new IllegalArgumentException("Candidates must be positive: " + candidates);
+        }
+        MazeGrid best = null;
+        int bestLength = -1;
+        for (int i = 0; i < candidates; i++) {
+            final MazeGrid grid = new MazeGrid(columns, rows);
+            final MazeSolver solver = new MazeSolver(grid);
+            final int[] ends = carve(grid, solver);
+            final MazeMetrics metrics = solver.analyze(ends[0], ends[1]);
+            if (target.test(metrics)) {
+                return grid;
+            }
+            if (metrics.getPathLength() > bestLength) {
+                best = grid;
+                bestLength = metrics.getPathLength();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Default target of the levels: the solution goes through at least half of
+     * the rooms and has at least one junction where the player can go wrong.
+     *
+     * @param rooms number of rooms of the maze
+     * @return the target
+     */
+    public static Predicate<MazeMetrics> minimumDifficulty(final int rooms) {
+        return metrics -> metrics.getPathRooms() * 2 >= rooms && metrics.getDecisions() > 0;
     }
 
     /**
@@ -146,137 +234,15 @@ public class MazeGenerator {
     }
 
     /**
-     * Initializes the maze grid with walls.
+     * Carves a maze and marks the two rooms farthest apart as start and end.
      *
-     * @param maze   the maze array to initialize
-     * @param height the height of the maze
-     * @param width  the width of the maze
+     * @return the indices of the start and end cells
      */
-    private void initializeWalls(final int[][] maze, final int height, final int width) {
-        for (int row = 0; row < height; row++) {
-            for (int col = 0; col < width; col++) {
-                maze[row][col] = WALL;
-            }
-        }
-    }
-
-    /**
-     * Generates paths in the maze using recursive backtracking algorithm.
-     *
-     * @param maze   the maze array
-     * @param x      current x position
-     * @param y      current y position
-     * @param width  maze width
-     * @param height maze height
-     */
-    private void generatePaths(final int[][] maze, final int x, final int y,
-                               final int width, final int height) {
-        maze[y][x] = PATH;
-        final List<Direction> directions = getRandomDirections();
-        for (final Direction direction : directions) {
-            final int newX = x + direction.getDx() * 2;
-            final int newY = y + direction.getDy() * 2;
-            if (isValidPosition(newX, newY, width, height)
-                && maze[newY][newX] == WALL) {
-                maze[y + direction.getDy()][x + direction.getDx()] = PATH;
-                generatePaths(maze, newX, newY, width, height);
-            }
-        }
-    }
-
-    /**
-     * Checks if a position is valid within the maze bounds.
-     *
-     * @param x      x coordinate
-     * @param y      y coordinate
-     * @param width  maze width
-     * @param height maze height
-     * @return true if position is valid
-     */
-    private boolean isValidPosition(final int x, final int y,
-                                    final int width, final int height) {
-        return x > 0 && x < width - 1
-            && y > 0 && y < height - 1;
-    }
-
-    /**
-     * Gets all four directions in random order.
-     *
-     * @return list of directions shuffled randomly
-     */
-    private List<Direction> getRandomDirections() {
-        final List<Direction> directions = new ArrayList<>();
-        directions.add(new Direction(0, -1)); // Up
-        directions.add(new Direction(1, 0));  // Right
-        directions.add(new Direction(0, 1));  // Down
-        directions.add(new Direction(-1, 0)); // Left
-        Collections.shuffle(directions, random);
-        return directions;
-    }
-
-    /**
-     * Sets the start and end positions in the maze.
-     * Start is typically at top-left area, end at bottom-right area.
-     *
-     * @param maze   the maze array
-     * @param width  maze width
-     * @param height maze height
-     */
-    private void setStartAndEnd(final int[][] maze, final int width,
-                                final int height) {
-        final List<int[]> paths = new ArrayList<>();
-        for (int row = 1; row < height - 1; row++) {
-            for (int col = 1; col < width - 1; col++) {
-                if (maze[row][col] == PATH) {
-                    paths.add(new int[]{row, col});
-                }
-            }
-        }
-        if (paths.isEmpty()) {
-            maze[1][1] = START;
-            maze[height - 2][width - 2] = END;
-        } else {
-            final int[] start = paths.get(0);
-            maze[start[0]][start[1]] = START;
-            final int[] end = paths.get(paths.size() - 1);
-            maze[end[0]][end[1]] = END;
-        }
-    }
-
-    /**
-     * Helper class to represent movement directions.
-     */
-    private static class Direction {
-        private final int dx;
-        private final int dy;
-
-        /**
-         * Constructor for Direction.
-         *
-         * @param dx horizontal movement
-         * @param dy vertical movement
-         */
-        Direction(final int dx, final int dy) {
-            this.dx = dx;
-            this.dy = dy;
-        }
-
-        /**
-         * Gets the horizontal movement.
-         *
-         * @return the x-axis delta of this direction
-         */
-        public int getDx() {
-            return dx;
-        }
-
-        /**
-         * Gets the vertical movement.
-         *
-         * @return the y-axis delta of this direction
-         */
-        public int getDy() {
-            return dy;
-        }
+    private int[] carve(final MazeGrid grid, final MazeSolver solver) {
+        algorithm.carve(grid, random);
+        final int[] ends = solver.farthestPair(grid.index(1, 1));
+        grid.set(grid.xOf(ends[0]), grid.yOf(ends[0]), START);
+        grid.set(grid.xOf(ends[1]), grid.yOf(ends[1]), END);
+        return ends;
     }
 }
@@ -0,0 +1,222 @@
+package it.unibo.exam.model.entity.minigame.lab;
+
+import java.util.Arrays;
+
+/**
+ * A maze stored as a flat row-major {@code byte} array.
+ * <p>
+ * The maze is made of rooms separated by walls: a maze of {@code columns x rows}
+ * rooms is a grid of {@code (2 * columns + 1) x (2 * rows + 1)} cells, where the
+ * room {@code (col, row)} is the cell {@code (2 * col + 1, 2 * row + 1)} and the
+ * cells between two rooms are the walls that can be opened. Cells hold the
+ * {@link MazeGenerator} markers, so a million rooms take about four megabytes.
+ * </p>
+ */
+public final class MazeGrid {
+
+    /** Direction toward the row above. */
+    public static final int NORTH = 0;
+    /** Direction toward the next column. */
+    public static final int EAST = 1;
+    /** Direction toward the row below. */
+    public static final int SOUTH = 2;
+    /** Direction toward the previous column. */
+    public static final int WEST = 3;
+    /** Number of directions. */
+    public static final int DIRECTIONS = 4;
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final int columns;
+    private final int rows;
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+
+    /**
+     * Creates a maze where every wall is closed.
+     *
+     * @param columns number of rooms per row
+     * @param rows    number of rows of rooms
+     */
+    public MazeGrid(final int columns, final int rows) {
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Maze size must be positive: " + columns + "x" + rows);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.width = 2 * columns + 1;
+        this.height = 2 * rows + 1;
+        this.cells = new byte[Math.multiplyExact(width, height)];
+        Arrays.fill(cells, (byte) MazeGenerator.WALL);
+    }
+
+    /**
+     * @param direction one of {@link #NORTH}, {@link #EAST}, {@link #SOUTH}, {@link #WEST}
+     * @return the column offset of the direction
+     */
+    public static int dx(final int direction) {
+        return DX[direction];
+    }
+
+    /**
+     * @param direction one of {@link #NORTH}, {@link #EAST}, {@link #SOUTH}, {@link #WEST}
+     * @return the row offset of the direction
+     */
+    public static int dy(final int direction) {
+        return DY[direction];
+    }
+
+    /**
+     * @return the number of rooms per row
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the number of rows of rooms
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of cells per row, walls included
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the number of rows of cells, walls included
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return the marker of the cell
+     */
+    public int get(final int x, final int y) {
+        return cells[y * width + x];
+    }
+
+    /**
+     * @param x      column of the cell
+     * @param y      row of the cell
+     * @param marker one of the {@link MazeGenerator} markers
+     */
+    public void set(final int x, final int y, final int marker) {
+        cells[y * width + x] = (byte) marker;
+    }
+
+    /**
+     * @return the number of cells, walls included
+     */
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * @param x column of the cell
+     * @param y row of the cell
+     * @return the flat index of the cell
+     */
+    public int index(final int x, final int y) {
+        return y * width + x;
+    }
+
+    /**
+     * @param index flat index of a cell
+     * @return the column of the cell
+     */
+    public int xOf(final int index) {
+        return index % width;
+    }
+
+    /**
+     * @param index flat index of a cell
+     * @return the row of the cell
+     */
+    public int yOf(final int index) {
+        return index / width;
+    }
+
+    /**
+     * @param index flat index of a cell
+     * @return true if the cell can be walked on
+     */
+    public boolean isPassable(final int index) {
+        return cells[index] != MazeGenerator.WALL;
+    }
+
+    /**
+     * @param col column of the room
+     * @param row row of the room
+     * @return true if the room is inside the maze
+     */
+    public boolean contains(final int col, final int row) {
+        return col >= 0 && col < columns && row >= 0 && row < rows;
+    }
+
+    /**
+     * @param col column of the room
+     * @param row row of the room
+     * @return true if the room has been carved
+     */
+    public boolean isOpen(final int col, final int row) {
+        return get(2 * col + 1, 2 * row + 1) != MazeGenerator.WALL;
+    }
+
+    /**
+     * Carves a room without connecting it to any other.
+     *
+     * @param col column of the room
+     * @param row row of the room
+     */
+    public void openRoom(final int col, final int row) {
+        set(2 * col + 1, 2 * row + 1, MazeGenerator.PATH);
+    }
+
+    /**
+     * Carves a room, the neighbouring room in a direction and the wall between them.
+     *
+     * @param col       column of the room
+     * @param row       row of the room
+     * @param direction direction of the neighbour, which must be inside the maze
+     */
+    public void openPassage(final int col, final int row, final int direction) {
+        openRoom(col, row);
+        openWall(col, row, direction);
+        openRoom(col + DX[direction], row + DY[direction]);
+    }
+
+    /**
+     * Carves only the wall between a room and its neighbour in a direction.
+     *
+     * @param col       column of the room
+     * @param row       row of the room
+     * @param direction direction of the neighbour, which must be inside the maze
+     */
+    public void openWall(final int col, final int row, final int direction) {
+        set(2 * col + 1 + DX[direction], 2 * row + 1 + DY[direction], MazeGenerator.PATH);
+    }
+
+    /**
+     * @return a copy of the maze as {@code int[row][column]}, the format used by {@link MazeModel}
+     */
+    public int[][] toArray() {
+        final int[][] maze = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            final int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                maze[y][x] = cells[offset + x];
+            }
+        }
+        return maze;
+    }
+}
@@ -0,0 +1,78 @@
+package it.unibo.exam.model.entity.minigame.lab;
+
+/**
+ * Measures of how hard a maze is, computed by {@link MazeSolver#analyze(int, int)}.
+ * Lengths are in moves between cells, walls cells included, as the player walks.
+ */
+public final class MazeMetrics {
+
+    private final int pathLength;
+    private final int deadEnds;
+    private final int junctions;
+    private final int decisions;
+    private final double branchingFactor;
+
+    /**
+     * @param pathLength      moves on the shortest path from start to end, or -1 if unreachable
+     * @param deadEnds        cells with a single way out
+     * @param junctions       cells with three or more ways out
+     * @param decisions       junctions on the shortest path
+     * @param branchingFactor average number of ways forward at a junction
+     */
+    public MazeMetrics(final int pathLength, final int deadEnds, final int junctions,
+                       final int decisions, final double branchingFactor) {
+        this.pathLength = pathLength;
+        this.deadEnds = deadEnds;
+        this.junctions = junctions;
+        this.decisions = decisions;
+        this.branchingFactor = branchingFactor;
+    }
+
+    /**
+     * @return moves on the shortest path from start to end, or -1 if the end is unreachable
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * @return the number of rooms the shortest path goes through, start and end included
+     */
+    public int getPathRooms() {
+        return pathLength < 0 ? 0 : pathLength / 2 + 1;
+    }
+
+    /**
+     * @return the number of cells with a single way out
+     */
+    public int getDeadEnds() {
+        return deadEnds;
+    }
+
+    /**
+     * @return the number of cells with three or more ways out
+     */
+    public int getJunctions() {
+        return junctions;
+    }
+
+    /**
+     * @return the number of junctions on the shortest path, where the player can go wrong
+     */
+    public int getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return the average number of ways forward at a junction, 0 if there is none
+     */
+    public double getBranchingFactor() {
+        return branchingFactor;
+    }
+
+    @Override
+    public String toString() {
+        return "MazeMetrics[path=" + pathLength + ", deadEnds=" + deadEnds + ", junctions=" + junctions
+            + ", decisions=" + decisions + ", branching=" + branchingFactor + "]";
+    }
+}
@@ -1,10 +1,18 @@
 package it.unibo.exam.model.entity.minigame.lab;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import it.unibo.exam.model.history.CommandLog;
+import it.unibo.exam.model.history.Rewindable;
+
 /**
  * The MazeModel class represents the state of the maze game.
  * It stores the maze grid, player position, and completion status.
  * The model handles player movement, maze completion check, 
  * and provides methods to interact with the maze.
+ * Moves are recorded in a {@link CommandLog}, so they can be undone and redone.
  */
 public final class MazeModel {  // Marking class as final to prevent extension
 
@@ -12,6 +20,7 @@ public final class MazeModel {  // Marking class as final to prevent extension
     private int playerX;          // Player's current X position
     private int playerY;          // Player's current Y position
     private boolean completed;    // Is the maze completed?
+    private final CommandLog<int[]> history;  // Moves made, as packed steps
 
     /**
      * Constructs a new MazeModel with the given maze grid.
@@ -27,6 +36,7 @@ public final class MazeModel {  // Marking class as final to prevent extension
         }
         this.completed = false;
         initializePlayerPosition();
+        this.history = new CommandLog<>(new Steps());
     }
 
     /**
@@ -45,17 +55,67 @@ public final class MazeModel {  // Marking class as final to prevent extension
             return false;  // Invalid move
         }
 
-        // Update player position
-        playerX = newX;
-        playerY = newY;
-
-        // Check if the player has reached the exit
-        if (maze[newY][newX] == MazeGenerator.END) {
-            completed = true;
-        }
+        step(dx, dy);
+        history.record((dx + 1) << 2 | dy + 1);
         return true; // Valid move
     }
 
+    /**
+     * Takes back the last move.
+     *
+     * @return false if there is no move to take back
+     */
+    public boolean undo() {
+        return history.undo();
+    }
+
+    /**
+     * Makes again the last move taken back.
+     *
+     * @return false if no move was taken back
+     */
+    public boolean redo() {
+        return history.redo();
+    }
+
+    /**
+     * @return the number of moves from the start to the current position
+     */
+    public int getMoveCount() {
+        return history.getPosition();
+    }
+
+    /**
+     * Writes the moves made so far, including those taken back.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeHistory(final DataOutput out) throws IOException {
+        history.write(out);
+    }
+
+    /**
+     * Replays moves written by {@link #writeHistory(DataOutput)} from the
+     * start; the model must have been built with the same maze.
+     *
+     * @param in the source
+     * @throws IOException if reading fails
+     */
+    public void readHistory(final DataInput in) throws IOException {
+        history.read(in);
+    }
+
+    /**
+     * Moves the player, the move already checked, and updates the completion.
+     */
+    private void step(final int dx, final int dy) {
+        playerX += dx;
+        playerY += dy;
+        // The player has reached the exit, or left it by undoing
+        completed = maze[playerY][playerX] == MazeGenerator.END;
+    }
+
     /**
      * Checks if the maze is completed (player reached the end).
      * 
@@ -112,4 +172,34 @@ public final class MazeModel {  // Marking class as final to prevent extension
         }
         return mazeCopy;
     }
+
+    /**
+     * Replays moves: a command packs {@code dx + 1} in its bits 2-3 and
+     * {@code dy + 1} in bits 0-1; a snapshot is the player position.
+     */
+    private final class Steps implements Rewindable<int[]> {
+        private static final int DELTA_MASK = 3;
+
+        @Override
+        public void apply(final int command) {
+            step((command >>> 2) - 1, (command & DELTA_MASK) - 1);
+        }
+
+        @Override
+        public void revert(final int command) {
+            step(1 - (command >>> 2), 1 - (command & DELTA_MASK));
+        }
+
+        @Override
+        public int[] snapshot() {
+            return new int[] {playerX, playerY};
+        }
+
+        @Override
+        public void restore(final int[] snapshot) {
+            playerX = 0;
+            playerY = 0;
+            step(snapshot[0], snapshot[1]);
+        }
+    }
 }
@@ -0,0 +1,389 @@
+package it.unibo.exam.model.entity.minigame.lab;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Finds paths in a {@link MazeGrid} and measures its difficulty.
+ * <p>
+ * Cells are addressed by their flat index ({@link MazeGrid#index(int, int)}) and
+ * every search works on preallocated {@code int} arrays: visited cells are
+ * tagged with a search number instead of clearing the arrays, so a solver can
+ * run many searches on the same maze at the cost of the cells actually
+ * visited. The outer ring of the grid must be walls, as left by the
+ * generator. A solver is not thread-safe; each thread uses its own.
+ * </p>
+ */
+public final class MazeSolver {
+
+    private static final int NONE = -1;
+    private static final int JUNCTION_DEGREE = 3;
+
+    private final MazeGrid grid;
+    private final int[] offsets;
+    private final int[] mark;
+    private final int[] parent;
+    private final int[] queue;
+    private int stamp;
+    /** Tail of the queue after {@link #expandLevel}. */
+    private int lastTail;
+
+    // Allocated by the first search that needs them
+    private int[] otherParent;
+    private int[] otherQueue;
+    private int[] depth;
+    private int[] cost;
+    private int[] heapCells;
+    private int[] heapKeys;
+
+    /**
+     * @param grid the maze to search; later changes to it are seen by the solver
+     */
+    public MazeSolver(final MazeGrid grid) {
+        this.grid = Objects.requireNonNull(grid, "grid cannot be null");
+        final int width = grid.getWidth();
+        this.offsets = new int[] {-width, 1, width, -1};
+        this.mark = new int[grid.getCellCount()];
+        this.parent = new int[grid.getCellCount()];
+        this.queue = new int[grid.getCellCount()];
+    }
+
+    /**
+     * Breadth-first search.
+     *
+     * @param from index of the start cell
+     * @param to   index of the end cell
+     * @return the cells of a shortest path, both ends included, or an empty array if there is none
+     */
+    public int[] solveBfs(final int from, final int to) {
+        final int visit = nextStamp();
+        mark[from] = visit;
+        parent[from] = NONE;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        while (head < tail) {
+            final int cell = queue[head++];
+            if (cell == to) {
+                return walkBack(parent, to, NONE);
+            }
+            for (final int offset : offsets) {
+                final int next = cell + offset;
+                if (grid.isPassable(next) && mark[next] != visit) {
+                    mark[next] = visit;
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * A* search guided by the Manhattan distance to the end, which never
+     * overestimates on a grid of unit moves, so the path found is shortest.
+     * Visits fewer cells than {@link #solveBfs(int, int)} when the path is
+     * fairly direct.
+     *
+     * @param from index of the start cell
+     * @param to   index of the end cell
+     * @return the cells of a shortest path, both ends included, or an empty array if there is none
+     */
+    public int[] solveAStar(final int from, final int to) {
+        if (cost == null) {
+            cost = new int[mark.length];
+            heapCells = new int[mark.length];
+            heapKeys = new int[mark.length];
+        }
+        final int visit = nextStamp();
+        final int toX = grid.xOf(to);
+        final int toY = grid.yOf(to);
+        mark[from] = visit;
+        parent[from] = NONE;
+        cost[from] = 0;
+        int size = push(0, from, heuristic(from, toX, toY));
+        while (size > 0) {
+            final int cell = heapCells[0];
+            final int key = heapKeys[0];
+            size = pop(size);
+            if (key - heuristic(cell, toX, toY) > cost[cell]) {
+                // A cheaper entry for this cell has already been expanded
+                continue;
+            }
+            if (cell == to) {
+                return walkBack(parent, to, NONE);
+            }
+            for (final int offset : offsets) {
+                final int next = cell + offset;
+                final int nextCost = cost[cell] + 1;
+                if (grid.isPassable(next) && (mark[next] != visit || nextCost < cost[next])) {
+                    mark[next] = visit;
+                    parent[next] = cell;
+                    cost[next] = nextCost;
+                    size = push(size, next, nextCost + heuristic(next, toX, toY));
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Bidirectional breadth-first search: one search from each end, a level at a
+     * time from the smaller frontier, until they meet. Visits about half as
+     * many cells as a single search in open areas.
+     *
+     * @param from index of the start cell
+     * @param to   index of the end cell
+     * @return the cells of a shortest path, both ends included, or an empty array if there is none
+     */
+    public int[] solveBidirectional(final int from, final int to) {
+        if (from == to) {
+            return new int[] {from};
+        }
+        if (otherParent == null) {
+            otherParent = new int[mark.length];
+            otherQueue = new int[mark.length];
+            depth = new int[mark.length];
+        }
+        // One stamp per side, so a single array tells which search saw a cell
+        final int forward = nextStamp();
+        final int backward = nextStamp();
+        mark[from] = forward;
+        parent[from] = NONE;
+        depth[from] = 0;
+        mark[to] = backward;
+        otherParent[to] = NONE;
+        depth[to] = 0;
+        int forwardHead = 0;
+        int forwardTail = 0;
+        int backwardHead = 0;
+        int backwardTail = 0;
+        queue[forwardTail++] = from;
+        otherQueue[backwardTail++] = to;
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            final boolean expandForward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            final int meeting;
+            if (expandForward) {
+                final int levelEnd = forwardTail;
+                meeting = expandLevel(queue, forwardHead, levelEnd, parent, forward, backward);
+                forwardTail = lastTail;
+                forwardHead = levelEnd;
+            } else {
+                final int levelEnd = backwardTail;
+                meeting = expandLevel(otherQueue, backwardHead, levelEnd, otherParent, backward, forward);
+                backwardTail = lastTail;
+                backwardHead = levelEnd;
+            }
+            if (meeting != NONE) {
+                return joinAt(meeting);
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Breadth-first search from a cell to every reachable cell.
+     *
+     * @param from index of the start cell
+     * @return the index of a reachable cell farthest from the start
+     */
+    public int farthestFrom(final int from) {
+        final int visit = nextStamp();
+        mark[from] = visit;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        while (head < tail) {
+            final int cell = queue[head++];
+            for (final int offset : offsets) {
+                final int next = cell + offset;
+                if (grid.isPassable(next) && mark[next] != visit) {
+                    mark[next] = visit;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        // Breadth-first order: the last cell dequeued is one of the farthest
+        return queue[tail - 1];
+    }
+
+    /**
+     * Finds two cells as far apart as possible. The farthest cell from any cell
+     * is one end of a longest shortest path in a maze without loops, so two
+     * searches suffice for the perfect mazes of {@link MazeGenerator}.
+     *
+     * @param from any passable cell
+     * @return the indices of the two cells
+     */
+    public int[] farthestPair(final int from) {
+        final int first = farthestFrom(from);
+        return new int[] {first, farthestFrom(first)};
+    }
+
+    /**
+     * Measures the maze for a given start and end.
+     *
+     * @param from index of the start cell
+     * @param to   index of the end cell
+     * @return the metrics of the maze
+     */
+    public MazeMetrics analyze(final int from, final int to) {
+        int deadEnds = 0;
+        int junctions = 0;
+        int branches = 0;
+        for (int cell = 0; cell < mark.length; cell++) {
+            if (!grid.isPassable(cell)) {
+                continue;
+            }
+            final int degree = degree(cell);
+            if (degree == 1) {
+                deadEnds++;
+            } else if (degree >= JUNCTION_DEGREE) {
+                junctions++;
+                branches += degree - 1;
+            }
+        }
+        final int[] path = solveBfs(from, to);
+        int decisions = 0;
+        for (final int cell : path) {
+            if (degree(cell) >= JUNCTION_DEGREE) {
+                decisions++;
+            }
+        }
+        return new MazeMetrics(path.length - 1, deadEnds, junctions, decisions,
+            junctions == 0 ? 0 : (double) branches / junctions);
+    }
+
+    private int degree(final int cell) {
+        int degree = 0;
+        for (final int offset : offsets) {
+            if (grid.isPassable(cell + offset)) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Expands one whole level of one side of a bidirectional search. Every cell
+     * of the level is one move further from its side, so the best meeting cell
+     * is the one nearest to the other side.
+     *
+     * @return the best cell seen by both sides, or {@link #NONE}; the new tail is left in {@link #lastTail}
+     */
+    private int expandLevel(final int[] sideQueue, final int head, final int levelEnd, final int[] sideParent,
+                            final int own, final int other) {
+        int tail = levelEnd;
+        int meeting = NONE;
+        for (int i = head; i < levelEnd; i++) {
+            final int cell = sideQueue[i];
+            for (final int offset : offsets) {
+                final int next = cell + offset;
+                if (!grid.isPassable(next) || mark[next] == own) {
+                    continue;
+                }
+                if (mark[next] == other) {
+                    if (meeting == NONE || depth[next] < depth[meeting]) {
+                        meeting = next;
+                        sideParent[next] = cell;
+                    }
+                    continue;
+                }
+                mark[next] = own;
+                sideParent[next] = cell;
+                depth[next] = depth[cell] + 1;
+                sideQueue[tail++] = next;
+            }
+        }
+        lastTail = tail;
+        return meeting;
+    }
+
+    /**
+     * Builds the path through a cell where the two sides of a bidirectional search met.
+     * The side that found the meeting wrote its parent, the other side already had one.
+     */
+    private int[] joinAt(final int meeting) {
+        final int[] head = walkBack(parent, meeting, NONE);
+        final int[] tail = walkBack(otherParent, meeting, NONE);
+        final int[] path = Arrays.copyOf(head, head.length + tail.length - 1);
+        // tail runs from the end cell to the meeting cell: append it reversed, without the meeting cell
+        for (int i = 0; i < tail.length - 1; i++) {
+            path[head.length + i] = tail[tail.length - 2 - i];
+        }
+        return path;
+    }
+
+    private static int[] walkBack(final int[] parents, final int to, final int stop) {
+        int length = 0;
+        for (int cell = to; cell != stop; cell = parents[cell]) {
+            length++;
+        }
+        final int[] path = new int[length];
+        int cell = to;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parents[cell];
+        }
+        return path;
+    }
+
+    private int heuristic(final int cell, final int toX, final int toY) {
+        return Math.abs(grid.xOf(cell) - toX) + Math.abs(grid.yOf(cell) - toY);
+    }
+
+    private int push(final int size, final int cell, final int key) {
+        if (size == heapCells.length) {
+            heapCells = Arrays.copyOf(heapCells, size * 2);
+            heapKeys = Arrays.copyOf(heapKeys, size * 2);
+        }
+        int i = size;
+        while (i > 0) {
+            final int up = (i - 1) / 2;
+            if (heapKeys[up] <= key) {
+                break;
+            }
+            heapCells[i] = heapCells[up];
+            heapKeys[i] = heapKeys[up];
+            i = up;
+        }
+        heapCells[i] = cell;
+        heapKeys[i] = key;
+        return size + 1;
+    }
+
+    private int pop(final int size) {
+        final int last = size - 1;
+        final int cell = heapCells[last];
+        final int key = heapKeys[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= key) {
+                break;
+            }
+            heapCells[i] = heapCells[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapCells[i] = cell;
+        heapKeys[i] = key;
+        return last;
+    }
+
+    private int nextStamp() {
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            // Wrapped around: old tags could collide with new stamps
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+}
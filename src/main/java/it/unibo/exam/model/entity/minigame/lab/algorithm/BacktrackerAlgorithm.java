@@ -0,0 +1,47 @@
+package it.unibo.exam.model.entity.minigame.lab.algorithm;
+
+import java.util.random.RandomGenerator;
+
+import it.unibo.exam.model.entity.minigame.lab.MazeGrid;
+
+/**
+ * Randomized depth-first search ("recursive backtracker") with an explicit stack.
+ * <p>
+ * From the top room of the stack, a random closed neighbour is opened and pushed;
+ * a room without closed neighbours is popped. The stack is a plain {@code int}
+ * array of room indices, so the depth of the search is bounded by memory rather
+ * than by the thread stack. Produces long winding corridors with few branches.
+ * </p>
+ */
+public final class BacktrackerAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(final MazeGrid grid, final RandomGenerator random) {
+        final int columns = grid.getColumns();
+        final int[] stack = new int[Math.multiplyExact(columns, grid.getRows())];
+        final int[] choices = new int[MazeGrid.DIRECTIONS];
+        int top = 0;
+        stack[top++] = 0;
+        grid.openRoom(0, 0);
+        while (top > 0) {
+            final int room = stack[top - 1];
+            final int col = room % columns;
+            final int row = room / columns;
+            int count = 0;
+            for (int direction = 0; direction < MazeGrid.DIRECTIONS; direction++) {
+                final int nextCol = col + MazeGrid.dx(direction);
+                final int nextRow = row + MazeGrid.dy(direction);
+                if (grid.contains(nextCol, nextRow) && !grid.isOpen(nextCol, nextRow)) {
+                    choices[count++] = direction;
+                }
+            }
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            final int direction = choices[random.nextInt(count)];
+            grid.openPassage(col, row, direction);
+            stack[top++] = (row + MazeGrid.dy(direction)) * columns + col + MazeGrid.dx(direction);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package it.unibo.exam.model.entity.minigame.lab.algorithm;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import it.unibo.exam.model.entity.minigame.lab.MazeGrid;
+
+/**
+ * Eller's algorithm: builds the maze one row at a time.
+ * <p>
+ * Each room of the current row belongs to a set of rooms already connected
+ * through the rows above. Neighbouring rooms of different sets are joined at
+ * random, then every set opens at least one passage down; the last row joins
+ * every remaining set. Only the current row is kept in memory, so a
+ * {@link RowStream} can produce an endless maze a row at a time, and the whole
+ * maze is carved in time linear in the number of rooms.
+ * </p>
+ */
+public final class EllerAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(final MazeGrid grid, final RandomGenerator random) {
+        final int columns = grid.getColumns();
+        final RowStream stream = new RowStream(columns, random);
+        final boolean[] east = new boolean[columns];
+        final boolean[] south = new boolean[columns];
+        for (int row = 0; row < grid.getRows(); row++) {
+            stream.next(east, south, row == grid.getRows() - 1);
+            for (int col = 0; col < columns; col++) {
+                grid.openRoom(col, row);
+                if (east[col]) {
+                    grid.openWall(col, row, MazeGrid.EAST);
+                }
+                if (south[col]) {
+                    grid.openWall(col, row, MazeGrid.SOUTH);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the rows of a maze of fixed width, one after the other, with
+     * memory proportional to the width only.
+     * <p>
+     * Sets are labelled with numbers below the width, since a row never holds
+     * more sets than rooms; joins within a row go through a union-find over the
+     * labels, so a row costs time linear in its width. Not thread-safe.
+     * </p>
+     */
+    public static final class RowStream {
+
+        private static final int NONE = -1;
+
+        private final int columns;
+        private final RandomGenerator random;
+        private final int[] labels;
+        private final int[] parent;
+        private final boolean[] used;
+        private final boolean[] goesDown;
+        private final int[] members;
+        private final int[] chosen;
+        private boolean finished;
+
+        /**
+         * @param columns number of rooms per row
+         * @param random  the generator used for every random choice
+         */
+        public RowStream(final int columns, final RandomGenerator random) {
+            if (columns <= 0) {
+                throw new IllegalArgumentException("Columns must be positive: " + columns);
+            }
+            this.columns = columns;
+            this.random = Objects.requireNonNull(random, "random cannot be null");
+            this.labels = new int[columns];
+            this.parent = new int[columns];
+            this.used = new boolean[columns];
+            this.goesDown = new boolean[columns];
+            this.members = new int[columns];
+            this.chosen = new int[columns];
+            Arrays.fill(labels, NONE);
+        }
+
+        /**
+         * Generates the next row.
+         *
+         * @param east  receives, for each room, whether it opens toward the next column
+         * @param south receives, for each room, whether it opens toward the row below
+         * @param last  true for the last row, which joins every set and opens nothing below
+         */
+        public void next(final boolean[] east, final boolean[] south, final boolean last) {
+            if (finished) {
+                throw new IllegalStateException("The last row has already been generated");
+            }
+            if (east.length < columns || south.length < columns) {
+                throw new IllegalArgumentException("Row arrays must hold " + columns + " rooms");
+            }
+            finished = last;
+            assignNewSets();
+
+            // Join neighbours of different sets: at random, or always on the last row
+            for (int col = 0; col < columns; col++) {
+                parent[col] = col;
+            }
+            for (int col = 0; col < columns - 1; col++) {
+                final int left = find(labels[col]);
+                final int right = find(labels[col + 1]);
+                east[col] = left != right && (last || random.nextBoolean());
+                if (east[col]) {
+                    parent[right] = left;
+                }
+            }
+            east[columns - 1] = false;
+            for (int col = 0; col < columns; col++) {
+                labels[col] = find(labels[col]);
+            }
+
+            if (last) {
+                Arrays.fill(south, 0, columns, false);
+                return;
+            }
+            // Random passages down, then one more for each set that has none
+            Arrays.fill(goesDown, false);
+            Arrays.fill(members, 0);
+            for (int col = 0; col < columns; col++) {
+                final int set = labels[col];
+                south[col] = random.nextBoolean();
+                goesDown[set] |= south[col];
+                members[set]++;
+                // Reservoir sampling: each room of the set is equally likely to be chosen
+                if (random.nextInt(members[set]) == 0) {
+                    chosen[set] = col;
+                }
+            }
+            for (int col = 0; col < columns; col++) {
+                final int set = labels[col];
+                if (!goesDown[set]) {
+                    south[chosen[set]] = true;
+                    goesDown[set] = true;
+                }
+            }
+            // Rooms below a passage inherit its set, the others start a new one
+            for (int col = 0; col < columns; col++) {
+                if (!south[col]) {
+                    labels[col] = NONE;
+                }
+            }
+        }
+
+        private void assignNewSets() {
+            Arrays.fill(used, false);
+            for (final int label : labels) {
+                if (label != NONE) {
+                    used[label] = true;
+                }
+            }
+            int free = 0;
+            for (int col = 0; col < columns; col++) {
+                if (labels[col] == NONE) {
+                    while (used[free]) {
+                        free++;
+                    }
+                    used[free] = true;
+                    labels[col] = free;
+                }
+            }
+        }
+
+        private int find(final int label) {
+            int root = label;
+            while (parent[root] != root) {
+                root = parent[root];
+            }
+            // Path compression
+            int current = label;
+            while (parent[current] != root) {
+                final int next = parent[current];
+                parent[current] = root;
+                current = next;
+            }
+            return root;
+        }
+    }
+}
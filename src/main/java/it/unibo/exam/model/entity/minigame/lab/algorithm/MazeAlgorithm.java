@@ -0,0 +1,20 @@
+package it.unibo.exam.model.entity.minigame.lab.algorithm;
+
+import java.util.random.RandomGenerator;
+
+import it.unibo.exam.model.entity.minigame.lab.MazeGrid;
+
+/**
+ * Encapsulates an algorithm for carving a perfect maze: every room is reachable
+ * from every other through exactly one path.
+ */
+public interface MazeAlgorithm {
+
+    /**
+     * Opens rooms and passages in a maze whose walls are all closed.
+     *
+     * @param grid   the maze to carve
+     * @param random the generator used for every random choice
+     */
+    void carve(MazeGrid grid, RandomGenerator random);
+}
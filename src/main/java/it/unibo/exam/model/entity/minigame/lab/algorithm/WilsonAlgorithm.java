@@ -0,0 +1,60 @@
+package it.unibo.exam.model.entity.minigame.lab.algorithm;
+
+import java.util.random.RandomGenerator;
+
+import it.unibo.exam.model.entity.minigame.lab.MazeGrid;
+
+/**
+ * Wilson's algorithm: loop-erased random walks.
+ * <p>
+ * Starting from a closed room, a random walk wanders until it meets the maze,
+ * remembering only the last direction taken from each room; walking the
+ * remembered directions from the start then gives the walk with its loops
+ * erased, which is opened. The result is a uniform spanning tree: every
+ * perfect maze is equally likely, with none of the corridor bias of the
+ * backtracker. The first walks are long, so this is the slowest algorithm on
+ * big mazes. Directions take one byte per room.
+ * </p>
+ */
+public final class WilsonAlgorithm implements MazeAlgorithm {
+
+    @Override
+    public void carve(final MazeGrid grid, final RandomGenerator random) {
+        final int columns = grid.getColumns();
+        final int rooms = Math.multiplyExact(columns, grid.getRows());
+        final byte[] exits = new byte[rooms];
+        final int[] choices = new int[MazeGrid.DIRECTIONS];
+        final int first = random.nextInt(rooms);
+        grid.openRoom(first % columns, first / columns);
+        for (int start = 0; start < rooms; start++) {
+            if (grid.isOpen(start % columns, start / columns)) {
+                continue;
+            }
+            // Walk until the maze is reached, overwriting the exit of rooms walked again
+            int col = start % columns;
+            int row = start / columns;
+            while (!grid.isOpen(col, row)) {
+                int count = 0;
+                for (int direction = 0; direction < MazeGrid.DIRECTIONS; direction++) {
+                    if (grid.contains(col + MazeGrid.dx(direction), row + MazeGrid.dy(direction))) {
+                        choices[count++] = direction;
+                    }
+                }
+                final int direction = choices[random.nextInt(count)];
+                exits[row * columns + col] = (byte) direction;
+                col += MazeGrid.dx(direction);
+                row += MazeGrid.dy(direction);
+            }
+            // Follow the last exits from the start: the walk without its loops
+            col = start % columns;
+            row = start / columns;
+            while (!grid.isOpen(col, row)) {
+                final int direction = exits[row * columns + col];
+                grid.openRoom(col, row);
+                grid.openWall(col, row, direction);
+                col += MazeGrid.dx(direction);
+                row += MazeGrid.dy(direction);
+            }
+        }
+    }
+}
@@ -33,7 +33,9 @@ public interface MovementStrategy {
      * @param deltaTime the time in seconds that has passed since the last update.
      *                  This value can be used to scale the movement based on time.
      * @return a {@link Point2D} representing the vector (dx, dy) to apply to 
-     *         the entity's position.
+     *         the entity's position. Implementations may reuse the same instance
+     *         across calls to avoid allocating every tick, so callers must apply
+     *         it before the next call rather than keep it.
      */
     Point2D getNextMove(MovementEntity entity, Room room, double deltaTime);
 }
@@ -3,7 +3,9 @@ package it.unibo.exam.model.entity.strategy;
 import it.unibo.exam.model.entity.MovementEntity;
 import it.unibo.exam.model.entity.enviroments.Room;
 import it.unibo.exam.utility.geometry.Point2D;
-import java.util.Random;
+import it.unibo.exam.utility.random.RandomService;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
 
 /**
  * A random‐walk strategy that accumulates fractional movement
@@ -23,8 +25,11 @@ public final class RandomWalkStrategy implements MovementStrategy {
     private static final int THRESHOLD = 5; // pixels “close enough” to pick a new target
     private static final double SPEED_MULTIPLIER = 20.0; // multiplier for speed
 
-    private final Random random = new Random();
-    private Point2D target;
+    private final RandomGenerator random;
+    // Reused every tick so that walking does not allocate
+    private final Point2D target = new Point2D(0, 0);
+    private final Point2D step = new Point2D(0, 0);
+    private boolean hasTarget;
 
     // carry‐over fractions from frame to frame
     private double residualX;
@@ -41,8 +46,20 @@ public final class RandomWalkStrategy implements MovementStrategy {
      *                        which defines the bounds for random movement.
      */
     public RandomWalkStrategy(final Point2D environmentSize) {
+        this(environmentSize, RandomService.getInstance().stream(RandomWalkStrategy.class));
+    }
+
+    /**
+     * Constructs a RandomWalkStrategy drawing its targets from the given generator,
+     * so that the walk can be reproduced.
+     * 
+     * @param environmentSize the size of the game panel in pixels.
+     * @param random          the generator used to pick targets.
+     */
+    public RandomWalkStrategy(final Point2D environmentSize, final RandomGenerator random) {
         this.maxX = environmentSize.getX();
         this.maxY = environmentSize.getY();
+        this.random = Objects.requireNonNull(random, "random cannot be null");
     }
 
     /**
@@ -63,7 +80,8 @@ public final class RandomWalkStrategy implements MovementStrategy {
      * @param deltaTime  the time in seconds that has passed since the last update, 
      *                   used to scale the movement.
      * @return           a {@link Point2D} representing the movement vector (dx, dy)
-     *                   to be applied to the entity's position.
+     *                   to be applied to the entity's position; the same instance
+     *                   is returned by every call.
      */
     @Override
     public Point2D getNextMove(final MovementEntity entity,
@@ -72,10 +90,11 @@ public final class RandomWalkStrategy implements MovementStrategy {
         final Point2D pos = entity.getPosition();
 
         // 1) Pick a new random target if needed
-        if (target == null || pos.distance(target) < THRESHOLD) {
+        if (!hasTarget || pos.distanceSq(target.getX(), target.getY()) < THRESHOLD * THRESHOLD) {
             final int tx = random.nextInt(maxX);
             final int ty = random.nextInt(maxY);
-            target = new Point2D(tx, ty);
+            target.setXY(tx, ty);
+            hasTarget = true;
         }
 
         // 2) Compute direction toward target
@@ -84,7 +103,8 @@ public final class RandomWalkStrategy implements MovementStrategy {
         final double dist = Math.hypot(dx, dy);
 
         if (dist < 1) {
-            return new Point2D(0, 0); // already "there"
+            step.setXY(0, 0); // already "there"
+            return step;
         }
 
         final double dirX = dx / dist;
@@ -112,6 +132,7 @@ public final class RandomWalkStrategy implements MovementStrategy {
         residualX = totalX - stepX;
         residualY = totalY - stepY;
 
-        return new Point2D(stepX, stepY);
+        step.setXY(stepX, stepY);
+        return step;
     }
 }
@@ -0,0 +1,233 @@
+package it.unibo.exam.model.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * History of the changes made to a {@link Rewindable} model.
+ * <p>
+ * Each change is one {@code int} command, so undo and redo are a single
+ * {@code revert} or {@code apply} of the command under the cursor. Every
+ * {@code interval} commands a snapshot of the model is kept, and
+ * {@link #seek(int)} restores the nearest snapshot before replaying, so
+ * jumping to any point of the history costs at most {@code interval} steps
+ * whatever its length. Recording a command after undoing drops the commands
+ * that could have been redone, and the snapshots taken after them.
+ * </p>
+ * <p>
+ * Not thread-safe: use it from the thread changing the model.
+ * </p>
+ *
+ * @param <S> the type of the snapshots of the model
+ */
+public final class CommandLog<S> {
+
+    /** Commands between two snapshots, by default. */
+    public static final int DEFAULT_INTERVAL = 32;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Rewindable<S> target;
+    private final int interval;
+    /** Snapshot {@code k} is the state after {@code k * interval} commands. */
+    private final List<S> snapshots = new ArrayList<>();
+    private int[] commands = new int[INITIAL_CAPACITY];
+    private int size;
+    private int position;
+
+    /**
+     * Creates a log starting from the current state of a model, with the
+     * default snapshot interval.
+     *
+     * @param target the model
+     */
+    public CommandLog(final Rewindable<S> target) {
+        this(target, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a log starting from the current state of a model.
+     *
+     * @param target   the model
+     * @param interval commands between two snapshots
+     */
+    public CommandLog(final Rewindable<S> target, final int interval) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + interval);
+        }
+        this.target = target;
+        this.interval = interval;
+        snapshots.add(target.snapshot());
+    }
+
+    /**
+     * Records a command the model has just applied.
+     *
+     * @param command the command
+     */
+    public void record(final int command) {
+        truncate();
+        if (size == commands.length) {
+            commands = Arrays.copyOf(commands, size * 2);
+        }
+        commands[size++] = command;
+        position = size;
+        if (position % interval == 0) {
+            snapshots.add(target.snapshot());
+        }
+    }
+
+    /**
+     * Reverts the command before the cursor.
+     *
+     * @return false if there is nothing to undo
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        target.revert(commands[--position]);
+        return true;
+    }
+
+    /**
+     * Applies again the command after the cursor.
+     *
+     * @return false if there is nothing to redo
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        target.apply(commands[position++]);
+        return true;
+    }
+
+    /**
+     * Brings the model to the state it had after a number of commands, by
+     * stepping from the current state or replaying from the nearest snapshot,
+     * whichever is shorter.
+     *
+     * @param index the number of commands from the start of the log
+     */
+    public void seek(final int index) {
+        if (index < 0 || index > size) {
+            throw new IllegalArgumentException("Position out of the log: " + index + " of " + size);
+        }
+        if (index % interval < Math.abs(index - position)) {
+            target.restore(snapshots.get(index / interval));
+            position = index - index % interval;
+        }
+        while (position < index) {
+            redo();
+        }
+        while (position > index) {
+            undo();
+        }
+    }
+
+    /**
+     * Brings the model back to its state when the log started; the commands
+     * can still be redone.
+     */
+    public void rewind() {
+        seek(0);
+    }
+
+    /**
+     * @return true if a command can be undone
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * @return true if an undone command can be redone
+     */
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * @return the number of commands applied to the model
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the number of commands recorded, including the undone ones
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of a command
+     * @return the command
+     */
+    public int getCommand(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Command out of the log: " + index + " of " + size);
+        }
+        return commands[index];
+    }
+
+    /**
+     * @return the number of snapshots kept
+     */
+    public int getSnapshotCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Writes the commands and the cursor, but not the snapshots, which are
+     * taken again on {@link #read(DataInput)}.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(position);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(commands[i]);
+        }
+    }
+
+    /**
+     * Replaces the history with one written by {@link #write(DataOutput)}:
+     * the model is rewound, the commands are replayed, and the model is left
+     * at the written cursor.
+     *
+     * @param in the source
+     * @throws IOException if reading fails or the data is not a log
+     */
+    public void read(final DataInput in) throws IOException {
+        final int count = in.readInt();
+        final int cursor = in.readInt();
+        if (count < 0 || cursor < 0 || cursor > count) {
+            throw new IOException("Corrupted command log: " + cursor + " of " + count);
+        }
+        rewind();
+        for (int i = 0; i < count; i++) {
+            final int command = in.readInt();
+            target.apply(command);
+            record(command);
+        }
+        seek(cursor);
+    }
+
+    private void truncate() {
+        size = position;
+        final int kept = position / interval + 1;
+        snapshots.subList(kept, snapshots.size()).clear();
+    }
+}
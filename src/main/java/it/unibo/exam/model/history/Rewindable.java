@@ -0,0 +1,36 @@
+package it.unibo.exam.model.history;
+
+/**
+ * A model whose changes can be recorded by a {@link CommandLog} as small
+ * {@code int} commands, and rewound or replayed from them.
+ *
+ * @param <S> the type of the snapshots of the model
+ */
+public interface Rewindable<S> {
+
+    /**
+     * Applies a recorded command again, as it was first applied.
+     *
+     * @param command the command
+     */
+    void apply(int command);
+
+    /**
+     * Undoes a command, which must be the last one applied.
+     *
+     * @param command the command
+     */
+    void revert(int command);
+
+    /**
+     * @return a compact copy of the current state, unaffected by later changes
+     */
+    S snapshot();
+
+    /**
+     * Puts the model back in a state taken by {@link #snapshot()}.
+     *
+     * @param snapshot the state to restore
+     */
+    void restore(S snapshot);
+}
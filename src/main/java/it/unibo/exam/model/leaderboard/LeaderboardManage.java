@@ -1,76 +1,96 @@
 package it.unibo.exam.model.leaderboard;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.logging.Level;
+import it.unibo.exam.model.data.RoomScoreData;
+
+import java.nio.file.Path;
 import java.util.logging.Logger;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 /**
- * Manages the game leaderboard with persistent storage in a text file.
- * Maintains a top 10 ranking based on scores.
+ * Manages the game leaderboard. Every result is kept in a
+ * {@link LeaderboardStore}; the ranking shows the top 10 based on scores.
+ * Runs recorded with their per-room results are also ranked per minigame and
+ * per day and week on a {@link ScoreBoard}.
  */
 public final class LeaderboardManage {
 
     private static final Logger LOGGER = Logger.getLogger(LeaderboardManage.class.getName());
-    private static final String LEADERBOARD_FILE = "leaderboard.txt";
     private static final int MAX_ENTRIES = 10;
-    private static final String SEPARATOR = "|";
+    private static final double PERCENT = 100.0;
 
-    private List<LeaderboardEntry> entries;
+    private final LeaderboardStore store;
+    private final ScoreBoard scoreBoard;
 
     /**
-     * Creates a new LeaderboardManager and loads existing data.
+     * Creates a new LeaderboardManager over the files of the working directory.
      */
     public LeaderboardManage() {
-        this.entries = new ArrayList<>();
-        loadLeaderboard();
+        this(Path.of(""));
+    }
+
+    /**
+     * Creates a new LeaderboardManager over the files of a directory.
+     *
+     * @param directory the directory of the leaderboard files
+     */
+    public LeaderboardManage(final Path directory) {
+        this.store = LeaderboardStore.open(directory);
+        this.scoreBoard = ScoreBoard.open(directory);
     }
 
     /**
-     * Adds a new score to the leaderboard if it qualifies for top 10.
+     * Adds a new score to the leaderboard, reporting whether it made the top 10.
      *
      * @param playerName the name of the player
      * @param score      the total score achieved
      * @param totalTime  the total time taken in seconds
-     * @return true if the score was added to the leaderboard, false otherwise
+     * @return true if the score entered the top 10, false otherwise
      */
     public boolean addScore(final String playerName, final int score, final int totalTime) {
         if (playerName == null || playerName.isBlank()) {
             throw new IllegalArgumentException("Player name cannot be null or empty");
         }
 
-        final LocalDateTime date = LocalDateTime.now();
+        // Stored to the second
+        final LocalDateTime date = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
         final LeaderboardEntry newEntry =
             new LeaderboardEntry(playerName.trim(), score, totalTime, date);
 
-        // Add and sort
-        entries.add(newEntry);
-        entries.sort((a, b) -> {
-            final int comparison = Integer.compare(b.getScore(), a.getScore());
-            if (comparison == 0) {
-                return Integer.compare(a.getTotalTime(), b.getTotalTime());
-            }
-            return comparison;
-        });
+        final boolean wasAdded = store.add(newEntry) < MAX_ENTRIES;
+        LOGGER.info("Score added for " + playerName + ": " + score + " points, " + totalTime + "s");
+        return wasAdded;
+    }
 
-        // Determine if it made top 10
-        final boolean wasAdded = entries.indexOf(newEntry) < MAX_ENTRIES;
-        if (entries.size() > MAX_ENTRIES) {
-            entries = entries.subList(0, MAX_ENTRIES);
+    /**
+     * Adds a finished run: its total score and time to the leaderboard, and
+     * its per-room results to the score board.
+     *
+     * @param playerName the name of the player
+     * @param roomScores the results of the run, by room
+     * @return true if the run entered the top 10, false otherwise
+     */
+    public boolean addRun(final String playerName, final Map<Integer, RoomScoreData> roomScores) {
+        if (playerName == null || playerName.isBlank()) {
+            throw new IllegalArgumentException("Player name cannot be null or empty");
         }
-
-        saveLeaderboard();
-        LOGGER.info("Score added for " + playerName + ": " + score + " points, " + totalTime + "s");
+        int score = 0;
+        int totalTime = 0;
+        for (final RoomScoreData data : roomScores.values()) {
+            if (data.isCompleted()) {
+                score += data.getPointsGained();
+                totalTime += data.getTimeTaken();
+            }
+        }
+        final LocalDateTime date = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        scoreBoard.record(playerName.trim(), date, roomScores);
+        final boolean wasAdded =
+            store.add(new LeaderboardEntry(playerName.trim(), score, totalTime, date)) < MAX_ENTRIES;
+        LOGGER.info("Run added for " + playerName + ": " + score + " points, " + totalTime + "s");
         return wasAdded;
     }
 
@@ -80,7 +100,7 @@ public final class LeaderboardManage {
      * @return immutable list of leaderboard entries
      */
     public List<LeaderboardEntry> getTop10() {
-        return Collections.unmodifiableList(new ArrayList<>(entries));
+        return Collections.unmodifiableList(store.top(MAX_ENTRIES));
     }
 
     /**
@@ -91,23 +111,37 @@ public final class LeaderboardManage {
      * @return the rank (1-10) or -1 if not in top 10
      */
     public int getRank(final int score, final int totalTime) {
-        final LeaderboardEntry tempEntry =
-            new LeaderboardEntry("temp", score, totalTime, LocalDateTime.now());
-        final List<LeaderboardEntry> tempList = new ArrayList<>(entries);
-        tempList.add(tempEntry);
-
-        tempList.sort((a, b) -> {
-            final int comparison = Integer.compare(b.getScore(), a.getScore());
-            if (comparison == 0) {
-                return Integer.compare(a.getTotalTime(), b.getTotalTime());
-            }
-            return comparison;
-        });
-
-        final int rank = tempList.indexOf(tempEntry) + 1;
+        final int rank = store.rankOf(score, totalTime) + 1;
         return rank <= MAX_ENTRIES ? rank : -1;
     }
 
+    /**
+     * Gets the rank a score would take among all the results ever recorded.
+     *
+     * @param score     the score to check
+     * @param totalTime the total time (used for tie-breaking)
+     * @return the 1-based rank, with no upper limit
+     */
+    public int getOverallRank(final int score, final int totalTime) {
+        return store.rankOf(score, totalTime) + 1;
+    }
+
+    /**
+     * Gets the share of recorded results a score would rank ahead of.
+     *
+     * @param score     the score to check
+     * @param totalTime the total time (used for tie-breaking)
+     * @return the percentile, from 0 (behind every result) to 100 (ahead of
+     *         every result, or no result recorded)
+     */
+    public double getPercentile(final int score, final int totalTime) {
+        final int size = store.size();
+        if (size == 0) {
+            return PERCENT;
+        }
+        return PERCENT * (size - store.rankOf(score, totalTime)) / size;
+    }
+
     /**
      * Checks if a score would qualify for the top 10.
      *
@@ -116,124 +150,90 @@ public final class LeaderboardManage {
      * @return true if the score would make it to top 10
      */
     public boolean wouldQualify(final int score, final int totalTime) {
-        if (entries.size() < MAX_ENTRIES) {
-            return true;
-        }
-        final LeaderboardEntry lastEntry = entries.get(entries.size() - 1);
-        return score > lastEntry.getScore()
-            || (score == lastEntry.getScore() && totalTime < lastEntry.getTotalTime());
+        return store.rankOf(score, totalTime) < MAX_ENTRIES;
     }
 
     /**
-     * Gets the current number of entries in the leaderboard.
+     * Gets a page of the full ranking, to browse boards of any size.
      *
-     * @return number of entries (0-10)
+     * @param fromRank the 1-based rank of the first entry
+     * @param count    the number of entries wanted
+     * @return the entries from that rank, at most {@code count}, best first
      */
-    public int getSize() {
-        return entries.size();
+    public List<LeaderboardEntry> getPage(final int fromRank, final int count) {
+        if (fromRank < 1) {
+            throw new IllegalArgumentException("Ranks start at 1: " + fromRank);
+        }
+        return Collections.unmodifiableList(store.range(fromRank - 1, count));
     }
 
     /**
-     * Checks if the leaderboard is empty.
+     * Gets the top 10 of a board of the score board over a window ending
+     * today.
      *
-     * @return true if no entries exist
+     * @param window the time span
+     * @param board  {@link ScoreBoard#OVERALL} or the id of a room
+     * @return immutable list of entries, best first
      */
-    public boolean isEmpty() {
-        return entries.isEmpty();
+    public List<LeaderboardEntry> getTop10(final ScoreBoard.Window window, final int board) {
+        return Collections.unmodifiableList(scoreBoard.top(window, board, LocalDate.now(), MAX_ENTRIES));
     }
 
     /**
-     * Clears all leaderboard entries (for testing or reset purposes).
+     * Gets the rank a result would take on a board of the score board over a
+     * window ending today.
+     *
+     * @param window    the time span
+     * @param board     {@link ScoreBoard#OVERALL} or the id of a room
+     * @param score     the score to check
+     * @param totalTime the time (used for tie-breaking)
+     * @return the 1-based rank, with no upper limit
      */
-    public void clear() {
-        entries.clear();
-        saveLeaderboard();
-        LOGGER.info("Leaderboard cleared");
+    public int getRank(final ScoreBoard.Window window, final int board, final int score, final int totalTime) {
+        return scoreBoard.rankOf(window, board, LocalDate.now(), score, totalTime) + 1;
     }
 
     /**
-     * Loads the leaderboard from the text file.
+     * Gets the current number of entries in the leaderboard.
+     *
+     * @return number of entries (0-10)
      */
-    private void loadLeaderboard() {
-        final File file = new File(LEADERBOARD_FILE);
-        if (!file.exists()) {
-            LOGGER.info("Leaderboard file does not exist, starting with empty leaderboard");
-            return;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            String line = reader.readLine();
-            while (line != null) {
-                final LeaderboardEntry entry = parseEntry(line);
-                if (entry != null) {
-                    entries.add(entry);
-                }
-                line = reader.readLine();
-            }
-            entries.sort((a, b) -> {
-                final int comparison = Integer.compare(b.getScore(), a.getScore());
-                if (comparison == 0) {
-                    return Integer.compare(a.getTotalTime(), b.getTotalTime());
-                }
-                return comparison;
-            });
-            LOGGER.info("Loaded " + entries.size() + " leaderboard entries");
-        } catch (final IOException e) {
-            LOGGER.log(Level.SEVERE, "Error loading leaderboard", e);
-        }
+    public int getSize() {
+        return Math.min(store.size(), MAX_ENTRIES);
     }
 
     /**
-     * Saves the leaderboard to the text file.
+     * Gets the number of results ever recorded.
+     *
+     * @return number of results
      */
-    private void saveLeaderboard() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(LEADERBOARD_FILE, StandardCharsets.UTF_8))) {
-            for (final LeaderboardEntry entry : entries) {
-                writer.println(formatEntry(entry));
-            }
-            LOGGER.info("Leaderboard saved with " + entries.size() + " entries");
-        } catch (final IOException e) {
-            LOGGER.log(Level.SEVERE, "Error saving leaderboard", e);
-        }
+    public int getHistorySize() {
+        return store.size();
     }
 
     /**
-     * Parses a line from the file into a LeaderboardEntry.
+     * Checks if the leaderboard is empty.
      *
-     * @param line the line to parse
-     * @return the parsed entry or null if invalid
-     */
-    private LeaderboardEntry parseEntry(final String line) {
-        final String[] parts = line.split("\\" + SEPARATOR);
-        if (parts.length != 4) {
-            LOGGER.warning("Invalid leaderboard entry format: " + line);
-            return null;
-        }
-
-        try {
-            final String name = parts[0];
-            final int score = Integer.parseInt(parts[1]);
-            final int time = Integer.parseInt(parts[2]);
-            final LocalDateTime date = LocalDateTime.parse(parts[3], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-
-            return new LeaderboardEntry(name, score, time, date);
+     * @return true if no entries exist
+     */
+    public boolean isEmpty() {
+        return store.size() == 0;
+    }
 
-        } catch (final NumberFormatException | java.time.format.DateTimeParseException e) {
-            LOGGER.log(Level.WARNING, "Error parsing leaderboard entry: " + line, e);
-            return null;
-        }
+    /**
+     * Clears all leaderboard entries (for testing or reset purposes).
+     */
+    public void clear() {
+        store.clear();
+        scoreBoard.clear();
+        LOGGER.info("Leaderboard cleared");
     }
 
     /**
-     * Formats a LeaderboardEntry for file storage.
-     *
-     * @param entry the entry to format
-     * @return the formatted string
-     */
-    private String formatEntry(final LeaderboardEntry entry) {
-        return entry.getPlayerName() + SEPARATOR
-            + entry.getScore() + SEPARATOR
-            + entry.getTotalTime() + SEPARATOR
-            + entry.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+     * Forces the results recorded so far to disk, waiting for the
+     * background writer.
+     */
+    public void flush() {
+        store.flush();
     }
 }
@@ -0,0 +1,81 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts the text leaderboard of the previous versions, one
+ * {@code name|score|time|date} line per entry, to a binary snapshot.
+ */
+public final class LeaderboardMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(LeaderboardMigrator.class.getName());
+    private static final String SEPARATOR = "\\|";
+    private static final int FIELDS = 4;
+
+    private LeaderboardMigrator() {
+    }
+
+    /**
+     * Writes the entries of a text leaderboard to a snapshot, best first;
+     * lines that cannot be parsed are logged and skipped, and dates are kept
+     * to the second.
+     *
+     * @param text     the text leaderboard
+     * @param snapshot the snapshot file to write
+     * @return the number of entries migrated
+     * @throws IOException if reading or writing fails; the snapshot is then
+     *                     left as it was
+     */
+    public static int migrate(final Path text, final Path snapshot) throws IOException {
+        final List<LeaderboardEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                final LeaderboardEntry entry = parseEntry(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+                line = reader.readLine();
+            }
+        }
+        // Stable: equal results keep the order of the file
+        entries.sort(Comparator.comparingInt(LeaderboardEntry::getScore).reversed()
+            .thenComparingInt(LeaderboardEntry::getTotalTime));
+        LeaderboardSnapshot.write(snapshot, 0, entries.size(), entries::get);
+        LOGGER.info("Migrated " + entries.size() + " leaderboard entries from " + text);
+        return entries.size();
+    }
+
+    /**
+     * Parses a line of the text leaderboard.
+     *
+     * @param line the line to parse
+     * @return the parsed entry or null if invalid
+     */
+    private static LeaderboardEntry parseEntry(final String line) {
+        final String[] parts = line.split(SEPARATOR);
+        if (parts.length != FIELDS) {
+            LOGGER.warning("Invalid leaderboard entry format: " + line);
+            return null;
+        }
+        try {
+            return new LeaderboardEntry(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                LocalDateTime.parse(parts[3], DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        } catch (final NumberFormatException | DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, "Error parsing leaderboard entry: " + line, e);
+            return null;
+        }
+    }
+}
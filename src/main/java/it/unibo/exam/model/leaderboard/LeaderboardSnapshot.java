@@ -0,0 +1,240 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.IntFunction;
+
+/**
+ * Leaderboard results in a binary file of fixed-width records, read in place
+ * through a memory mapping.
+ * <p>
+ * The file starts with a header (magic number, version, the first sequence
+ * number of the results not included, the number of results and the size of
+ * the name area), followed by one record of {@value #RECORD_BYTES} bytes per
+ * result, best first: name offset, score, time, and date in UTC epoch seconds.
+ * The names follow, each as an unsigned 16-bit length and UTF-8 bytes, at the
+ * offset its record gives from the start of the name area.
+ * </p>
+ * <p>
+ * Since records have a fixed width, the score or the time of the result at a
+ * rank is read straight from the mapping, and a name is only decoded when its
+ * entry is asked for: opening a file costs the same whatever its size.
+ * </p>
+ */
+final class LeaderboardSnapshot {
+
+    /** Bytes of a record. */
+    static final int RECORD_BYTES = 3 * Integer.BYTES + Long.BYTES;
+
+    private static final int MAGIC = 0x55454C42; // "UELB"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int SCORE_OFFSET = Integer.BYTES;
+    private static final int TIME_OFFSET = 2 * Integer.BYTES;
+    private static final int DATE_OFFSET = 3 * Integer.BYTES;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int WRITE_BUFFER_BYTES = 1 << 17;
+
+    private final ByteBuffer buffer;
+    private final long nextSequence;
+    private final int count;
+    private final int namesStart;
+
+    private LeaderboardSnapshot(final ByteBuffer buffer, final long nextSequence, final int count) {
+        this.buffer = buffer;
+        this.nextSequence = nextSequence;
+        this.count = count;
+        this.namesStart = HEADER_BYTES + count * RECORD_BYTES;
+    }
+
+    /**
+     * @return a snapshot of no result
+     */
+    static LeaderboardSnapshot empty() {
+        return new LeaderboardSnapshot(ByteBuffer.allocate(0), 0, 0);
+    }
+
+    /**
+     * Maps a snapshot file. The mapping lasts until the snapshot is garbage
+     * collected, and some platforms refuse to replace or delete a mapped file
+     * meanwhile: a new snapshot must go to a new file.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static LeaderboardSnapshot map(final Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = in.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Not a leaderboard snapshot: " + file);
+            }
+            return of(in.map(FileChannel.MapMode.READ_ONLY, 0, size), file);
+        }
+    }
+
+    /**
+     * Reads a snapshot in place from a buffer, such as a section of a larger
+     * mapped file.
+     *
+     * @param buffer the snapshot, from index 0 to its limit
+     * @param source what the buffer was read from, for the error messages
+     * @return the snapshot
+     * @throws IOException if the buffer is not a valid snapshot
+     */
+    static LeaderboardSnapshot of(final ByteBuffer buffer, final Object source) throws IOException {
+        final long size = buffer.limit();
+        if (size < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Not a leaderboard snapshot: " + source);
+        }
+        final long nextSequence = buffer.getLong(2 * Integer.BYTES);
+        final int count = buffer.getInt(2 * Integer.BYTES + Long.BYTES);
+        final long namesBytes = buffer.getLong(3 * Integer.BYTES + Long.BYTES);
+        if (count < 0 || size != HEADER_BYTES + (long) count * RECORD_BYTES + namesBytes) {
+            throw new IOException("Truncated leaderboard snapshot: " + source);
+        }
+        return new LeaderboardSnapshot(buffer, nextSequence, count);
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, syncs it, and moves it to the
+     * target atomically; the target should not exist, or be mapped.
+     *
+     * @param target       the snapshot file
+     * @param nextSequence the first sequence number of the results not included
+     * @param count        the number of results
+     * @param byRank       the result at each rank, best first
+     * @throws IOException if writing fails; the target is then unchanged
+     */
+    static void write(final Path target, final long nextSequence, final int count,
+                      final IntFunction<LeaderboardEntry> byRank) throws IOException {
+        final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, 0, nextSequence, count, byRank);
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes a snapshot at a position of a file, without syncing it.
+     *
+     * @param out          the file
+     * @param start        the position of the snapshot in the file
+     * @param nextSequence the first sequence number of the results not included
+     * @param count        the number of results
+     * @param byRank       the result at each rank, best first
+     * @return the number of bytes written
+     * @throws IOException if writing fails
+     */
+    static long write(final FileChannel out, final long start, final long nextSequence, final int count,
+                      final IntFunction<LeaderboardEntry> byRank) throws IOException {
+        final ByteBuffer records = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+        final ByteBuffer names = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+        long recordsAt = start + HEADER_BYTES;
+        final long namesStart = recordsAt + (long) count * RECORD_BYTES;
+        long namesAt = namesStart;
+        int nameOffset = 0;
+        for (int rank = 0; rank < count; rank++) {
+            final LeaderboardEntry entry = byRank.apply(rank);
+            final byte[] name = entry.getPlayerName().getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Player name too long: " + name.length + " bytes");
+            }
+            if (records.remaining() < RECORD_BYTES) {
+                recordsAt += write(out, records, recordsAt);
+            }
+            records.putInt(nameOffset)
+                .putInt(entry.getScore())
+                .putInt(entry.getTotalTime())
+                .putLong(entry.getDate().toEpochSecond(ZoneOffset.UTC));
+            if (names.remaining() < Short.BYTES + name.length) {
+                namesAt += write(out, names, namesAt);
+            }
+            names.putShort((short) name.length).put(name);
+            nameOffset += Short.BYTES + name.length;
+        }
+        write(out, records, recordsAt);
+        write(out, names, namesAt);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(nextSequence)
+            .putInt(count)
+            .putLong(nameOffset);
+        write(out, header, start);
+        return namesStart - start + nameOffset;
+    }
+
+    /**
+     * @return the first sequence number of the results not included
+     */
+    long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return the number of results
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @param rank a 0-based rank
+     * @return the score of the result at that rank
+     */
+    int getScore(final int rank) {
+        return buffer.getInt(HEADER_BYTES + rank * RECORD_BYTES + SCORE_OFFSET);
+    }
+
+    /**
+     * @param rank a 0-based rank
+     * @return the time of the result at that rank
+     */
+    int getTime(final int rank) {
+        return buffer.getInt(HEADER_BYTES + rank * RECORD_BYTES + TIME_OFFSET);
+    }
+
+    /**
+     * Decodes the result at a rank.
+     *
+     * @param rank a 0-based rank
+     * @return the result
+     */
+    LeaderboardEntry getEntry(final int rank) {
+        final int record = HEADER_BYTES + rank * RECORD_BYTES;
+        final int name = namesStart + buffer.getInt(record);
+        final byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(name))];
+        buffer.get(name + Short.BYTES, bytes);
+        return new LeaderboardEntry(new String(bytes, StandardCharsets.UTF_8),
+            buffer.getInt(record + SCORE_OFFSET),
+            buffer.getInt(record + TIME_OFFSET),
+            LocalDateTime.ofEpochSecond(buffer.getLong(record + DATE_OFFSET), 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Writes a buffer at a position of a file and empties it.
+     *
+     * @return the number of bytes written
+     */
+    private static int write(final FileChannel out, final ByteBuffer buffer, final long position) throws IOException {
+        buffer.flip();
+        final int length = buffer.remaining();
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += out.write(buffer, at);
+        }
+        buffer.clear();
+        return length;
+    }
+}
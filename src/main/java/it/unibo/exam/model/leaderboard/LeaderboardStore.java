@@ -0,0 +1,511 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import it.unibo.exam.utility.persistence.WriteBehindExecutor;
+
+/**
+ * Every leaderboard result ever recorded, persisted in an append-only log and
+ * ranked in memory.
+ * <p>
+ * A result is appended to {@value #LOG_FILE} as a binary record framed by its
+ * length and a CRC32, and the log is forced to disk every few records or on
+ * {@link #flush()}. A crash can only leave a torn record at the end of the
+ * log, which is detected by its frame on the next load and cut off. When the
+ * log grows as long as half the history, the whole history is written, best
+ * first, to a new snapshot of fixed-width records (see
+ * {@link LeaderboardSnapshot}) and the log is emptied. Each snapshot is a new
+ * file, {@value #SNAPSHOT_PREFIX}<i>n</i>{@value #SNAPSHOT_SUFFIX} with
+ * <i>n</i> one more than the last, since the current one is mapped and a
+ * mapped file cannot be replaced or deleted on every platform; the highest
+ * number is loaded, and older ones are deleted once nothing maps them any
+ * longer. Records carry a sequence number, and the snapshot the first
+ * number it does not contain, so records a crash left both in the snapshot
+ * and in the log are read once.
+ * </p>
+ * <p>
+ * Loading maps the snapshot, builds a {@link RankIndex} over it in one pass
+ * since it is already ranked, and replays the log into the index, so adding a
+ * result and finding its rank take {@code O(log n)}. Results of the snapshot
+ * are only decoded when asked for. A store is shared by everyone opening the
+ * same directory, and is thread-safe.
+ * </p>
+ * <p>
+ * Results are ranked in memory at once, and written behind by the shared
+ * {@link WriteBehindExecutor}: records pile up in an outbox, and a single
+ * pending write appends them all, syncs and compacts, so the caller never
+ * waits for the disk. Loading only reads the files, apart from migrating a
+ * {@value #LEGACY_FILE} once; they are written by the writer thread alone,
+ * which also cuts off a torn tail found by the load before appending.
+ * </p>
+ * <p>
+ * A snapshot that cannot be loaded is renamed with {@code .corrupt} added,
+ * so that no compaction deletes it, and the log is replayed from its first
+ * record. If loading fails otherwise, the store keeps its results in memory
+ * alone and leaves the files as they are.
+ * </p>
+ */
+public final class LeaderboardStore {
+
+    /** Name of the log file. */
+    public static final String LOG_FILE = "leaderboard.wal";
+    /** Start of the names of the snapshot files, followed by their number. */
+    public static final String SNAPSHOT_PREFIX = "leaderboard.";
+    /** End of the names of the snapshot files. */
+    public static final String SNAPSHOT_SUFFIX = ".snap";
+    /** Name of the text file of the previous versions, migrated once. */
+    public static final String LEGACY_FILE = "leaderboard.txt";
+
+    private static final Logger LOGGER = Logger.getLogger(LeaderboardStore.class.getName());
+    private static final Map<Path, LeaderboardStore> OPEN = new ConcurrentHashMap<>();
+
+    /** Records appended before the log is forced to disk. */
+    private static final int SYNC_BATCH = 16;
+    /** Records in the log below which it is never compacted. */
+    private static final int MIN_COMPACTION = 1024;
+    private static final int FRAME_BYTES = 2 * Integer.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = 2 * Long.BYTES + 2 * Integer.BYTES + Short.BYTES;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private final Path log;
+    private final NumberedFiles snapshots;
+    /** False if loading failed, in which case the files are left as they are. */
+    private final boolean writable;
+    private final WriteBehindExecutor writer = WriteBehindExecutor.getInstance();
+    /** Results appended since the snapshot, by node after the snapshot ones. */
+    private final List<LeaderboardEntry> appended = new ArrayList<>();
+    /** Records waiting for the writer. */
+    private final ArrayDeque<ByteBuffer> outbox = new ArrayDeque<>();
+    private LeaderboardSnapshot base = LeaderboardSnapshot.empty();
+    private RankIndex index = new RankIndex();
+    private long nextSequence;
+    /** Counts the clears, so that a compaction does not bring back what one dropped. */
+    private int generation;
+    private boolean syncRequested;
+    private boolean compactRequested;
+    private boolean closeRequested;
+
+    // Owned by the writer thread once loaded; loading only reads the files
+    private FileChannel channel;
+    /** Number of the current snapshot file; -1 if there is none. */
+    private long snapshotNumber;
+    /** Length of the valid part of a log with a torn tail, cut when first opened; -1 if intact. */
+    private long validLogBytes = -1;
+    private int logRecords;
+    private int unsynced;
+    private long decodedSequence;
+
+    private LeaderboardStore(final Path directory) {
+        this.log = directory.resolve(LOG_FILE);
+        this.snapshots = new NumberedFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        final Path legacy = directory.resolve(LEGACY_FILE);
+        boolean loaded = true;
+        try {
+            snapshotNumber = snapshots.latest();
+            if (snapshotNumber < 0 && !Files.exists(log) && Files.exists(legacy)) {
+                LeaderboardMigrator.migrate(legacy, snapshots.get(0));
+                snapshotNumber = 0;
+            }
+            boolean snapshotLost = false;
+            if (snapshotNumber >= 0) {
+                try {
+                    loadSnapshot(snapshots.get(snapshotNumber));
+                } catch (final IOException e) {
+                    LOGGER.log(Level.SEVERE, "Unreadable leaderboard snapshot set aside as "
+                        + snapshots.setAside(snapshotNumber), e);
+                    snapshotLost = true;
+                }
+            }
+            if (Files.exists(log)) {
+                replayLog(snapshotLost);
+            }
+            LOGGER.info("Loaded " + index.size() + " leaderboard entries");
+        } catch (final IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading leaderboard, leaving its files as they are", e);
+            loaded = false;
+        }
+        this.writable = loaded;
+    }
+
+    /**
+     * Opens the store of a directory, loading it the first time.
+     *
+     * @param directory the directory of the store files
+     * @return the store shared by everyone using the directory
+     */
+    public static LeaderboardStore open(final Path directory) {
+        return OPEN.computeIfAbsent(directory.toAbsolutePath().normalize(), LeaderboardStore::new);
+    }
+
+    /**
+     * Closes every open store, without waiting for the writer: see
+     * {@link WriteBehindExecutor#shutdown(long)}.
+     */
+    public static void closeAll() {
+        for (final LeaderboardStore store : List.copyOf(OPEN.values())) {
+            store.requestClose();
+            OPEN.remove(store.log.getParent(), store);
+        }
+    }
+
+    /**
+     * Records a result; it is written to disk in the background.
+     *
+     * @param entry the result
+     * @return the 0-based rank of the result, best first
+     */
+    public int add(final LeaderboardEntry entry) {
+        final byte[] name = entry.getPlayerName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Player name too long: " + name.length + " bytes");
+        }
+        final int rank;
+        synchronized (this) {
+            final int node = remember(entry);
+            outbox.add(encode(nextSequence++, entry));
+            rank = index.rank(node);
+        }
+        writeBehind();
+        return rank;
+    }
+
+    /**
+     * @param rank a 0-based rank, best first
+     * @return the result at that rank
+     */
+    public synchronized LeaderboardEntry get(final int rank) {
+        return entry(index.select(rank));
+    }
+
+    /**
+     * @param count the number of results wanted
+     * @return the best results, at most {@code count}, best first
+     */
+    public List<LeaderboardEntry> top(final int count) {
+        return range(0, count);
+    }
+
+    /**
+     * Reads a page of the ranking.
+     *
+     * @param from  the 0-based rank of the first result
+     * @param count the number of results wanted
+     * @return the results from that rank, at most {@code count}, best first
+     */
+    public synchronized List<LeaderboardEntry> range(final int from, final int count) {
+        final int[] nodes = index.range(from, count);
+        final List<LeaderboardEntry> page = new ArrayList<>(nodes.length);
+        for (final int node : nodes) {
+            page.add(entry(node));
+        }
+        return page;
+    }
+
+    /**
+     * @param score the score
+     * @param time  the time in seconds
+     * @return the 0-based rank a new result would take, after the equal ones
+     */
+    public synchronized int rankOf(final int score, final int time) {
+        return index.rankOf(score, time);
+    }
+
+    /**
+     * @return the number of results recorded
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Forgets every result, on disk too.
+     */
+    public void clear() {
+        synchronized (this) {
+            appended.clear();
+            outbox.clear();
+            base = LeaderboardSnapshot.empty();
+            index = new RankIndex();
+            generation++;
+            compactRequested = true;
+        }
+        writeBehind();
+    }
+
+    /**
+     * Forces the results recorded so far to disk, waiting for the writer.
+     */
+    public void flush() {
+        synchronized (this) {
+            syncRequested = true;
+        }
+        writeBehind();
+        writer.flush();
+    }
+
+    /**
+     * Asks the writer to write the whole history to a new snapshot and to
+     * empty the log; if writing fails, the previous snapshot and log are
+     * still valid.
+     */
+    public void compact() {
+        synchronized (this) {
+            compactRequested = true;
+        }
+        writeBehind();
+    }
+
+    /**
+     * Syncs and closes the files, waiting for the writer; the next
+     * {@link #open(Path)} loads the store again.
+     */
+    public void close() {
+        requestClose();
+        writer.flush();
+        OPEN.remove(log.getParent(), this);
+    }
+
+    private void requestClose() {
+        synchronized (this) {
+            closeRequested = true;
+        }
+        writeBehind();
+    }
+
+    private void writeBehind() {
+        writer.submit(this, this::persist);
+    }
+
+    /**
+     * Writes what piled up since the last time, on the writer thread.
+     */
+    private void persist() throws IOException {
+        final List<ByteBuffer> batch;
+        final boolean sync;
+        final boolean compaction;
+        final boolean closing;
+        final int size;
+        synchronized (this) {
+            batch = new ArrayList<>(outbox);
+            outbox.clear();
+            sync = syncRequested;
+            compaction = compactRequested;
+            closing = closeRequested;
+            syncRequested = false;
+            compactRequested = false;
+            closeRequested = false;
+            size = index.size();
+        }
+        if (!writable) {
+            return;
+        }
+        if (!batch.isEmpty()) {
+            final FileChannel out = channel();
+            for (final ByteBuffer record : batch) {
+                write(out, record);
+            }
+            logRecords += batch.size();
+            unsynced += batch.size();
+        }
+        if (compaction || logRecords >= Math.max(MIN_COMPACTION, size / 2)) {
+            compactLog();
+        } else if (unsynced > 0 && (sync || closing || unsynced >= SYNC_BATCH)) {
+            channel.force(false);
+            unsynced = 0;
+        }
+        if (closing && channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Writes the history ranked so far to a new snapshot, empties the log,
+     * and moves the results to the new snapshot unless a clear came first.
+     * Records still in the outbox are before the end of the snapshot, so the
+     * next load skips them.
+     */
+    private void compactLog() throws IOException {
+        final int[] ranked;
+        final LeaderboardSnapshot from;
+        final List<LeaderboardEntry> recent;
+        final long end;
+        final int cleared;
+        synchronized (this) {
+            ranked = index.range(0, index.size());
+            from = base;
+            recent = new ArrayList<>(appended);
+            end = nextSequence;
+            cleared = generation;
+        }
+        final Path target = snapshots.get(snapshotNumber + 1);
+        LeaderboardSnapshot.write(target, end, ranked.length, rank -> entry(from, recent, ranked[rank]));
+        snapshotNumber++;
+        channel().truncate(0);
+        channel.force(true);
+        logRecords = 0;
+        unsynced = 0;
+        final LeaderboardSnapshot written = LeaderboardSnapshot.map(target);
+        final RankIndex rebuilt = RankIndex.ofRanked(written.size(), written::getScore, written::getTime);
+        synchronized (this) {
+            if (generation == cleared) {
+                final List<LeaderboardEntry> late = new ArrayList<>(appended.subList(recent.size(), appended.size()));
+                base = written;
+                index = rebuilt;
+                appended.clear();
+                for (final LeaderboardEntry entry : late) {
+                    remember(entry);
+                }
+            }
+        }
+        snapshots.deleteBefore(snapshotNumber);
+    }
+
+    private int remember(final LeaderboardEntry entry) {
+        appended.add(entry);
+        return index.insert(entry.getScore(), entry.getTotalTime());
+    }
+
+    private LeaderboardEntry entry(final int node) {
+        return entry(base, appended, node);
+    }
+
+    private static LeaderboardEntry entry(final LeaderboardSnapshot from, final List<LeaderboardEntry> recent,
+                                          final int node) {
+        return node < from.size() ? from.getEntry(node) : recent.get(node - from.size());
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (validLogBytes >= 0) {
+                channel.truncate(validLogBytes);
+                channel.force(true);
+                validLogBytes = -1;
+            }
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    private void loadSnapshot(final Path file) throws IOException {
+        final LeaderboardSnapshot loaded = LeaderboardSnapshot.map(file);
+        try {
+            index = RankIndex.ofRanked(loaded.size(), loaded::getScore, loaded::getTime);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Corrupted leaderboard snapshot: " + file, e);
+        }
+        base = loaded;
+        appended.clear();
+        nextSequence = loaded.getNextSequence();
+    }
+
+    /**
+     * Replays the log after the snapshot; without the snapshot, from its
+     * first record whatever its sequence number.
+     */
+    private void replayLog(final boolean snapshotLost) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(log));
+        long snapshotEnd = nextSequence;
+        int valid = 0;
+        while (buffer.hasRemaining()) {
+            final LeaderboardEntry entry = decode(buffer);
+            if (entry != null && snapshotLost && logRecords == 0) {
+                snapshotEnd = decodedSequence;
+                nextSequence = decodedSequence;
+            }
+            if (entry == null || decodedSequence > nextSequence) {
+                break;
+            }
+            // Records before the snapshot end are in it already: compaction
+            // was cut short before emptying the log
+            if (decodedSequence >= snapshotEnd) {
+                remember(entry);
+                nextSequence++;
+            }
+            logRecords++;
+            valid = buffer.position();
+        }
+        if (valid < buffer.limit()) {
+            LOGGER.warning("Dropping " + (buffer.limit() - valid) + " bytes of torn leaderboard log");
+            // Cut by the writer before it appends anything
+            validLogBytes = valid;
+        }
+    }
+
+    /**
+     * Frames a result: payload length, then sequence number, score, time,
+     * date in UTC epoch seconds and UTF-8 name, then the CRC32 of the payload.
+     */
+    private static ByteBuffer encode(final long sequence, final LeaderboardEntry entry) {
+        final byte[] name = entry.getPlayerName().getBytes(StandardCharsets.UTF_8);
+        final int length = FIXED_PAYLOAD_BYTES + name.length;
+        final ByteBuffer buffer = ByteBuffer.allocate(length + FRAME_BYTES);
+        buffer.putInt(length)
+            .putLong(sequence)
+            .putInt(entry.getScore())
+            .putInt(entry.getTotalTime())
+            .putLong(entry.getDate().toEpochSecond(ZoneOffset.UTC))
+            .putShort((short) name.length)
+            .put(name);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, length);
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Reads a framed result, leaving its sequence number in {@link #decodedSequence}.
+     *
+     * @return the result, or null if the frame is torn or corrupted, in which
+     *         case the buffer position is unspecified
+     */
+    private LeaderboardEntry decode(final ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_BYTES + FIXED_PAYLOAD_BYTES) {
+            return null;
+        }
+        final int start = buffer.position() + Integer.BYTES;
+        final int length = buffer.getInt();
+        if (length < FIXED_PAYLOAD_BYTES || length > buffer.remaining() - Integer.BYTES) {
+            return null;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, length);
+        if (buffer.getInt(start + length) != (int) crc.getValue()) {
+            return null;
+        }
+        decodedSequence = buffer.getLong();
+        final int score = buffer.getInt();
+        final int time = buffer.getInt();
+        final long date = buffer.getLong();
+        final int nameLength = Short.toUnsignedInt(buffer.getShort());
+        if (nameLength != length - FIXED_PAYLOAD_BYTES) {
+            return null;
+        }
+        final String name = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+        buffer.position(start + length + Integer.BYTES);
+        return new LeaderboardEntry(name, score, time, LocalDateTime.ofEpochSecond(date, 0, ZoneOffset.UTC));
+    }
+
+    private static void write(final FileChannel out, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Files of a directory named by a prefix, a number and a suffix, such as the
+ * successive snapshots of a store: each new one gets the next number, so that
+ * a file still mapped is never replaced.
+ */
+final class NumberedFiles {
+
+    /** Added to the name of a file set aside. */
+    static final String SET_ASIDE_SUFFIX = ".corrupt";
+
+    private static final Logger LOGGER = Logger.getLogger(NumberedFiles.class.getName());
+
+    private final Path directory;
+    private final String prefix;
+    private final String suffix;
+
+    /**
+     * @param directory the directory of the files
+     * @param prefix    the start of the names, before the number
+     * @param suffix    the end of the names, after the number
+     */
+    NumberedFiles(final Path directory, final String prefix, final String suffix) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * @param number a file number
+     * @return the file of that number
+     */
+    Path get(final long number) {
+        return directory.resolve(prefix + number + suffix);
+    }
+
+    /**
+     * @return the number of the latest file, or -1 if there is none
+     * @throws IOException if the directory cannot be listed
+     */
+    long latest() throws IOException {
+        long latest = -1;
+        for (final long number : numbers()) {
+            latest = Math.max(latest, number);
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes the files numbered below a number. A file still mapped
+     * somewhere may refuse to go; it is tried again next time.
+     *
+     * @param current the number of the file to keep
+     * @throws IOException if the directory cannot be listed
+     */
+    void deleteBefore(final long current) throws IOException {
+        for (final long number : numbers()) {
+            if (number < current) {
+                try {
+                    Files.deleteIfExists(get(number));
+                } catch (final IOException e) {
+                    LOGGER.fine("Old file still in use: " + get(number));
+                }
+            }
+        }
+    }
+
+    /**
+     * Renames a file that cannot be read out of the numbered ones, so that
+     * nothing deletes it with the older files.
+     *
+     * @param number the number of the file
+     * @return the file as renamed
+     * @throws IOException if the file cannot be renamed
+     */
+    Path setAside(final long number) throws IOException {
+        final Path file = get(number);
+        return Files.move(file, file.resolveSibling(file.getFileName() + SET_ASIDE_SUFFIX),
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private List<Long> numbers() throws IOException {
+        final List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (final Path file : files) {
+                final String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (final NumberFormatException e) {
+                    LOGGER.fine("Not a numbered file: " + name);
+                }
+            }
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,328 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Order-statistic tree of (score, time) results, best first.
+ * <p>
+ * Results are ordered by higher score, then shorter time, then insertion
+ * order. Each result is a node identified by its insertion number, and the
+ * tree is an AVL tree whose nodes also count the size of their subtree, so an
+ * insertion, the rank of a node or of any (score, time) pair and the node at
+ * a rank all take {@code O(log n)}, and a run of {@code k} consecutive ranks
+ * is read in {@code O(log n + k)}. Nodes live in parallel primitive arrays:
+ * the index holds no objects per result.
+ * </p>
+ * <p>
+ * Not thread-safe.
+ * </p>
+ */
+public final class RankIndex {
+
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] scores;
+    private int[] times;
+    private int[] left;
+    private int[] right;
+    private int[] sizes;
+    private byte[] heights;
+    private int count;
+    private int root = NIL;
+
+    /**
+     * Creates an empty index.
+     */
+    public RankIndex() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private RankIndex(final int capacity) {
+        scores = new int[capacity];
+        times = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        sizes = new int[capacity];
+        heights = new byte[capacity];
+    }
+
+    /**
+     * Builds a balanced index of results already in rank order, in
+     * {@code O(n)}: node {@code i} is the result at rank {@code i}.
+     *
+     * @param count   the number of results
+     * @param scoreOf the score of the result at each rank
+     * @param timeOf  the time of the result at each rank
+     * @return the index
+     */
+    public static RankIndex ofRanked(final int count, final IntUnaryOperator scoreOf, final IntUnaryOperator timeOf) {
+        final RankIndex index = new RankIndex(Math.max(INITIAL_CAPACITY, count));
+        for (int node = 0; node < count; node++) {
+            index.scores[node] = scoreOf.applyAsInt(node);
+            index.times[node] = timeOf.applyAsInt(node);
+            if (node > 0 && index.precedes(node, node - 1)) {
+                throw new IllegalArgumentException("Results out of rank order at " + node);
+            }
+        }
+        index.count = count;
+        index.root = index.build(0, count - 1);
+        return index;
+    }
+
+    /**
+     * Adds a result.
+     *
+     * @param score the score
+     * @param time  the time in seconds
+     * @return the node of the result: the number of results added before it
+     */
+    public int insert(final int score, final int time) {
+        if (count == scores.length) {
+            grow();
+        }
+        final int node = count++;
+        scores[node] = score;
+        times[node] = time;
+        left[node] = NIL;
+        right[node] = NIL;
+        sizes[node] = 1;
+        heights[node] = 1;
+        root = attach(root, node);
+        return node;
+    }
+
+    /**
+     * @param node a node
+     * @return the 0-based position of its result, best first
+     */
+    public int rank(final int node) {
+        int rank = 0;
+        int current = root;
+        while (current != node) {
+            if (precedes(node, current)) {
+                current = left[current];
+            } else {
+                rank += size(left[current]) + 1;
+                current = right[current];
+            }
+        }
+        return rank + size(left[node]);
+    }
+
+    /**
+     * Counts the results a new (score, time) result would rank after: those
+     * with a higher score, or the same score and a time as short or shorter.
+     *
+     * @param score the score
+     * @param time  the time in seconds
+     * @return the 0-based rank the result would take
+     */
+    public int rankOf(final int score, final int time) {
+        int rank = 0;
+        int current = root;
+        while (current != NIL) {
+            if (scores[current] > score || scores[current] == score && times[current] <= time) {
+                rank += size(left[current]) + 1;
+                current = right[current];
+            } else {
+                current = left[current];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Reads consecutive ranks, walking the tree in order from the first one.
+     *
+     * @param from  the first 0-based rank
+     * @param count the number of ranks wanted
+     * @return the nodes at ranks {@code from} onward, best first; fewer than
+     *         {@code count} at the end of the index
+     */
+    public int[] range(final int from, final int count) {
+        if (from < 0 || count < 0) {
+            throw new IllegalArgumentException("Invalid range: " + count + " from " + from);
+        }
+        final int[] nodes = new int[Math.max(0, Math.min(count, this.count - from))];
+        if (nodes.length == 0) {
+            return nodes;
+        }
+        // Nodes still to visit, each after the ones above it on the stack
+        final int[] pending = new int[height(root)];
+        int top = 0;
+        int k = from;
+        int current = root;
+        while (current != NIL) {
+            final int before = size(left[current]);
+            if (k < before) {
+                pending[top++] = current;
+                current = left[current];
+            } else if (k == before) {
+                pending[top++] = current;
+                current = NIL;
+            } else {
+                k -= before + 1;
+                current = right[current];
+            }
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            final int node = pending[--top];
+            nodes[i] = node;
+            for (int next = right[node]; next != NIL; next = left[next]) {
+                pending[top++] = next;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @param rank a 0-based position, best first
+     * @return the node of the result at that position
+     */
+    public int select(final int rank) {
+        if (rank < 0 || rank >= count) {
+            throw new IllegalArgumentException("Rank out of the index: " + rank + " of " + count);
+        }
+        int k = rank;
+        int current = root;
+        while (true) {
+            final int before = size(left[current]);
+            if (k < before) {
+                current = left[current];
+            } else if (k == before) {
+                return current;
+            } else {
+                k -= before + 1;
+                current = right[current];
+            }
+        }
+    }
+
+    /**
+     * @param node a node
+     * @return the score of its result
+     */
+    public int getScore(final int node) {
+        return scores[node];
+    }
+
+    /**
+     * @param node a node
+     * @return the time of its result
+     */
+    public int getTime(final int node) {
+        return times[node];
+    }
+
+    /**
+     * @return the number of results
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Removes every result.
+     */
+    public void clear() {
+        count = 0;
+        root = NIL;
+    }
+
+    /**
+     * @return true if node {@code a} comes before node {@code b}
+     */
+    private boolean precedes(final int a, final int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        if (times[a] != times[b]) {
+            return times[a] < times[b];
+        }
+        return a < b;
+    }
+
+    private int build(final int from, final int to) {
+        if (from > to) {
+            return NIL;
+        }
+        final int middle = (from + to) >>> 1;
+        left[middle] = build(from, middle - 1);
+        right[middle] = build(middle + 1, to);
+        update(middle);
+        return middle;
+    }
+
+    private int attach(final int subtree, final int node) {
+        if (subtree == NIL) {
+            return node;
+        }
+        if (precedes(node, subtree)) {
+            left[subtree] = attach(left[subtree], node);
+        } else {
+            right[subtree] = attach(right[subtree], node);
+        }
+        return balance(subtree);
+    }
+
+    private int balance(final int node) {
+        update(node);
+        final int skew = height(left[node]) - height(right[node]);
+        if (skew > 1) {
+            if (height(left[left[node]]) < height(right[left[node]])) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(right[right[node]]) < height(left[right[node]])) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(final int node) {
+        final int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(final int node) {
+        final int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(final int node) {
+        heights[node] = (byte) (1 + Math.max(height(left[node]), height(right[node])));
+        sizes[node] = 1 + size(left[node]) + size(right[node]);
+    }
+
+    private int height(final int node) {
+        return node == NIL ? 0 : heights[node];
+    }
+
+    private int size(final int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+
+    private void grow() {
+        final int capacity = scores.length * 2;
+        scores = Arrays.copyOf(scores, capacity);
+        times = Arrays.copyOf(times, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+    }
+}
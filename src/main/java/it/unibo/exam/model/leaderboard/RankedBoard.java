@@ -0,0 +1,122 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results ranked by a {@link RankIndex}, with the entry of each node: the
+ * results of a snapshot first, read in place, then the ones added since.
+ * <p>
+ * Not thread-safe.
+ * </p>
+ */
+final class RankedBoard {
+
+    private final LeaderboardSnapshot base;
+    private final RankIndex index;
+    /** Results added since the snapshot, by node after the snapshot ones. */
+    private final List<LeaderboardEntry> appended = new ArrayList<>();
+
+    /**
+     * Creates an empty board.
+     */
+    RankedBoard() {
+        this.base = LeaderboardSnapshot.empty();
+        this.index = new RankIndex();
+    }
+
+    /**
+     * Creates a board of the results of a snapshot, indexed in one pass.
+     *
+     * @param base the snapshot, best first
+     * @throws IllegalArgumentException if the snapshot is not ranked
+     */
+    RankedBoard(final LeaderboardSnapshot base) {
+        this.base = base;
+        this.index = RankIndex.ofRanked(base.size(), base::getScore, base::getTime);
+    }
+
+    /**
+     * Adds a result.
+     *
+     * @param entry the result
+     */
+    void add(final LeaderboardEntry entry) {
+        appended.add(entry);
+        index.insert(entry.getScore(), entry.getTotalTime());
+    }
+
+    /**
+     * @param count the number of results wanted
+     * @return the best results, at most {@code count}, best first
+     */
+    List<LeaderboardEntry> top(final int count) {
+        final int[] nodes = index.range(0, count);
+        final List<LeaderboardEntry> top = new ArrayList<>(nodes.length);
+        for (final int node : nodes) {
+            top.add(entry(base, appended, node));
+        }
+        return top;
+    }
+
+    /**
+     * @param score the score
+     * @param time  the time in seconds
+     * @return the 0-based rank a new result would take, after the equal ones
+     */
+    int rankOf(final int score, final int time) {
+        return index.rankOf(score, time);
+    }
+
+    /**
+     * @return the number of results
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Captures the ranking, to be read later without the board, nor whatever
+     * lock guards it; names are only decoded when read.
+     *
+     * @return the results as ranked now
+     */
+    Ranking freeze() {
+        return new Ranking(index.range(0, index.size()), base, new ArrayList<>(appended));
+    }
+
+    private static LeaderboardEntry entry(final LeaderboardSnapshot from, final List<LeaderboardEntry> recent,
+                                          final int node) {
+        return node < from.size() ? from.getEntry(node) : recent.get(node - from.size());
+    }
+
+    /**
+     * Results of a board as ranked when it was frozen.
+     */
+    static final class Ranking {
+        private final int[] nodes;
+        private final LeaderboardSnapshot base;
+        private final List<LeaderboardEntry> appended;
+
+        private Ranking(final int[] nodes, final LeaderboardSnapshot base, final List<LeaderboardEntry> appended) {
+            this.nodes = nodes;
+            this.base = base;
+            this.appended = appended;
+        }
+
+        /**
+         * @return the number of results
+         */
+        int size() {
+            return nodes.length;
+        }
+
+        /**
+         * @param rank a 0-based rank
+         * @return the result at that rank
+         */
+        LeaderboardEntry get(final int rank) {
+            return entry(base, appended, nodes[rank]);
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package it.unibo.exam.model.leaderboard;
+
+import it.unibo.exam.model.data.RoomScoreData;
+import it.unibo.exam.utility.persistence.WriteBehindExecutor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Every run with its per-room results, ranked per minigame and over time
+ * windows.
+ * <p>
+ * A board ranks either the whole runs ({@link #OVERALL}: total points, then
+ * total time) or the results of the minigame of one room (points, then time).
+ * Each board is kept all-time, and for each of the last seven days recorded
+ * in a bucket of its own; buckets are added and dropped as days go by, so
+ * recording a run updates a few boards in {@code O(log n)}, and a
+ * {@link Window} is answered from the buckets it covers, without going
+ * through the runs again.
+ * </p>
+ * <p>
+ * Runs are appended to {@value #RUNS_FILE} as binary records framed by their
+ * length and a CRC32, written behind by the shared {@link WriteBehindExecutor}
+ * and forced to disk with each batch. Once most runs of the file are older
+ * than the retained days, the all-time boards are written, best first, to a
+ * new snapshot {@value #SNAPSHOT_PREFIX}<i>n</i>{@value #SNAPSHOT_SUFFIX} (see
+ * {@link ScoreBoardSnapshot}), and the runs file is rewritten with the runs of
+ * the retained days alone. Runs carry a sequence number, and the snapshot the
+ * first number it does not contain, so loading maps the snapshot, indexes each
+ * of its boards in one pass, and replays the runs file only into the day
+ * buckets for the runs the snapshot holds already.
+ * </p>
+ * <p>
+ * Loading only reads the files; they are written by the writer thread alone,
+ * which also cuts off a torn record a crash left at the end of the runs file
+ * before appending. A snapshot that cannot be loaded is renamed with
+ * {@code .corrupt} added, so that no compaction deletes it, and the boards
+ * are rebuilt from the runs file alone; if loading fails otherwise, the runs
+ * are kept in memory alone and the files left as they are. A score board is
+ * shared by everyone opening the same directory, and is thread-safe.
+ * </p>
+ */
+public final class ScoreBoard {
+
+    /** Name of the runs file. */
+    public static final String RUNS_FILE = "scoreboard.runs";
+    /** Start of the names of the snapshot files, followed by their number. */
+    public static final String SNAPSHOT_PREFIX = "scoreboard.";
+    /** End of the names of the snapshot files. */
+    public static final String SNAPSHOT_SUFFIX = ".snap";
+    /** Board of the whole runs; the others are the rooms of the minigames. */
+    public static final int OVERALL = 0;
+
+    private static final Logger LOGGER = Logger.getLogger(ScoreBoard.class.getName());
+    private static final Map<Path, ScoreBoard> OPEN = new ConcurrentHashMap<>();
+    private static final Comparator<LeaderboardEntry> RANKING =
+        Comparator.comparingInt(LeaderboardEntry::getScore).reversed()
+            .thenComparingInt(LeaderboardEntry::getTotalTime);
+
+    /** Days kept in buckets: the longest window. */
+    private static final int RETAINED_DAYS = 7;
+    /** Runs in the file below which it is never compacted. */
+    private static final int MIN_COMPACTION = 256;
+    private static final int FRAME_BYTES = 2 * Integer.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = 2 * Long.BYTES + Short.BYTES + 1;
+    private static final int ROOM_BYTES = 3 * Integer.BYTES + 1;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int MAX_ROOMS = 0xFF;
+
+    /**
+     * Time spans of the rankings.
+     */
+    public enum Window {
+        /** The runs of the day. */
+        DAY(1),
+        /** The runs of the last seven days, the day included. */
+        WEEK(RETAINED_DAYS),
+        /** Every run. */
+        ALL_TIME(0);
+
+        private final int days;
+
+        Window(final int days) {
+            this.days = days;
+        }
+    }
+
+    private final Path file;
+    private final NumberedFiles snapshots;
+    /** False if loading failed, in which case the files are left as they are. */
+    private final boolean writable;
+    private final WriteBehindExecutor writer = WriteBehindExecutor.getInstance();
+    /** Records waiting for the writer. */
+    private final ArrayDeque<ByteBuffer> outbox = new ArrayDeque<>();
+    private final Map<Integer, RankedBoard> allTime = new HashMap<>();
+    /** Boards of each retained day, by epoch day. */
+    private final NavigableMap<Long, Map<Integer, RankedBoard>> days = new TreeMap<>();
+    /** Records of the runs of each retained day, by epoch day, kept by compaction. */
+    private final NavigableMap<Long, List<ByteBuffer>> retained = new TreeMap<>();
+    private int retainedRuns;
+    private long latestDay = Long.MIN_VALUE;
+    private long nextSequence;
+    private boolean compactRequested;
+    private boolean closeRequested;
+
+    // Owned by the writer thread once loaded; loading only reads the files
+    private FileChannel channel;
+    /** Number of the current snapshot file; -1 if there is none. */
+    private long snapshotNumber;
+    /** Length of the valid part of a runs file with a torn tail, cut when first opened; -1 if intact. */
+    private long validRunsBytes = -1;
+    private int fileRuns;
+
+    private ScoreBoard(final Path directory) {
+        this.file = directory.resolve(RUNS_FILE);
+        this.snapshots = new NumberedFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        boolean loaded = true;
+        try {
+            snapshotNumber = snapshots.latest();
+            if (snapshotNumber >= 0) {
+                try {
+                    loadSnapshot(snapshots.get(snapshotNumber));
+                } catch (final IOException e) {
+                    // The runs file then fills the all-time boards as far as it goes
+                    LOGGER.log(Level.SEVERE, "Unreadable score board snapshot set aside as "
+                        + snapshots.setAside(snapshotNumber), e);
+                }
+            }
+            if (Files.exists(file)) {
+                replay();
+            }
+            LOGGER.info("Loaded " + getRunCount() + " runs");
+        } catch (final IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading score board, leaving its files as they are", e);
+            loaded = false;
+        }
+        this.writable = loaded;
+    }
+
+    /**
+     * Opens the score board of a directory, loading it the first time.
+     *
+     * @param directory the directory of the runs file
+     * @return the score board shared by everyone using the directory
+     */
+    public static ScoreBoard open(final Path directory) {
+        return OPEN.computeIfAbsent(directory.toAbsolutePath().normalize(), ScoreBoard::new);
+    }
+
+    /**
+     * Closes every open score board, without waiting for the writer: see
+     * {@link WriteBehindExecutor#shutdown(long)}.
+     */
+    public static void closeAll() {
+        for (final ScoreBoard board : List.copyOf(OPEN.values())) {
+            board.requestClose();
+            OPEN.remove(board.file.getParent(), board);
+        }
+    }
+
+    /**
+     * Records a run, written to disk in the background; only completed rooms
+     * are ranked.
+     *
+     * @param playerName the name of the player
+     * @param date       when the run ended, kept to the second
+     * @param roomScores the results of the run, by room
+     */
+    public void record(final String playerName, final LocalDateTime date,
+                       final Map<Integer, RoomScoreData> roomScores) {
+        final byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Player name too long: " + name.length + " bytes");
+        }
+        if (roomScores.size() > MAX_ROOMS) {
+            throw new IllegalArgumentException("Too many rooms: " + roomScores.size());
+        }
+        final LocalDateTime second = date.withNano(0);
+        final Map<Integer, RoomScoreData> rooms = new TreeMap<>(roomScores);
+        synchronized (this) {
+            final ByteBuffer record = encode(nextSequence++, name, second, rooms);
+            index(playerName, second, rooms, record, true);
+            outbox.add(record);
+        }
+        writeBehind();
+    }
+
+    /**
+     * Reads the best results of a board over a window ending on a day; equal
+     * results are in the order they were recorded.
+     *
+     * @param window the time span
+     * @param board  {@link #OVERALL} or the id of a room
+     * @param today  the last day of the window
+     * @param count  the number of results wanted
+     * @return the best results, at most {@code count}, best first
+     */
+    public synchronized List<LeaderboardEntry> top(final Window window, final int board,
+                                                   final LocalDate today, final int count) {
+        final List<RankedBoard> covered = boards(window, board, today);
+        if (covered.size() == 1) {
+            return covered.get(0).top(count);
+        }
+        // Merge the best of each day, the earlier day first on equal results
+        final List<List<LeaderboardEntry>> heads = new ArrayList<>(covered.size());
+        for (final RankedBoard day : covered) {
+            heads.add(day.top(count));
+        }
+        final int[] next = new int[heads.size()];
+        final List<LeaderboardEntry> merged = new ArrayList<>();
+        while (merged.size() < count) {
+            int best = -1;
+            for (int i = 0; i < heads.size(); i++) {
+                if (next[i] < heads.get(i).size() && (best < 0
+                        || RANKING.compare(heads.get(i).get(next[i]), heads.get(best).get(next[best])) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            merged.add(heads.get(best).get(next[best]++));
+        }
+        return merged;
+    }
+
+    /**
+     * @param window the time span
+     * @param board  {@link #OVERALL} or the id of a room
+     * @param today  the last day of the window
+     * @param score  the score
+     * @param time   the time in seconds
+     * @return the 0-based rank a new result would take on the board, after
+     *         the equal ones
+     */
+    public synchronized int rankOf(final Window window, final int board, final LocalDate today,
+                                   final int score, final int time) {
+        int rank = 0;
+        for (final RankedBoard covered : boards(window, board, today)) {
+            rank += covered.rankOf(score, time);
+        }
+        return rank;
+    }
+
+    /**
+     * @param window the time span
+     * @param board  {@link #OVERALL} or the id of a room
+     * @param today  the last day of the window
+     * @return the number of results on the board
+     */
+    public synchronized int size(final Window window, final int board, final LocalDate today) {
+        int size = 0;
+        for (final RankedBoard covered : boards(window, board, today)) {
+            size += covered.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of runs recorded
+     */
+    public synchronized int getRunCount() {
+        // Every run is on the overall board
+        final RankedBoard overall = allTime.get(OVERALL);
+        return overall == null ? 0 : overall.size();
+    }
+
+    /**
+     * Forgets every run, on disk too.
+     */
+    public void clear() {
+        synchronized (this) {
+            allTime.clear();
+            days.clear();
+            retained.clear();
+            retainedRuns = 0;
+            latestDay = Long.MIN_VALUE;
+            outbox.clear();
+            compactRequested = true;
+        }
+        writeBehind();
+    }
+
+    /**
+     * Closes the runs file, waiting for the writer; the next
+     * {@link #open(Path)} loads the score board again.
+     */
+    public void close() {
+        requestClose();
+        writer.flush();
+        OPEN.remove(file.getParent(), this);
+    }
+
+    private void requestClose() {
+        synchronized (this) {
+            closeRequested = true;
+        }
+        writeBehind();
+    }
+
+    private void writeBehind() {
+        writer.submit(this, this::persist);
+    }
+
+    /**
+     * Writes the runs recorded since the last time, on the writer thread, and
+     * compacts once most runs of the file are older than the retained days.
+     */
+    private void persist() throws IOException {
+        final List<ByteBuffer> batch;
+        final boolean compaction;
+        final boolean closing;
+        final int live;
+        synchronized (this) {
+            batch = new ArrayList<>(outbox);
+            outbox.clear();
+            compaction = compactRequested;
+            closing = closeRequested;
+            compactRequested = false;
+            closeRequested = false;
+            live = retainedRuns;
+        }
+        if (!writable) {
+            return;
+        }
+        if (!batch.isEmpty()) {
+            final FileChannel out = channel();
+            for (final ByteBuffer record : batch) {
+                write(out, record);
+            }
+            fileRuns += batch.size();
+        }
+        if (compaction || fileRuns >= Math.max(MIN_COMPACTION, 2 * live)) {
+            compact();
+        } else if (!batch.isEmpty()) {
+            channel.force(false);
+        }
+        if (closing && channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Writes the all-time boards to a new snapshot, then replaces the runs
+     * file with the runs of the retained days, which the next load only puts
+     * in the day buckets. Records still in the outbox are before the end of
+     * the snapshot, and among the retained ones if recent, so they are
+     * dropped.
+     */
+    private void compact() throws IOException {
+        final Map<Integer, RankedBoard.Ranking> rankings = new TreeMap<>();
+        final List<ByteBuffer> recent = new ArrayList<>();
+        final long end;
+        synchronized (this) {
+            for (final Map.Entry<Integer, RankedBoard> board : allTime.entrySet()) {
+                rankings.put(board.getKey(), board.getValue().freeze());
+            }
+            for (final List<ByteBuffer> day : retained.values()) {
+                recent.addAll(day);
+            }
+            end = nextSequence;
+            outbox.clear();
+        }
+        ScoreBoardSnapshot.write(snapshots.get(snapshotNumber + 1), end, rankings);
+        snapshotNumber++;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        final Path temporary = file.resolveSibling(RUNS_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (final ByteBuffer record : recent) {
+                write(out, record);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        validRunsBytes = -1;
+        fileRuns = recent.size();
+        snapshots.deleteBefore(snapshotNumber);
+    }
+
+    /**
+     * Appends a record, leaving its position as it was so that it can be
+     * written again by a compaction.
+     */
+    private static void write(final FileChannel out, final ByteBuffer record) throws IOException {
+        final ByteBuffer remaining = record.duplicate();
+        while (remaining.hasRemaining()) {
+            out.write(remaining);
+        }
+    }
+
+    private List<RankedBoard> boards(final Window window, final int board, final LocalDate today) {
+        final List<RankedBoard> covered = new ArrayList<>();
+        if (window == Window.ALL_TIME) {
+            final RankedBoard ranked = allTime.get(board);
+            if (ranked != null) {
+                covered.add(ranked);
+            }
+            return covered;
+        }
+        final long last = today.toEpochDay();
+        for (final Map<Integer, RankedBoard> day : days.subMap(last - window.days, false, last, true).values()) {
+            final RankedBoard ranked = day.get(board);
+            if (ranked != null) {
+                covered.add(ranked);
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * Adds a run to the boards of its day, keeping its record, and to the
+     * all-time boards unless they come from a snapshot holding it already;
+     * drops the days no window reaches any longer.
+     */
+    private void index(final String playerName, final LocalDateTime date, final Map<Integer, RoomScoreData> rooms,
+                       final ByteBuffer record, final boolean allTimeToo) {
+        final List<Integer> ids = new ArrayList<>();
+        final List<LeaderboardEntry> entries = new ArrayList<>();
+        int points = 0;
+        int time = 0;
+        for (final Map.Entry<Integer, RoomScoreData> room : rooms.entrySet()) {
+            final RoomScoreData data = room.getValue();
+            if (data.isCompleted()) {
+                ids.add(room.getKey());
+                entries.add(new LeaderboardEntry(playerName, data.getPointsGained(), data.getTimeTaken(), date));
+                points += data.getPointsGained();
+                time += data.getTimeTaken();
+            }
+        }
+        ids.add(OVERALL);
+        entries.add(new LeaderboardEntry(playerName, points, time, date));
+
+        final long day = date.toLocalDate().toEpochDay();
+        latestDay = Math.max(latestDay, day);
+        days.headMap(latestDay - RETAINED_DAYS, true).clear();
+        final Map<Long, List<ByteBuffer>> expired = retained.headMap(latestDay - RETAINED_DAYS, true);
+        for (final List<ByteBuffer> records : expired.values()) {
+            retainedRuns -= records.size();
+        }
+        expired.clear();
+        final Map<Integer, RankedBoard> bucket;
+        if (day > latestDay - RETAINED_DAYS) {
+            bucket = days.computeIfAbsent(day, d -> new HashMap<>());
+            retained.computeIfAbsent(day, d -> new ArrayList<>()).add(record);
+            retainedRuns++;
+        } else {
+            bucket = null;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (allTimeToo) {
+                allTime.computeIfAbsent(ids.get(i), id -> new RankedBoard()).add(entries.get(i));
+            }
+            if (bucket != null) {
+                bucket.computeIfAbsent(ids.get(i), id -> new RankedBoard()).add(entries.get(i));
+            }
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (validRunsBytes >= 0) {
+                channel.truncate(validRunsBytes);
+                channel.force(true);
+                validRunsBytes = -1;
+            }
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    private void loadSnapshot(final Path snapshot) throws IOException {
+        final ScoreBoardSnapshot loaded = ScoreBoardSnapshot.map(snapshot);
+        try {
+            for (final Map.Entry<Integer, LeaderboardSnapshot> board : loaded.getBoards().entrySet()) {
+                allTime.put(board.getKey(), new RankedBoard(board.getValue()));
+            }
+        } catch (final IllegalArgumentException e) {
+            allTime.clear();
+            throw new IOException("Corrupted score board snapshot: " + snapshot, e);
+        }
+        nextSequence = loaded.getNextSequence();
+    }
+
+    private void replay() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        final long snapshotEnd = nextSequence;
+        int valid = 0;
+        while (buffer.hasRemaining() && decode(buffer, snapshotEnd)) {
+            fileRuns++;
+            valid = buffer.position();
+        }
+        if (valid < buffer.limit()) {
+            LOGGER.warning("Dropping " + (buffer.limit() - valid) + " bytes of torn runs file");
+            // Cut by the writer before it appends anything
+            validRunsBytes = valid;
+        }
+    }
+
+    /**
+     * Frames a run: payload length, then sequence number, date in UTC epoch
+     * seconds, UTF-8 name, and room id, time, points and completion of each
+     * room, then the CRC32 of the payload.
+     */
+    private static ByteBuffer encode(final long sequence, final byte[] name, final LocalDateTime date,
+                                     final Map<Integer, RoomScoreData> rooms) {
+        final int length = FIXED_PAYLOAD_BYTES + name.length + rooms.size() * ROOM_BYTES;
+        final ByteBuffer buffer = ByteBuffer.allocate(length + FRAME_BYTES);
+        buffer.putInt(length)
+            .putLong(sequence)
+            .putLong(date.toEpochSecond(ZoneOffset.UTC))
+            .putShort((short) name.length)
+            .put(name)
+            .put((byte) rooms.size());
+        for (final Map.Entry<Integer, RoomScoreData> room : rooms.entrySet()) {
+            buffer.putInt(room.getKey())
+                .putInt(room.getValue().getTimeTaken())
+                .putInt(room.getValue().getPointsGained())
+                .put((byte) (room.getValue().isCompleted() ? 1 : 0));
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, length);
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Reads a framed run and indexes it, into the day buckets alone if it is
+     * before the end of the snapshot.
+     *
+     * @return false if the frame is torn or corrupted, in which case the
+     *         buffer position is unspecified
+     */
+    private boolean decode(final ByteBuffer buffer, final long snapshotEnd) {
+        if (buffer.remaining() < FRAME_BYTES + FIXED_PAYLOAD_BYTES) {
+            return false;
+        }
+        final int start = buffer.position() + Integer.BYTES;
+        final int length = buffer.getInt();
+        if (length < FIXED_PAYLOAD_BYTES || length > buffer.remaining() - Integer.BYTES) {
+            return false;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, length);
+        if (buffer.getInt(start + length) != (int) crc.getValue()) {
+            return false;
+        }
+        final long sequence = buffer.getLong();
+        final LocalDateTime date = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        final int nameLength = Short.toUnsignedInt(buffer.getShort());
+        if (FIXED_PAYLOAD_BYTES + nameLength > length) {
+            return false;
+        }
+        final String name = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + nameLength);
+        final int roomCount = Byte.toUnsignedInt(buffer.get());
+        if (length != FIXED_PAYLOAD_BYTES + nameLength + roomCount * ROOM_BYTES) {
+            return false;
+        }
+        final Map<Integer, RoomScoreData> rooms = new TreeMap<>();
+        for (int i = 0; i < roomCount; i++) {
+            final int room = buffer.getInt();
+            final int time = buffer.getInt();
+            final int points = buffer.getInt();
+            rooms.put(room, new RoomScoreData(time, points, buffer.get() != 0));
+        }
+        buffer.position(start + length + Integer.BYTES);
+        final ByteBuffer record = ByteBuffer.wrap(Arrays.copyOfRange(buffer.array(),
+            start - Integer.BYTES, buffer.position()));
+        index(name, date, rooms, record, sequence >= snapshotEnd);
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        return true;
+    }
+}
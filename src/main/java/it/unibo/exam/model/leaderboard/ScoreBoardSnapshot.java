@@ -0,0 +1,124 @@
+package it.unibo.exam.model.leaderboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The all-time boards of a {@link ScoreBoard} in one binary file, each a
+ * {@link LeaderboardSnapshot} read in place through a memory mapping.
+ * <p>
+ * The file starts with a header (magic number, version, the first sequence
+ * number of the runs not included and the number of boards), followed by the
+ * id, offset and length of each board, then the boards themselves.
+ * </p>
+ */
+final class ScoreBoardSnapshot {
+
+    private static final int MAGIC = 0x55455342; // "UESB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+    private static final int BOARD_BYTES = Integer.BYTES + 2 * Long.BYTES;
+
+    private final long nextSequence;
+    private final Map<Integer, LeaderboardSnapshot> boards;
+
+    private ScoreBoardSnapshot(final long nextSequence, final Map<Integer, LeaderboardSnapshot> boards) {
+        this.nextSequence = nextSequence;
+        this.boards = boards;
+    }
+
+    /**
+     * Maps a snapshot file; a new snapshot must go to a new file, see
+     * {@link LeaderboardSnapshot#map(Path)}.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static ScoreBoardSnapshot map(final Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = in.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a score board snapshot: " + file);
+            }
+            final ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a score board snapshot: " + file);
+            }
+            final long nextSequence = buffer.getLong();
+            final int count = buffer.getInt();
+            if (count < 0 || HEADER_BYTES + (long) count * BOARD_BYTES > size) {
+                throw new IOException("Truncated score board snapshot: " + file);
+            }
+            final Map<Integer, LeaderboardSnapshot> boards = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                final int board = buffer.getInt();
+                final long offset = buffer.getLong();
+                final long length = buffer.getLong();
+                if (offset < 0 || length < 0 || offset + length > size) {
+                    throw new IOException("Truncated score board snapshot: " + file);
+                }
+                boards.put(board, LeaderboardSnapshot.of(buffer.slice((int) offset, (int) length), file));
+            }
+            return new ScoreBoardSnapshot(nextSequence, boards);
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, syncs it, and moves it to the
+     * target atomically; the target should not exist, or be mapped.
+     *
+     * @param target       the snapshot file
+     * @param nextSequence the first sequence number of the runs not included
+     * @param boards       the all-time boards, by id
+     * @throws IOException if writing fails; the target is then unchanged
+     */
+    static void write(final Path target, final long nextSequence,
+                      final Map<Integer, RankedBoard.Ranking> boards) throws IOException {
+        final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + boards.size() * BOARD_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(nextSequence)
+                .putInt(boards.size());
+            long position = header.capacity();
+            for (final Map.Entry<Integer, RankedBoard.Ranking> board : boards.entrySet()) {
+                final RankedBoard.Ranking ranking = board.getValue();
+                final long length = LeaderboardSnapshot.write(out, position, nextSequence,
+                    ranking.size(), ranking::get);
+                header.putInt(board.getKey()).putLong(position).putLong(length);
+                position += length;
+            }
+            header.flip();
+            long at = 0;
+            while (header.hasRemaining()) {
+                at += out.write(header, at);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the first sequence number of the runs not included
+     */
+    long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return the all-time boards, by id
+     */
+    Map<Integer, LeaderboardSnapshot> getBoards() {
+        return boards;
+    }
+}
@@ -6,6 +6,7 @@ import it.unibo.exam.utility.geometry.Point2D;
 import it.unibo.exam.model.entity.enviroments.Room;
 import it.unibo.exam.model.entity.strategy.MovementStrategy;
 import it.unibo.exam.model.entity.strategy.RandomWalkStrategy;
+import it.unibo.exam.utility.random.RandomService;
 
 /**
  * NPC generator.
@@ -16,6 +17,8 @@ public final class NpcGenerator extends EntityGenerator<Npc> {
     private static final int Y = 80;
     private static final int DELTA =  100;
 
+    private final RandomService random;
+
 
     private static final String[] NAMES = {
         "Mario the Gardener",    // room 1
@@ -47,7 +50,18 @@ public final class NpcGenerator extends EntityGenerator<Npc> {
      * @param environmentSize the size of the environment
      */
     public NpcGenerator(final Point2D environmentSize) {
+        this(environmentSize, RandomService.getInstance());
+    }
+
+    /**
+     * Constructor for NpcGenerator drawing roaming NPC walks from the given service.
+     *
+     * @param environmentSize the size of the environment
+     * @param random          the source of the random walks
+     */
+    public NpcGenerator(final Point2D environmentSize, final RandomService random) {
         super(environmentSize);
+        this.random = random;
     }
 
     /**
@@ -81,7 +95,8 @@ public final class NpcGenerator extends EntityGenerator<Npc> {
             X + DELTA * room.getId(),
             Y
         );
-        final MovementStrategy strategy = new RandomWalkStrategy(super.getEnv());
+        final MovementStrategy strategy = new RandomWalkStrategy(super.getEnv(),
+            random.stream(RandomWalkStrategy.class));
         return new RoamingNpc(start, super.getEnv(), strategy);
     }
 }
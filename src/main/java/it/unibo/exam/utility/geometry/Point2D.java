@@ -59,6 +59,19 @@ public class Point2D {
         this.y = y;
     }
 
+    /**
+     * Squared distance to a point, without the square root or any allocation.
+     *
+     * @param px the x coordinate of the other point
+     * @param py the y coordinate of the other point
+     * @return the squared distance from this point to {@code (px, py)}
+     */
+    public long distanceSq(final int px, final int py) {
+        final long dx = (long) this.x - px;
+        final long dy = (long) this.y - py;
+        return dx * dx + dy * dy;
+    }
+
     /**
      * @param p the point to calculate the distance to
      * @return the distance from this point to the point p
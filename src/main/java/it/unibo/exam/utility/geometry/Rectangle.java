@@ -20,6 +20,47 @@ public class Rectangle {
         this.p = new Point2D(p);
     }
 
+    /**
+     * Moves and resizes the rectangle in place.
+     *
+     * @param x      left edge
+     * @param y      top edge
+     * @param width  width
+     * @param height height
+     */
+    public void setBounds(final int x, final int y, final int width, final int height) {
+        this.p.setXY(x, y);
+        this.d.setXY(width, height);
+    }
+
+    /**
+     * @return the left edge
+     */
+    public int getX() {
+        return p.getX();
+    }
+
+    /**
+     * @return the top edge
+     */
+    public int getY() {
+        return p.getY();
+    }
+
+    /**
+     * @return the width
+     */
+    public int getWidth() {
+        return d.getX();
+    }
+
+    /**
+     * @return the height
+     */
+    public int getHeight() {
+        return d.getY();
+    }
+
     /**
      * @param other other rectangle
      * @return True if the rectangle intersects with another rectangle
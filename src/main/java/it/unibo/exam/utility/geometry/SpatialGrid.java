@@ -0,0 +1,371 @@
+package it.unibo.exam.utility.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid (spatial hash) of axis-aligned boxes.
+ * <p>
+ * Each item is stored in every cell its box overlaps, so a query only looks at
+ * the items of the cells it covers instead of at every item. Only the cells
+ * ever used are kept, so the grid has no fixed bounds; they are looked up by
+ * their packed coordinates in an open-addressing table, and a cell emptied by
+ * a move keeps its list for the next item entering it, so moving items around
+ * a bounded area allocates nothing once every cell has been visited. Items are
+ * compared by identity. Moving an item within the cells it already covers only
+ * updates its box.
+ * </p>
+ * <p>
+ * Box edges are inclusive: a box at {@code (x, y)} of size {@code (w, h)} covers
+ * {@code [x, x + w] x [y, y + h]}, like {@link Rectangle#contains(Point2D)}.
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @param <T> the type of the indexed items
+ */
+public final class SpatialGrid<T> {
+
+    private static final int CELL_SHIFT = 32;
+    private static final long CELL_MASK = 0xFFFF_FFFFL;
+    private static final int INITIAL_CELLS = 64;
+    private static final long HASH_MULTIPLIER = 0x9E37_79B9_7F4A_7C15L;
+
+    private final int cellSize;
+    /** Packed coordinates of the cells, by table position. */
+    private long[] cellKeys = new long[INITIAL_CELLS];
+    /** Items of the cells, by table position; null where no cell is. */
+    private List<T>[] cellItems = newCells(INITIAL_CELLS);
+    private int cellCount;
+    private final Map<T, Slot> slots = new IdentityHashMap<>();
+    private int queryStamp;
+
+    /**
+     * @param cellSize side of a cell in pixels; about the size of the largest
+     *                 common query works best
+     */
+    public SpatialGrid(final int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds an item, or moves it if it is already indexed.
+     *
+     * @param item the item
+     * @param x    left edge of its box
+     * @param y    top edge of its box
+     * @param w    width of its box
+     * @param h    height of its box
+     */
+    public void insert(final T item, final int x, final int y, final int w, final int h) {
+        update(item, x, y, w, h);
+    }
+
+    /**
+     * Moves an item to a new box, adding it if it is not indexed yet.
+     *
+     * @param item the item
+     * @param x    left edge of its box
+     * @param y    top edge of its box
+     * @param w    width of its box
+     * @param h    height of its box
+     */
+    public void update(final T item, final int x, final int y, final int w, final int h) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (w < 0 || h < 0) {
+            throw new IllegalArgumentException("Box size cannot be negative: " + w + "x" + h);
+        }
+        Slot slot = slots.get(item);
+        final int minCx = cell(x);
+        final int minCy = cell(y);
+        final int maxCx = cell(x + w);
+        final int maxCy = cell(y + h);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(item, slot);
+        } else if (slot.minCx == minCx && slot.minCy == minCy && slot.maxCx == maxCx && slot.maxCy == maxCy) {
+            slot.setBox(x, y, w, h);
+            return;
+        } else {
+            unlink(item, slot);
+        }
+        slot.setBox(x, y, w, h);
+        slot.minCx = minCx;
+        slot.minCy = minCy;
+        slot.maxCx = maxCx;
+        slot.maxCy = maxCy;
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                cellOrCreate(key(cx, cy)).add(item);
+            }
+        }
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param item the item
+     * @return true if the item was indexed
+     */
+    public boolean remove(final T item) {
+        final Slot slot = slots.remove(item);
+        if (slot == null) {
+            return false;
+        }
+        unlink(item, slot);
+        return true;
+    }
+
+    /**
+     * @param item the item
+     * @return true if the item is indexed
+     */
+    public boolean contains(final T item) {
+        return slots.containsKey(item);
+    }
+
+    /**
+     * @return the number of indexed items
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Removes every item.
+     */
+    public void clear() {
+        Arrays.fill(cellItems, null);
+        cellCount = 0;
+        slots.clear();
+    }
+
+    /**
+     * Collects the items whose box overlaps a rectangle, edges included.
+     *
+     * @param x left edge of the rectangle
+     * @param y top edge of the rectangle
+     * @param w width of the rectangle
+     * @param h height of the rectangle
+     * @return the items found, each once, in no particular order
+     */
+    public List<T> queryRect(final int x, final int y, final int w, final int h) {
+        final List<T> found = new ArrayList<>();
+        queryRect(x, y, w, h, found);
+        return found;
+    }
+
+    /**
+     * Adds the items whose box overlaps a rectangle, edges included, to a collection.
+     * Reusing the collection between calls avoids allocating a result per query.
+     *
+     * @param x   left edge of the rectangle
+     * @param y   top edge of the rectangle
+     * @param w   width of the rectangle
+     * @param h   height of the rectangle
+     * @param out receives the items found, each once
+     */
+    public void queryRect(final int x, final int y, final int w, final int h, final Collection<? super T> out) {
+        final int stamp = nextStamp();
+        for (int cy = cell(y); cy <= cell(y + h); cy++) {
+            for (int cx = cell(x); cx <= cell(x + w); cx++) {
+                final List<T> bucket = cell(key(cx, cy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (final T item : bucket) {
+                    final Slot slot = slots.get(item);
+                    if (slot.stamp != stamp && slot.overlaps(x, y, w, h)) {
+                        slot.stamp = stamp;
+                        out.add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the items whose box is within a distance of a point.
+     *
+     * @param cx     x of the center
+     * @param cy     y of the center
+     * @param radius the distance
+     * @return the items found, each once, in no particular order
+     */
+    public List<T> queryRadius(final int cx, final int cy, final int radius) {
+        final List<T> found = new ArrayList<>();
+        queryRadius(cx, cy, radius, found);
+        return found;
+    }
+
+    /**
+     * Adds the items whose box is within a distance of a point to a collection.
+     * Reusing the collection between calls avoids allocating a result per query.
+     *
+     * @param cx     x of the center
+     * @param cy     y of the center
+     * @param radius the distance
+     * @param out    receives the items found, each once
+     */
+    public void queryRadius(final int cx, final int cy, final int radius, final Collection<? super T> out) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative: " + radius);
+        }
+        final int stamp = nextStamp();
+        final long radiusSq = (long) radius * radius;
+        for (int gy = cell(cy - radius); gy <= cell(cy + radius); gy++) {
+            for (int gx = cell(cx - radius); gx <= cell(cx + radius); gx++) {
+                final List<T> bucket = cell(key(gx, gy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (final T item : bucket) {
+                    final Slot slot = slots.get(item);
+                    if (slot.stamp != stamp && slot.distanceSq(cx, cy) <= radiusSq) {
+                        slot.stamp = stamp;
+                        out.add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    private void unlink(final T item, final Slot slot) {
+        for (int cy = slot.minCy; cy <= slot.maxCy; cy++) {
+            for (int cx = slot.minCx; cx <= slot.maxCx; cx++) {
+                final List<T> bucket = cell(key(cx, cy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.size(); i++) {
+                    if (bucket.get(i) == item) {
+                        // Order inside a cell does not matter: swap with the last one
+                        bucket.set(i, bucket.get(bucket.size() - 1));
+                        bucket.remove(bucket.size() - 1);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new query; an item is reported once per query by tagging its slot.
+     */
+    private int nextStamp() {
+        queryStamp++;
+        if (queryStamp == 0) {
+            // Wrapped around: old tags could collide with new stamps
+            slots.values().forEach(s -> s.stamp = 0);
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+
+    private int cell(final int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long key(final int cx, final int cy) {
+        return (long) cx << CELL_SHIFT | cy & CELL_MASK;
+    }
+
+    /**
+     * @return the items of a cell, or null if the cell was never used
+     */
+    private List<T> cell(final long key) {
+        for (int i = position(key, cellKeys.length); cellItems[i] != null; i = (i + 1) & (cellKeys.length - 1)) {
+            if (cellKeys[i] == key) {
+                return cellItems[i];
+            }
+        }
+        return null;
+    }
+
+    private List<T> cellOrCreate(final long key) {
+        final List<T> existing = cell(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (2 * (cellCount + 1) > cellKeys.length) {
+            growCells();
+        }
+        final List<T> created = new ArrayList<>();
+        place(cellKeys, cellItems, key, created);
+        cellCount++;
+        return created;
+    }
+
+    private void growCells() {
+        final long[] keys = new long[cellKeys.length * 2];
+        final List<T>[] items = newCells(keys.length);
+        for (int i = 0; i < cellKeys.length; i++) {
+            if (cellItems[i] != null) {
+                place(keys, items, cellKeys[i], cellItems[i]);
+            }
+        }
+        cellKeys = keys;
+        cellItems = items;
+    }
+
+    private static <T> void place(final long[] keys, final List<T>[] items, final long key, final List<T> bucket) {
+        int i = position(key, keys.length);
+        while (items[i] != null) {
+            i = (i + 1) & (keys.length - 1);
+        }
+        keys[i] = key;
+        items[i] = bucket;
+    }
+
+    /**
+     * @return the first table position to probe for a key, the length being a power of two
+     */
+    private static int position(final long key, final int length) {
+        return (int) ((key * HASH_MULTIPLIER) >>> (Long.SIZE - Integer.numberOfTrailingZeros(length)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T>[] newCells(final int length) {
+        return (List<T>[]) new List<?>[length];
+    }
+
+    /**
+     * Box and covered cells of an indexed item.
+     */
+    private static final class Slot {
+        private int x;
+        private int y;
+        private int w;
+        private int h;
+        private int minCx;
+        private int minCy;
+        private int maxCx;
+        private int maxCy;
+        private int stamp;
+
+        void setBox(final int x, final int y, final int w, final int h) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+        }
+
+        boolean overlaps(final int ox, final int oy, final int ow, final int oh) {
+            return x <= ox + ow && x + w >= ox && y <= oy + oh && y + h >= oy;
+        }
+
+        long distanceSq(final int px, final int py) {
+            final long dx = px - Math.max(x, Math.min(px, x + w));
+            final long dy = py - Math.max(y, Math.min(py, y + h));
+            return dx * dx + dy * dy;
+        }
+    }
+}
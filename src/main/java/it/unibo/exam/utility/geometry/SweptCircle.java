@@ -0,0 +1,80 @@
+package it.unibo.exam.utility.geometry;
+
+/**
+ * Continuous collision tests for a circle moving along a straight segment.
+ * <p>
+ * Instead of testing only where a moving circle ends up, which lets fast
+ * circles pass through thin obstacles, these methods return the exact fraction
+ * of the move at which the first contact happens. Times are in {@code [0, 1]},
+ * where 0 is the start of the move and 1 its end; {@link #NO_HIT} means the
+ * move is free.
+ * </p>
+ */
+public final class SweptCircle {
+
+    /** Time of impact of a move that touches nothing. */
+    public static final double NO_HIT = Double.POSITIVE_INFINITY;
+
+    private static final double EPSILON = 1e-9;
+
+    private SweptCircle() {
+        // Utility class should not be instantiated
+    }
+
+    /**
+     * Time at which a moving point first comes within {@code reach} of a fixed
+     * point. For two circles, the moving point is the center of the moving circle
+     * and {@code reach} the sum of their radii.
+     *
+     * @param x     x of the start of the move
+     * @param y     y of the start of the move
+     * @param dx    x displacement of the whole move
+     * @param dy    y displacement of the whole move
+     * @param cx    x of the fixed point
+     * @param cy    y of the fixed point
+     * @param reach the contact distance
+     * @return the time of impact in {@code [0, 1]}, or {@link #NO_HIT}
+     */
+    public static double timeOfImpact(final double x, final double y, final double dx, final double dy,
+                                      final double cx, final double cy, final double reach) {
+        final double ox = x - cx;
+        final double oy = y - cy;
+        final double c = ox * ox + oy * oy - reach * reach;
+        final double b = ox * dx + oy * dy;
+        if (c <= 0) {
+            // Already touching: only a hit if the move does not pull away
+            return b < 0 ? 0 : NO_HIT;
+        }
+        final double a = dx * dx + dy * dy;
+        if (a < EPSILON || b >= 0) {
+            return NO_HIT;
+        }
+        // |o + t d| = reach, with the halved linear term: a t^2 + 2 b t + c = 0
+        final double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return NO_HIT;
+        }
+        final double t = (-b - Math.sqrt(discriminant)) / a;
+        return t <= 1 ? Math.max(0, t) : NO_HIT;
+    }
+
+    /**
+     * Time at which a coordinate moving by {@code delta} reaches a fixed value,
+     * for example the center of a circle reaching a wall offset by its radius.
+     * Only meaningful for a wall the move goes toward; a coordinate already at
+     * or past the wall hits it immediately.
+     *
+     * @param start the coordinate at the start of the move
+     * @param delta the displacement of the whole move, toward the wall
+     * @param wall  the value to reach
+     * @return the time of impact in {@code [0, 1]}, or {@link #NO_HIT} if the move
+     *         stops short of the wall
+     */
+    public static double timeToWall(final double start, final double delta, final double wall) {
+        if (Math.abs(delta) < EPSILON) {
+            return NO_HIT;
+        }
+        final double t = (wall - start) / delta;
+        return t <= 1 ? Math.max(0, t) : NO_HIT;
+    }
+}
@@ -23,6 +23,8 @@ public final class AssetLoader {
 
     /**
      * Loads an image from the resources directory.
+     * Images are decoded once and shared through the {@link AssetManager}, so an
+     * image already preloaded is returned immediately.
      *
      * @param resourcePath the path to the image resource (relative to resources directory)
      * @return the loaded Image, or null if loading failed
@@ -32,7 +34,16 @@ public final class AssetLoader {
             LOGGER.warning("Resource path is null or empty");
             return null;
         }
+        return AssetManager.getInstance().getImage(resourcePath);
+    }
 
+    /**
+     * Reads and decodes an image from the resources directory, bypassing the shared cache.
+     *
+     * @param resourcePath the path to the image resource (relative to resources directory)
+     * @return the decoded Image, or null if loading failed
+     */
+    static Image readImage(final String resourcePath) {
         try {
             final var resource = AssetLoader.class.getClassLoader().getResource(resourcePath);
             if (resource == null) {
@@ -0,0 +1,257 @@
+package it.unibo.exam.utility.medialoader;
+
+import java.awt.Image;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads image assets asynchronously on a small pool of background threads.
+ * <p>
+ * Concurrent requests for the same path share the same {@link CompletableFuture},
+ * so an image is never decoded twice at the same time. Decoded images are kept in
+ * a memory-bounded {@link ImageCache}, so repeated requests (e.g. a minigame panel
+ * rebuilt on every retry) are served without decoding again. A handle completes
+ * with {@code null} when the image cannot be loaded, matching {@link AssetLoader}.
+ * </p>
+ * <p>
+ * The game preloads the assets listed in {@link #DEFAULT_MANIFEST} at startup, so
+ * the synchronous {@link AssetLoader#loadImage(String)} calls made by the views
+ * find their images already decoded.
+ * </p>
+ */
+public final class AssetManager {
+
+    /** Resource listing the images to preload, one path per line; {@code #} starts a comment. */
+    public static final String DEFAULT_MANIFEST = "assets.manifest";
+
+    private static final Logger LOGGER = Logger.getLogger(AssetManager.class.getName());
+    private static final int MAX_THREADS = 4;
+    private static final String COMMENT = "#";
+
+    private final Executor executor;
+    private final ImageCache cache;
+    /** Images being decoded; removed once they reach the cache. */
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+    /** Paths that could not be loaded, so failures are not retried and logged again. */
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lazily created shared instance.
+     */
+    private static final class Holder {
+        private static final AssetManager INSTANCE =
+            new AssetManager(createDefaultExecutor(), ImageCache.fromSystemProperties());
+    }
+
+    /**
+     * Creates a manager decoding on the given executor into the given cache.
+     *
+     * @param executor the executor running the decode tasks
+     * @param cache    the cache of decoded images
+     */
+    public AssetManager(final Executor executor, final ImageCache cache) {
+        if (executor == null || cache == null) {
+            throw new IllegalArgumentException("Executor and cache cannot be null");
+        }
+        this.executor = executor;
+        this.cache = cache;
+    }
+
+    /**
+     * Creates a manager decoding on the given executor, with a cache configured
+     * from the system properties.
+     *
+     * @param executor the executor running the decode tasks
+     */
+    public AssetManager(final Executor executor) {
+        this(executor, ImageCache.fromSystemProperties());
+    }
+
+    /**
+     * @return the shared manager used by {@link AssetLoader}
+     */
+    public static AssetManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Requests an image, decoding it in the background if no one requested it before.
+     *
+     * @param resourcePath the path to the image resource (relative to resources directory)
+     * @return a handle completing with the image, or with null if loading failed
+     */
+    public CompletableFuture<Image> load(final String resourcePath) {
+        final CompletableFuture<Image> existing = inFlight.get(resourcePath);
+        if (existing != null) {
+            return existing;
+        }
+        final Image cached = lookup(resourcePath);
+        if (cached != null || missing.contains(resourcePath)) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final CompletableFuture<Image> created = new CompletableFuture<>();
+        final CompletableFuture<Image> raced = inFlight.putIfAbsent(resourcePath, created);
+        if (raced != null) {
+            return raced;
+        }
+        executor.execute(() -> decode(resourcePath, created));
+        return created;
+    }
+
+    /**
+     * Returns an image, waiting for it if it is being decoded.
+     * An image nobody requested yet is decoded on the calling thread rather than
+     * queued behind a running preload.
+     *
+     * @param resourcePath the path to the image resource (relative to resources directory)
+     * @return the loaded image, or null if loading failed
+     */
+    public Image getImage(final String resourcePath) {
+        CompletableFuture<Image> future = inFlight.get(resourcePath);
+        if (future == null) {
+            final Image cached = lookup(resourcePath);
+            if (cached != null || missing.contains(resourcePath)) {
+                return cached;
+            }
+            final CompletableFuture<Image> created = new CompletableFuture<>();
+            future = inFlight.putIfAbsent(resourcePath, created);
+            if (future == null) {
+                decode(resourcePath, created);
+                future = created;
+            }
+        }
+        return future.join();
+    }
+
+    /**
+     * @param resourcePath the path to the image resource
+     * @return true if the image is cached or known to be missing
+     */
+    public boolean isLoaded(final String resourcePath) {
+        return cache.contains(resourcePath) || missing.contains(resourcePath);
+    }
+
+    /**
+     * @return a snapshot of the image cache statistics
+     */
+    public ImageCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Starts loading a batch of images in parallel.
+     *
+     * @param resourcePaths the images to load; duplicates are loaded once
+     * @param listener      notified each time an image of the batch finishes, may be null
+     * @return a handle completing when every image of the batch has finished
+     */
+    public CompletableFuture<Void> preload(final Collection<String> resourcePaths,
+                                           final AssetProgressListener listener) {
+        final List<String> batch = new ArrayList<>(new LinkedHashSet<>(resourcePaths));
+        final int total = batch.size();
+        final AtomicInteger completed = new AtomicInteger();
+        final CompletableFuture<?>[] handles = new CompletableFuture<?>[total];
+        for (int i = 0; i < total; i++) {
+            final String path = batch.get(i);
+            handles[i] = load(path).whenComplete((image, error) -> {
+                final int done = completed.incrementAndGet();
+                if (listener != null) {
+                    listener.onProgress(path, done, total);
+                }
+            });
+        }
+        return CompletableFuture.allOf(handles);
+    }
+
+    /**
+     * Starts loading every image listed in a manifest resource.
+     *
+     * @param manifestPath the path to the manifest (relative to resources directory)
+     * @param listener     notified each time an image of the manifest finishes, may be null
+     * @return a handle completing when every listed image has finished
+     */
+    public CompletableFuture<Void> preloadManifest(final String manifestPath,
+                                                   final AssetProgressListener listener) {
+        return preload(readManifest(manifestPath), listener);
+    }
+
+    /**
+     * Reads the resource paths listed in a manifest.
+     *
+     * @param manifestPath the path to the manifest (relative to resources directory)
+     * @return the listed paths, empty if the manifest is missing or unreadable
+     */
+    public static List<String> readManifest(final String manifestPath) {
+        final List<String> paths = new ArrayList<>();
+        final InputStream in = AssetManager.class.getClassLoader().getResourceAsStream(manifestPath);
+        if (in == null) {
+            LOGGER.warning("Asset manifest not found: " + manifestPath);
+            return paths;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                final String path = line.trim();
+                if (!path.isEmpty() && !path.startsWith(COMMENT)) {
+                    paths.add(path);
+                }
+                line = reader.readLine();
+            }
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read asset manifest: " + manifestPath, e);
+        }
+        return paths;
+    }
+
+    /**
+     * Looks an image up in the cache without counting a miss for known failures.
+     */
+    private Image lookup(final String resourcePath) {
+        return missing.contains(resourcePath) ? null : cache.get(resourcePath);
+    }
+
+    private void decode(final String resourcePath, final CompletableFuture<Image> target) {
+        Image image = null;
+        try {
+            image = AssetLoader.readImage(resourcePath);
+        } catch (final RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unexpected failure loading image: " + resourcePath, e);
+        }
+        if (image == null) {
+            missing.add(resourcePath);
+        } else {
+            cache.put(resourcePath, image);
+        }
+        inFlight.remove(resourcePath, target);
+        target.complete(image);
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        final int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory factory = r -> {
+            final Thread t = new Thread(r, "asset-loader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+}
@@ -0,0 +1,15 @@
+package it.unibo.exam.utility.medialoader;
+
+/**
+ * Notified as the assets of a preload batch finish loading.
+ * Called from the loader threads: UI listeners must hand the update over to the EDT.
+ */
+public interface AssetProgressListener {
+
+    /**
+     * @param path      the resource path that just finished (successfully or not)
+     * @param completed number of assets of the batch finished so far
+     * @param total     number of assets in the batch
+     */
+    void onProgress(String path, int completed, int total);
+}
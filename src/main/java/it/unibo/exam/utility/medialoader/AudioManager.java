@@ -1,29 +1,31 @@
 package it.unibo.exam.utility.medialoader;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.FloatControl;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-import java.io.IOException;
-import java.util.logging.Level;
+import it.unibo.exam.utility.medialoader.audio.AudioDecoders;
+import it.unibo.exam.utility.medialoader.audio.AudioEngine;
+import it.unibo.exam.utility.medialoader.audio.AudioSource;
+import it.unibo.exam.utility.medialoader.audio.Voice;
+
+import java.net.URL;
 import java.util.logging.Logger;
 
 /**
- * Utility class for managing game background music.
- * Provides centralized audio management with volume control and looping capabilities.
+ * Utility class for managing game music and sound effects.
+ * Provides centralized audio management with volume control, looping and crossfades.
+ * Sounds are streamed by a shared {@link AudioEngine}, started on first use, so
+ * only a small buffer of each sound is in memory at any time. Files are opened
+ * and decoded on background threads through {@link AudioDecoders}, so compressed
+ * formats such as IMA ADPCM WAV can be used wherever PCM WAV was.
  */
 public final class AudioManager {
 
     private static final Logger LOGGER = Logger.getLogger(AudioManager.class.getName());
-    private static final String LOG_SEPARATOR = " - ";
     // Audio settings
     private static final float DEFAULT_MUSIC_VOLUME = 0.7f;
     private static final int MAX_VOLUME = 100;
 
-    // Current audio clips
-    private static Clip backgroundMusicClip;
+    // Current audio state
+    private static AudioEngine engine;
+    private static Voice backgroundMusic;
     private static String currentMusicPath;
     private static float musicVolume = DEFAULT_MUSIC_VOLUME;
     private static boolean isMuted;
@@ -37,71 +39,77 @@ public final class AudioManager {
 
     /**
      * Loads and plays background music with looping.
-     * 
+     *
      * @param musicPath the path to the music file (relative to resources directory)
      * @return true if music was loaded and started successfully, false otherwise
      */
-    public static boolean playBackgroundMusic(final String musicPath) {
+    public static synchronized boolean playBackgroundMusic(final String musicPath) {
+        return crossfadeTo(musicPath, 0);
+    }
+
+    /**
+     * Switches the background music to another track, fading the current track
+     * out while the new one fades in.
+     *
+     * @param musicPath the path to the music file (relative to resources directory)
+     * @param millis    the duration of the crossfade; 0 switches immediately
+     * @return true if the new track was loaded and started successfully, false otherwise
+     */
+    public static synchronized boolean crossfadeTo(final String musicPath, final int millis) {
         if (musicPath == null || musicPath.isBlank()) {
             LOGGER.warning("Music path is null or empty");
             return false;
         }
-
-        // Stop current music if playing
-        stopBackgroundMusic();
-
-        try {
-            final var resource = AudioManager.class.getClassLoader().getResource(musicPath);
-            if (resource == null) {
-                LOGGER.warning("Music resource not found: " + musicPath);
-                return false;
-            }
-
-            LOGGER.info("Loading background music from: " + resource);
-            final AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(resource);
-            backgroundMusicClip = AudioSystem.getClip();
-            backgroundMusicClip.open(audioInputStream);
-
-            // Set volume
-            setMusicVolume(musicVolume);
-
-            // Start playing with loop
-            backgroundMusicClip.loop(Clip.LOOP_CONTINUOUSLY);
-            currentMusicPath = musicPath;
-            LOGGER.info("Background music started: " + musicPath);
+        if (musicPath.equals(currentMusicPath) && isMusicPlaying()) {
             return true;
+        }
 
-        } catch (final UnsupportedAudioFileException e) {
-            LOGGER.log(Level.WARNING, "Unsupported audio format: " + musicPath + LOG_SEPARATOR + e.getMessage(), e);
+        final Voice next = startVoice(musicPath, true, millis > 0 ? 0.0f : 1.0f);
+        if (next == null) {
             return false;
-        } catch (final IOException e) {
-            LOGGER.log(Level.WARNING, "Failed to load music file: " + musicPath + LOG_SEPARATOR + e.getMessage(), e);
-            return false;
-        } catch (final LineUnavailableException e) {
-            LOGGER.log(Level.WARNING, "Audio line unavailable: " + musicPath + LOG_SEPARATOR + e.getMessage(), e);
+        }
+        if (backgroundMusic != null) {
+            backgroundMusic.fadeOut(millis);
+        }
+        next.fadeTo(1.0f, millis);
+        backgroundMusic = next;
+        currentMusicPath = musicPath;
+        LOGGER.info("Background music started: " + musicPath);
+        return true;
+    }
+
+    /**
+     * Plays a sound effect once, mixed over the music and other effects.
+     *
+     * @param soundPath the path to the sound file (relative to resources directory)
+     * @return true if the sound was loaded and started successfully, false otherwise
+     */
+    public static synchronized boolean playSound(final String soundPath) {
+        if (soundPath == null || soundPath.isBlank()) {
+            LOGGER.warning("Sound path is null or empty");
             return false;
         }
+        return startVoice(soundPath, false, 1.0f) != null;
     }
 
     /**
      * Stops the currently playing background music.
      */
-    public static void stopBackgroundMusic() {
-        if (backgroundMusicClip != null && backgroundMusicClip.isRunning()) {
-            backgroundMusicClip.stop();
-            backgroundMusicClip.close();
+    public static synchronized void stopBackgroundMusic() {
+        if (backgroundMusic != null) {
+            backgroundMusic.stop();
             LOGGER.info("Background music stopped: " + currentMusicPath);
         }
-        backgroundMusicClip = null;
+        backgroundMusic = null;
         currentMusicPath = null;
     }
 
     /**
      * Pauses the currently playing background music.
      */
-    public static void pauseBackgroundMusic() {
-        if (backgroundMusicClip != null && backgroundMusicClip.isRunning()) {
-            backgroundMusicClip.stop();
+    public static synchronized void pauseBackgroundMusic() {
+        if (isMusicPlaying()) {
+            backgroundMusic.setPaused(true);
             LOGGER.info("Background music paused: " + currentMusicPath);
         }
     }
@@ -109,96 +117,120 @@ public final class AudioManager {
     /**
      * Resumes the paused background music.
      */
-    public static void resumeBackgroundMusic() {
-        if (backgroundMusicClip != null && !backgroundMusicClip.isRunning() && currentMusicPath != null) {
-            backgroundMusicClip.loop(Clip.LOOP_CONTINUOUSLY);
+    public static synchronized void resumeBackgroundMusic() {
+        if (backgroundMusic != null && backgroundMusic.isPaused() && currentMusicPath != null) {
+            backgroundMusic.setPaused(false);
             LOGGER.info("Background music resumed: " + currentMusicPath);
         }
     }
 
     /**
      * Sets the background music volume.
-     * 
+     *
      * @param volume volume level (0.0f to 1.0f)
      */
-    public static void setMusicVolume(final float volume) {
+    public static synchronized void setMusicVolume(final float volume) {
         musicVolume = Math.max(0.0f, Math.min(1.0f, volume));
-        if (backgroundMusicClip != null) {
-            setClipVolume(backgroundMusicClip, isMuted ? 0.0f : musicVolume);
+        if (engine != null) {
+            engine.getMixer().setMusicVolume(musicVolume);
         }
         LOGGER.info("Music volume set to: " + (musicVolume * MAX_VOLUME) + "%");
     }
 
     /**
      * Mutes or unmutes all audio.
-     * 
+     *
      * @param muted true to mute, false to unmute
      */
-    public static void setMuted(final boolean muted) {
+    public static synchronized void setMuted(final boolean muted) {
         isMuted = muted;
-        if (backgroundMusicClip != null) {
-            setClipVolume(backgroundMusicClip, muted ? 0.0f : musicVolume);
+        if (engine != null) {
+            engine.getMixer().setMuted(muted);
         }
         LOGGER.info("Audio " + (muted ? "muted" : "unmuted"));
     }
 
     /**
      * Gets the current music volume.
-     * 
+     *
      * @return current music volume (0.0f to 1.0f)
      */
-    public static float getMusicVolume() {
+    public static synchronized float getMusicVolume() {
         return musicVolume;
     }
 
     /**
      * Checks if audio is currently muted.
-     * 
+     *
      * @return true if muted, false otherwise
      */
-    public static boolean isMuted() {
+    public static synchronized boolean isMuted() {
         return isMuted;
     }
 
     /**
      * Gets the path of the currently playing background music.
-     * 
+     *
      * @return current music path or null if no music is playing
      */
-    public static String getCurrentMusicPath() {
+    public static synchronized String getCurrentMusicPath() {
         return currentMusicPath;
     }
 
     /**
      * Checks if background music is currently playing.
-     * 
+     *
      * @return true if music is playing, false otherwise
      */
-    public static boolean isMusicPlaying() {
-        return backgroundMusicClip != null && backgroundMusicClip.isRunning();
+    public static synchronized boolean isMusicPlaying() {
+        return backgroundMusic != null && !backgroundMusic.isPaused() && !backgroundMusic.isFinished();
     }
 
     /**
-     * Helper method to set volume for a clip.
-     * 
-     * @param clip the audio clip
-     * @param volume volume level (0.0f to 1.0f)
+     * Opens a sound and starts it on the engine, starting the engine if needed.
+     *
+     * @param path  the path to the sound file (relative to resources directory)
+     * @param music true for looping music, false for a one-shot sound effect
+     * @param gain  the initial gain of the voice
+     * @return the playing voice, or null if the sound could not be started
+     */
+    private static Voice startVoice(final String path, final boolean music, final float gain) {
+        final URL resource = AudioManager.class.getClassLoader().getResource(path);
+        if (resource == null) {
+            LOGGER.warning("Audio resource not found: " + path);
+            return null;
+        }
+        if (!ensureEngine()) {
+            return null;
+        }
+        final AudioSource source = () -> AudioDecoders.open(resource);
+        LOGGER.info("Streaming audio from: " + resource);
+        return engine.getMixer().play(source, music, music, gain);
+    }
+
+    /**
+     * Starts the shared engine with the current volume settings.
+     *
+     * @return false if no audio output is available
      */
-    private static void setClipVolume(final Clip clip, final float volume) {
-        if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-            final FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            final float range = gainControl.getMaximum() - gainControl.getMinimum();
-            final float gain = (range * volume) + gainControl.getMinimum();
-            gainControl.setValue(gain);
+    private static boolean ensureEngine() {
+        if (engine == null) {
+            engine = new AudioEngine();
+            engine.getMixer().setMusicVolume(musicVolume);
+            engine.getMixer().setMuted(isMuted);
         }
+        return engine.start();
     }
 
     /**
      * Cleanup method to release audio resources.
      * Should be called when the application is shutting down.
      */
-    public static void cleanup() {
+    public static synchronized void cleanup() {
         stopBackgroundMusic();
+        if (engine != null) {
+            engine.shutdown();
+        }
         LOGGER.info("AudioManager cleanup completed");
     }
 }
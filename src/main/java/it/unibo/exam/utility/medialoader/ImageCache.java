@@ -0,0 +1,270 @@
+package it.unibo.exam.utility.medialoader;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory-bounded cache of decoded images.
+ * <p>
+ * The most recently used images are held strongly up to a byte budget. When the
+ * budget is exceeded the least recently used images are demoted to soft
+ * references: they stay available until the garbage collector needs the memory,
+ * and are promoted back to the strong set when requested again.
+ * </p>
+ * <p>
+ * All methods are thread-safe.
+ * </p>
+ */
+public final class ImageCache {
+
+    /** System property overriding the default budget, in megabytes. */
+    public static final String BUDGET_PROPERTY = "ue.assets.cacheMb";
+
+    private static final int DEFAULT_BUDGET_MB = 64;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final int BYTES_PER_ARGB_PIXEL = 4;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final long budgetBytes;
+    /** Strongly held images, least recently used first. */
+    private final Map<String, Entry> strong = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    /** Images demoted over budget, kept until the collector reclaims them. */
+    private final Map<String, SoftReference<Image>> soft = new HashMap<>();
+    private long strongBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long reclaimed;
+
+    /**
+     * Creates a cache holding at most {@code budgetBytes} of images strongly.
+     *
+     * @param budgetBytes the byte budget of strongly held images
+     */
+    public ImageCache(final long budgetBytes) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Budget cannot be negative: " + budgetBytes);
+        }
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Creates a cache with the budget set by {@link #BUDGET_PROPERTY}, 64 MB by default.
+     *
+     * @return the configured cache
+     */
+    public static ImageCache fromSystemProperties() {
+        final long mb = Math.max(0, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MB));
+        return new ImageCache(mb * BYTES_PER_MB);
+    }
+
+    /**
+     * @return the byte budget of strongly held images
+     */
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Looks up an image, counting a hit or a miss.
+     *
+     * @param key the resource path
+     * @return the cached image, or null if absent or reclaimed
+     */
+    public synchronized Image get(final String key) {
+        final Entry entry = strong.get(key);
+        if (entry != null) {
+            hits++;
+            return entry.image;
+        }
+        final SoftReference<Image> ref = soft.remove(key);
+        final Image image = ref == null ? null : ref.get();
+        if (image == null) {
+            if (ref != null) {
+                reclaimed++;
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        promote(key, image);
+        return image;
+    }
+
+    /**
+     * @param key the resource path
+     * @return true if the image is cached and not reclaimed, without touching the stats
+     */
+    public synchronized boolean contains(final String key) {
+        if (strong.containsKey(key)) {
+            return true;
+        }
+        final SoftReference<Image> ref = soft.get(key);
+        return ref != null && ref.get() != null;
+    }
+
+    /**
+     * Adds an image as the most recently used one, evicting older images over budget.
+     *
+     * @param key   the resource path
+     * @param image the decoded image; null images are ignored
+     */
+    public synchronized void put(final String key, final Image image) {
+        if (image == null) {
+            return;
+        }
+        soft.remove(key);
+        final Entry previous = strong.remove(key);
+        if (previous != null) {
+            strongBytes -= previous.bytes;
+        }
+        promote(key, image);
+    }
+
+    /**
+     * Drops every cached image. The statistics are kept.
+     */
+    public synchronized void clear() {
+        strong.clear();
+        soft.clear();
+        strongBytes = 0;
+    }
+
+    /**
+     * @return a snapshot of the cache statistics
+     */
+    public synchronized Stats getStats() {
+        soft.values().removeIf(ref -> ref.get() == null);
+        return new Stats(hits, misses, evictions, reclaimed, strong.size(), soft.size(), strongBytes);
+    }
+
+    /**
+     * Estimates the memory taken by a decoded image.
+     *
+     * @param image the image
+     * @return the estimated size in bytes
+     */
+    static long sizeOf(final Image image) {
+        final long pixels = (long) Math.max(0, image.getWidth(null)) * Math.max(0, image.getHeight(null));
+        if (image instanceof BufferedImage) {
+            final int bits = ((BufferedImage) image).getColorModel().getPixelSize();
+            return pixels * ((bits + BITS_PER_BYTE - 1) / BITS_PER_BYTE);
+        }
+        return pixels * BYTES_PER_ARGB_PIXEL;
+    }
+
+    private void promote(final String key, final Image image) {
+        final long bytes = sizeOf(image);
+        strong.put(key, new Entry(image, bytes));
+        strongBytes += bytes;
+        final Iterator<Map.Entry<String, Entry>> eldest = strong.entrySet().iterator();
+        while (strongBytes > budgetBytes && eldest.hasNext()) {
+            final Map.Entry<String, Entry> e = eldest.next();
+            eldest.remove();
+            strongBytes -= e.getValue().bytes;
+            soft.put(e.getKey(), new SoftReference<>(e.getValue().image));
+            evictions++;
+        }
+    }
+
+    /**
+     * A strongly held image with its estimated size.
+     */
+    private static final class Entry {
+        private final Image image;
+        private final long bytes;
+
+        Entry(final Image image, final long bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Snapshot of the cache statistics.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long reclaimed;
+        private final int strongCount;
+        private final int softCount;
+        private final long strongBytes;
+
+        private Stats(final long hits, final long misses, final long evictions, final long reclaimed,
+                      final int strongCount, final int softCount, final long strongBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.reclaimed = reclaimed;
+            this.strongCount = strongCount;
+            this.softCount = softCount;
+            this.strongBytes = strongBytes;
+        }
+
+        /**
+         * @return the number of lookups answered from the cache
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of lookups that found nothing
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the number of images demoted to soft references over budget
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return the number of demoted images found reclaimed by the collector
+         */
+        public long getReclaimed() {
+            return reclaimed;
+        }
+
+        /**
+         * @return the number of strongly held images
+         */
+        public int getStrongCount() {
+            return strongCount;
+        }
+
+        /**
+         * @return the number of demoted images not reclaimed yet
+         */
+        public int getSoftCount() {
+            return softCount;
+        }
+
+        /**
+         * @return the estimated bytes of strongly held images
+         */
+        public long getStrongBytes() {
+            return strongBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "ImageCache[hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", reclaimed=" + reclaimed + ", strong=" + strongCount + " (" + strongBytes / BYTES_PER_MB
+                + " MB), soft=" + softCount + "]";
+        }
+    }
+}
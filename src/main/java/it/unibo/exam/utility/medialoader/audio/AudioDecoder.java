@@ -0,0 +1,30 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Decodes one compressed audio format to PCM.
+ * Decoders are registered in {@link AudioDecoders}, which picks the first one
+ * accepting the header of a file.
+ */
+public interface AudioDecoder {
+
+    /**
+     * @param header the first bytes of the file, possibly fewer than the file holds
+     * @return true if this decoder handles the file
+     */
+    boolean accepts(byte[] header);
+
+    /**
+     * Wraps an encoded stream in a stream of PCM samples, decoded as they are read.
+     *
+     * @param in the encoded stream, positioned at the start of the file
+     * @return a PCM stream; closing it closes {@code in}
+     * @throws IOException                   if the stream cannot be read
+     * @throws UnsupportedAudioFileException if the file is malformed or uses an unsupported variant
+     */
+    AudioInputStream decode(InputStream in) throws IOException, UnsupportedAudioFileException;
+}
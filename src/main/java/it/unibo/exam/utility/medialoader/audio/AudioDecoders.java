@@ -0,0 +1,79 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Registry of the {@link AudioDecoder decoders} available to the audio engine.
+ * Files no registered decoder accepts are handed to {@link AudioSystem}, which
+ * reads plain PCM WAV, AIFF and AU.
+ */
+public final class AudioDecoders {
+
+    /** Number of leading bytes inspected to pick a decoder. */
+    public static final int HEADER_SIZE = 64;
+
+    private static final int STREAM_BUFFER = 8192;
+    private static final List<AudioDecoder> DECODERS = new CopyOnWriteArrayList<>(List.of(new ImaAdpcmDecoder()));
+
+    private AudioDecoders() {
+        // Utility class should not be instantiated
+    }
+
+    /**
+     * Registers a decoder, tried before the ones already registered.
+     *
+     * @param decoder the decoder to add
+     */
+    public static void register(final AudioDecoder decoder) {
+        if (decoder == null) {
+            throw new IllegalArgumentException("Decoder cannot be null");
+        }
+        DECODERS.add(0, decoder);
+    }
+
+    /**
+     * Opens a sound file as a PCM stream, decoded incrementally as it is read.
+     *
+     * @param resource the sound file
+     * @return a PCM stream over the file
+     * @throws IOException                   if the file cannot be read
+     * @throws UnsupportedAudioFileException if no decoder handles the file
+     */
+    public static AudioInputStream open(final URL resource) throws IOException, UnsupportedAudioFileException {
+        return open(resource.openStream());
+    }
+
+    /**
+     * Opens an encoded stream as a PCM stream, decoded incrementally as it is read.
+     *
+     * @param encoded the encoded stream, positioned at the start of the file
+     * @return a PCM stream; closing it closes {@code encoded}
+     * @throws IOException                   if the stream cannot be read
+     * @throws UnsupportedAudioFileException if no decoder handles the stream
+     */
+    public static AudioInputStream open(final InputStream encoded) throws IOException, UnsupportedAudioFileException {
+        final InputStream in = new BufferedInputStream(encoded, STREAM_BUFFER);
+        try {
+            in.mark(HEADER_SIZE);
+            final byte[] header = in.readNBytes(HEADER_SIZE);
+            in.reset();
+            for (final AudioDecoder decoder : DECODERS) {
+                if (decoder.accepts(header)) {
+                    return decoder.decode(in);
+                }
+            }
+            return AudioSystem.getAudioInputStream(in);
+        } catch (final IOException | UnsupportedAudioFileException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Streams the output of an {@link AudioMixer} to the sound card.
+ * <p>
+ * A dedicated daemon thread mixes one small block at a time and writes it to a
+ * {@link SourceDataLine} whose buffer holds about a tenth of a second of audio.
+ * The blocking write paces the thread to the playback rate, and memory use stays
+ * the same whatever the length of the sounds being played.
+ * </p>
+ */
+public final class AudioEngine {
+
+    /** Frames mixed per block written to the line (about 12 ms). */
+    public static final int BLOCK_FRAMES = 512;
+
+    /** Frames buffered by the output line (about 93 ms). */
+    public static final int BUFFER_FRAMES = 4096;
+
+    private static final Logger LOGGER = Logger.getLogger(AudioEngine.class.getName());
+    private static final long JOIN_TIMEOUT_MS = 500;
+
+    private final AudioMixer mixer = new AudioMixer();
+    private volatile boolean running;
+    private SourceDataLine line;
+    private Thread thread;
+
+    /**
+     * Opens the output line and starts the mixing thread. Does nothing if already running.
+     *
+     * @return false if no output line is available
+     */
+    public synchronized boolean start() {
+        if (running) {
+            return true;
+        }
+        try {
+            line = AudioSystem.getSourceDataLine(AudioMixer.FORMAT);
+            line.open(AudioMixer.FORMAT, BUFFER_FRAMES * AudioMixer.FORMAT.getFrameSize());
+            line.start();
+        } catch (final LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            LOGGER.log(Level.WARNING, "Audio output unavailable: " + e.getMessage(), e);
+            line = null;
+            return false;
+        }
+        running = true;
+        thread = new Thread(this::pump, "audio-mixer");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Audio engine started: " + AudioMixer.FORMAT);
+        return true;
+    }
+
+    /**
+     * Stops every voice, stops the mixing thread and closes the output line.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        mixer.stopAll();
+        try {
+            thread.join(JOIN_TIMEOUT_MS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        line.stop();
+        line.close();
+        line = null;
+        thread = null;
+        LOGGER.info("Audio engine stopped");
+    }
+
+    /**
+     * @return true while the engine is streaming to the sound card
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the mixer whose output is played
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP",
+                        justification = "The mixer is the engine's control surface, shared by design")
+    public AudioMixer getMixer() {
+        return mixer;
+    }
+
+    private void pump() {
+        final SourceDataLine output = line;
+        final byte[] block = new byte[BLOCK_FRAMES * AudioMixer.FORMAT.getFrameSize()];
+        while (running) {
+            mixer.mix(block, BLOCK_FRAMES);
+            output.write(block, 0, block.length);
+        }
+        output.flush();
+    }
+}
@@ -0,0 +1,204 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Software mixer summing any number of {@link Voice voices} into one stereo stream.
+ * <p>
+ * Every voice is decoded to {@link #FORMAT} in the background, so mixing is a plain
+ * sum of 16-bit samples, scaled by the music or effects volume and clipped to range.
+ * The mixer does no I/O of its own: {@link AudioEngine} pulls blocks from
+ * {@link #mix(byte[], int)} and writes them to the sound card.
+ * </p>
+ */
+public final class AudioMixer {
+
+    /** Format of the mixed output: 44.1 kHz, 16-bit signed, stereo, little-endian. */
+    public static final AudioFormat FORMAT = new AudioFormat(44_100f, 16, 2, true, false);
+
+    /**
+     * Maximum number of voices playing at once; beyond it the oldest sound effect is
+     * stopped, or the new voice refused if every voice playing is music.
+     */
+    public static final int MAX_VOICES = 16;
+
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BYTE_SHIFT = 8;
+    private static final int DECODE_THREADS = 2;
+
+    /**
+     * Lazily created decode threads shared by every mixer.
+     */
+    private static final class DecoderPool {
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(DECODE_THREADS, r -> {
+            final Thread t = new Thread(r, "audio-decoder");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private final Executor decodeExecutor;
+    private final List<Voice> voices = new CopyOnWriteArrayList<>();
+    private int[] accumulator = new int[0];
+    private volatile float musicVolume = 1.0f;
+    private volatile float effectsVolume = 1.0f;
+    private volatile boolean muted;
+
+    /**
+     * Creates a mixer decoding its voices on the shared audio decode threads.
+     */
+    public AudioMixer() {
+        this(DecoderPool.EXECUTOR);
+    }
+
+    /**
+     * Creates a mixer decoding its voices on the given executor.
+     *
+     * @param decodeExecutor the executor running the decode tasks of the voices
+     */
+    public AudioMixer(final Executor decodeExecutor) {
+        if (decodeExecutor == null) {
+            throw new IllegalArgumentException("Decode executor cannot be null");
+        }
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    /**
+     * Starts playing a sound. The source is opened and decoded in the background:
+     * the voice is silent until its first block is decoded, and stops by itself if
+     * the source cannot be read.
+     * When {@link #MAX_VOICES} voices are playing, the oldest sound effect is stopped
+     * to make room; if all of them are music, the new voice is refused instead.
+     *
+     * @param source the sound to play
+     * @param music  true for music, false for a sound effect
+     * @param loop   true to restart the sound when it ends
+     * @param gain   the initial gain of the voice (0.0f to 1.0f)
+     * @return the playing voice, or null if every voice playing is music
+     */
+    public synchronized Voice play(final AudioSource source, final boolean music, final boolean loop,
+                                   final float gain) {
+        if (voices.stream().filter(v -> !v.isFinished()).count() >= MAX_VOICES) {
+            final Optional<Voice> oldestEffect = voices.stream()
+                .filter(v -> !v.isMusic() && !v.isFinished())
+                .findFirst();
+            if (oldestEffect.isEmpty()) {
+                return null;
+            }
+            oldestEffect.get().stop();
+        }
+        final Voice voice = new Voice(new StreamingDecoder(source, loop, decodeExecutor), music, gain);
+        voices.add(voice);
+        return voice;
+    }
+
+    /**
+     * Mixes the next block of audio.
+     * Called by a single thread, the one feeding the output line.
+     *
+     * @param out    receives {@code frames} frames in {@link #FORMAT}
+     * @param frames number of frames to mix
+     */
+    public void mix(final byte[] out, final int frames) {
+        final int samples = frames * FORMAT.getChannels();
+        if (accumulator.length < samples) {
+            accumulator = new int[samples];
+        }
+        Arrays.fill(accumulator, 0, samples, 0);
+        final float music = muted ? 0.0f : musicVolume;
+        final float effects = muted ? 0.0f : effectsVolume;
+        for (final Voice voice : voices) {
+            if (!voice.mixInto(accumulator, frames, voice.isMusic() ? music : effects)) {
+                voices.remove(voice);
+            }
+        }
+        for (int i = 0; i < samples; i++) {
+            final int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, accumulator[i]));
+            out[2 * i] = (byte) (sample & BYTE_MASK);
+            out[2 * i + 1] = (byte) (sample >> BYTE_SHIFT);
+        }
+    }
+
+    /**
+     * Stops every voice.
+     */
+    public void stopAll() {
+        voices.forEach(Voice::stop);
+    }
+
+    /**
+     * @return the number of voices not yet released
+     */
+    public int getActiveVoices() {
+        return voices.size();
+    }
+
+    /**
+     * @param volume the volume of music voices (0.0f to 1.0f)
+     */
+    public void setMusicVolume(final float volume) {
+        this.musicVolume = Math.max(0.0f, Math.min(1.0f, volume));
+    }
+
+    /**
+     * @param volume the volume of sound-effect voices (0.0f to 1.0f)
+     */
+    public void setEffectsVolume(final float volume) {
+        this.effectsVolume = Math.max(0.0f, Math.min(1.0f, volume));
+    }
+
+    /**
+     * @param muted true to silence every voice without stopping them
+     */
+    public void setMuted(final boolean muted) {
+        this.muted = muted;
+    }
+
+    /**
+     * Converts a stream to {@link #FORMAT}, decoding it to PCM first if needed.
+     *
+     * @param in the stream to convert
+     * @return a stream in the mixer format
+     * @throws UnsupportedAudioFileException if no conversion is available
+     */
+    static AudioInputStream toMixerFormat(final AudioInputStream in) throws UnsupportedAudioFileException {
+        final AudioFormat source = in.getFormat();
+        if (source.matches(FORMAT)) {
+            return in;
+        }
+        if (AudioSystem.isConversionSupported(FORMAT, source)) {
+            return AudioSystem.getAudioInputStream(FORMAT, in);
+        }
+        final AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, source.getSampleRate(),
+                                                FORMAT.getSampleSizeInBits(), source.getChannels(),
+                                                source.getChannels() * FORMAT.getSampleSizeInBits() / Byte.SIZE,
+                                                source.getSampleRate(), false);
+        if (!AudioSystem.isConversionSupported(pcm, source)) {
+            throw new UnsupportedAudioFileException("Cannot decode " + source + " to PCM");
+        }
+        final AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, in);
+        if (!AudioSystem.isConversionSupported(FORMAT, pcm)) {
+            throw new UnsupportedAudioFileException("Cannot convert " + pcm + " to " + FORMAT);
+        }
+        return AudioSystem.getAudioInputStream(FORMAT, decoded);
+    }
+
+    /**
+     * @param millis a duration in milliseconds
+     * @return the number of output frames in that duration
+     */
+    static int millisToFrames(final int millis) {
+        return (int) ((long) Math.max(0, millis) * (long) FORMAT.getFrameRate() / MILLIS_PER_SECOND);
+    }
+}
@@ -0,0 +1,21 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.io.IOException;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Opens a fresh stream over a sound each time it is called.
+ * Looping voices reopen their source when the stream ends, so the sound is
+ * never held in memory as a whole.
+ */
+@FunctionalInterface
+public interface AudioSource {
+
+    /**
+     * @return a new stream positioned at the start of the sound, in any PCM-convertible format
+     * @throws IOException                   if the sound cannot be read
+     * @throws UnsupportedAudioFileException if the sound format is not recognized
+     */
+    AudioInputStream open() throws IOException, UnsupportedAudioFileException;
+}
@@ -0,0 +1,288 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Decoder for IMA ADPCM WAV files (format tag {@code 0x0011}), as written by
+ * {@code sox -e ima-adpcm} or {@code ffmpeg -c:a adpcm_ima_wav}.
+ * <p>
+ * IMA ADPCM stores 4 bits per sample, a quarter of 16-bit PCM, and is cheap to
+ * decode: samples are decoded one block at a time as the stream is read.
+ * </p>
+ */
+public final class ImaAdpcmDecoder implements AudioDecoder {
+
+    /** WAV format tag of IMA ADPCM. */
+    public static final int FORMAT_TAG = 0x0011;
+
+    private static final int[] STEP_TABLE = {
+        7, 8, 9, 10, 11, 12, 13, 14, 16, 17, 19, 21, 23, 25, 28, 31, 34, 37, 41, 45,
+        50, 55, 60, 66, 73, 80, 88, 97, 107, 118, 130, 143, 157, 173, 190, 209, 230,
+        253, 279, 307, 337, 371, 408, 449, 494, 544, 598, 658, 724, 796, 876, 963,
+        1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066, 2272, 2499, 2749, 3024, 3327,
+        3660, 4026, 4428, 4871, 5358, 5894, 6484, 7132, 7845, 8630, 9493, 10_442,
+        11_487, 12_635, 13_899, 15_289, 16_818, 18_500, 20_350, 22_385, 24_623,
+        27_086, 29_794, 32_767,
+    };
+    private static final int[] INDEX_TABLE = {-1, -1, -1, -1, 2, 4, 6, 8, -1, -1, -1, -1, 2, 4, 6, 8};
+
+    private static final int RIFF_HEADER = 12;
+    private static final int CHUNK_HEADER = 8;
+    private static final int FMT_MIN_SIZE = 20;
+    private static final int BITS_PER_SAMPLE = 4;
+    private static final int BYTES_PER_WORD = 4;
+    private static final int PCM_BITS = 16;
+    private static final int NIBBLE_MASK = 0x0F;
+    private static final int NIBBLE_SHIFT = 4;
+    private static final int SIGN_BIT = 8;
+    private static final int MAGNITUDE_4 = 4;
+    private static final int MAGNITUDE_2 = 2;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BYTE_SHIFT = 8;
+    private static final int WORD_SHIFT = 16;
+    private static final int TOP_SHIFT = 24;
+
+    @Override
+    public boolean accepts(final byte[] header) {
+        if (header.length < RIFF_HEADER || !"RIFF".equals(fourCc(header, 0)) || !"WAVE".equals(fourCc(header, 8))) {
+            return false;
+        }
+        int pos = RIFF_HEADER;
+        while (pos + CHUNK_HEADER + 2 <= header.length) {
+            final int size = readInt(header, pos + 4);
+            if ("fmt ".equals(fourCc(header, pos))) {
+                return readShort(header, pos + CHUNK_HEADER) == FORMAT_TAG;
+            }
+            if (size < 0) {
+                return false;
+            }
+            pos += CHUNK_HEADER + size + (size & 1);
+        }
+        return false;
+    }
+
+    @Override
+    public AudioInputStream decode(final InputStream in) throws IOException, UnsupportedAudioFileException {
+        final DataInputStream data = new DataInputStream(in);
+        final byte[] riff = new byte[RIFF_HEADER];
+        data.readFully(riff);
+        if (!"RIFF".equals(fourCc(riff, 0)) || !"WAVE".equals(fourCc(riff, 8))) {
+            throw new UnsupportedAudioFileException("Not a WAV file");
+        }
+        Header fmt = null;
+        final byte[] chunk = new byte[CHUNK_HEADER];
+        while (true) {
+            data.readFully(chunk);
+            final String id = fourCc(chunk, 0);
+            final long size = readInt(chunk, 4) & 0xFFFF_FFFFL;
+            if ("fmt ".equals(id)) {
+                if (size < FMT_MIN_SIZE) {
+                    throw new UnsupportedAudioFileException("IMA ADPCM fmt chunk too short: " + size);
+                }
+                final byte[] body = new byte[(int) size];
+                data.readFully(body);
+                fmt = parseFormat(body);
+                skip(data, size & 1);
+            } else if ("data".equals(id)) {
+                if (fmt == null) {
+                    throw new UnsupportedAudioFileException("WAV data chunk before fmt chunk");
+                }
+                final AudioFormat pcm = new AudioFormat(fmt.sampleRate, PCM_BITS, fmt.channels, true, false);
+                return new AudioInputStream(new BlockStream(data, fmt, size), pcm, AudioSystem.NOT_SPECIFIED);
+            } else {
+                skip(data, size + (size & 1));
+            }
+        }
+    }
+
+    private static Header parseFormat(final byte[] body) throws UnsupportedAudioFileException {
+        final int tag = readShort(body, 0);
+        final int channels = readShort(body, 2);
+        final int sampleRate = readInt(body, 4);
+        final int blockAlign = readShort(body, 12);
+        final int bits = readShort(body, 14);
+        if (tag != FORMAT_TAG || bits != BITS_PER_SAMPLE || channels <= 0
+            || blockAlign < BYTES_PER_WORD * channels || sampleRate <= 0) {
+            throw new UnsupportedAudioFileException("Unsupported IMA ADPCM variant: tag=" + tag
+                + ", channels=" + channels + ", bits=" + bits + ", blockAlign=" + blockAlign);
+        }
+        return new Header(channels, sampleRate, blockAlign);
+    }
+
+    private static void skip(final DataInputStream in, final long bytes) throws IOException {
+        long left = bytes;
+        while (left > 0) {
+            final long skipped = in.skip(left);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Truncated WAV file");
+                }
+                left--;
+            } else {
+                left -= skipped;
+            }
+        }
+    }
+
+    private static String fourCc(final byte[] b, final int offset) {
+        return new String(b, offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static int readShort(final byte[] b, final int offset) {
+        return b[offset] & BYTE_MASK | (b[offset + 1] & BYTE_MASK) << BYTE_SHIFT;
+    }
+
+    private static int readInt(final byte[] b, final int offset) {
+        return readShort(b, offset) | (b[offset + 2] & BYTE_MASK) << WORD_SHIFT | b[offset + 3] << TOP_SHIFT;
+    }
+
+    /**
+     * Layout of the blocks of an IMA ADPCM file.
+     */
+    private static final class Header {
+        private final int channels;
+        private final int sampleRate;
+        private final int blockAlign;
+
+        Header(final int channels, final int sampleRate, final int blockAlign) {
+            this.channels = channels;
+            this.sampleRate = sampleRate;
+            this.blockAlign = blockAlign;
+        }
+    }
+
+    /**
+     * Decodes the data chunk one block at a time into 16-bit little-endian PCM.
+     */
+    private static final class BlockStream extends InputStream {
+        private final DataInputStream in;
+        private final int channels;
+        private final byte[] block;
+        private final short[] samples;
+        private final byte[] pcm;
+        private final int[] predictor;
+        private final int[] index;
+        private final int[] written;
+        private final byte[] single = new byte[1];
+        private long remaining;
+        private int pcmLength;
+        private int pcmPos;
+
+        BlockStream(final DataInputStream in, final Header fmt, final long dataSize) {
+            super();
+            this.in = in;
+            this.channels = fmt.channels;
+            this.block = new byte[fmt.blockAlign];
+            final int perChannel = 1 + (fmt.blockAlign - BYTES_PER_WORD * channels) * 2 / channels;
+            this.samples = new short[perChannel * channels];
+            this.pcm = new byte[samples.length * 2];
+            this.predictor = new int[channels];
+            this.index = new int[channels];
+            this.written = new int[channels];
+            this.remaining = dataSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & BYTE_MASK;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pcmPos == pcmLength && !decodeBlock()) {
+                return -1;
+            }
+            final int n = Math.min(len, pcmLength - pcmPos);
+            System.arraycopy(pcm, pcmPos, b, off, n);
+            pcmPos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return pcmLength - pcmPos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * Reads and decodes the next block.
+         *
+         * @return false at the end of the data chunk
+         */
+        private boolean decodeBlock() throws IOException {
+            final int length = (int) Math.min(block.length, remaining);
+            final int read = in.readNBytes(block, 0, length);
+            remaining -= read;
+            if (read < BYTES_PER_WORD * channels) {
+                remaining = 0;
+                return false;
+            }
+            for (int c = 0; c < channels; c++) {
+                final int base = c * BYTES_PER_WORD;
+                predictor[c] = (short) (block[base] & BYTE_MASK | block[base + 1] << BYTE_SHIFT);
+                index[c] = Math.max(0, Math.min(STEP_TABLE.length - 1, block[base + 2] & BYTE_MASK));
+                samples[c] = (short) predictor[c];
+                written[c] = 1;
+            }
+            // Data words of 8 samples each, interleaved by channel
+            int pos = BYTES_PER_WORD * channels;
+            while (pos < read) {
+                for (int c = 0; c < channels && pos < read; c++) {
+                    for (int i = 0; i < BYTES_PER_WORD && pos < read; i++, pos++) {
+                        final int packed = block[pos] & BYTE_MASK;
+                        put(c, packed & NIBBLE_MASK);
+                        put(c, packed >> NIBBLE_SHIFT);
+                    }
+                }
+            }
+            int frames = samples.length / channels;
+            for (int c = 0; c < channels; c++) {
+                frames = Math.min(frames, written[c]);
+            }
+            final int count = frames * channels;
+            for (int i = 0; i < count; i++) {
+                pcm[2 * i] = (byte) samples[i];
+                pcm[2 * i + 1] = (byte) (samples[i] >> BYTE_SHIFT);
+            }
+            pcmLength = count * 2;
+            pcmPos = 0;
+            return pcmLength > 0;
+        }
+
+        private void put(final int channel, final int nibble) {
+            final int step = STEP_TABLE[index[channel]];
+            int diff = step >> 3;
+            if ((nibble & 1) != 0) {
+                diff += step >> 2;
+            }
+            if ((nibble & MAGNITUDE_2) != 0) {
+                diff += step >> 1;
+            }
+            if ((nibble & MAGNITUDE_4) != 0) {
+                diff += step;
+            }
+            final int next = (nibble & SIGN_BIT) != 0 ? predictor[channel] - diff : predictor[channel] + diff;
+            predictor[channel] = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, next));
+            index[channel] = Math.max(0, Math.min(STEP_TABLE.length - 1, index[channel] + INDEX_TABLE[nibble]));
+            final int slot = written[channel]++ * channels + channel;
+            if (slot < samples.length) {
+                samples[slot] = (short) predictor[channel];
+            }
+        }
+    }
+}
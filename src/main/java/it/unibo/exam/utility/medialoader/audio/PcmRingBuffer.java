@@ -0,0 +1,82 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+/**
+ * Fixed-size byte ring carrying decoded PCM from a decode thread to the mixer thread.
+ * Neither side ever blocks: the producer writes only what fits and the consumer
+ * reads only what is available, treating a shortfall as an underrun.
+ */
+final class PcmRingBuffer {
+
+    private final byte[] data;
+    private int readPos;
+    private int size;
+    private boolean ended;
+
+    /**
+     * @param capacity the capacity in bytes
+     */
+    PcmRingBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * Copies as many bytes as fit into the ring.
+     *
+     * @return the number of bytes written
+     */
+    synchronized int write(final byte[] src, final int offset, final int length) {
+        final int n = Math.min(length, data.length - size);
+        final int writePos = (readPos + size) % data.length;
+        final int first = Math.min(n, data.length - writePos);
+        System.arraycopy(src, offset, data, writePos, first);
+        System.arraycopy(src, offset + first, data, 0, n - first);
+        size += n;
+        return n;
+    }
+
+    /**
+     * Copies up to {@code length} available bytes out of the ring.
+     *
+     * @return the number of bytes read
+     */
+    synchronized int read(final byte[] dst, final int offset, final int length) {
+        final int n = Math.min(length, size);
+        final int first = Math.min(n, data.length - readPos);
+        System.arraycopy(data, readPos, dst, offset, first);
+        System.arraycopy(data, 0, dst, offset + first, n - first);
+        readPos = (readPos + n) % data.length;
+        size -= n;
+        return n;
+    }
+
+    /**
+     * @return the number of bytes that can be written
+     */
+    synchronized int free() {
+        return data.length - size;
+    }
+
+    /**
+     * @return the capacity in bytes
+     */
+    int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Marks the end of the stream: nothing more will be written.
+     */
+    synchronized void end() {
+        ended = true;
+    }
+
+    /**
+     * @return true once the stream has ended and every byte has been read
+     */
+    synchronized boolean isDrained() {
+        return ended && size == 0;
+    }
+}
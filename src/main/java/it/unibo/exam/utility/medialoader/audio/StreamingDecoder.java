@@ -0,0 +1,153 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Decodes the source of a voice into its {@link PcmRingBuffer} on a decode executor.
+ * <p>
+ * A fill task opens the source on first use, converts it to the mixer format and
+ * decodes until the ring is full, reopening looping sources at the end. The mixer
+ * asks for a refill whenever the ring is half empty, so opening, reading and
+ * decoding never happen on the game or mixer thread.
+ * </p>
+ */
+final class StreamingDecoder {
+
+    /** Frames buffered per voice (about 186 ms). */
+    static final int RING_FRAMES = 8192;
+
+    private static final Logger LOGGER = Logger.getLogger(StreamingDecoder.class.getName());
+    private static final int CHUNK_FRAMES = 1024;
+
+    private final AudioSource source;
+    private final boolean loop;
+    private final Executor executor;
+    private final PcmRingBuffer ring;
+    private final AtomicBoolean fillPending = new AtomicBoolean();
+    private final byte[] chunk = new byte[CHUNK_FRAMES * AudioMixer.FORMAT.getFrameSize()];
+    private final Runnable fillTask = this::fill;
+
+    // Touched only by fill and release, which are serialized on this
+    private AudioInputStream stream;
+    private int chunkLength;
+    private boolean ended;
+    private volatile boolean cancelled;
+
+    /**
+     * @param source   the sound to decode
+     * @param loop     true to restart the sound when it ends
+     * @param executor the executor running the fill tasks
+     */
+    StreamingDecoder(final AudioSource source, final boolean loop, final Executor executor) {
+        this.source = source;
+        this.loop = loop;
+        this.executor = executor;
+        this.ring = new PcmRingBuffer(RING_FRAMES * AudioMixer.FORMAT.getFrameSize());
+    }
+
+    /**
+     * @return the ring the decoded audio is written to
+     */
+    PcmRingBuffer ring() {
+        return ring;
+    }
+
+    /**
+     * Schedules a fill task if the ring is at least half empty and none is pending.
+     */
+    void requestFill() {
+        if (!cancelled && !ring.isDrained() && ring.free() >= ring.capacity() / 2
+            && fillPending.compareAndSet(false, true)) {
+            executor.execute(fillTask);
+        }
+    }
+
+    /**
+     * Stops decoding and closes the stream on the decode executor, after any running fill.
+     */
+    void cancel() {
+        cancelled = true;
+        executor.execute(this::release);
+    }
+
+    private synchronized void release() {
+        close();
+        ring.end();
+    }
+
+    private synchronized void fill() {
+        try {
+            if (!cancelled) {
+                decodeUntilFull();
+            }
+        } catch (final IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Audio decoding failed, stopping voice", e);
+            ended = true;
+            close();
+            ring.end();
+        } finally {
+            fillPending.set(false);
+        }
+    }
+
+    private void decodeUntilFull() throws IOException, UnsupportedAudioFileException {
+        boolean restarted = false;
+        while (!ended && !cancelled) {
+            // Flush what is left of the last chunk before decoding more
+            if (chunkLength > 0) {
+                final int offset = chunk.length - chunkLength;
+                final int written = ring.write(chunk, offset, chunkLength);
+                chunkLength -= written;
+                if (chunkLength > 0) {
+                    return;
+                }
+            }
+            if (stream == null) {
+                stream = AudioMixer.toMixerFormat(source.open());
+            }
+            final int n = readChunk();
+            if (n > 0) {
+                restarted = false;
+                System.arraycopy(chunk, 0, chunk, chunk.length - n, n);
+                chunkLength = n;
+            } else if (!loop || restarted) {
+                // A sound that ends again right after a restart is empty: give up
+                ended = true;
+                close();
+                ring.end();
+            } else {
+                close();
+                restarted = true;
+            }
+        }
+    }
+
+    private int readChunk() throws IOException {
+        int read = 0;
+        while (read < chunk.length) {
+            final int n = stream.read(chunk, read, chunk.length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read - read % AudioMixer.FORMAT.getFrameSize();
+    }
+
+    private void close() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (final IOException e) {
+                LOGGER.log(Level.FINE, "Failed to close audio stream", e);
+            }
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package it.unibo.exam.utility.medialoader.audio;
+
+/**
+ * A sound playing on an {@link AudioMixer}.
+ * <p>
+ * The voice plays audio decoded ahead of time by a {@link StreamingDecoder} into a
+ * fixed ring buffer, so memory use does not depend on the length of the sound and
+ * the mixer thread never waits on I/O: if the decoder falls behind, the missing
+ * frames are played as silence. Its gain can be ramped over time for fades and
+ * crossfades. Control methods may be called from any thread.
+ * </p>
+ */
+public final class Voice {
+
+    private static final int BYTES_PER_SAMPLE = 2;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BYTE_SHIFT = 8;
+
+    private final StreamingDecoder decoder;
+    private final boolean music;
+
+    private byte[] buffer = new byte[0];
+    private boolean released;
+
+    private float gain;
+    private float targetGain;
+    private float gainStep;
+    private int rampFrames;
+    private boolean stopAtTarget;
+    private boolean paused;
+    private boolean finished;
+
+    /**
+     * Creates a voice and starts decoding its source.
+     *
+     * @param decoder the decoder feeding the voice
+     * @param music   true for a music voice, false for a sound effect
+     * @param gain    the initial gain (0.0f to 1.0f)
+     */
+    Voice(final StreamingDecoder decoder, final boolean music, final float gain) {
+        this.decoder = decoder;
+        this.music = music;
+        this.gain = clamp(gain);
+        this.targetGain = this.gain;
+        decoder.requestFill();
+    }
+
+    /**
+     * Ramps the gain linearly to the given value.
+     *
+     * @param target the gain to reach (0.0f to 1.0f)
+     * @param millis the duration of the ramp; 0 applies the gain immediately
+     */
+    public synchronized void fadeTo(final float target, final int millis) {
+        startRamp(target, millis, false);
+    }
+
+    /**
+     * Ramps the gain to silence, then stops the voice.
+     *
+     * @param millis the duration of the fade; 0 stops immediately
+     */
+    public synchronized void fadeOut(final int millis) {
+        startRamp(0.0f, millis, true);
+    }
+
+    /**
+     * Stops the voice immediately. The mixer releases it on its next block.
+     */
+    public synchronized void stop() {
+        finished = true;
+    }
+
+    /**
+     * @param paused true to hold the voice silent at its current position
+     */
+    public synchronized void setPaused(final boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * @return true if the voice is paused
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return true once the voice has ended or been stopped
+     */
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return the current gain of the voice (0.0f to 1.0f)
+     */
+    public synchronized float getGain() {
+        return gain;
+    }
+
+    /**
+     * @return true for a music voice, false for a sound effect
+     */
+    public boolean isMusic() {
+        return music;
+    }
+
+    /**
+     * Adds the next {@code frames} frames of the voice to a stereo accumulator.
+     *
+     * @param accumulator interleaved stereo samples to add to
+     * @param frames      number of frames to mix
+     * @param volume      channel volume applied on top of the voice gain
+     * @return false once the voice has finished and should be released
+     */
+    synchronized boolean mixInto(final int[] accumulator, final int frames, final float volume) {
+        if (finished) {
+            release();
+            return false;
+        }
+        if (paused) {
+            return true;
+        }
+        final int channels = AudioMixer.FORMAT.getChannels();
+        final int bytes = frames * AudioMixer.FORMAT.getFrameSize();
+        if (buffer.length < bytes) {
+            buffer = new byte[bytes];
+        }
+        final PcmRingBuffer ring = decoder.ring();
+        final int read = ring.read(buffer, 0, bytes);
+        final int readFrames = read / AudioMixer.FORMAT.getFrameSize();
+        int offset = 0;
+        for (int f = 0; f < readFrames; f++) {
+            final float amplitude = gain * volume;
+            for (int c = 0; c < channels; c++) {
+                final int sample = (short) ((buffer[offset] & BYTE_MASK) | (buffer[offset + 1] << BYTE_SHIFT));
+                accumulator[f * channels + c] += (int) (sample * amplitude);
+                offset += BYTES_PER_SAMPLE;
+            }
+            advanceRamp();
+        }
+        if (finished || read < bytes && ring.isDrained()) {
+            finished = true;
+            release();
+            return false;
+        }
+        decoder.requestFill();
+        return true;
+    }
+
+    private void startRamp(final float target, final int millis, final boolean stop) {
+        targetGain = clamp(target);
+        stopAtTarget = stop;
+        rampFrames = AudioMixer.millisToFrames(millis);
+        if (rampFrames <= 0) {
+            gain = targetGain;
+            finished = finished || stop;
+        } else {
+            gainStep = (targetGain - gain) / rampFrames;
+        }
+    }
+
+    private void advanceRamp() {
+        if (rampFrames > 0) {
+            rampFrames--;
+            gain = rampFrames == 0 ? targetGain : gain + gainStep;
+            if (rampFrames == 0 && stopAtTarget) {
+                finished = true;
+            }
+        }
+    }
+
+    private void release() {
+        if (!released) {
+            released = true;
+            decoder.cancel();
+        }
+    }
+
+    private static float clamp(final float value) {
+        return Math.max(0.0f, Math.min(1.0f, value));
+    }
+}
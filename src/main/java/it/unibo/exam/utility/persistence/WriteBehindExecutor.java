@@ -0,0 +1,403 @@
+package it.unibo.exam.utility.persistence;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs disk writes on a single background thread, so that the thread asking
+ * for a write, often the Event Dispatch Thread, does not wait for the disk.
+ * <p>
+ * Writes run one at a time, in the order they were submitted. A write
+ * submitted under the key of a write still waiting replaces it, in its place
+ * in the queue: a component that writes its latest state submits under one key
+ * and the disk sees one write however many changes piled up meanwhile. At
+ * most {@code capacity} writes wait at once; past that, {@link #submit} blocks
+ * until the writer catches up, so callers must not hold a lock the writes
+ * need.
+ * </p>
+ * <p>
+ * Once {@link #shutdown(long)} has stopped the writer thread, writes run on
+ * the thread submitting them, one at a time. Until the writer thread has
+ * ended, even after a shutdown that timed out, they are still queued for it,
+ * so a write never runs alongside another one of the same key.
+ * </p>
+ */
+public final class WriteBehindExecutor {
+
+    /** Writes waiting at most in the shared executor. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindExecutor.class.getName());
+
+    private final String name;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition idle = lock.newCondition();
+    private final Map<Object, Write> pending = new LinkedHashMap<>();
+    /** Held by the writes run in place, once the writer thread has ended. */
+    private final Object inPlace = new Object();
+    private Thread writer;
+    private boolean running;
+    private boolean stopped;
+    /** Whether the writer thread has ended, or will never start. */
+    private boolean finished;
+
+    private long submitted;
+    private long coalesced;
+    private long completed;
+    private long failed;
+    private int maxDepth;
+    private long totalWriteNanos;
+    private long maxWriteNanos;
+
+    /**
+     * A disk write.
+     */
+    @FunctionalInterface
+    public interface Write {
+        /**
+         * Performs the write.
+         *
+         * @throws IOException if the write fails; it is logged and counted
+         */
+        void write() throws IOException;
+    }
+
+    /**
+     * Holder of the executor shared by the game, created on first use.
+     */
+    private static final class Holder {
+        private static final WriteBehindExecutor INSTANCE = new WriteBehindExecutor("write-behind", DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an executor; its thread starts with the first write.
+     *
+     * @param name     the name of the writer thread
+     * @param capacity the number of writes that may wait
+     */
+    public WriteBehindExecutor(final String name, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the executor shared by the game
+     */
+    public static WriteBehindExecutor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Queues a write that nothing coalesces with.
+     *
+     * @param write the write
+     */
+    public void submit(final Write write) {
+        submit(new Object(), write);
+    }
+
+    /**
+     * Queues a write, replacing the one waiting under the same key if any,
+     * and blocks while the queue is full. A caller interrupted while blocked
+     * queues its write over capacity rather than lose it.
+     *
+     * @param key   the key of the write
+     * @param write the write
+     */
+    public void submit(final Object key, final Write write) {
+        lock.lock();
+        try {
+            submitted++;
+            if (!finished && pending.replace(key, write) != null) {
+                coalesced++;
+                return;
+            }
+            awaitRoom();
+            if (!finished) {
+                if (pending.put(key, write) != null) {
+                    coalesced++;
+                }
+                maxDepth = Math.max(maxDepth, pending.size());
+                if (writer == null) {
+                    writer = new Thread(this::drain, name);
+                    writer.setDaemon(true);
+                    writer.start();
+                }
+                notEmpty.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        synchronized (inPlace) {
+            run(write);
+        }
+    }
+
+    /**
+     * Waits until every write queued so far has run. Does nothing on the
+     * writer thread itself.
+     */
+    public void flush() {
+        awaitIdle(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs the writes still waiting, within a time limit, and stops the
+     * writer thread. If the time runs out, the writer thread goes on with
+     * the writes still waiting, and takes the ones submitted meanwhile.
+     *
+     * @param timeoutMillis the time to wait for the writes, in milliseconds
+     * @return true if every write ran in time
+     */
+    public boolean shutdown(final long timeoutMillis) {
+        final long start = System.nanoTime();
+        final boolean drained = awaitIdle(timeoutMillis);
+        final Thread thread;
+        lock.lock();
+        try {
+            stopped = true;
+            finished |= writer == null;
+            thread = writer;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                TimeUnit.NANOSECONDS.timedJoin(thread,
+                    TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - start));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!drained) {
+            LOGGER.warning("Writes still pending at shutdown: " + getStats());
+        }
+        return drained;
+    }
+
+    /**
+     * @return a snapshot of the queue and write statistics
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(this);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitIdle(final long timeoutMillis) {
+        lock.lock();
+        try {
+            if (Thread.currentThread() == writer) {
+                return false;
+            }
+            long left = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while ((running || !pending.isEmpty()) && !finished) {
+                if (left <= 0) {
+                    return false;
+                }
+                left = idle.awaitNanos(left);
+            }
+            return !running && pending.isEmpty();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits, holding the lock, for room in the queue until stopped; an
+     * interrupted caller stops waiting.
+     */
+    private void awaitRoom() {
+        while (!stopped && pending.size() >= capacity) {
+            try {
+                notFull.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warning("Interrupted while waiting to queue a write, queueing it over capacity");
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            final Write write;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !stopped) {
+                    notEmpty.await();
+                }
+                if (pending.isEmpty()) {
+                    finish();
+                    return;
+                }
+                final Iterator<Write> first = pending.values().iterator();
+                write = first.next();
+                first.remove();
+                running = true;
+                notFull.signal();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warning("Writer interrupted, dropping " + pending.size() + " writes");
+                pending.clear();
+                finish();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            run(write);
+        }
+    }
+
+    /**
+     * Marks the writer thread as ended, holding the lock, so that later
+     * writes run in place.
+     */
+    private void finish() {
+        finished = true;
+        idle.signalAll();
+        notFull.signalAll();
+    }
+
+    private void run(final Write write) {
+        final long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            write.write();
+            ok = true;
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Write failed", e);
+        }
+        final long elapsed = System.nanoTime() - start;
+        lock.lock();
+        try {
+            if (ok) {
+                completed++;
+            } else {
+                failed++;
+            }
+            totalWriteNanos += elapsed;
+            maxWriteNanos = Math.max(maxWriteNanos, elapsed);
+            if (Thread.currentThread() == writer) {
+                running = false;
+                if (pending.isEmpty()) {
+                    idle.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Immutable snapshot of the statistics of an executor.
+     */
+    public static final class Stats {
+        private final int depth;
+        private final int maxDepth;
+        private final long submitted;
+        private final long coalesced;
+        private final long completed;
+        private final long failed;
+        private final long totalWriteNanos;
+        private final long maxWriteNanos;
+
+        private Stats(final WriteBehindExecutor source) {
+            this.depth = source.pending.size();
+            this.maxDepth = source.maxDepth;
+            this.submitted = source.submitted;
+            this.coalesced = source.coalesced;
+            this.completed = source.completed;
+            this.failed = source.failed;
+            this.totalWriteNanos = source.totalWriteNanos;
+            this.maxWriteNanos = source.maxWriteNanos;
+        }
+
+        /**
+         * @return the number of writes waiting
+         */
+        public int getQueueDepth() {
+            return depth;
+        }
+
+        /**
+         * @return the largest number of writes that waited at once
+         */
+        public int getMaxQueueDepth() {
+            return maxDepth;
+        }
+
+        /**
+         * @return the number of writes submitted
+         */
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        /**
+         * @return the number of writes replaced by a later one before running
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * @return the number of writes that ran successfully
+         */
+        public long getCompleted() {
+            return completed;
+        }
+
+        /**
+         * @return the number of writes that failed
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the average time a write took, in nanoseconds
+         */
+        public long getAverageWriteNanos() {
+            final long ran = completed + failed;
+            return ran == 0 ? 0 : totalWriteNanos / ran;
+        }
+
+        /**
+         * @return the longest time a write took, in nanoseconds
+         */
+        public long getMaxWriteNanos() {
+            return maxWriteNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "depth=" + depth + " (max " + maxDepth + "), submitted=" + submitted
+                + ", coalesced=" + coalesced + ", completed=" + completed + ", failed=" + failed
+                + ", write avg=" + TimeUnit.NANOSECONDS.toMicros(getAverageWriteNanos()) + "us"
+                + " max=" + TimeUnit.NANOSECONDS.toMicros(maxWriteNanos) + "us";
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package it.unibo.exam.utility.random;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Source of the random numbers used by generators and minigames.
+ * <p>
+ * Every subsystem asks for its own {@link SplittableRandom} stream, derived
+ * from one master seed and the name of the subsystem. Streams are not shared,
+ * so drawing numbers never contends on a common seed, and a run is
+ * reproduced exactly by reusing its master seed: either with
+ * {@code -Due.seed=<long>} or with {@link #reseed(long)}. The n-th stream
+ * requested by a subsystem is the same whatever the other subsystems do.
+ * </p>
+ * <p>
+ * Streams are not thread-safe; a thread that needs random numbers takes its
+ * own stream.
+ * </p>
+ */
+public final class RandomService {
+
+    /** System property holding the master seed. */
+    public static final String SEED_PROPERTY = "ue.seed";
+
+    private static final Logger LOGGER = Logger.getLogger(RandomService.class.getName());
+    // Constants of the SplitMix64 finalizer, also used by SplittableRandom
+    private static final long GOLDEN_GAMMA = 0x9E37_79B9_7F4A_7C15L;
+    private static final long MIX_1 = 0xBF58_476D_1CE4_E5B9L;
+    private static final long MIX_2 = 0x94D0_49BB_1331_11EBL;
+    private static final int SHIFT_1 = 30;
+    private static final int SHIFT_2 = 27;
+    private static final int SHIFT_3 = 31;
+
+    private static volatile RandomService global;
+
+    private final long seed;
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a service independent of the shared one, for example for one of
+     * several simulations run in parallel.
+     *
+     * @param seed the master seed
+     */
+    public RandomService(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the shared service. Its seed comes from the {@value #SEED_PROPERTY}
+     * system property, or is random if the property is not set; it is logged
+     * so that the run can be reproduced.
+     *
+     * @return the shared service
+     */
+    public static RandomService getInstance() {
+        RandomService instance = global;
+        if (instance == null) {
+            synchronized (RandomService.class) {
+                instance = global;
+                if (instance == null) {
+                    instance = new RandomService(initialSeed());
+                    LOGGER.info("Random seed: " + instance.getSeed());
+                    global = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the shared service with one using the given master seed.
+     * Streams handed out before are not affected.
+     *
+     * @param seed the new master seed
+     */
+    public static synchronized void reseed(final long seed) {
+        global = new RandomService(seed);
+        LOGGER.info("Random seed: " + seed);
+    }
+
+    /**
+     * @return the master seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates the next stream of a subsystem.
+     *
+     * @param subsystem name of the subsystem
+     * @return a new generator, owned by the caller
+     */
+    public SplittableRandom stream(final String subsystem) {
+        if (subsystem == null) {
+            throw new IllegalArgumentException("Subsystem cannot be null");
+        }
+        final long index = counters.computeIfAbsent(subsystem, k -> new AtomicLong()).getAndIncrement();
+        final long base = mix64(seed ^ mix64(subsystem.hashCode()));
+        return new SplittableRandom(mix64(base + index * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Creates the next stream of a subsystem named after its class.
+     *
+     * @param owner the class of the subsystem
+     * @return a new generator, owned by the caller
+     */
+    public SplittableRandom stream(final Class<?> owner) {
+        return stream(owner.getName());
+    }
+
+    /**
+     * Draws a seed for code that is itself seeded, such as a puzzle shuffle.
+     *
+     * @param owner the class of the subsystem
+     * @return the next seed of the subsystem
+     */
+    public long nextSeed(final Class<?> owner) {
+        return stream(owner).nextLong();
+    }
+
+    private static long initialSeed() {
+        final String property = System.getProperty(SEED_PROPERTY);
+        if (property != null) {
+            try {
+                return Long.parseLong(property.trim());
+            } catch (final NumberFormatException e) {
+                LOGGER.warning("Ignoring invalid " + SEED_PROPERTY + ": " + property);
+            }
+        }
+        return mix64(System.nanoTime() ^ System.currentTimeMillis() * GOLDEN_GAMMA);
+    }
+
+    private static long mix64(final long value) {
+        long z = value;
+        z = (z ^ z >>> SHIFT_1) * MIX_1;
+        z = (z ^ z >>> SHIFT_2) * MIX_2;
+        return z ^ z >>> SHIFT_3;
+    }
+}
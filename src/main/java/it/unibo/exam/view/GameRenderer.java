@@ -4,6 +4,7 @@ import it.unibo.exam.model.entity.Player;
 import it.unibo.exam.model.entity.enviroments.Room;
 import it.unibo.exam.model.game.GameState;
 import it.unibo.exam.view.hud.ScoreHud;
+import it.unibo.exam.view.renderer.BackgroundCache;
 import it.unibo.exam.view.renderer.PlayerRenderer;
 import it.unibo.exam.view.renderer.NpcRenderer;
 import it.unibo.exam.utility.generator.RoomGenerator;
@@ -11,10 +12,7 @@ import it.unibo.exam.utility.medialoader.AssetLoader;
 
 import java.awt.Graphics2D;
 import java.awt.Color;
-import java.awt.Image;
 import java.awt.Rectangle;
-import java.util.Map;
-import java.util.HashMap;
 
 /**
  * Handles rendering of the game elements such as rooms and players,
@@ -39,8 +37,8 @@ public class GameRenderer {
     private final PlayerRenderer playerRenderer;
     private final NpcRenderer    npcRenderer;
 
-    // Map room-name → background image
-    private final Map<String, Image> roomBackgrounds = new HashMap<>();
+    // Room-name → background image, pre-scaled to the panel size
+    private final BackgroundCache roomBackgrounds = new BackgroundCache();
 
     /**
      * Constructor for GameRenderer.
@@ -155,12 +153,8 @@ public class GameRenderer {
 
         // Determine the lookup key ("Hub" for ID 0, otherwise room.getName())
         final String key = room.getId() == 0 ? "Hub" : room.getName();
-        final Image bg = roomBackgrounds.get(key);
-
-        if (bg != null) {
-            // Draw the image scaled to fill the room area
-            g.drawImage(bg, bounds.x, bounds.y, bounds.width, bounds.height, null);
-        } else {
+        // Draw the cached copy already scaled to fill the room area
+        if (!roomBackgrounds.draw(g, key, bounds.x, bounds.y, bounds.width, bounds.height)) {
             // Fallback to the original color fill
             final Color roomColor = switch (room.getRoomType()) {
                 case RoomGenerator.MAIN_ROOM   -> MAIN_ROOM_COLOR;
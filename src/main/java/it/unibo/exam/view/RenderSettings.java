@@ -0,0 +1,108 @@
+package it.unibo.exam.view;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsConfiguration;
+
+/**
+ * Rendering options of the game world.
+ * Values are read once from system properties so kiosk deployments can tune
+ * them from the launch command line:
+ * <ul>
+ *   <li>{@code ue.render.active} (default {@code true}): draw from the game-loop
+ *       thread on a page-flipped canvas instead of repainting through Swing;</li>
+ *   <li>{@code ue.render.fps} (default {@code 60}): frame cap, {@code 0} for uncapped;</li>
+ *   <li>{@code ue.render.vsync} (default {@code false}): pace frames to the
+ *       display refresh rate and sync the native pipeline after each flip.</li>
+ * </ul>
+ */
+public final class RenderSettings {
+
+    /** Frame cap meaning "no cap": a frame is drawn after every update. */
+    public static final int UNCAPPED = 0;
+
+    private static final String ACTIVE_PROPERTY = "ue.render.active";
+    private static final String FPS_PROPERTY    = "ue.render.fps";
+    private static final String VSYNC_PROPERTY  = "ue.render.vsync";
+    private static final int DEFAULT_FRAME_CAP  = 60;
+
+    private final boolean activeRendering;
+    private final int frameCap;
+    private final boolean vsync;
+
+    /**
+     * Creates rendering settings.
+     *
+     * @param activeRendering true to render from the game loop on a buffer strategy
+     * @param frameCap        maximum frames per second, or {@link #UNCAPPED}
+     * @param vsync           true to pace frames to the display refresh rate
+     */
+    public RenderSettings(final boolean activeRendering, final int frameCap, final boolean vsync) {
+        if (frameCap < 0) {
+            throw new IllegalArgumentException("Frame cap cannot be negative: " + frameCap);
+        }
+        this.activeRendering = activeRendering;
+        this.frameCap = frameCap;
+        this.vsync = vsync;
+    }
+
+    /**
+     * Reads the settings from system properties, falling back to defaults.
+     *
+     * @return the configured settings
+     */
+    public static RenderSettings fromSystemProperties() {
+        int cap = DEFAULT_FRAME_CAP;
+        final String fps = System.getProperty(FPS_PROPERTY);
+        if (fps != null) {
+            try {
+                cap = Math.max(UNCAPPED, Integer.parseInt(fps.trim()));
+            } catch (final NumberFormatException e) {
+                cap = DEFAULT_FRAME_CAP;
+            }
+        }
+        return new RenderSettings(
+            Boolean.parseBoolean(System.getProperty(ACTIVE_PROPERTY, "true")),
+            cap,
+            Boolean.getBoolean(VSYNC_PROPERTY)
+        );
+    }
+
+    /**
+     * @return true if the world is drawn from the game-loop thread
+     */
+    public boolean isActiveRendering() {
+        return activeRendering;
+    }
+
+    /**
+     * @return the configured frame cap, or {@link #UNCAPPED}
+     */
+    public int getFrameCap() {
+        return frameCap;
+    }
+
+    /**
+     * @return true if frames are paced to the display refresh rate
+     */
+    public boolean isVsync() {
+        return vsync;
+    }
+
+    /**
+     * Computes the frame cap to apply on the given display.
+     * With vsync enabled the cap is lowered to the refresh rate when known.
+     *
+     * @param gc the graphics configuration of the target display, may be null
+     * @return the effective frame cap, or {@link #UNCAPPED}
+     */
+    public int effectiveFrameCap(final GraphicsConfiguration gc) {
+        if (!vsync || gc == null) {
+            return frameCap;
+        }
+        final int refresh = gc.getDevice().getDisplayMode().getRefreshRate();
+        if (refresh == DisplayMode.REFRESH_RATE_UNKNOWN) {
+            return frameCap;
+        }
+        return frameCap == UNCAPPED ? refresh : Math.min(frameCap, refresh);
+    }
+}
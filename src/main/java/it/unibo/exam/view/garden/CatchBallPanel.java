@@ -1,6 +1,7 @@
 package it.unibo.exam.view.garden;
 
 import it.unibo.exam.model.entity.minigame.garden.BallEntity;
+import it.unibo.exam.model.entity.minigame.garden.BallView;
 import it.unibo.exam.model.entity.minigame.garden.BottleEntity;
 import it.unibo.exam.model.entity.minigame.garden.CatchBallModel;
 import it.unibo.exam.utility.medialoader.AssetLoader;
@@ -63,8 +64,9 @@ public final class CatchBallPanel extends JPanel {
         g2.drawString(scoreText, getWidth() - textWidth - SCORE_PADDING, SCORE_Y);
         g2.drawString("Lives: " + model.getLives(), SCORE_PADDING, LIVES_Y);
 
-        for (final BallEntity ball : model.getBalls()) {
-            ball.draw(g2);
+        final BallView balls = model.getBalls();
+        for (int i = 0; i < balls.size(); i++) {
+            BallEntity.draw(g2, balls.getX(i), balls.getY(i));
         }
 
         final BottleEntity bottle = model.getBottle();
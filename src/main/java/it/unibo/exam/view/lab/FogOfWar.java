@@ -0,0 +1,80 @@
+package it.unibo.exam.view.lab;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Cells of a maze the player has seen, one bit per cell in row-major order.
+ */
+public final class FogOfWar {
+
+    private final int cols;
+    private final int rows;
+    private final BitSet explored;
+
+    /**
+     * Creates a fog covering every cell.
+     *
+     * @param cols number of cell columns
+     * @param rows number of cell rows
+     */
+    public FogOfWar(final int cols, final int rows) {
+        if (cols <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Maze size must be positive: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.explored = new BitSet(cols * rows);
+    }
+
+    /**
+     * Explores the square of cells around a cell.
+     *
+     * @param col        column of the center
+     * @param row        row of the center
+     * @param radius     half the side of the square, in cells
+     * @param onExplored receives the index ({@code row * cols + col}) of each cell explored now
+     * @return the number of cells explored now
+     */
+    public int reveal(final int col, final int row, final int radius, final IntConsumer onExplored) {
+        int count = 0;
+        for (int r = Math.max(0, row - radius); r <= Math.min(rows - 1, row + radius); r++) {
+            for (int c = Math.max(0, col - radius); c <= Math.min(cols - 1, col + radius); c++) {
+                final int index = r * cols + c;
+                if (!explored.get(index)) {
+                    explored.set(index);
+                    onExplored.accept(index);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param col column of the cell
+     * @param row row of the cell
+     * @return true if the cell has been explored
+     */
+    public boolean isExplored(final int col, final int row) {
+        return explored.get(row * cols + col);
+    }
+
+    /**
+     * @return the number of explored cells
+     */
+    public int getExploredCount() {
+        return explored.cardinality();
+    }
+
+    /**
+     * Calls a consumer with the index of every explored cell, in row-major order.
+     *
+     * @param action receives the index ({@code row * cols + col}) of each explored cell
+     */
+    public void forEachExplored(final IntConsumer action) {
+        for (int i = explored.nextSetBit(0); i >= 0; i = explored.nextSetBit(i + 1)) {
+            action.accept(i);
+        }
+    }
+}
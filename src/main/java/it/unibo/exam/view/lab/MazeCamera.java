@@ -0,0 +1,132 @@
+package it.unibo.exam.view.lab;
+
+/**
+ * Window of maze cells shown by {@link MazePanel}.
+ * <p>
+ * When the maze is larger than the window, the camera scrolls to keep the
+ * player away from its edges: it stays put while the player walks in the
+ * middle half of the window and recenters on the player when they get closer
+ * to an edge, so most moves do not scroll the view.
+ * </p>
+ */
+public final class MazeCamera {
+
+    private static final int EDGE_FRACTION = 4;
+
+    private final int mazeCols;
+    private final int mazeRows;
+    private int viewCols;
+    private int viewRows;
+    private int firstCol;
+    private int firstRow;
+
+    /**
+     * Creates a camera showing the whole maze until {@link #resize(int, int)} is called.
+     *
+     * @param mazeCols number of cell columns of the maze
+     * @param mazeRows number of cell rows of the maze
+     */
+    public MazeCamera(final int mazeCols, final int mazeRows) {
+        if (mazeCols <= 0 || mazeRows <= 0) {
+            throw new IllegalArgumentException("Maze size must be positive: " + mazeCols + "x" + mazeRows);
+        }
+        this.mazeCols = mazeCols;
+        this.mazeRows = mazeRows;
+        this.viewCols = mazeCols;
+        this.viewRows = mazeRows;
+    }
+
+    /**
+     * Sets how many cells fit on screen; the window never exceeds the maze.
+     *
+     * @param cols cell columns that fit
+     * @param rows cell rows that fit
+     * @return true if the window changed
+     */
+    public boolean resize(final int cols, final int rows) {
+        final int newCols = Math.max(1, Math.min(mazeCols, cols));
+        final int newRows = Math.max(1, Math.min(mazeRows, rows));
+        if (newCols == viewCols && newRows == viewRows) {
+            return false;
+        }
+        viewCols = newCols;
+        viewRows = newRows;
+        firstCol = clamp(firstCol, mazeCols - viewCols);
+        firstRow = clamp(firstRow, mazeRows - viewRows);
+        return true;
+    }
+
+    /**
+     * Scrolls the window if a cell is too close to its edges.
+     *
+     * @param col column of the followed cell
+     * @param row row of the followed cell
+     * @return true if the window moved
+     */
+    public boolean follow(final int col, final int row) {
+        final int newCol = follow(col, firstCol, viewCols, mazeCols);
+        final int newRow = follow(row, firstRow, viewRows, mazeRows);
+        if (newCol == firstCol && newRow == firstRow) {
+            return false;
+        }
+        firstCol = newCol;
+        firstRow = newRow;
+        return true;
+    }
+
+    /**
+     * @return true if the maze does not fit on screen
+     */
+    public boolean isScrolling() {
+        return viewCols < mazeCols || viewRows < mazeRows;
+    }
+
+    /**
+     * @param col column of a cell
+     * @param row row of a cell
+     * @return true if the cell is inside the window
+     */
+    public boolean isVisible(final int col, final int row) {
+        return col >= firstCol && col < firstCol + viewCols && row >= firstRow && row < firstRow + viewRows;
+    }
+
+    /**
+     * @return the first visible column
+     */
+    public int getFirstCol() {
+        return firstCol;
+    }
+
+    /**
+     * @return the first visible row
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * @return the number of visible columns
+     */
+    public int getViewCols() {
+        return viewCols;
+    }
+
+    /**
+     * @return the number of visible rows
+     */
+    public int getViewRows() {
+        return viewRows;
+    }
+
+    private static int follow(final int target, final int first, final int view, final int total) {
+        final int edge = view / EDGE_FRACTION;
+        if (target >= first + edge && target < first + view - edge) {
+            return first;
+        }
+        return clamp(target - view / 2, total - view);
+    }
+
+    private static int clamp(final int value, final int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}
@@ -12,9 +12,11 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 /**
  * The MazePanel class is responsible for rendering the maze and handling user input in the maze minigame.
@@ -22,6 +24,18 @@ import java.util.Arrays;
  * The panel listens for key events to move the player and updates the maze display accordingly.
  * 
  * It also manages game-related information like elapsed time and maze completion status.
+ * <p>
+ * Only the window of cells chosen by a {@link MazeCamera} is drawn, into an
+ * offscreen image of the size of the window, and each repaint copies the part
+ * of it inside the clip. A player move repaints only the cells around the
+ * player; the window is redrawn only when the camera scrolls. Rendering cost
+ * therefore depends on the size of the screen, not of the maze.
+ * </p>
+ * <p>
+ * When the maze does not fit on screen, cells the player has not come near
+ * are hidden by a {@link FogOfWar}, and a minimap of the explored cells, one
+ * pixel per block of cells, shows where the window is.
+ * </p>
  */
 public final class MazePanel extends JPanel {
 
@@ -36,6 +50,10 @@ public final class MazePanel extends JPanel {
     private static final int LABEL_MARGIN = 10;
     private static final int LABEL_HEIGHT = 25;
     private static final int LABEL_SPACING = 5;
+    private static final int REVEAL_RADIUS = 2;
+    private static final int MINIMAP_SIZE = 120;
+    private static final int MINIMAP_MARGIN = 10;
+    private static final int ALPHA_SHIFT = 24;
 
     // Colors
     private static final Color WALL_COLOR = new Color(45, 70, 45);
@@ -46,11 +64,21 @@ public final class MazePanel extends JPanel {
     private static final Color BACKGROUND_COLOR = new Color(95, 125, 95);
     private static final Color UI_BACKGROUND = new Color(40, 60, 40);
     private static final Color TEXT_COLOR = new Color(240, 235, 220);
+    private static final Color FOG_COLOR = new Color(20, 30, 20);
+    private static final Color MINIMAP_FRAME_COLOR = Color.WHITE;
 
     // Game state
     private final int[][] maze;
     private int playerX, playerY;
     private boolean completed;
+    private final transient MazeCamera camera;
+    private final transient FogOfWar fog;
+    private final transient IntConsumer explorer = this::onExplored;
+    /** The visible window of the maze without the player; null until drawn or after scrolling. */
+    private transient BufferedImage viewImage;
+    /** One pixel per block of cells, for the minimap; null until first needed. */
+    private transient BufferedImage minimap;
+    private int minimapBlock;
 
     // UI components
     private final JLabel statusLabel;
@@ -66,6 +94,8 @@ public final class MazePanel extends JPanel {
     public MazePanel(final int[][] maze) {
         // Defensive copy of user-supplied array
         this.maze = deepCopy(maze);
+        this.camera = new MazeCamera(this.maze[0].length, this.maze.length);
+        this.fog = new FogOfWar(this.maze[0].length, this.maze.length);
 
         // Initialize UI components
         this.statusLabel = createStatusLabel();
@@ -112,6 +142,14 @@ public final class MazePanel extends JPanel {
                         case KeyEvent.VK_S, KeyEvent.VK_DOWN  -> dy = 1;
                         case KeyEvent.VK_A, KeyEvent.VK_LEFT  -> dx = -1;
                         case KeyEvent.VK_D, KeyEvent.VK_RIGHT -> dx = 1;
+                        case KeyEvent.VK_Z -> {
+                            controller.handleUndo();
+                            return;
+                        }
+                        case KeyEvent.VK_Y -> {
+                            controller.handleRedo();
+                            return;
+                        }
                         default -> {
                             return; // If no valid key is pressed, do nothing
                         }
@@ -165,8 +203,47 @@ public final class MazePanel extends JPanel {
      * @param newY the new y coordinate
      */
     public void updatePlayerPosition(final int newX, final int newY) {
+        final int oldX = playerX;
+        final int oldY = playerY;
         this.playerX = newX;
         this.playerY = newY;
+        fog.reveal(newX, newY, REVEAL_RADIUS, explorer);
+        if (camera.follow(newX, newY)) {
+            viewImage = null;
+            repaint();
+            return;
+        }
+        // The cell left, and the square of cells explored around the new one
+        final int minCol = Math.min(oldX, newX - REVEAL_RADIUS);
+        final int minRow = Math.min(oldY, newY - REVEAL_RADIUS);
+        final int maxCol = Math.max(oldX, newX + REVEAL_RADIUS);
+        final int maxRow = Math.max(oldY, newY + REVEAL_RADIUS);
+        repaint(cellX(minCol), cellY(minRow), (maxCol - minCol + 1) * CELL_SIZE + 1, (maxRow - minRow + 1) * CELL_SIZE + 1);
+        if (camera.isScrolling()) {
+            repaint(minimapX(), minimapY(), MINIMAP_SIZE + 1, MINIMAP_SIZE + 1);
+        }
+    }
+
+    /**
+     * Draws a cell that has just been explored into the caches that show it.
+     *
+     * @param index row-major index of the cell
+     */
+    private void onExplored(final int index) {
+        final int col = index % maze[0].length;
+        final int row = index / maze[0].length;
+        if (viewImage != null && camera.isScrolling() && camera.isVisible(col, row)) {
+            final Graphics2D g2d = viewImage.createGraphics();
+            try {
+                drawMazeCell(g2d, (col - camera.getFirstCol()) * CELL_SIZE,
+                    (row - camera.getFirstRow()) * CELL_SIZE, maze[row][col]);
+            } finally {
+                g2d.dispose();
+            }
+        }
+        if (minimap != null) {
+            markMinimap(col, row);
+        }
     }
 
     /**
@@ -210,45 +287,165 @@ public final class MazePanel extends JPanel {
         super.paintComponent(g);
         final Graphics2D g2d = (Graphics2D) g.create();
         try {
+            fitView();
+            if (viewImage == null) {
+                viewImage = renderView();
+            }
+            // Only the part of the image inside the clip is actually copied
+            g2d.drawImage(viewImage, offsetX(), offsetY(), null);
             g2d.setRenderingHint(
                 RenderingHints.KEY_ANTIALIASING,
                 RenderingHints.VALUE_ANTIALIAS_ON
             );
-            final int[] offsets = calculateOffsets();
-            drawMaze(g2d, offsets[0], offsets[1]);
-            drawPlayer(g2d, offsets[0], offsets[1]);
+            if (camera.isVisible(playerX, playerY)) {
+                drawPlayer(g2d, cellX(playerX), cellY(playerY));
+            }
+            if (camera.isScrolling()) {
+                drawMinimap(g2d);
+            }
         } finally {
             g2d.dispose();
         }
     }
 
     /**
-     * Calculates the maze rendering offsets for centering.
+     * Sizes the camera window to the cells that fit in the panel.
+     */
+    private void fitView() {
+        if (camera.resize(getWidth() / CELL_SIZE, (getHeight() - UI_HEIGHT) / CELL_SIZE)) {
+            camera.follow(playerX, playerY);
+            viewImage = null;
+        }
+    }
+
+    /**
+     * Calculates the horizontal rendering offset of the window for centering.
      *
-     * @return array with [offsetX, offsetY]
+     * @return the x of the left edge of the window
      */
-    private int[] calculateOffsets() {
-        final int mazeWidth  = maze[0].length * CELL_SIZE;
-        final int mazeHeight = maze.length * CELL_SIZE;
-        final int offsetX    = (getWidth() - mazeWidth) / 2;
-        final int offsetY    = (getHeight() - mazeHeight - UI_HEIGHT) / 2 + UI_HEIGHT;
-        return new int[]{offsetX, offsetY};
+    private int offsetX() {
+        return (getWidth() - camera.getViewCols() * CELL_SIZE) / 2;
+    }
+
+    /**
+     * Calculates the vertical rendering offset of the window for centering.
+     *
+     * @return the y of the top edge of the window
+     */
+    private int offsetY() {
+        return (getHeight() - camera.getViewRows() * CELL_SIZE - UI_HEIGHT) / 2 + UI_HEIGHT;
+    }
+
+    /**
+     * @param col a maze column
+     * @return the x on screen of the left edge of the column
+     */
+    private int cellX(final int col) {
+        return offsetX() + (col - camera.getFirstCol()) * CELL_SIZE;
+    }
+
+    /**
+     * @param row a maze row
+     * @return the y on screen of the top edge of the row
+     */
+    private int cellY(final int row) {
+        return offsetY() + (row - camera.getFirstRow()) * CELL_SIZE;
     }
 
     /**
-     * Draws the maze.
+     * Draws the visible window of the maze into a new image, one pixel larger
+     * than the cells so that the grid lines of the last row and column fit.
      *
-     * @param g2d    the graphics context
-     * @param offsetX horizontal offset for centering
-     * @param offsetY vertical offset for centering
+     * @return the image of the window
      */
-    private void drawMaze(final Graphics2D g2d, final int offsetX, final int offsetY) {
-        for (int row = 0; row < maze.length; row++) {
-            for (int col = 0; col < maze[row].length; col++) {
-                final int x = offsetX + col * CELL_SIZE;
-                final int y = offsetY + row * CELL_SIZE;
-                drawMazeCell(g2d, x, y, maze[row][col]);
+    private BufferedImage renderView() {
+        final BufferedImage image = new BufferedImage(
+            camera.getViewCols() * CELL_SIZE + 1, camera.getViewRows() * CELL_SIZE + 1, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2d = image.createGraphics();
+        try {
+            for (int r = 0; r < camera.getViewRows(); r++) {
+                final int row = camera.getFirstRow() + r;
+                for (int c = 0; c < camera.getViewCols(); c++) {
+                    final int col = camera.getFirstCol() + c;
+                    if (!camera.isScrolling() || fog.isExplored(col, row)) {
+                        drawMazeCell(g2d, c * CELL_SIZE, r * CELL_SIZE, maze[row][col]);
+                    } else {
+                        g2d.setColor(FOG_COLOR);
+                        g2d.fillRect(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+                    }
+                }
             }
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Draws the minimap in the top-right corner of the maze area, with the
+     * camera window outlined.
+     *
+     * @param g2d the graphics context
+     */
+    private void drawMinimap(final Graphics2D g2d) {
+        if (minimap == null) {
+            minimap = createMinimap();
+        }
+        final int zoom = Math.max(1, MINIMAP_SIZE / Math.max(minimap.getWidth(), minimap.getHeight()));
+        final int x = minimapX();
+        final int y = minimapY();
+        g2d.drawImage(minimap, x, y, minimap.getWidth() * zoom, minimap.getHeight() * zoom, null);
+        g2d.setColor(MINIMAP_FRAME_COLOR);
+        g2d.drawRect(x + camera.getFirstCol() / minimapBlock * zoom, y + camera.getFirstRow() / minimapBlock * zoom,
+            camera.getViewCols() / minimapBlock * zoom, camera.getViewRows() / minimapBlock * zoom);
+        g2d.setColor(PLAYER_COLOR);
+        g2d.fillRect(x + playerX / minimapBlock * zoom, y + playerY / minimapBlock * zoom, zoom, zoom);
+    }
+
+    /**
+     * @return the x of the left edge of the minimap
+     */
+    private int minimapX() {
+        return getWidth() - MINIMAP_SIZE - MINIMAP_MARGIN;
+    }
+
+    /**
+     * @return the y of the top edge of the minimap
+     */
+    private int minimapY() {
+        return UI_HEIGHT + MINIMAP_MARGIN;
+    }
+
+    /**
+     * Creates the minimap from the cells explored so far. A block of cells is
+     * one pixel: path if any explored cell of the block is not a wall, wall if
+     * all its explored cells are walls, transparent if none is explored.
+     *
+     * @return the minimap image
+     */
+    private BufferedImage createMinimap() {
+        final int cols = maze[0].length;
+        final int rows = maze.length;
+        minimapBlock = Math.max(1, (Math.max(cols, rows) + MINIMAP_SIZE - 1) / MINIMAP_SIZE);
+        minimap = new BufferedImage((cols + minimapBlock - 1) / minimapBlock, (rows + minimapBlock - 1) / minimapBlock,
+            BufferedImage.TYPE_INT_ARGB);
+        fog.forEachExplored(index -> markMinimap(index % cols, index / cols));
+        return minimap;
+    }
+
+    /**
+     * Updates the minimap pixel of the block holding a newly explored cell.
+     *
+     * @param col column of the cell
+     * @param row row of the cell
+     */
+    private void markMinimap(final int col, final int row) {
+        final int x = col / minimapBlock;
+        final int y = row / minimapBlock;
+        if (maze[row][col] != MazeGenerator.WALL) {
+            minimap.setRGB(x, y, PATH_COLOR.getRGB());
+        } else if (minimap.getRGB(x, y) >>> ALPHA_SHIFT == 0) {
+            minimap.setRGB(x, y, WALL_COLOR.getRGB());
         }
     }
 
@@ -278,13 +475,11 @@ public final class MazePanel extends JPanel {
     /**
      * Draws the player on the maze.
      *
-     * @param g2d    the graphics context
-     * @param offsetX horizontal offset for centering
-     * @param offsetY vertical offset for centering
+     * @param g2d the graphics context
+     * @param x   x on screen of the player cell
+     * @param y   y on screen of the player cell
      */
-    private void drawPlayer(final Graphics2D g2d, final int offsetX, final int offsetY) {
-        final int x = offsetX + playerX * CELL_SIZE;
-        final int y = offsetY + playerY * CELL_SIZE;
+    private void drawPlayer(final Graphics2D g2d, final int x, final int y) {
         final int playerSize = CELL_SIZE - PLAYER_BORDER_SIZE;
         g2d.setColor(PLAYER_COLOR);
         g2d.fillOval(x + 3, y + 3, playerSize, playerSize);
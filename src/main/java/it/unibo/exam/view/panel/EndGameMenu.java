@@ -317,7 +317,6 @@ public final class EndGameMenu extends JPanel {
      * Adds the player to the leaderboard with name prompt.
      */
     private void addPlayerToLeaderboard() {
-        final int totalScore = player.getTotalScore();
         final String playerName = JOptionPane.showInputDialog(
             parentWindow,
             "Inserisci il tuo nome per la classifica:",
@@ -326,7 +325,7 @@ public final class EndGameMenu extends JPanel {
         );
 
         if (playerName != null && !playerName.isBlank()) {
-            final boolean added = leaderboard.addScore(playerName.trim(), totalScore, 0);
+            final boolean added = leaderboard.addRun(playerName.trim(), player.getRoomScores());
             if (added) {
                 JOptionPane.showMessageDialog(
                     parentWindow,
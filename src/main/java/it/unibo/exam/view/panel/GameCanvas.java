@@ -0,0 +1,91 @@
+package it.unibo.exam.view.panel;
+
+import it.unibo.exam.view.GameRenderer;
+
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Heavyweight canvas drawn actively through a page-flipping {@link BufferStrategy}.
+ * Frames are produced by {@link #renderFrame()}, called from the game-loop thread
+ * right after the model is updated, so a frame never observes a half-applied update.
+ * The canvas ignores system repaints and never takes focus: keyboard input stays
+ * on the enclosing {@link GamePanel}.
+ */
+@SuppressFBWarnings(value = {"SE_BAD_FIELD", "SE_BAD_FIELD_STORE"},
+                   justification = "GameCanvas is not intended to be serialized")
+public final class GameCanvas extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(GameCanvas.class.getName());
+    private static final int BUFFERS = 2;
+
+    private final GameRenderer gameRenderer;
+    private final boolean vsync;
+
+    /**
+     * Creates a canvas drawing the given renderer.
+     *
+     * @param gameRenderer the renderer of the game world
+     * @param vsync        true to sync the native pipeline after each flip
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2",
+                       justification = "GameRenderer is shared with the controller by design")
+    public GameCanvas(final GameRenderer gameRenderer, final boolean vsync) {
+        super();
+        this.gameRenderer = gameRenderer;
+        this.vsync = vsync;
+        super.setIgnoreRepaint(true);
+        super.setFocusable(false);
+    }
+
+    /**
+     * Draws and shows one frame. Safe to call from any thread; does nothing
+     * until the canvas is displayable and has a non-empty size.
+     */
+    public void renderFrame() {
+        final int width = getWidth();
+        final int height = getHeight();
+        if (!isDisplayable() || width <= 0 || height <= 0) {
+            return;
+        }
+        try {
+            BufferStrategy strategy = getBufferStrategy();
+            if (strategy == null) {
+                createBufferStrategy(BUFFERS);
+                strategy = getBufferStrategy();
+            }
+            do {
+                do {
+                    final Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        // Buffer graphics carry no clip; the renderers size themselves from it
+                        g.setClip(0, 0, width, height);
+                        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                           RenderingHints.VALUE_ANTIALIAS_ON);
+                        g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                                           RenderingHints.VALUE_RENDER_QUALITY);
+                        gameRenderer.renderGame(g);
+                        gameRenderer.renderHud(g);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            if (vsync) {
+                Toolkit.getDefaultToolkit().sync();
+            }
+        } catch (final IllegalStateException e) {
+            // The canvas was removed from its window between the check and the flip
+            LOGGER.log(Level.FINE, "Skipping frame, canvas not displayable", e);
+        }
+    }
+}
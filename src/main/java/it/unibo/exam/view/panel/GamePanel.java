@@ -3,6 +3,7 @@ package it.unibo.exam.view.panel;
 import it.unibo.exam.controller.MainController;
 import it.unibo.exam.utility.geometry.Point2D;
 import it.unibo.exam.view.GameRenderer;
+import it.unibo.exam.view.RenderSettings;
 
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
@@ -10,6 +11,7 @@ import javax.swing.SwingUtilities;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import javax.swing.JFrame;
+import java.awt.BorderLayout;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
@@ -21,6 +23,9 @@ import java.util.logging.Logger;
 /**
  * Main game panel that handles rendering of the game world.
  * Updated to support minigame integration with proper parent frame reference.
+ * With active rendering (see {@link RenderSettings}) the world is drawn by the
+ * game-loop thread on a {@link GameCanvas}; otherwise the game loop schedules
+ * Swing repaints, capped to the configured frame rate.
  */
 @SuppressFBWarnings(value = {"SE_BAD_FIELD", "SE_BAD_FIELD_STORE"}, 
                    justification = "GamePanel is not intended to be serialized,"
@@ -34,6 +39,8 @@ public final class GamePanel extends JPanel {
     private final GameRenderer   gameRenderer;
     private final Point2D        initialSize;
     private final JFrame         parentFrame;
+    private final RenderSettings renderSettings;
+    private final GameCanvas     canvas;
 
     /**
      * Constructor for GamePanel with parent frame reference.
@@ -51,6 +58,10 @@ public final class GamePanel extends JPanel {
         this.parentFrame   = parentFrame;
         this.mainController = new MainController(this.initialSize, parentFrame);
         this.gameRenderer  = mainController.getGameRenderer();
+        this.renderSettings = RenderSettings.fromSystemProperties();
+        this.canvas        = renderSettings.isActiveRendering()
+            ? new GameCanvas(gameRenderer, renderSettings.isVsync())
+            : null;
 
         // Defer initialization to avoid calling overridable methods during construction
         SwingUtilities.invokeLater(this::completeInitialization);
@@ -121,6 +132,10 @@ public final class GamePanel extends JPanel {
         setPreferredSize(new Dimension(initialSize.getX(), initialSize.getY()));
         setFocusable(true);
         setDoubleBuffered(true);
+        if (canvas != null) {
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+        }
 
         // Setup resize listener
         addComponentListener(new ComponentAdapter() {
@@ -144,6 +159,12 @@ public final class GamePanel extends JPanel {
      */
     private void startGameController() {
         LOGGER.info("Starting game loop in thread " + Thread.currentThread().getName());
+        final int frameCap = renderSettings.effectiveFrameCap(getGraphicsConfiguration());
+        if (canvas != null) {
+            mainController.setFrameRenderer(canvas::renderFrame, frameCap);
+        } else {
+            mainController.setFrameRenderer(this::repaint, frameCap);
+        }
         final Thread gameThread = new Thread(mainController::start,
                                              "GameControllerThread");
         gameThread.setDaemon(true);
@@ -165,6 +186,10 @@ public final class GamePanel extends JPanel {
     @Override
     protected void paintComponent(final Graphics g) {
         super.paintComponent(g);
+        if (canvas != null) {
+            // The canvas covers the panel and is drawn by the game loop
+            return;
+        }
 
         final Graphics2D g2d = (Graphics2D) g.create();
         try {
@@ -178,9 +203,6 @@ public final class GamePanel extends JPanel {
         } finally {
             g2d.dispose();
         }
-
-        // Schedule next repaint for smooth animation
-        repaint();
     }
 
     /**
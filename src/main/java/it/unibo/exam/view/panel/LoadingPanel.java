@@ -0,0 +1,64 @@
+package it.unibo.exam.view.panel;
+
+import it.unibo.exam.utility.medialoader.AssetProgressListener;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+
+/**
+ * Loading screen shown while the game assets are preloaded.
+ * Progress updates may arrive from any thread and are applied on the EDT.
+ */
+public final class LoadingPanel extends JPanel implements AssetProgressListener {
+    private static final long serialVersionUID = 1L;
+
+    private static final int BAR_WIDTH   = 600;
+    private static final int BAR_HEIGHT  = 30;
+    private static final int FONT_SIZE   = 30;
+    private static final int SPACING     = 20;
+
+    private final JProgressBar progressBar = new JProgressBar();
+
+    /**
+     * Creates the loading screen with an empty progress bar.
+     */
+    public LoadingPanel() {
+        super(new GridBagLayout());
+        initializeUI();
+    }
+
+    private void initializeUI() {
+        setBackground(Color.BLACK);
+
+        final JLabel title = new JLabel("Caricamento...");
+        title.setForeground(Color.WHITE);
+        title.setFont(new Font("Arial", Font.BOLD, FONT_SIZE));
+
+        progressBar.setPreferredSize(new Dimension(BAR_WIDTH, BAR_HEIGHT));
+        progressBar.setStringPainted(true);
+
+        final GridBagConstraints gbc = new GridBagConstraints();
+        gbc.gridx  = 0;
+        gbc.insets = new Insets(SPACING, 0, SPACING, 0);
+        gbc.gridy  = 0;
+        add(title, gbc);
+        gbc.gridy  = 1;
+        add(progressBar, gbc);
+    }
+
+    @Override
+    public void onProgress(final String path, final int completed, final int total) {
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setMaximum(total);
+            progressBar.setValue(completed);
+        });
+    }
+}
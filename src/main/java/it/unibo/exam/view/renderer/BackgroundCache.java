@@ -0,0 +1,102 @@
+package it.unibo.exam.view.renderer;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches room backgrounds pre-scaled to the current drawing size, in the pixel
+ * format of the target display, so drawing a background is a 1:1 blit instead
+ * of a full rescale of the source image every frame.
+ * <p>
+ * Scaled copies are rebuilt only when the drawing size or the display changes.
+ * Only the most recently used backgrounds are kept, since the player moves
+ * between the hub and one room at a time.
+ * </p>
+ */
+public final class BackgroundCache {
+
+    private static final int MAX_SCALED = 2;
+
+    /** key → source image, as loaded from the resources. */
+    private final Map<String, Image> sources = new HashMap<>();
+    /** key → source scaled to {@link #width}×{@link #height}, most recent last. */
+    private final Map<String, BufferedImage> scaled = new LinkedHashMap<>(MAX_SCALED, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, BufferedImage> eldest) {
+            return size() > MAX_SCALED;
+        }
+    };
+
+    private int width;
+    private int height;
+    private GraphicsConfiguration configuration;
+
+    /**
+     * Registers the source image of a background.
+     *
+     * @param key   the background key (e.g. the room name)
+     * @param image the source image; null registrations are ignored
+     */
+    public void put(final String key, final Image image) {
+        if (image != null) {
+            sources.put(key, image);
+            scaled.remove(key);
+        }
+    }
+
+    /**
+     * Draws the background for the given key, filling the given area.
+     *
+     * @param g   the graphics context
+     * @param key the background key
+     * @param x   left edge of the area
+     * @param y   top edge of the area
+     * @param w   width of the area
+     * @param h   height of the area
+     * @return false if no background is registered for the key
+     */
+    public boolean draw(final Graphics2D g, final String key,
+                        final int x, final int y, final int w, final int h) {
+        final Image source = sources.get(key);
+        if (source == null || w <= 0 || h <= 0) {
+            return false;
+        }
+        final GraphicsConfiguration gc = g.getDeviceConfiguration();
+        if (w != width || h != height || gc != configuration) {
+            scaled.clear();
+            width = w;
+            height = h;
+            configuration = gc;
+        }
+        final BufferedImage image = scaled.computeIfAbsent(key, k -> scale(source, gc, w, h));
+        g.drawImage(image, x, y, null);
+        return true;
+    }
+
+    private static BufferedImage scale(final Image source, final GraphicsConfiguration gc,
+                                       final int w, final int h) {
+        final BufferedImage target = gc != null
+            ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+            : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                               RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
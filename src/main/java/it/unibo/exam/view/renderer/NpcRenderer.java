@@ -4,18 +4,18 @@ import it.unibo.exam.model.entity.Entity;
 import it.unibo.exam.model.entity.Npc;
 import it.unibo.exam.model.entity.RoamingNpc;
 import it.unibo.exam.utility.geometry.Point2D;
-import it.unibo.exam.utility.medialoader.AssetLoader;
 
 import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.Image;
+import java.awt.image.BufferedImage;
 import java.util.Map;
 import java.util.HashMap;
 
 /**
  * Renders both interactive and roaming NPCs, each with its own sprite.
  * The Hub has no interactive NPC, so only the 5 puzzle rooms get interactive sprites.
+ * Sprites come pre-scaled from the {@link SpriteAtlas}, so drawing is a plain blit.
  */
 public final class NpcRenderer extends EntityRenderer {
 
@@ -30,31 +30,32 @@ public final class NpcRenderer extends EntityRenderer {
     private static final int    TEXT_PADDING              = 2;
     private static final int    NAME_BACKGROUND_HEIGHT    = 9;
 
-    /** room-name → sprite for roaming NPCs. */
-    private final Map<String, Image> roamingSprites     = new HashMap<>();
-    /** room-name → sprite for interactive NPCs (only puzzle rooms).*/
-    private final Map<String, Image> interactiveSprites = new HashMap<>();
-    private       String            currentRoomName     = "";
+    /** room-name → atlas sprite for roaming NPCs. */
+    private final Map<String, String> roamingSprites     = new HashMap<>();
+    /** room-name → atlas sprite for interactive NPCs (only puzzle rooms).*/
+    private final Map<String, String> interactiveSprites = new HashMap<>();
+    private final SpriteAtlas         atlas              = SpriteAtlas.characters();
+    private       String              currentRoomName    = "";
 
     /**
-     * Constructs a new NpcRenderer and loads all NPC sprites.
+     * Constructs a new NpcRenderer and maps rooms to NPC sprites.
      * Keys in the maps must match {@code Room.getName()}.
      */
     public NpcRenderer() {
         // Roaming NPC sprites (6 rooms including Hub)
-        roamingSprites.put("Hub",     AssetLoader.loadImage("characters/students/hub.png"));
-        roamingSprites.put("Garden",  AssetLoader.loadImage("characters/students/garden.png"));
-        roamingSprites.put("Lab",     AssetLoader.loadImage("characters/students/lab.png"));
-        roamingSprites.put("Gym",     AssetLoader.loadImage("characters/students/gym.png"));
-        roamingSprites.put("Bar",     AssetLoader.loadImage("characters/students/bar.png"));
-        roamingSprites.put("2.12",    AssetLoader.loadImage("characters/students/2.12.png"));
+        roamingSprites.put("Hub",     SpriteAtlas.studentSprite("hub"));
+        roamingSprites.put("Garden",  SpriteAtlas.studentSprite("garden"));
+        roamingSprites.put("Lab",     SpriteAtlas.studentSprite("lab"));
+        roamingSprites.put("Gym",     SpriteAtlas.studentSprite("gym"));
+        roamingSprites.put("Bar",     SpriteAtlas.studentSprite("bar"));
+        roamingSprites.put("2.12",    SpriteAtlas.studentSprite("2.12"));
 
         // Interactive NPC sprites (only the 5 puzzle rooms; no Hub)
-        interactiveSprites.put("Garden", AssetLoader.loadImage("characters/teachers/Gardener.png"));
-        interactiveSprites.put("Lab",    AssetLoader.loadImage("characters/teachers/AM.png"));
-        interactiveSprites.put("Gym",    AssetLoader.loadImage("characters/teachers/Andrew.png"));
-        interactiveSprites.put("Bar",    AssetLoader.loadImage("characters/teachers/Bartender.png"));
-        interactiveSprites.put("2.12",   AssetLoader.loadImage("characters/teachers/Teacher.png"));
+        interactiveSprites.put("Garden", SpriteAtlas.teacherSprite("Gardener"));
+        interactiveSprites.put("Lab",    SpriteAtlas.teacherSprite("AM"));
+        interactiveSprites.put("Gym",    SpriteAtlas.teacherSprite("Andrew"));
+        interactiveSprites.put("Bar",    SpriteAtlas.teacherSprite("Bartender"));
+        interactiveSprites.put("2.12",   SpriteAtlas.teacherSprite("Teacher"));
     }
 
     /**
@@ -88,18 +89,10 @@ public final class NpcRenderer extends EntityRenderer {
         final Point2D dim = rn.getDimension();
         final int x = pos.getX(), y = pos.getY(),
                   w = dim.getX(),  h = dim.getY();
-        final Image sprite = roamingSprites.get(currentRoomName);
-
-        if (sprite != null && sprite.getWidth(null) > 0) {
-            final int imgW = sprite.getWidth(null),
-                      imgH = sprite.getHeight(null);
-            final double baseScale = Math.min((double) w / imgW, (double) h / imgH);
-            final double scale     = baseScale * SPRITE_SCALE;
-            final int drawW        = (int) (imgW * scale),
-                      drawH        = (int) (imgH * scale);
-            final int drawX        = x + (w - drawW) / 2,
-                      drawY        = y + (h - drawH) / 2;
-            g.drawImage(sprite, drawX, drawY, drawW, drawH, null);
+        final BufferedImage sprite = scaledSprite(roamingSprites, w, h);
+
+        if (sprite != null) {
+            drawCentered(g, sprite, x, y, w, h);
         } else {
             g.setColor(NPC_COLOR);
             g.fillRect(x, y, w, h);
@@ -113,18 +106,10 @@ public final class NpcRenderer extends EntityRenderer {
         final Point2D dim = npc.getDimension();
         final int x = pos.getX(), y = pos.getY(),
                   w = dim.getX(),  h = dim.getY();
-        final Image sprite = interactiveSprites.get(currentRoomName);
-
-        if (sprite != null && sprite.getWidth(null) > 0) {
-            final int imgW = sprite.getWidth(null),
-                      imgH = sprite.getHeight(null);
-            final double baseScale = Math.min((double) w / imgW, (double) h / imgH);
-            final double scale     = baseScale * SPRITE_SCALE;
-            final int drawW        = (int) (imgW * scale),
-                      drawH        = (int) (imgH * scale);
-            final int drawX        = x + (w - drawW) / 2,
-                      drawY        = y + (h - drawH) / 2;
-            g.drawImage(sprite, drawX, drawY, drawW, drawH, null);
+        final BufferedImage sprite = scaledSprite(interactiveSprites, w, h);
+
+        if (sprite != null) {
+            drawCentered(g, sprite, x, y, w, h);
         } else {
             g.setColor(NPC_COLOR);
             g.fillRect(x, y, w, h);
@@ -136,6 +121,16 @@ public final class NpcRenderer extends EntityRenderer {
         drawNpcName(g, npc);
     }
 
+    private BufferedImage scaledSprite(final Map<String, String> sprites, final int w, final int h) {
+        final String name = sprites.get(currentRoomName);
+        return name == null ? null : atlas.getScaled(name, w, h, SPRITE_SCALE);
+    }
+
+    private void drawCentered(final Graphics2D g, final BufferedImage sprite,
+                              final int x, final int y, final int w, final int h) {
+        g.drawImage(sprite, x + (w - sprite.getWidth()) / 2, y + (h - sprite.getHeight()) / 2, null);
+    }
+
     private void drawNpcName(final Graphics2D g, final Npc npc) {
         String name = npc.getName();
         if (name.length() > NAME_MAX_LENGTH) {
@@ -3,14 +3,13 @@ package it.unibo.exam.view.renderer;
 import it.unibo.exam.model.entity.Entity;
 import it.unibo.exam.model.entity.Player;
 import it.unibo.exam.utility.geometry.Point2D;
-import it.unibo.exam.utility.medialoader.AssetLoader;
 
 import java.awt.Graphics2D;
 import java.awt.Color;
-import java.awt.Image;
+import java.awt.image.BufferedImage;
 
 /**
- * Renders the Player entity using a scaled sprite.
+ * Renders the Player entity using a sprite pre-scaled by the {@link SpriteAtlas}.
  * <p>
  * The yellow direction dot has been removed.
  * </p>
@@ -20,9 +19,7 @@ public final class PlayerRenderer extends EntityRenderer {
     private static final Color PLAYER_FALLBACK_COLOR  = new Color(70, 130, 180);
     private static final Color PLAYER_FALLBACK_BORDER = new Color(25, 25, 112);
 
-    /** Sprite image for the player. */
-    private static final Image PLAYER_SPRITE =
-        AssetLoader.loadImage("characters/player/player.png");
+    private final SpriteAtlas atlas = SpriteAtlas.characters();
 
     /**
      * Scale factor applied to the sprite relative to the model’s hitbox.
@@ -55,21 +52,12 @@ public final class PlayerRenderer extends EntityRenderer {
         final int boxW       = dim.getX();
         final int boxH       = dim.getY();
 
-        if (PLAYER_SPRITE != null) {
-            final int imgW = PLAYER_SPRITE.getWidth(null);
-            final int imgH = PLAYER_SPRITE.getHeight(null);
-
-            if (imgW > 0 && imgH > 0) {
-                final double baseScale = Math.min((double) boxW / imgW, (double) boxH / imgH);
-                final double scale     = baseScale * SPRITE_SCALE;
-                final int drawW        = (int) (imgW * scale);
-                final int drawH        = (int) (imgH * scale);
-                final int drawX        = boxX + (boxW - drawW) / 2;
-                final int drawY        = boxY + (boxH - drawH) / 2;
-
-                g.drawImage(PLAYER_SPRITE, drawX, drawY, drawW, drawH, null);
-                return;
-            }
+        final BufferedImage sprite = atlas.getScaled(SpriteAtlas.PLAYER, boxW, boxH, SPRITE_SCALE);
+        if (sprite != null) {
+            final int drawX = boxX + (boxW - sprite.getWidth()) / 2;
+            final int drawY = boxY + (boxH - sprite.getHeight()) / 2;
+            g.drawImage(sprite, drawX, drawY, null);
+            return;
         }
 
         // Fallback if sprite is missing or invalid
@@ -0,0 +1,215 @@
+package it.unibo.exam.view.renderer;
+
+import it.unibo.exam.utility.medialoader.AssetLoader;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All character sprites packed into a single image, plus a cache of copies
+ * pre-scaled to the size entities are drawn at.
+ * <p>
+ * Sprites are pixel art: the {@code *small.png} resources are the original
+ * pixels and the full-size files are exact 24× enlargements of them. The atlas
+ * packs the small originals (falling back to the full-size file when no small
+ * variant exists) and scales them with nearest-neighbour sampling, which gives
+ * the same picture from a fraction of the memory.
+ * </p>
+ * <p>
+ * Scaled copies are keyed by the entity's hitbox {@link Dimension}; each sprite
+ * keeps only the copy for the last size it was drawn at, so the copies built for
+ * the old size are dropped as soon as entities are resized.
+ * </p>
+ */
+public final class SpriteAtlas {
+
+    /** Sprite of the player. */
+    public static final String PLAYER = "player";
+
+    private static final int ATLAS_MAX_WIDTH = 256;
+    private static final int PADDING = 1;
+
+    private final BufferedImage atlas;
+    private final Map<String, Rectangle> regions;
+    private final Map<String, ScaledSprite> scaled = new HashMap<>();
+
+    /**
+     * Lazily built atlas of all character sprites.
+     */
+    private static final class CharactersHolder {
+        private static final SpriteAtlas INSTANCE = new SpriteAtlas(characterSprites());
+    }
+
+    /**
+     * Builds an atlas from the given sprites.
+     *
+     * @param sprites sprite name → [small resource path, full-size resource path];
+     *                sprites that cannot be loaded are skipped
+     */
+    public SpriteAtlas(final Map<String, String[]> sprites) {
+        final Map<String, BufferedImage> loaded = new LinkedHashMap<>();
+        sprites.forEach((name, paths) -> {
+            final Image image = AssetLoader.loadImageWithFallback(paths[0], paths.length > 1 ? paths[1] : null);
+            if (image != null && image.getWidth(null) > 0 && image.getHeight(null) > 0) {
+                loaded.put(name, toArgb(image));
+            }
+        });
+        this.regions = new HashMap<>();
+        this.atlas = pack(loaded, regions);
+    }
+
+    /**
+     * @return the shared atlas of player, student and teacher sprites
+     */
+    public static SpriteAtlas characters() {
+        return CharactersHolder.INSTANCE;
+    }
+
+    /**
+     * @param room the lower-case resource name of the room
+     * @return the sprite name of the roaming student of that room
+     */
+    public static String studentSprite(final String room) {
+        return "students/" + room;
+    }
+
+    /**
+     * @param teacher the resource name of the teacher
+     * @return the sprite name of that teacher
+     */
+    public static String teacherSprite(final String teacher) {
+        return "teachers/" + teacher;
+    }
+
+    /**
+     * Returns the sprite fitted to an entity hitbox and enlarged by {@code spriteScale},
+     * keeping its aspect ratio. The copy is built on first use for a given hitbox size.
+     *
+     * @param name        the sprite name
+     * @param boxWidth    the entity hitbox width
+     * @param boxHeight   the entity hitbox height
+     * @param spriteScale enlargement relative to the fitted size
+     * @return the scaled sprite, or null if the sprite is missing or the box is empty
+     */
+    public BufferedImage getScaled(final String name, final int boxWidth, final int boxHeight,
+                                   final double spriteScale) {
+        final Rectangle r = regions.get(name);
+        if (r == null || boxWidth <= 0 || boxHeight <= 0) {
+            return null;
+        }
+        final ScaledSprite cached = scaled.get(name);
+        if (cached != null && cached.box.width == boxWidth && cached.box.height == boxHeight) {
+            return cached.image;
+        }
+        final double baseScale = Math.min((double) boxWidth / r.width, (double) boxHeight / r.height);
+        final double scale = baseScale * spriteScale;
+        final int w = Math.max(1, (int) (r.width * scale));
+        final int h = Math.max(1, (int) (r.height * scale));
+        final BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(atlas, 0, 0, w, h, r.x, r.y, r.x + r.width, r.y + r.height, null);
+        } finally {
+            g.dispose();
+        }
+        scaled.put(name, new ScaledSprite(new Dimension(boxWidth, boxHeight), image));
+        return image;
+    }
+
+    private static BufferedImage toArgb(final Image image) {
+        if (image instanceof BufferedImage && ((BufferedImage) image).getType() == BufferedImage.TYPE_INT_ARGB) {
+            return (BufferedImage) image;
+        }
+        final BufferedImage copy = new BufferedImage(image.getWidth(null), image.getHeight(null),
+                                                     BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = copy.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return copy;
+    }
+
+    /**
+     * Packs the images row by row (shelf packing) into a single image.
+     *
+     * @param images  the images to pack, in order
+     * @param regions filled with the region of each image in the atlas
+     * @return the atlas image
+     */
+    private static BufferedImage pack(final Map<String, BufferedImage> images, final Map<String, Rectangle> regions) {
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        int width = 1;
+        for (final Map.Entry<String, BufferedImage> e : images.entrySet()) {
+            final BufferedImage img = e.getValue();
+            if (x > 0 && x + img.getWidth() > ATLAS_MAX_WIDTH) {
+                x = 0;
+                y += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            regions.put(e.getKey(), new Rectangle(x, y, img.getWidth(), img.getHeight()));
+            x += img.getWidth() + PADDING;
+            shelfHeight = Math.max(shelfHeight, img.getHeight());
+            width = Math.max(width, x);
+        }
+        final BufferedImage atlas = new BufferedImage(width, Math.max(1, y + shelfHeight), BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = atlas.createGraphics();
+        try {
+            images.forEach((name, img) -> {
+                final Rectangle r = regions.get(name);
+                g.drawImage(img, r.x, r.y, null);
+            });
+        } finally {
+            g.dispose();
+        }
+        return atlas;
+    }
+
+    /**
+     * @return the character sprites: player, roaming students and teachers
+     */
+    private static Map<String, String[]> characterSprites() {
+        final Map<String, String[]> sprites = new LinkedHashMap<>();
+        sprites.put(PLAYER, new String[] {"characters/player/playersmall.png", "characters/player/player.png"});
+        for (final String room : new String[] {"hub", "garden", "lab", "bar", "2.12"}) {
+            sprites.put(studentSprite(room), new String[] {
+                "characters/students/" + room + "small.png", "characters/students/" + room + ".png",
+            });
+        }
+        // The small gym student was exported under its editor frame name
+        sprites.put(studentSprite("gym"), new String[] {
+            "characters/students/pixil-frame-0 (33).png", "characters/students/gym.png",
+        });
+        for (final String teacher : new String[] {"Gardener", "AM", "Andrew", "Bartender", "Teacher"}) {
+            sprites.put(teacherSprite(teacher), new String[] {
+                "characters/teachers/" + teacher + "small.png", "characters/teachers/" + teacher + ".png",
+            });
+        }
+        return sprites;
+    }
+
+    /**
+     * A sprite copy scaled for a given hitbox size.
+     */
+    private static final class ScaledSprite {
+        private final Dimension box;
+        private final BufferedImage image;
+
+        ScaledSprite(final Dimension box, final BufferedImage image) {
+            this.box = box;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package it.unibo.exam;
+
+import it.unibo.exam.utility.medialoader.AssetManager;
+import it.unibo.exam.utility.medialoader.ImageCache;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class AssetManagerTest {
+
+    private static final String IMAGE = "Garden/water.png";
+    private static final String OTHER_IMAGE = "Garden/bottle.png";
+    private static final String MISSING = "does/not/exist.png";
+    private static final int THREADS = 2;
+    private static final int SIDE = 10;
+    private static final int ARGB_BYTES = 4;
+    private static final long BUDGET = 64L * 1024 * 1024;
+
+    @Test
+    void testConcurrentRequestsShareOneHandle() {
+        final List<Runnable> queued = new ArrayList<>();
+        final AssetManager manager = new AssetManager(queued::add, new ImageCache(BUDGET));
+        final CompletableFuture<Image> first = manager.load(IMAGE);
+        final CompletableFuture<Image> second = manager.load(IMAGE);
+        assertSame(first, second);
+        assertEquals(1, queued.size());
+
+        queued.get(0).run();
+        assertNotNull(first.join());
+        assertSame(first.join(), manager.getImage(IMAGE));
+        assertEquals(1, manager.getCacheStats().getHits());
+    }
+
+    @Test
+    void testCacheDemotesLeastRecentlyUsedOverBudget() {
+        final Image a = new BufferedImage(SIDE, SIDE, BufferedImage.TYPE_INT_ARGB);
+        final Image b = new BufferedImage(SIDE, SIDE, BufferedImage.TYPE_INT_ARGB);
+        final Image c = new BufferedImage(SIDE, SIDE, BufferedImage.TYPE_INT_ARGB);
+        final ImageCache cache = new ImageCache(2L * SIDE * SIDE * ARGB_BYTES);
+        cache.put("a", a);
+        cache.put("b", b);
+        assertSame(a, cache.get("a"));
+        cache.put("c", c);
+
+        final ImageCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, stats.getStrongCount());
+        assertEquals(2L * SIDE * SIDE * ARGB_BYTES, stats.getStrongBytes());
+        assertNull(cache.get("missing"));
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testMissingImageCompletesWithNull() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AssetManager manager = new AssetManager(executor);
+            assertNull(manager.load(MISSING).join());
+            assertTrue(manager.isLoaded(MISSING));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPreloadReportsProgress() {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final AssetManager manager = new AssetManager(executor);
+            final List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+            manager.preload(List.of(IMAGE, OTHER_IMAGE, IMAGE, MISSING),
+                            (path, completed, total) -> {
+                                assertEquals(3, total);
+                                progress.add(completed);
+                            }).join();
+            Collections.sort(progress);
+            assertEquals(List.of(1, 2, 3), progress);
+            assertTrue(manager.isLoaded(IMAGE));
+            assertTrue(manager.isLoaded(OTHER_IMAGE));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testManifestListsExistingImages() {
+        final List<String> paths = AssetManager.readManifest(AssetManager.DEFAULT_MANIFEST);
+        assertFalse(paths.isEmpty());
+        for (final String path : paths) {
+            assertFalse(path.startsWith("#"));
+            assertNotNull(AssetManagerTest.class.getClassLoader().getResource(path), path);
+        }
+    }
+}
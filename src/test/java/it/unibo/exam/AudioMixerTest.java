@@ -0,0 +1,133 @@
+package it.unibo.exam;
+
+import it.unibo.exam.utility.medialoader.audio.AudioMixer;
+import it.unibo.exam.utility.medialoader.audio.AudioSource;
+import it.unibo.exam.utility.medialoader.audio.Voice;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sound.sampled.AudioInputStream;
+
+class AudioMixerTest {
+
+    private static final int BLOCK = 64;
+    private static final int FRAME_SIZE = AudioMixer.FORMAT.getFrameSize();
+    private static final short LOUD = 20_000;
+    private static final short QUIET = 1_000;
+
+    /**
+     * @return a source of {@code frames} frames all holding {@code value} on both channels
+     */
+    private static AudioSource constant(final short value, final int frames) {
+        final byte[] pcm = new byte[frames * FRAME_SIZE];
+        for (int i = 0; i < pcm.length; i += 2) {
+            pcm[i] = (byte) value;
+            pcm[i + 1] = (byte) (value >> 8);
+        }
+        return () -> new AudioInputStream(new ByteArrayInputStream(pcm), AudioMixer.FORMAT, frames);
+    }
+
+    private static int sampleAt(final byte[] out, final int index) {
+        return (short) ((out[2 * index] & 0xFF) | (out[2 * index + 1] << 8));
+    }
+
+    @Test
+    void testVoicesAreSummedAndClipped() {
+        final AudioMixer mixer = new AudioMixer(Runnable::run);
+        final byte[] out = new byte[BLOCK * FRAME_SIZE];
+
+        mixer.play(constant(QUIET, BLOCK * 4), false, false, 1.0f);
+        mixer.play(constant(QUIET, BLOCK * 4), false, false, 1.0f);
+        mixer.mix(out, BLOCK);
+        assertEquals(2 * QUIET, sampleAt(out, 0));
+
+        mixer.play(constant(LOUD, BLOCK * 4), false, false, 1.0f);
+        mixer.play(constant(LOUD, BLOCK * 4), false, false, 1.0f);
+        mixer.mix(out, BLOCK);
+        assertEquals(Short.MAX_VALUE, sampleAt(out, 0));
+    }
+
+    @Test
+    void testFinishedVoicesAreReleased() {
+        final AudioMixer mixer = new AudioMixer(Runnable::run);
+        final byte[] out = new byte[BLOCK * FRAME_SIZE];
+        final Voice voice = mixer.play(constant(QUIET, BLOCK / 2), false, false, 1.0f);
+
+        mixer.mix(out, BLOCK);
+        assertTrue(voice.isFinished());
+        assertEquals(0, mixer.getActiveVoices());
+        assertEquals(QUIET, sampleAt(out, 0));
+        assertEquals(0, sampleAt(out, BLOCK + 2));
+    }
+
+    @Test
+    void testLoopingVoiceRestartsAndFadesOut() {
+        final AudioMixer mixer = new AudioMixer(Runnable::run);
+        final byte[] out = new byte[BLOCK * FRAME_SIZE];
+        final Voice music = mixer.play(constant(QUIET, BLOCK / 4), true, true, 1.0f);
+
+        mixer.mix(out, BLOCK);
+        assertFalse(music.isFinished());
+        assertEquals(QUIET, sampleAt(out, 2 * BLOCK - 1));
+
+        music.fadeOut(0);
+        mixer.mix(out, BLOCK);
+        assertTrue(music.isFinished());
+        assertEquals(0, mixer.getActiveVoices());
+    }
+
+    @Test
+    void testMuteAndVolume() {
+        final AudioMixer mixer = new AudioMixer(Runnable::run);
+        final byte[] out = new byte[BLOCK * FRAME_SIZE];
+        mixer.play(constant(QUIET, BLOCK * 4), true, false, 1.0f);
+
+        mixer.setMusicVolume(0.5f);
+        mixer.mix(out, BLOCK);
+        assertEquals(QUIET / 2, sampleAt(out, 0));
+
+        mixer.setMuted(true);
+        mixer.mix(out, BLOCK);
+        assertEquals(0, sampleAt(out, 0));
+    }
+
+    @Test
+    void testUnderrunPlaysSilenceWithoutEndingVoice() {
+        final List<Runnable> decodeTasks = new ArrayList<>();
+        final AudioMixer mixer = new AudioMixer(decodeTasks::add);
+        final byte[] out = new byte[BLOCK * FRAME_SIZE];
+        final Voice voice = mixer.play(constant(QUIET, BLOCK * 4), false, false, 1.0f);
+
+        mixer.mix(out, BLOCK);
+        assertFalse(voice.isFinished());
+        assertEquals(0, sampleAt(out, 0));
+
+        decodeTasks.remove(0).run();
+        mixer.mix(out, BLOCK);
+        assertEquals(QUIET, sampleAt(out, 0));
+    }
+
+    @Test
+    void testFullMixerDropsOldestEffectOrRefusesOverMusic() {
+        final AudioMixer mixer = new AudioMixer(Runnable::run);
+        final Voice oldestEffect = mixer.play(constant(QUIET, BLOCK), false, false, 1.0f);
+        for (int i = 1; i < AudioMixer.MAX_VOICES; i++) {
+            mixer.play(constant(QUIET, BLOCK), true, true, 1.0f);
+        }
+
+        final Voice effect = mixer.play(constant(QUIET, BLOCK), false, false, 1.0f);
+        assertTrue(oldestEffect.isFinished());
+        assertFalse(effect.isFinished());
+
+        effect.stop();
+        mixer.play(constant(QUIET, BLOCK), true, true, 1.0f);
+        assertNull(mixer.play(constant(QUIET, BLOCK), false, false, 1.0f));
+        assertNull(mixer.play(constant(QUIET, BLOCK), true, true, 1.0f));
+    }
+}
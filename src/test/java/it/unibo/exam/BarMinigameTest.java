@@ -1,22 +1,53 @@
 package it.unibo.exam;
 
 import it.unibo.exam.controller.minigame.bar.BarMinigame;
+import it.unibo.exam.controller.minigame.bar.strategy.RandomShuffleStrategy;
+import it.unibo.exam.model.entity.minigame.bar.BarDealer;
+import it.unibo.exam.model.entity.minigame.bar.BarModel;
+import it.unibo.exam.model.entity.minigame.bar.BarSolution;
+import it.unibo.exam.model.entity.minigame.bar.BarSolver;
+import it.unibo.exam.model.entity.minigame.bar.BarState;
 import it.unibo.exam.model.scoring.CapDecorator;
 import it.unibo.exam.model.scoring.ScoringStrategy;
 import it.unibo.exam.model.scoring.TimeBonusDecorator;
 import it.unibo.exam.model.scoring.TieredScoringStrategy;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 class BarMinigameTest {
     private static final int BONUS_TIME_THRESHOLD = 30;
     private static final int BONUS_POINTS = 10;
     private static final int MAX_POINTS_CAP = 100;
+    private static final int GLASSES = 6;
+    private static final int CAPACITY = 5;
+    private static final int LARGE_GLASSES = 10;
+    private static final int LARGE_CAPACITY = 4;
+    private static final int SMALL_LIMIT = 1_000;
+    private static final int DEALS = 8;
+    private static final long SEED = 99L;
+    private static final List<Color> COLORS = List.of(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW);
+    private static final List<Color> MANY_COLORS = List.of(Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW,
+        Color.CYAN, Color.MAGENTA, Color.ORANGE, Color.PINK);
+    // Packed glasses, bottom layer in the lowest nibble
+    private static final long RED_GREEN = 0x21L;
+    private static final long GREEN_RED = 0x12L;
 
     @Test
     void testInitialization() {
@@ -48,4 +79,129 @@ class BarMinigameTest {
         // There is no direct getScoringStrategy, but we can check that the minigame works with the strategy
         assertNotNull(minigame);
     }
+
+    @Test
+    void testPackedPoursCanBeUndone() {
+        final BarState state = new BarState(new long[] {RED_GREEN, GREEN_RED, 0}, 2);
+        assertEquals(2, state.size(0));
+        assertEquals(2, state.top(0));
+        assertFalse(state.canPour(0, 1));
+        assertTrue(state.canPour(0, 2));
+        state.move(0, 2);
+        assertEquals(1, state.size(0));
+        assertEquals(2, state.top(2));
+        assertFalse(state.canPour(1, 2));
+        state.move(2, 0);
+        assertEquals(new BarState(new long[] {RED_GREEN, GREEN_RED, 0}, 2), state);
+        // Glasses are interchangeable for the solver
+        assertArrayEquals(state.canonicalKey(), new BarState(new long[] {0, GREEN_RED, RED_GREEN}, 2).canonicalKey());
+    }
+
+    @Test
+    void testSolverFindsShortestSolution() {
+        final BarState start = new BarState(new long[] {RED_GREEN, GREEN_RED, 0}, 2);
+        final BarSolution solution = new BarSolver().solve(start);
+        assertNotNull(solution);
+        // Green out, red over, green back; then red out and green over, or the symmetric ones
+        assertEquals(2 + 1, solution.getMoveCount());
+        assertSolves(start, solution);
+        // Without the empty glass nothing can move
+        assertNull(new BarSolver().solve(new BarState(new long[] {RED_GREEN, GREEN_RED}, 2)));
+    }
+
+    @Test
+    void testDealsAreSolvableAndRanked() {
+        final BarDealer dealer = new BarDealer(GLASSES, CAPACITY, COLORS, new RandomShuffleStrategy(), new BarSolver());
+        final List<BarDealer.Deal> deals = dealer.rank(SEED, DEALS);
+        assertFalse(deals.isEmpty());
+        for (int i = 0; i < deals.size(); i++) {
+            final BarDealer.Deal deal = deals.get(i);
+            final BarState state = BarState.ofLayers(deal.getLayers(), GLASSES, CAPACITY, COLORS);
+            assertTrue(BarSolver.estimate(state) <= deal.getMinimumMoves());
+            if (i > 0) {
+                assertTrue(deals.get(i - 1).getMinimumMoves() <= deal.getMinimumMoves());
+            }
+        }
+        final BarModel model = new BarModel.Builder().numGlasses(GLASSES).capacity(CAPACITY)
+            .shuffleSeed(SEED).build();
+        final BarSolution solution = new BarSolver().solve(model.toState());
+        assertNotNull(solution);
+        assertSolves(model.toState(), solution);
+    }
+
+    @Test
+    void testBuilderCapsGlassesDealtOnTheCallerThread() {
+        final BarModel.Builder builder = new BarModel.Builder();
+        assertDoesNotThrow(() -> builder.numGlasses(BarModel.MAX_GLASSES));
+        assertThrows(IllegalArgumentException.class, () -> builder.numGlasses(BarModel.MAX_GLASSES + 1));
+    }
+
+    @Test
+    void testHintsSolveALargeSetup() {
+        final BarSolver solver = new BarSolver();
+        final BarDealer dealer = new BarDealer(LARGE_GLASSES, LARGE_CAPACITY, MANY_COLORS,
+            new RandomShuffleStrategy(), solver);
+        final BarDealer.Deal deal = dealer.firstSolvable(SEED, DEALS);
+        assertTrue(deal.isSolvable());
+        final BarState state = BarState.ofLayers(deal.getLayers(), LARGE_GLASSES, LARGE_CAPACITY, MANY_COLORS);
+
+        // Out of budget, the hint is still a legal pour
+        final int[] greedy = new BarSolver(ForkJoinPool.commonPool(), SMALL_LIMIT).hint(state);
+        assertTrue(state.canPour(greedy[0], greedy[1]));
+
+        // Following the hints takes exactly the moves of a shortest solution
+        for (int move = 0; move < deal.getMinimumMoves(); move++) {
+            final int[] hint = solver.hint(state);
+            assertTrue(state.canPour(hint[0], hint[1]));
+            state.move(hint[0], hint[1]);
+        }
+        assertTrue(state.isSolved());
+        assertEquals(0, solver.hint(state).length);
+    }
+
+    @Test
+    void testPoursCanBeUndoneRedoneAndRestarted() throws IOException {
+        final BarModel model = new BarModel.Builder().numGlasses(GLASSES).capacity(CAPACITY)
+            .shuffleSeed(SEED).build();
+        final BarState deal = model.toState();
+        final BarSolution solution = new BarSolver().solve(deal);
+        assertNotNull(solution);
+        final int half = solution.getMoveCount() / 2;
+        for (int i = 0; i < half; i++) {
+            assertTrue(model.attemptPour(solution.getFrom(i), solution.getTo(i)));
+        }
+        final BarState halfway = model.toState();
+        assertTrue(model.undo());
+        assertTrue(model.redo());
+        assertEquals(halfway, model.toState());
+        assertFalse(model.redo());
+
+        // Replaying the written log on the same deal ends in the same position
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        model.writeHistory(new DataOutputStream(bytes));
+        final BarModel replay = new BarModel.Builder().numGlasses(GLASSES).capacity(CAPACITY)
+            .shuffleSeed(SEED).build();
+        replay.readHistory(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(halfway, replay.toState());
+        assertEquals(half, replay.getMoveCount());
+
+        model.restart();
+        assertEquals(deal, model.toState());
+        assertEquals(0, model.getMoveCount());
+        assertFalse(model.canUndo());
+        // The pours taken back by the restart can be made again
+        for (int i = 0; i < half; i++) {
+            assertTrue(model.redo());
+        }
+        assertEquals(halfway, model.toState());
+    }
+
+    private static void assertSolves(final BarState start, final BarSolution solution) {
+        final BarState state = start.copy();
+        for (int i = 0; i < solution.getMoveCount(); i++) {
+            assertTrue(state.canPour(solution.getFrom(i), solution.getTo(i)));
+            state.move(solution.getFrom(i), solution.getTo(i));
+        }
+        assertTrue(state.isSolved());
+    }
 }
@@ -1,17 +1,25 @@
 package it.unibo.exam;
 
 import it.unibo.exam.controller.minigame.garden.CatchBallMinigame;
+import it.unibo.exam.model.entity.minigame.garden.BallStore;
+import it.unibo.exam.model.entity.minigame.garden.BallView;
+import it.unibo.exam.model.entity.minigame.garden.CatchBallModel;
 import it.unibo.exam.model.scoring.LifeScoringStrategy;
 import it.unibo.exam.model.scoring.ScoringStrategy;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Locale;
 
 class CatchBallMinigameTest {
+    private static final int CAPACITY = 4;
+    private static final int SPEED = 5;
+    private static final int STORM_FRAMES = 3000;
+    private static final int CROWD = 200;
     @Test
     void testInitialization() {
         final ScoringStrategy scoring = new LifeScoringStrategy();
@@ -38,4 +46,33 @@ class CatchBallMinigameTest {
         final CatchBallMinigame minigame = new CatchBallMinigame(scoring);
         assertNotNull(minigame);
     }
+
+    @Test
+    void testStoreRecyclesSlots() {
+        final BallStore store = new BallStore(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(store.spawn(i, 0, SPEED));
+        }
+        assertFalse(store.spawn(CAPACITY, 0, SPEED));
+        // The last ball takes the freed slot
+        store.remove(1);
+        assertEquals(CAPACITY - 1, store.size());
+        assertEquals(CAPACITY - 1, store.getX(1));
+        assertEquals(SPEED, store.fall(1));
+        assertTrue(store.spawn(CAPACITY, 0, SPEED));
+        assertEquals(CAPACITY, store.getX(CAPACITY - 1));
+    }
+
+    @Test
+    void testStormRampsUpToHundredsOfBalls() {
+        final CatchBallModel model = new CatchBallModel(CatchBallModel.Mode.STORM);
+        final BallView balls = model.getBalls();
+        int most = 0;
+        for (int frame = 0; frame < STORM_FRAMES && !model.hasLost() && !model.hasWon(); frame++) {
+            model.update(false, false);
+            most = Math.max(most, balls.size());
+        }
+        // The view follows the model without being fetched again
+        assertTrue(most >= CROWD, "Only " + most + " balls at once");
+    }
 }
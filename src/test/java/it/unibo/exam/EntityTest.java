@@ -3,12 +3,22 @@ package it.unibo.exam;
 import it.unibo.exam.model.entity.Entity;
 import it.unibo.exam.model.entity.Player;
 import it.unibo.exam.model.entity.Npc;
+import it.unibo.exam.model.entity.RoamingNpc;
+import it.unibo.exam.model.entity.enviroments.Room;
+import it.unibo.exam.model.entity.strategy.RandomWalkStrategy;
+import it.unibo.exam.utility.generator.RoomGenerator;
 import it.unibo.exam.utility.geometry.Point2D;
+import it.unibo.exam.utility.geometry.Rectangle;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
 
 class EntityTest {
 
@@ -22,6 +32,10 @@ class EntityTest {
     private static final int BOUNDARY_Y = 150;
     private static final int SPEED = 5;
     private static final int DELTA = 30;
+    private static final int TICKS = 20_000;
+    private static final double TICK_SECONDS = 1.0 / 60;
+    // Slack for the allocation counter itself; a Rectangle per move would be hundreds of KB
+    private static final long ALLOCATION_SLACK = 1024;
 
     private Point2D environmentSize;
     private Entity testEntity;
@@ -139,4 +153,39 @@ class EntityTest {
         assertEquals(originalPosition.getX() + DELTA, newPosition.getX());
         assertEquals(originalPosition.getY() + DELTA, newPosition.getY());
     }
+
+    @Test
+    void testHitboxIsUpdatedInPlace() {
+        final Rectangle hitbox = testEntity.getHitbox();
+        testEntity.getPosition().move(MOVE_DISTANCE, MOVE_DISTANCE);
+        testEntity.updateHitboxPosition();
+        assertSame(hitbox, testEntity.getHitbox());
+        assertEquals(testEntity.getX(), hitbox.getX());
+        assertEquals(testEntity.getY(), hitbox.getY());
+        assertEquals(testEntity.getWidth(), hitbox.getWidth());
+        assertEquals(testEntity.getHeight(), hitbox.getHeight());
+    }
+
+    @Test
+    void testRoamingNpcUpdateDoesNotAllocate() {
+        final ThreadMXBean allocations = ManagementFactory.getPlatformMXBean(ThreadMXBean.class);
+        assumeTrue(allocations != null);
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        final Room room = new RoomGenerator(environmentSize).generate(1);
+        final RoamingNpc npc = new RoamingNpc(new Point2D(TEST_X, TEST_Y), environmentSize,
+            new RandomWalkStrategy(environmentSize));
+        // In the room, every move also updates its spatial grid
+        room.addRoamingNpc(npc);
+        for (int i = 0; i < TICKS; i++) {
+            npc.update(TICK_SECONDS, room);
+        }
+        final long before = allocations.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < TICKS; i++) {
+            npc.update(TICK_SECONDS, room);
+        }
+        final long allocated = allocations.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(room.queryRadius(npc.getX(), npc.getY(), 1).contains(npc));
+        assertTrue(allocated < ALLOCATION_SLACK, "Roaming NPC update allocated " + allocated + " bytes");
+    }
 }
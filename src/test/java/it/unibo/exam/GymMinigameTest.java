@@ -1,15 +1,27 @@
 package it.unibo.exam;
 
 import it.unibo.exam.controller.minigame.gym.GymMinigame;
+import it.unibo.exam.model.entity.minigame.gym.Cannon;
+import it.unibo.exam.model.entity.minigame.gym.Disk;
+import it.unibo.exam.model.entity.minigame.gym.GymModel;
+import it.unibo.exam.model.entity.minigame.gym.HexBoard;
+import it.unibo.exam.model.entity.minigame.gym.Projectile;
 import it.unibo.exam.model.scoring.TieredScoringStrategy;
 import it.unibo.exam.model.scoring.CapDecorator;
 import it.unibo.exam.model.scoring.TimeBonusDecorator;
 import it.unibo.exam.model.scoring.ScoringStrategy;
+import it.unibo.exam.utility.geometry.Point2D;
+import it.unibo.exam.utility.geometry.SweptCircle;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.awt.Color;
+import java.util.BitSet;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -17,6 +29,31 @@ class GymMinigameTest {
     private static final int BONUS_TIME_THRESHOLD = 30;
     private static final int BONUS_POINTS = 10;
     private static final int MAX_POINTS_CAP = 100;
+    private static final int BOARD_ROWS = 6;
+    private static final int BOARD_COLS = 6;
+    private static final int RADIUS = 10;
+    private static final int LARGE_ROWS = 20;
+    private static final int LARGE_COLS = 40;
+    private static final Point2D ENV = new Point2D(1000, 600);
+    private static final double EPSILON = 1e-9;
+    private static final int LONG_MOVE = 1000;
+    private static final int TARGET_DISTANCE = 500;
+    private static final int WALL_START = 100;
+    private static final int WALL_MOVE = 400;
+    private static final int SHORT_MOVE = 50;
+    private static final double QUARTER = 0.25;
+    private static final double HALF = 0.5;
+    private static final int OFFSET_TARGET = 3 * RADIUS;
+    private static final double ANGLE = Math.PI / 4;
+    /** Wide enough for a projectile to move further in an update than across a disk. */
+    private static final Point2D FAST_ENV = new Point2D(64_000, 5000);
+    private static final double SHALLOW_ANGLE = Math.PI / 64;
+    private static final int MAX_UPDATES = 1000;
+    private static final int POINTS_PER_DISK = 10;
+    private static final double TOLERANCE = 1e-6;
+    private static final int CLUSTER_SIZE = 3;
+    private static final int LAST_COL = 3;
+    private static final int FOUR_RADII = 4 * RADIUS;
 
     @Test
     void testInitializationAndCompletion() {
@@ -43,4 +80,182 @@ class GymMinigameTest {
         assertTrue(called.get());
         assertTrue(score.get() >= 0);
     }
+
+    private static HexBoard boardWith(final Object[][] layout) {
+        final HexBoard board = new HexBoard(BOARD_ROWS, BOARD_COLS);
+        board.setLayout(0, 0, RADIUS);
+        for (int row = 0; row < layout.length; row++) {
+            for (int col = 0; col < layout[row].length; col++) {
+                if (layout[row][col] != null) {
+                    board.place(board.index(row, col), new Disk(new Point2D(0, 0), (Color) layout[row][col], RADIUS, ENV));
+                }
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void testHexNeighborsDependOnRowParity() {
+        final HexBoard board = new HexBoard(BOARD_ROWS, BOARD_COLS);
+        final int[] out = new int[HexBoard.MAX_NEIGHBORS];
+        // Odd rows are shifted right: (1, 2) touches (0, 2) and (0, 3); (2, 2) touches (1, 1) and (1, 2)
+        final int odd = board.neighbors(board.index(1, 2), out);
+        final BitSet oddSet = new BitSet();
+        for (int i = 0; i < odd; i++) {
+            oddSet.set(out[i]);
+        }
+        assertEquals(HexBoard.MAX_NEIGHBORS, odd);
+        assertTrue(oddSet.get(board.index(0, 2)) && oddSet.get(board.index(0, LAST_COL)));
+        assertTrue(oddSet.get(board.index(2, 2)) && oddSet.get(board.index(2, LAST_COL)));
+        assertFalse(oddSet.get(board.index(0, 1)));
+
+        assertEquals(2, board.neighbors(board.index(0, 0), out));
+    }
+
+    @Test
+    void testClusterAndFloatingDisks() {
+        final Color r = Color.RED;
+        final Color b = Color.BLUE;
+        final HexBoard board = boardWith(new Object[][] {
+            {b, r, null, null},
+            {r, r, null, null},
+            {null, b, null, null},
+        });
+        final BitSet cells = new BitSet();
+        assertEquals(CLUSTER_SIZE, board.collectCluster(board.index(1, 1), cells));
+        assertTrue(cells.get(board.index(0, 1)) && cells.get(board.index(1, 0)));
+        assertFalse(cells.get(board.index(0, 0)));
+
+        // Once the red cluster is gone the blue disk below it hangs from nothing
+        for (int i = cells.nextSetBit(0); i >= 0; i = cells.nextSetBit(i + 1)) {
+            board.remove(i);
+        }
+        assertEquals(1, board.collectFloating(cells));
+        assertTrue(cells.get(board.index(2, 1)));
+        assertEquals(2, board.getCount());
+    }
+
+    @Test
+    void testShotSnapsToNearestFreeCell() {
+        final HexBoard board = boardWith(new Object[][] {{Color.RED, Color.RED}});
+        final int below = board.index(1, 0);
+        // Just above the center of the free cell (1, 0), touching the disks of row 0
+        final int cell = board.nearestFreeCell(board.centerX(below), board.centerY(below) - RADIUS / 2);
+        assertEquals(below, cell);
+
+        final int[] out = new int[board.size()];
+        assertEquals(2, board.occupiedInRect(0, 0, FOUR_RADII, 2 * RADIUS, out));
+        assertEquals(1, board.occupiedInRect(0, 0, RADIUS, RADIUS, out));
+        assertEquals(board.index(0, 0), out[0]);
+        assertEquals(0, board.occupiedInRect(0, 2 * RADIUS, FOUR_RADII, FOUR_RADII, out));
+    }
+
+    @Test
+    void testLargeBoardFitsOnScreen() {
+        final GymModel model = new GymModel(ENV, LARGE_ROWS, LARGE_COLS);
+        assertEquals(LARGE_ROWS * LARGE_COLS, model.getDisks().size());
+        for (final Disk disk : model.getDisks()) {
+            assertTrue(disk.getPosition().getX() + disk.getRadius() <= ENV.getX());
+            assertTrue(disk.getPosition().getX() - disk.getRadius() >= 0);
+        }
+    }
+
+    @Test
+    void testSweptCircleFindsImpactInsideLongMove() {
+        // A move far longer than the target: the end position is past it, the path is not
+        final double t = SweptCircle.timeOfImpact(0, 0, 0, -LONG_MOVE, 0, -TARGET_DISTANCE, 2 * RADIUS);
+        assertEquals((TARGET_DISTANCE - 2.0 * RADIUS) / LONG_MOVE, t, EPSILON);
+        assertEquals(SweptCircle.NO_HIT,
+            SweptCircle.timeOfImpact(0, 0, 0, -LONG_MOVE, OFFSET_TARGET, -TARGET_DISTANCE, 2 * RADIUS));
+        assertEquals(SweptCircle.NO_HIT, SweptCircle.timeOfImpact(0, 0, 0, LONG_MOVE, 0, -TARGET_DISTANCE, 2 * RADIUS));
+        assertEquals(QUARTER, SweptCircle.timeToWall(WALL_START, -WALL_MOVE, 0), EPSILON);
+        assertEquals(SweptCircle.NO_HIT, SweptCircle.timeToWall(WALL_START, -SHORT_MOVE, 0));
+    }
+
+    @Test
+    void testProjectileBouncesOffWall() {
+        final Projectile projectile = new Projectile(new Point2D(ENV.getX() / 2, ENV.getY() / 2), Color.RED,
+            RADIUS, ANGLE, ENV);
+        final double vx = projectile.getVelocityX();
+        projectile.advance(HALF);
+        assertEquals(ENV.getX() / 2 + vx * HALF, projectile.getExactX(), EPSILON);
+        projectile.reflectX();
+        assertEquals(-vx, projectile.getVelocityX(), EPSILON);
+        assertEquals(1, projectile.getBounces());
+    }
+
+    @Test
+    void testFastProjectileStopsOnDiskItWouldStepOver() {
+        // A single row, so that an update can step over it entirely
+        final GymModel model = new GymModel(FAST_ENV, 1, BOARD_COLS);
+        final List<Disk> disks = model.getDisks();
+        // Aim from the cannon pivot at the middle disk of the bottom row
+        Disk target = disks.get(0);
+        for (final Disk disk : disks) {
+            final int below = disk.getPosition().getY() - target.getPosition().getY();
+            if (below > 0 || below == 0 && Math.abs(disk.getPosition().getX() - FAST_ENV.getX() / 2)
+                    < Math.abs(target.getPosition().getX() - FAST_ENV.getX() / 2)) {
+                target = disk;
+            }
+        }
+        final Cannon cannon = model.getCannon();
+        final double pivotX = cannon.getPosition().getX() + cannon.getWidth() / 2.0;
+        final double pivotY = cannon.getPosition().getY();
+        cannon.setAngle(Math.atan2(pivotY - target.getPosition().getY(), target.getPosition().getX() - pivotX));
+        model.fireProjectile();
+
+        Projectile shot = model.getProjectile();
+        final double reach = shot.getRadius() + model.getCurrentDiskRadius();
+        assertTrue(Math.hypot(shot.getVelocityX(), shot.getVelocityY()) > 2 * reach);
+        boolean steppedOver = false;
+        for (int i = 0; i < MAX_UPDATES && shot != null; i++) {
+            final double x = shot.getExactX();
+            final double y = shot.getExactY();
+            final double dx = shot.getVelocityX();
+            final double dy = shot.getVelocityY();
+            double impact = SweptCircle.NO_HIT;
+            boolean endsClear = true;
+            for (final Disk disk : disks) {
+                final int cx = disk.getPosition().getX();
+                final int cy = disk.getPosition().getY();
+                impact = Math.min(impact, SweptCircle.timeOfImpact(x, y, dx, dy, cx, cy, reach));
+                endsClear &= Math.hypot(x + dx - cx, y + dy - cy) > reach;
+            }
+            model.update();
+            shot = model.getProjectile();
+            if (impact <= 1) {
+                // The path of this update touches a disk: the projectile stops on it
+                steppedOver = endsClear;
+                assertNull(shot);
+            }
+        }
+        assertNull(shot);
+        // Both ends of the last update were clear: testing positions alone would have missed the disk
+        assertTrue(steppedOver);
+        assertEquals(disks.size() + 1, model.getDisks().size() + model.getScore() / POINTS_PER_DISK);
+    }
+
+    @Test
+    void testFastProjectileBouncesOffWallThroughUpdates() {
+        final GymModel model = new GymModel(FAST_ENV);
+        model.getCannon().setAngle(SHALLOW_ANGLE);
+        model.fireProjectile();
+        Projectile shot = model.getProjectile();
+        final double wall = FAST_ENV.getX() - shot.getRadius();
+        assertTrue(shot.getVelocityX() > 2 * (shot.getRadius() + model.getCurrentDiskRadius()));
+        for (int i = 0; i < MAX_UPDATES && shot.getBounces() == 0; i++) {
+            final double end = shot.getExactX() + shot.getVelocityX();
+            model.update();
+            shot = model.getProjectile();
+            assertNotNull(shot);
+            if (end > wall) {
+                // Would have ended past the wall: reflected off it within the update instead
+                assertEquals(1, shot.getBounces());
+                assertEquals(2 * wall - end, shot.getExactX(), TOLERANCE);
+            }
+            assertTrue(shot.getExactX() <= wall + TOLERANCE);
+        }
+        assertEquals(1, shot.getBounces());
+        assertTrue(shot.getVelocityX() < 0);
+    }
 }
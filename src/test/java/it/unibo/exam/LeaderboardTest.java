@@ -1,10 +1,27 @@
 package it.unibo.exam;
 
+import it.unibo.exam.model.data.RoomScoreData;
 import it.unibo.exam.model.leaderboard.LeaderboardEntry;
 import it.unibo.exam.model.leaderboard.LeaderboardManage;
+import it.unibo.exam.model.leaderboard.LeaderboardStore;
+import it.unibo.exam.model.leaderboard.RankIndex;
+import it.unibo.exam.model.leaderboard.ScoreBoard;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -21,6 +38,31 @@ class LeaderboardTest {
     private static final int TIME_1 = 120;
     private static final int TIME_2 = 150;
     private static final int TIME_3 = 100;
+    private static final int RUNS = 3000;
+    private static final int MAX_SCORE = 500;
+    private static final int MAX_TIME = 50;
+    private static final long SEED = 11L;
+    private static final int PAGE = 50;
+    private static final byte[] TORN_RECORD = {0, 0, 0, 40, 1, 2, 3};
+    private static final String LEGACY_DATE = "2024-01-03T11:30:15";
+    private static final int LEGACY_ENTRIES = 3;
+    private static final LocalDate TODAY = LocalDate.parse("2025-03-10");
+    private static final int DAYS_IN_WINDOW = 3;
+    private static final int DAYS_OUT_OF_WINDOW = 10;
+    private static final int ROOM_1 = 1;
+    private static final int ROOM_2 = 2;
+    private static final int OLD_RUNS = 1000;
+    private static final String CORRUPT = ".corrupt";
+    private static final String STORE_SNAPSHOTS =
+        LeaderboardStore.SNAPSHOT_PREFIX + "*" + LeaderboardStore.SNAPSHOT_SUFFIX;
+    private static final String SCORE_BOARD_SNAPSHOTS =
+        ScoreBoard.SNAPSHOT_PREFIX + "*" + ScoreBoard.SNAPSHOT_SUFFIX;
+    private static final String LEGACY_LINES = String.join("\n",
+        "Player1|800|150|2024-01-02T10:00:00",
+        "Player2|1000|120|" + LEGACY_DATE,
+        "broken line",
+        "Player3|1000|100|2024-01-04T12:45:30",
+        "");
 
     private LeaderboardManage leaderboardManager;
 
@@ -101,4 +143,258 @@ class LeaderboardTest {
 
         assertEquals(2, leaderboardManager.getSize());
     }
+
+    @Test
+    void testRankIndexMatchesASort() {
+        final RankIndex index = new RankIndex();
+        final List<int[]> runs = new ArrayList<>();
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            final int[] run = {random.nextInt(MAX_SCORE), random.nextInt(MAX_TIME), i};
+            runs.add(run);
+            assertEquals(i, index.insert(run[0], run[1]));
+        }
+        // Higher score, then shorter time, then first added
+        runs.sort(Comparator.<int[]>comparingInt(r -> -r[0]).thenComparingInt(r -> r[1]).thenComparingInt(r -> r[2]));
+        for (int rank = 0; rank < RUNS; rank++) {
+            final int node = runs.get(rank)[2];
+            assertEquals(node, index.select(rank));
+            assertEquals(rank, index.rank(node));
+            // A new equal result would come right after this one, unless equals follow
+            final int[] run = runs.get(rank);
+            if (rank + 1 == RUNS || runs.get(rank + 1)[0] != run[0] || runs.get(rank + 1)[1] != run[1]) {
+                assertEquals(rank + 1, index.rankOf(run[0], run[1]));
+            }
+        }
+        final int[] page = index.range(RUNS - PAGE, PAGE * 2);
+        assertEquals(PAGE, page.length);
+        for (int i = 0; i < PAGE; i++) {
+            assertEquals(runs.get(RUNS - PAGE + i)[2], page[i]);
+        }
+        assertEquals(0, index.rankOf(MAX_SCORE, 0));
+        assertEquals(RUNS, index.rankOf(-1, 0));
+    }
+
+    @Test
+    void testRankQueriesOnTheFullHistory(@TempDir final Path directory) {
+        final LeaderboardManage manager = new LeaderboardManage(directory);
+        for (int score = 1; score <= PAGE * 2; score++) {
+            manager.addScore(PLAYER_NAME, score, TIME_1);
+        }
+        assertEquals(1, manager.getRank(PAGE * 2 + 1, TIME_1));
+        // Ties go after the recorded result, so they do not qualify at the tenth place
+        assertTrue(manager.wouldQualify(PAGE * 2 - 8, TIME_1));
+        assertEquals(-1, manager.getRank(PAGE * 2 - 9, TIME_1));
+        assertTrue(manager.getPercentile(0, TIME_1) < 1);
+        assertEquals(PAGE + 1, manager.getOverallRank(PAGE, TIME_1 - 1));
+        final List<LeaderboardEntry> page = manager.getPage(PAGE + 1, PAGE);
+        assertEquals(PAGE, page.size());
+        assertEquals(PAGE, page.get(0).getScore());
+        LeaderboardStore.open(directory).close();
+    }
+
+    @Test
+    void testStoreSurvivesReloadCompactionAndTornWrites(@TempDir final Path directory) throws IOException {
+        final LeaderboardManage manager = new LeaderboardManage(directory);
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            manager.addScore(PLAYER_NAME, random.nextInt(MAX_SCORE), random.nextInt(MAX_TIME));
+        }
+        final List<LeaderboardEntry> top = manager.getTop10();
+        // Enough runs to have compacted the log twice, each time to a new snapshot file replacing the last
+        manager.flush();
+        assertEquals(1, countFiles(directory, STORE_SNAPSHOTS));
+        LeaderboardStore.open(directory).close();
+
+        // A crash in the middle of an append leaves a torn record at the end of the log
+        Files.write(directory.resolve(LeaderboardStore.LOG_FILE), TORN_RECORD, StandardOpenOption.APPEND);
+        final LeaderboardManage reloaded = new LeaderboardManage(directory);
+        assertEquals(RUNS, reloaded.getHistorySize());
+        assertEquals(top, reloaded.getTop10());
+
+        assertTrue(reloaded.addScore(PLAYER_NAME_2, MAX_SCORE, 0));
+        LeaderboardStore.open(directory).close();
+        final LeaderboardManage again = new LeaderboardManage(directory);
+        assertEquals(RUNS + 1, again.getHistorySize());
+        assertEquals(PLAYER_NAME_2, again.getTop10().get(0).getPlayerName());
+        LeaderboardStore.open(directory).close();
+    }
+
+    @Test
+    void testLegacyTextIsMigratedToTheMappedSnapshot(@TempDir final Path directory) throws IOException {
+        Files.writeString(directory.resolve(LeaderboardStore.LEGACY_FILE), LEGACY_LINES);
+        final LeaderboardManage manager = new LeaderboardManage(directory);
+        assertEquals(1, countFiles(directory, STORE_SNAPSHOTS));
+        assertEquals(LEGACY_ENTRIES, manager.getHistorySize());
+        final List<LeaderboardEntry> top = manager.getTop10();
+        assertEquals(PLAYER_NAME_3, top.get(0).getPlayerName());
+        assertEquals(PLAYER_NAME_2, top.get(1).getPlayerName());
+        assertEquals(LocalDateTime.parse(LEGACY_DATE), top.get(1).getDate());
+
+        // New results rank among the mapped ones and survive a reload
+        manager.addScore(PLAYER_NAME, SCORE_1, TIME_2);
+        LeaderboardStore.open(directory).close();
+        final LeaderboardManage reloaded = new LeaderboardManage(directory);
+        assertEquals(PLAYER_NAME, reloaded.getTop10().get(2).getPlayerName());
+        assertEquals(SCORE_2, reloaded.getTop10().get(LEGACY_ENTRIES).getScore());
+        LeaderboardStore.open(directory).close();
+    }
+
+    @Test
+    void testScoreBoardRanksMinigamesOverTimeWindows(@TempDir final Path directory) {
+        final ScoreBoard board = ScoreBoard.open(directory);
+        board.record(PLAYER_NAME, TODAY.minusDays(DAYS_OUT_OF_WINDOW).atStartOfDay(),
+            Map.of(ROOM_1, new RoomScoreData(TIME_3, SCORE_3, true)));
+        board.record(PLAYER_NAME_2, TODAY.minusDays(DAYS_IN_WINDOW).atStartOfDay(),
+            Map.of(ROOM_1, new RoomScoreData(TIME_1, SCORE_1, true), ROOM_2, new RoomScoreData(TIME_2, SCORE_2, true)));
+        board.record(PLAYER_NAME_3, TODAY.atStartOfDay(), Map.of(ROOM_1, new RoomScoreData(TIME_2, SCORE_2, true)));
+        board.record(PLAYER_NAME, TODAY.atTime(1, 0), Map.of(ROOM_1, new RoomScoreData(TIME_3, SCORE_1, true)));
+
+        assertEquals(List.of(PLAYER_NAME, PLAYER_NAME_3),
+            names(board.top(ScoreBoard.Window.DAY, ROOM_1, TODAY, PAGE)));
+        assertEquals(List.of(PLAYER_NAME, PLAYER_NAME_2, PLAYER_NAME_3),
+            names(board.top(ScoreBoard.Window.WEEK, ROOM_1, TODAY, PAGE)));
+        final List<LeaderboardEntry> allTime = board.top(ScoreBoard.Window.ALL_TIME, ROOM_1, TODAY, PAGE);
+        assertEquals(SCORE_3, allTime.get(0).getScore());
+        assertEquals(DAYS_IN_WINDOW + 1, allTime.size());
+        // The whole run of Player2 ranks first over the week
+        assertEquals(SCORE_1 + SCORE_2,
+            board.top(ScoreBoard.Window.WEEK, ScoreBoard.OVERALL, TODAY, 1).get(0).getScore());
+        assertEquals(1, board.size(ScoreBoard.Window.WEEK, ROOM_2, TODAY));
+        assertEquals(2, board.rankOf(ScoreBoard.Window.WEEK, ROOM_1, TODAY, SCORE_1, TIME_1));
+        assertEquals(0, board.rankOf(ScoreBoard.Window.DAY, ROOM_2, TODAY, 0, TIME_1));
+
+        board.close();
+        final ScoreBoard reloaded = ScoreBoard.open(directory);
+        assertEquals(DAYS_IN_WINDOW + 1, reloaded.getRunCount());
+        assertEquals(List.of(PLAYER_NAME, PLAYER_NAME_2, PLAYER_NAME_3),
+            names(reloaded.top(ScoreBoard.Window.WEEK, ROOM_1, TODAY, PAGE)));
+
+        final LeaderboardManage manager = new LeaderboardManage(directory);
+        manager.addRun(PLAYER_NAME_2, Map.of(ROOM_2, new RoomScoreData(TIME_1, SCORE_3, true)));
+        assertEquals(PLAYER_NAME_2, manager.getTop10(ScoreBoard.Window.ALL_TIME, ROOM_2).get(0).getPlayerName());
+        assertEquals(TIME_1, manager.getTop10().get(0).getTotalTime());
+        LeaderboardStore.open(directory).close();
+        ScoreBoard.open(directory).close();
+    }
+
+    @Test
+    void testScoreBoardCompactsRunsOutOfTheWindow(@TempDir final Path directory) throws IOException {
+        final ScoreBoard board = ScoreBoard.open(directory);
+        board.record(PLAYER_NAME_2, TODAY.atStartOfDay(), Map.of(ROOM_1, new RoomScoreData(TIME_1, SCORE_1, true)));
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < OLD_RUNS; i++) {
+            board.record(PLAYER_NAME, TODAY.minusDays(DAYS_OUT_OF_WINDOW).atStartOfDay(),
+                Map.of(ROOM_1, new RoomScoreData(random.nextInt(MAX_TIME), random.nextInt(MAX_SCORE), true)));
+        }
+        final List<LeaderboardEntry> top = board.top(ScoreBoard.Window.ALL_TIME, ROOM_1, TODAY, PAGE);
+        board.close();
+
+        // The old runs went to the snapshot, and out of the runs file
+        final Path runs = directory.resolve(ScoreBoard.RUNS_FILE);
+        assertEquals(1, countFiles(directory, SCORE_BOARD_SNAPSHOTS));
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(directory, SCORE_BOARD_SNAPSHOTS)) {
+            for (final Path snapshot : snapshots) {
+                assertTrue(Files.size(runs) < Files.size(snapshot));
+            }
+        }
+
+        Files.write(runs, TORN_RECORD, StandardOpenOption.APPEND);
+        final ScoreBoard reloaded = ScoreBoard.open(directory);
+        assertEquals(OLD_RUNS + 1, reloaded.getRunCount());
+        assertEquals(top, reloaded.top(ScoreBoard.Window.ALL_TIME, ROOM_1, TODAY, PAGE));
+        assertEquals(List.of(PLAYER_NAME_2), names(reloaded.top(ScoreBoard.Window.WEEK, ROOM_1, TODAY, PAGE)));
+
+        reloaded.record(PLAYER_NAME_3, TODAY.atTime(1, 0), Map.of(ROOM_1, new RoomScoreData(TIME_2, SCORE_3, true)));
+        reloaded.close();
+        final ScoreBoard again = ScoreBoard.open(directory);
+        assertEquals(OLD_RUNS + 2, again.getRunCount());
+        assertEquals(List.of(PLAYER_NAME_3, PLAYER_NAME_2),
+            names(again.top(ScoreBoard.Window.DAY, ROOM_1, TODAY, PAGE)));
+        again.close();
+    }
+
+    @Test
+    void testUnreadableStoreSnapshotIsSetAsideNotDeleted(@TempDir final Path directory) throws IOException {
+        final LeaderboardManage manager = new LeaderboardManage(directory);
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            manager.addScore(PLAYER_NAME, random.nextInt(MAX_SCORE), random.nextInt(MAX_TIME));
+        }
+        manager.flush();
+        LeaderboardStore.open(directory).close();
+        final Path snapshot = onlyFile(directory, STORE_SNAPSHOTS);
+        Files.write(snapshot, TORN_RECORD);
+
+        // The log still loads, and compacting again keeps the bad snapshot
+        final LeaderboardManage reloaded = new LeaderboardManage(directory);
+        final int kept = reloaded.getHistorySize();
+        assertTrue(kept < RUNS);
+        for (int i = 0; i < RUNS; i++) {
+            reloaded.addScore(PLAYER_NAME_2, random.nextInt(MAX_SCORE), random.nextInt(MAX_TIME));
+        }
+        reloaded.flush();
+        LeaderboardStore.open(directory).close();
+        assertArrayEquals(TORN_RECORD, Files.readAllBytes(snapshot.resolveSibling(snapshot.getFileName() + CORRUPT)));
+        assertEquals(kept + RUNS, new LeaderboardManage(directory).getHistorySize());
+        LeaderboardStore.open(directory).close();
+    }
+
+    @Test
+    void testUnreadableScoreBoardSnapshotIsSetAsideNotDeleted(@TempDir final Path directory) throws IOException {
+        final ScoreBoard board = ScoreBoard.open(directory);
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < OLD_RUNS; i++) {
+            board.record(PLAYER_NAME, TODAY.minusDays(DAYS_OUT_OF_WINDOW).atStartOfDay(),
+                Map.of(ROOM_1, new RoomScoreData(random.nextInt(MAX_TIME), random.nextInt(MAX_SCORE), true)));
+        }
+        board.record(PLAYER_NAME_2, TODAY.atStartOfDay(), Map.of(ROOM_1, new RoomScoreData(TIME_1, SCORE_1, true)));
+        board.close();
+        final Path snapshot = onlyFile(directory, SCORE_BOARD_SNAPSHOTS);
+        Files.write(snapshot, TORN_RECORD);
+
+        // The recent runs still load, and compacting again keeps the bad snapshot
+        final ScoreBoard reloaded = ScoreBoard.open(directory);
+        final int kept = reloaded.getRunCount();
+        assertTrue(kept < OLD_RUNS);
+        assertEquals(List.of(PLAYER_NAME_2), names(reloaded.top(ScoreBoard.Window.WEEK, ROOM_1, TODAY, PAGE)));
+        for (int i = 0; i < OLD_RUNS; i++) {
+            reloaded.record(PLAYER_NAME_3, TODAY.minusDays(DAYS_OUT_OF_WINDOW).atStartOfDay(),
+                Map.of(ROOM_1, new RoomScoreData(random.nextInt(MAX_TIME), random.nextInt(MAX_SCORE), true)));
+        }
+        reloaded.close();
+        assertArrayEquals(TORN_RECORD, Files.readAllBytes(snapshot.resolveSibling(snapshot.getFileName() + CORRUPT)));
+        final ScoreBoard again = ScoreBoard.open(directory);
+        assertEquals(kept + OLD_RUNS, again.getRunCount());
+        again.close();
+    }
+
+    private static List<String> names(final List<LeaderboardEntry> entries) {
+        final List<String> names = new ArrayList<>();
+        for (final LeaderboardEntry entry : entries) {
+            names.add(entry.getPlayerName());
+        }
+        return names;
+    }
+
+    private static Path onlyFile(final Path directory, final String glob) throws IOException {
+        final List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (final Path file : files) {
+                found.add(file);
+            }
+        }
+        assertEquals(1, found.size());
+        return found.get(0);
+    }
+
+    private static int countFiles(final Path directory, final String glob) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (final Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -1,21 +1,68 @@
 package it.unibo.exam;
 
 import it.unibo.exam.controller.minigame.lab.MazeMinigame;
+import it.unibo.exam.model.entity.minigame.lab.MazeGenerator;
+import it.unibo.exam.model.entity.minigame.lab.MazeGrid;
+import it.unibo.exam.model.entity.minigame.lab.MazeMetrics;
+import it.unibo.exam.model.entity.minigame.lab.MazeModel;
+import it.unibo.exam.model.entity.minigame.lab.MazeSolver;
+import it.unibo.exam.model.entity.minigame.lab.algorithm.BacktrackerAlgorithm;
+import it.unibo.exam.model.entity.minigame.lab.algorithm.EllerAlgorithm;
+import it.unibo.exam.model.entity.minigame.lab.algorithm.MazeAlgorithm;
+import it.unibo.exam.model.entity.minigame.lab.algorithm.WilsonAlgorithm;
 import it.unibo.exam.model.scoring.CapDecorator;
+import it.unibo.exam.view.lab.FogOfWar;
+import it.unibo.exam.view.lab.MazeCamera;
+import it.unibo.exam.view.lab.MazePanel;
 import it.unibo.exam.model.scoring.ScoringStrategy;
 import it.unibo.exam.model.scoring.TimeBonusDecorator;
 import it.unibo.exam.model.scoring.TieredScoringStrategy;
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.SplittableRandom;
 
 class MazeMinigameTest {
     private static final int BONUS_TIME_THRESHOLD = 30;
     private static final int BONUS_POINTS = 20;
     private static final int MAX_POINTS_CAP = 120;
+    private static final long SEED = 7L;
+    private static final int SMALL_COLUMNS = 37;
+    private static final int SMALL_ROWS = 23;
+    private static final int LARGE_SIDE = 1000;
+    private static final int HARD_SIZE = 15;
+    private static final int HARD = 3;
+    private static final int CORRIDOR = 3;
+    private static final int LOOPS = 100;
+    private static final int QUERIES = 50;
+    private static final int VIEW = 20;
+    private static final int RADIUS = 2;
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+    private static final int STEPS = 40;
+    private static final int WALK = 300;
+    private static final int UNDONE = 150;
+    private static final int REDONE = 20;
+    // Layout of MazePanel: the size of a cell and the height of the status bar above the maze
+    private static final int PANEL_CELL = 30;
+    private static final int PANEL_BAR = 60;
+    private static final int DARK = 50;
 
     @Test
     void testInitialization() {
@@ -46,4 +93,303 @@ class MazeMinigameTest {
         final MazeMinigame minigame = new MazeMinigame(scoring);
         assertNotNull(minigame);
     }
+
+    @Test
+    void testEveryAlgorithmCarvesAPerfectMaze() {
+        for (final MazeAlgorithm algorithm : List.of(new BacktrackerAlgorithm(), new WilsonAlgorithm(), new EllerAlgorithm())) {
+            final MazeGrid grid = new MazeGenerator(new SplittableRandom(SEED), algorithm).generate(SMALL_COLUMNS, SMALL_ROWS);
+            assertPerfect(grid);
+        }
+    }
+
+    @Test
+    void testStartAndEndAreTheFarthestPair() {
+        final MazeGrid grid = new MazeGenerator(new SplittableRandom(SEED)).generate(SMALL_COLUMNS, SMALL_ROWS);
+        final MazeSolver solver = new MazeSolver(grid);
+        final int start = find(grid, MazeGenerator.START);
+        final int end = find(grid, MazeGenerator.END);
+        final int length = solver.solveBfs(start, end).length;
+        // No cell is farther from either end than the other end
+        assertEquals(length, solver.solveBfs(start, solver.farthestFrom(start)).length);
+        assertEquals(length, solver.solveBfs(end, solver.farthestFrom(end)).length);
+    }
+
+    @Test
+    void testSolversAgreeOnShortestPaths() {
+        final MazeGrid grid = new MazeGenerator(new SplittableRandom(SEED), new WilsonAlgorithm())
+            .generate(SMALL_COLUMNS, SMALL_ROWS);
+        // Knock down some walls so that there are loops and several paths
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < LOOPS; i++) {
+            final int col = random.nextInt(SMALL_COLUMNS - 1);
+            final int row = random.nextInt(SMALL_ROWS - 1);
+            grid.openWall(col, row, random.nextBoolean() ? MazeGrid.EAST : MazeGrid.SOUTH);
+        }
+        final MazeSolver solver = new MazeSolver(grid);
+        for (int i = 0; i < QUERIES; i++) {
+            final int from = grid.index(2 * random.nextInt(SMALL_COLUMNS) + 1, 2 * random.nextInt(SMALL_ROWS) + 1);
+            final int to = grid.index(2 * random.nextInt(SMALL_COLUMNS) + 1, 2 * random.nextInt(SMALL_ROWS) + 1);
+            final int[] bfs = solver.solveBfs(from, to);
+            assertValidPath(grid, bfs, from, to);
+            final int[] aStar = solver.solveAStar(from, to);
+            assertValidPath(grid, aStar, from, to);
+            assertEquals(bfs.length, aStar.length);
+            final int[] bidirectional = solver.solveBidirectional(from, to);
+            assertValidPath(grid, bidirectional, from, to);
+            assertEquals(bfs.length, bidirectional.length);
+        }
+    }
+
+    @Test
+    void testUnreachableEndHasNoPath() {
+        final MazeGrid grid = new MazeGrid(2, 1);
+        grid.openRoom(0, 0);
+        grid.openRoom(1, 0);
+        final MazeSolver solver = new MazeSolver(grid);
+        final int from = grid.index(1, 1);
+        final int to = grid.index(CORRIDOR, 1);
+        assertEquals(0, solver.solveBfs(from, to).length);
+        assertEquals(0, solver.solveAStar(from, to).length);
+        assertEquals(0, solver.solveBidirectional(from, to).length);
+        assertEquals(-1, solver.analyze(from, to).getPathLength());
+    }
+
+    @Test
+    void testMetricsOfACorridor() {
+        // Three rooms in a row, plus one below the middle one
+        final MazeGrid grid = new MazeGrid(CORRIDOR, 2);
+        grid.openPassage(0, 0, MazeGrid.EAST);
+        grid.openPassage(1, 0, MazeGrid.EAST);
+        grid.openPassage(1, 0, MazeGrid.SOUTH);
+        final MazeMetrics metrics = new MazeSolver(grid).analyze(grid.index(1, 1), grid.index(2 * CORRIDOR - 1, 1));
+        assertEquals(2 * (CORRIDOR - 1), metrics.getPathLength());
+        assertEquals(CORRIDOR, metrics.getPathRooms());
+        assertEquals(CORRIDOR, metrics.getDeadEnds());
+        assertEquals(1, metrics.getJunctions());
+        assertEquals(1, metrics.getDecisions());
+        assertEquals(2.0, metrics.getBranchingFactor());
+    }
+
+    @Test
+    void testLevelsMeetTheirDifficultyTarget() {
+        final MazeGenerator generator = new MazeGenerator(new SplittableRandom(SEED));
+        final int rooms = SMALL_COLUMNS * SMALL_ROWS;
+        final MazeGrid grid = generator.generate(SMALL_COLUMNS, SMALL_ROWS, MazeGenerator.minimumDifficulty(rooms), LOOPS);
+        final MazeMetrics metrics = new MazeSolver(grid).analyze(find(grid, MazeGenerator.START), find(grid, MazeGenerator.END));
+        assertTrue(MazeGenerator.minimumDifficulty(rooms).test(metrics));
+    }
+
+    @Test
+    void testLargeMazesDoNotOverflowTheStack() {
+        for (final MazeAlgorithm algorithm : List.of(new BacktrackerAlgorithm(), new EllerAlgorithm())) {
+            final MazeGrid grid = new MazeGenerator(new SplittableRandom(SEED), algorithm).generate(LARGE_SIDE, LARGE_SIDE);
+            assertPerfect(grid);
+        }
+    }
+
+    @Test
+    void testSameSeedSameMaze() {
+        final int[][] first = new MazeGenerator(new SplittableRandom(SEED)).generateMaze(HARD);
+        final int[][] second = new MazeGenerator(new SplittableRandom(SEED)).generateMaze(HARD);
+        assertEquals(HARD_SIZE, first.length);
+        assertEquals(HARD_SIZE, first[0].length);
+        for (int row = 0; row < HARD_SIZE; row++) {
+            assertArrayEquals(first[row], second[row]);
+        }
+    }
+
+    @Test
+    void testMovesCanBeUndoneRedoneAndReplayed() throws IOException {
+        final int[][] maze = new MazeGenerator(new SplittableRandom(SEED)).generate(SMALL_COLUMNS, SMALL_ROWS).toArray();
+        final MazeModel model = new MazeModel(maze);
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final List<int[]> positions = new ArrayList<>();
+        positions.add(new int[] {model.getPlayerX(), model.getPlayerY()});
+        while (positions.size() <= WALK) {
+            final int direction = random.nextInt(MazeGrid.DIRECTIONS);
+            if (model.movePlayer(MazeGrid.dx(direction), MazeGrid.dy(direction))) {
+                positions.add(new int[] {model.getPlayerX(), model.getPlayerY()});
+            }
+        }
+        assertEquals(WALK, model.getMoveCount());
+
+        for (int i = 0; i < UNDONE; i++) {
+            assertTrue(model.undo());
+        }
+        for (int i = 0; i < REDONE; i++) {
+            assertTrue(model.redo());
+        }
+        final int[] here = positions.get(WALK - UNDONE + REDONE);
+        assertArrayEquals(here, new int[] {model.getPlayerX(), model.getPlayerY()});
+
+        // Replaying the written log on a fresh model ends in the same place
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        model.writeHistory(new DataOutputStream(bytes));
+        final MazeModel replay = new MazeModel(maze);
+        replay.readHistory(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(model.getMoveCount(), replay.getMoveCount());
+        assertArrayEquals(here, new int[] {replay.getPlayerX(), replay.getPlayerY()});
+        assertTrue(replay.redo());
+        assertArrayEquals(positions.get(WALK - UNDONE + REDONE + 1),
+            new int[] {replay.getPlayerX(), replay.getPlayerY()});
+
+        // A new move drops the moves that could have been redone
+        int direction = 0;
+        while (!model.movePlayer(MazeGrid.dx(direction), MazeGrid.dy(direction))) {
+            direction++;
+        }
+        assertEquals(WALK - UNDONE + REDONE + 1, model.getMoveCount());
+        assertFalse(model.redo());
+    }
+
+    @Test
+    void testCameraScrollsOnlyNearTheEdges() {
+        final MazeCamera camera = new MazeCamera(LARGE_SIDE, LARGE_SIDE);
+        assertTrue(camera.resize(VIEW, VIEW));
+        assertTrue(camera.isScrolling());
+        assertFalse(camera.follow(VIEW / 2, VIEW / 2));
+        // Walking to the edge of the window recenters it on the player
+        assertTrue(camera.follow(VIEW - 1, VIEW / 2));
+        assertTrue(camera.isVisible(VIEW - 1, VIEW / 2));
+        assertEquals(VIEW / 2 - 1, camera.getFirstCol());
+        // Never past the maze
+        camera.follow(LARGE_SIDE - 1, LARGE_SIDE - 1);
+        assertEquals(LARGE_SIDE - VIEW, camera.getFirstCol());
+        assertEquals(LARGE_SIDE - VIEW, camera.getFirstRow());
+
+        final MazeCamera small = new MazeCamera(HARD_SIZE, HARD_SIZE);
+        assertFalse(small.resize(LARGE_SIDE, LARGE_SIDE));
+        assertFalse(small.isScrolling());
+        assertFalse(small.follow(HARD_SIZE - 1, HARD_SIZE - 1));
+    }
+
+    @Test
+    void testFogRevealsEachCellOnce() {
+        final FogOfWar fog = new FogOfWar(HARD_SIZE, HARD_SIZE);
+        final int side = 2 * RADIUS + 1;
+        assertEquals(side * side, fog.reveal(HARD_SIZE / 2, HARD_SIZE / 2, RADIUS, i -> { }));
+        assertTrue(fog.isExplored(HARD_SIZE / 2 + RADIUS, HARD_SIZE / 2 - RADIUS));
+        assertFalse(fog.isExplored(0, 0));
+        // One step right explores only the new column
+        assertEquals(side, fog.reveal(HARD_SIZE / 2 + 1, HARD_SIZE / 2, RADIUS, i -> { }));
+        // Clipped at the corner
+        assertEquals((RADIUS + 1) * (RADIUS + 1), fog.reveal(0, 0, RADIUS, i -> { }));
+        assertEquals(side * side + side + (RADIUS + 1) * (RADIUS + 1), fog.getExploredCount());
+    }
+
+    @Test
+    void testLargeMazePaintsThroughTheCamera() {
+        final int[][] maze = new MazeGenerator(new SplittableRandom(SEED)).generate(SMALL_COLUMNS, SMALL_COLUMNS).toArray();
+        final MazePanel panel = new MazePanel(maze);
+        panel.setSize(SCREEN_WIDTH, SCREEN_HEIGHT);
+        // Follows the player like the panel's camera, to know which cells are on screen
+        final MazeCamera camera = new MazeCamera(maze[0].length, maze.length);
+        camera.resize(SCREEN_WIDTH / PANEL_CELL, (SCREEN_HEIGHT - PANEL_BAR) / PANEL_CELL);
+        camera.follow(0, 0);
+        final BufferedImage screen = new BufferedImage(SCREEN_WIDTH, SCREEN_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2d = screen.createGraphics();
+        try {
+            panel.paint(g2d);
+            // Walk down the diagonal: the camera scrolls and the minimap follows
+            for (int step = 1; step < STEPS; step++) {
+                panel.updatePlayerPosition(step, step);
+                camera.follow(step, step);
+                panel.paint(g2d);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        assertTrue(camera.isScrolling());
+        final int last = STEPS - 1;
+        // A cell next to the player is revealed; the corner of the window, far from the walk, is not
+        final int fogCol = camera.getFirstCol();
+        final int fogRow = camera.getFirstRow() + camera.getViewRows() - 1;
+        assertTrue(Math.abs(fogCol - fogRow) > RADIUS);
+        assertFalse(isDark(screen.getRGB(centerX(camera, last + RADIUS), centerY(camera, last))));
+        assertTrue(isDark(screen.getRGB(centerX(camera, fogCol), centerY(camera, fogRow))));
+    }
+
+    /**
+     * A maze is perfect when its rooms and open walls form a spanning tree:
+     * every room is reached and there is one passage less than rooms.
+     */
+    private static void assertPerfect(final MazeGrid grid) {
+        final int columns = grid.getColumns();
+        final int rooms = columns * grid.getRows();
+        final boolean[] reached = new boolean[rooms];
+        final int[] queue = new int[rooms];
+        int passages = 0;
+        for (int room = 0; room < rooms; room++) {
+            final int x = 2 * (room % columns) + 1;
+            final int y = 2 * (room / columns) + 1;
+            if (grid.get(x + 1, y) != MazeGenerator.WALL) {
+                passages++;
+            }
+            if (grid.get(x, y + 1) != MazeGenerator.WALL) {
+                passages++;
+            }
+        }
+        int head = 0;
+        int tail = 0;
+        reached[0] = true;
+        queue[tail++] = 0;
+        while (head < tail) {
+            final int room = queue[head++];
+            final int col = room % columns;
+            final int row = room / columns;
+            for (int direction = 0; direction < MazeGrid.DIRECTIONS; direction++) {
+                final int nextCol = col + MazeGrid.dx(direction);
+                final int nextRow = row + MazeGrid.dy(direction);
+                final int next = nextRow * columns + nextCol;
+                if (grid.contains(nextCol, nextRow) && !reached[next]
+                    && grid.get(2 * col + 1 + MazeGrid.dx(direction), 2 * row + 1 + MazeGrid.dy(direction))
+                        != MazeGenerator.WALL) {
+                    reached[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        assertEquals(rooms, tail);
+        assertEquals(rooms - 1, passages);
+    }
+
+    private static void assertValidPath(final MazeGrid grid, final int[] path, final int from, final int to) {
+        assertEquals(from, path[0]);
+        assertEquals(to, path[path.length - 1]);
+        for (int i = 0; i < path.length; i++) {
+            assertTrue(grid.isPassable(path[i]));
+            if (i > 0) {
+                final int dx = Math.abs(grid.xOf(path[i]) - grid.xOf(path[i - 1]));
+                final int dy = Math.abs(grid.yOf(path[i]) - grid.yOf(path[i - 1]));
+                assertEquals(1, dx + dy);
+            }
+        }
+    }
+
+    private static int find(final MazeGrid grid, final int marker) {
+        for (int index = 0; index < grid.getCellCount(); index++) {
+            if (grid.get(grid.xOf(index), grid.yOf(index)) == marker) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int centerX(final MazeCamera camera, final int col) {
+        final int offset = (SCREEN_WIDTH - camera.getViewCols() * PANEL_CELL) / 2;
+        return offset + (col - camera.getFirstCol()) * PANEL_CELL + PANEL_CELL / 2;
+    }
+
+    private static int centerY(final MazeCamera camera, final int row) {
+        final int offset = (SCREEN_HEIGHT - camera.getViewRows() * PANEL_CELL - PANEL_BAR) / 2 + PANEL_BAR;
+        return offset + (row - camera.getFirstRow()) * PANEL_CELL + PANEL_CELL / 2;
+    }
+
+    /**
+     * The fog is nearly black; every maze cell, walls included, is lighter.
+     */
+    private static boolean isDark(final int argb) {
+        final Color color = new Color(argb);
+        return Math.max(color.getRed(), Math.max(color.getGreen(), color.getBlue())) < DARK;
+    }
 }
@@ -0,0 +1,61 @@
+package it.unibo.exam;
+
+import it.unibo.exam.view.RenderSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderSettingsTest {
+
+    private static final String ACTIVE_PROPERTY = "ue.render.active";
+    private static final String FPS_PROPERTY = "ue.render.fps";
+    private static final String VSYNC_PROPERTY = "ue.render.vsync";
+    private static final int DEFAULT_FRAME_CAP = 60;
+    private static final int CUSTOM_FRAME_CAP = 144;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(ACTIVE_PROPERTY);
+        System.clearProperty(FPS_PROPERTY);
+        System.clearProperty(VSYNC_PROPERTY);
+    }
+
+    @Test
+    void testDefaults() {
+        final RenderSettings settings = RenderSettings.fromSystemProperties();
+        assertTrue(settings.isActiveRendering());
+        assertEquals(DEFAULT_FRAME_CAP, settings.getFrameCap());
+        assertFalse(settings.isVsync());
+    }
+
+    @Test
+    void testPropertiesAreRead() {
+        System.setProperty(ACTIVE_PROPERTY, "false");
+        System.setProperty(FPS_PROPERTY, " " + CUSTOM_FRAME_CAP + " ");
+        System.setProperty(VSYNC_PROPERTY, "true");
+        final RenderSettings settings = RenderSettings.fromSystemProperties();
+        assertFalse(settings.isActiveRendering());
+        assertEquals(CUSTOM_FRAME_CAP, settings.getFrameCap());
+        assertTrue(settings.isVsync());
+    }
+
+    @Test
+    void testInvalidFrameCapsFallBack() {
+        System.setProperty(FPS_PROPERTY, "fast");
+        assertEquals(DEFAULT_FRAME_CAP, RenderSettings.fromSystemProperties().getFrameCap());
+        System.setProperty(FPS_PROPERTY, "-1");
+        assertEquals(RenderSettings.UNCAPPED, RenderSettings.fromSystemProperties().getFrameCap());
+        assertThrows(IllegalArgumentException.class, () -> new RenderSettings(true, -1, false));
+    }
+
+    @Test
+    void testEffectiveFrameCapWithoutADisplay() {
+        // Without vsync or a known display the configured cap applies as is
+        assertEquals(CUSTOM_FRAME_CAP, new RenderSettings(true, CUSTOM_FRAME_CAP, true).effectiveFrameCap(null));
+        assertEquals(RenderSettings.UNCAPPED,
+            new RenderSettings(true, RenderSettings.UNCAPPED, false).effectiveFrameCap(null));
+    }
+}
@@ -0,0 +1,140 @@
+package it.unibo.exam;
+
+import it.unibo.exam.controller.input.ScriptedInput;
+import it.unibo.exam.controller.input.ScriptedInput.Command;
+import it.unibo.exam.controller.simulation.SimulationEngine;
+import it.unibo.exam.controller.simulation.SimulationListener;
+import it.unibo.exam.model.entity.Npc;
+import it.unibo.exam.model.entity.Player;
+import it.unibo.exam.model.entity.RoamingNpc;
+import it.unibo.exam.model.entity.enviroments.Door;
+import it.unibo.exam.model.entity.enviroments.Room;
+import it.unibo.exam.utility.geometry.Point2D;
+import it.unibo.exam.utility.random.RandomService;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimulationEngineTest {
+
+    private static final int ENV_WIDTH = 800;
+    private static final int ENV_HEIGHT = 600;
+    private static final int TICKS = 10;
+    private static final int MANY_TICKS = 10_000;
+    private static final long SEED = 12_345L;
+
+    private final Point2D environmentSize = new Point2D(ENV_WIDTH, ENV_HEIGHT);
+
+    @Test
+    void testRunsAsFastAsPossible() {
+        final SimulationEngine engine = new SimulationEngine(environmentSize, new ScriptedInput());
+        final long executed = engine.run(MANY_TICKS, SimulationEngine.UNLIMITED_TICK_RATE);
+        assertEquals(MANY_TICKS, executed);
+        assertEquals(MANY_TICKS, engine.getTickCount());
+        assertFalse(engine.isFinished());
+    }
+
+    @Test
+    void testScriptedMovement() {
+        final ScriptedInput input = new ScriptedInput().hold(TICKS, Command.RIGHT);
+        final SimulationEngine engine = new SimulationEngine(environmentSize, input);
+        final Player player = engine.getGameState().getPlayer();
+        final int startX = player.getPosition().getX();
+
+        engine.run(TICKS, SimulationEngine.UNLIMITED_TICK_RATE);
+
+        assertEquals(startX + TICKS * player.getSpeed(), player.getPosition().getX());
+    }
+
+    @Test
+    void testDoorInteractionChangesRoom() {
+        final ScriptedInput input = new ScriptedInput().interact();
+        final SimulationEngine engine = new SimulationEngine(environmentSize, input);
+        final Room hub = engine.getGameState().getCurrentRoom();
+        final Door door = hub.getDoors().get(0);
+        engine.getGameState().getPlayer().setPosition(door.getPosition());
+
+        engine.step();
+
+        assertEquals(door.getToId(), engine.getGameState().getCurrentRoomId());
+    }
+
+    @Test
+    void testLockedExitAndCompletion() {
+        final int[] locked = {0};
+        final int[] completed = {0};
+        final SimulationListener listener = new SimulationListener() {
+            @Override
+            public void onExitLocked() {
+                locked[0]++;
+            }
+
+            @Override
+            public void onGameCompleted() {
+                completed[0]++;
+            }
+        };
+        final ScriptedInput input = new ScriptedInput().interact().interact();
+        final SimulationEngine engine = new SimulationEngine(environmentSize, input, listener);
+        final Player player = engine.getGameState().getPlayer();
+        final Door exit = engine.getGameState().getCurrentRoom().getDoors().stream()
+            .filter(Door::isEndgameDoor)
+            .findFirst()
+            .orElseThrow();
+        player.setPosition(exit.getPosition());
+
+        engine.step();
+        assertEquals(1, locked[0]);
+
+        for (int room = 1; room <= SimulationEngine.TOTAL_PUZZLE_ROOMS; room++) {
+            player.addRoomScore(room, 1, 1);
+        }
+        assertEquals(1, engine.run(TICKS, SimulationEngine.UNLIMITED_TICK_RATE));
+        assertEquals(1, completed[0]);
+        assertTrue(engine.isFinished());
+    }
+
+    @Test
+    void testNpcInteractionNotifiesListener() {
+        final int[] interactedRoom = {-1};
+        final SimulationListener listener = new SimulationListener() {
+            @Override
+            public void onNpcInteraction(final int roomId, final Npc npc) {
+                interactedRoom[0] = roomId;
+            }
+        };
+        final SimulationEngine engine = new SimulationEngine(environmentSize, new ScriptedInput().interact(), listener);
+        engine.getGameState().changeRoom(1);
+        final Npc npc = engine.getGameState().getCurrentRoom().getNpc();
+        engine.getGameState().getPlayer().setPosition(npc.getPosition());
+
+        engine.step();
+
+        assertEquals(1, interactedRoom[0]);
+    }
+
+    @Test
+    void testInvalidRates() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SimulationEngine(environmentSize, new ScriptedInput(), new SimulationListener() { }, 0));
+        final SimulationEngine engine = new SimulationEngine(environmentSize, new ScriptedInput());
+        assertThrows(IllegalArgumentException.class, () -> engine.run(1, -1));
+    }
+
+    @Test
+    void testSameSeedReplaysRoamingNpcs() {
+        final SimulationEngine first = new SimulationEngine(environmentSize, new ScriptedInput(),
+            new SimulationListener() { }, SimulationEngine.DEFAULT_STEPS_PER_SECOND, new RandomService(SEED));
+        final SimulationEngine second = new SimulationEngine(environmentSize, new ScriptedInput(),
+            new SimulationListener() { }, SimulationEngine.DEFAULT_STEPS_PER_SECOND, new RandomService(SEED));
+        first.run(MANY_TICKS, SimulationEngine.UNLIMITED_TICK_RATE);
+        second.run(MANY_TICKS, SimulationEngine.UNLIMITED_TICK_RATE);
+
+        final RoamingNpc a = first.getGameState().getCurrentRoom().getRoamingNpcs().get(0);
+        final RoamingNpc b = second.getGameState().getCurrentRoom().getRoamingNpcs().get(0);
+        assertEquals(a.getX(), b.getX());
+        assertEquals(a.getY(), b.getY());
+    }
+}
@@ -0,0 +1,109 @@
+package it.unibo.exam;
+
+import it.unibo.exam.model.entity.Entity;
+import it.unibo.exam.model.entity.RoamingNpc;
+import it.unibo.exam.model.entity.enviroments.Room;
+import it.unibo.exam.model.entity.strategy.RandomWalkStrategy;
+import it.unibo.exam.utility.generator.RoomGenerator;
+import it.unibo.exam.utility.geometry.Point2D;
+import it.unibo.exam.utility.geometry.SpatialGrid;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+class SpatialGridTest {
+
+    private static final int CELL = 32;
+    private static final int ENV_WIDTH = 800;
+    private static final int ENV_HEIGHT = 600;
+    private static final int ITEMS = 300;
+    private static final int QUERIES = 200;
+    private static final int MAX_COORD = 1000;
+    private static final int MAX_SIZE = 80;
+    private static final long SEED = 42L;
+
+    @Test
+    void testQueriesMatchLinearScan() {
+        final Random random = new Random(SEED);
+        final SpatialGrid<Integer> grid = new SpatialGrid<>(CELL);
+        final int[][] boxes = new int[ITEMS][];
+        // Items are compared by identity, so box each index once
+        final Integer[] items = new Integer[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = i;
+            boxes[i] = randomBox(random);
+            grid.insert(items[i], boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]);
+        }
+        // Move half of the items, some within their cells and some far away
+        for (int i = 0; i < ITEMS; i += 2) {
+            boxes[i] = i % 4 == 0 ? randomBox(random) : new int[] {boxes[i][0] + 1, boxes[i][1], boxes[i][2], boxes[i][3]};
+            grid.update(items[i], boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]);
+        }
+        for (int q = 0; q < QUERIES; q++) {
+            final int[] area = randomBox(random);
+            final Set<Integer> expectedRect = new HashSet<>();
+            final Set<Integer> expectedRadius = new HashSet<>();
+            for (int i = 0; i < ITEMS; i++) {
+                final int[] b = boxes[i];
+                if (b[0] <= area[0] + area[2] && b[0] + b[2] >= area[0]
+                    && b[1] <= area[1] + area[3] && b[1] + b[3] >= area[1]) {
+                    expectedRect.add(i);
+                }
+                final long dx = area[0] - Math.max(b[0], Math.min(area[0], b[0] + b[2]));
+                final long dy = area[1] - Math.max(b[1], Math.min(area[1], b[1] + b[3]));
+                if (dx * dx + dy * dy <= (long) area[2] * area[2]) {
+                    expectedRadius.add(i);
+                }
+            }
+            final List<Integer> rect = grid.queryRect(area[0], area[1], area[2], area[3]);
+            assertEquals(expectedRect.size(), rect.size());
+            assertEquals(expectedRect, new HashSet<>(rect));
+            final List<Integer> radius = grid.queryRadius(area[0], area[1], area[2]);
+            assertEquals(expectedRadius.size(), radius.size());
+            assertEquals(expectedRadius, new HashSet<>(radius));
+        }
+    }
+
+    @Test
+    void testRemove() {
+        final SpatialGrid<String> grid = new SpatialGrid<>(CELL);
+        grid.insert("a", 0, 0, CELL * 3, CELL * 3);
+        assertTrue(grid.remove("a"));
+        assertFalse(grid.remove("a"));
+        assertEquals(0, grid.size());
+        assertTrue(grid.queryRect(0, 0, CELL * 3, CELL * 3).isEmpty());
+    }
+
+    @Test
+    void testRoomIndexFollowsMovingNpcs() {
+        final Point2D env = new Point2D(ENV_WIDTH, ENV_HEIGHT);
+        final Room room = new RoomGenerator(env).generate(1);
+        final RoamingNpc npc = new RoamingNpc(new Point2D(ENV_WIDTH / 2, ENV_HEIGHT / 2), env, new RandomWalkStrategy(env));
+        room.addRoamingNpc(npc);
+        assertTrue(room.queryRadius(ENV_WIDTH / 2, ENV_HEIGHT / 2, 1).contains(npc));
+
+        npc.move(-ENV_WIDTH / 4, -ENV_HEIGHT / 4);
+        assertFalse(room.queryRadius(ENV_WIDTH / 2 + MAX_SIZE, ENV_HEIGHT / 2 + MAX_SIZE, 1).contains(npc));
+        assertTrue(room.queryRadius(ENV_WIDTH / 4, ENV_HEIGHT / 4, 1).contains(npc));
+
+        // Doors are re-indexed when they are replaced on resize
+        room.updateDoors(List.of());
+        final List<Entity> everything = room.queryRect(0, 0, ENV_WIDTH, ENV_HEIGHT);
+        assertEquals(List.of(npc), everything);
+    }
+
+    private static int[] randomBox(final Random random) {
+        return new int[] {
+            random.nextInt(MAX_COORD) - MAX_COORD / 4,
+            random.nextInt(MAX_COORD) - MAX_COORD / 4,
+            random.nextInt(MAX_SIZE),
+            random.nextInt(MAX_SIZE),
+        };
+    }
+}
@@ -5,15 +5,27 @@ import it.unibo.exam.utility.geometry.Rectangle;
 import it.unibo.exam.utility.generator.NpcGenerator;
 import it.unibo.exam.utility.generator.RoomGenerator;
 import it.unibo.exam.utility.generator.DoorGenerator;
+import it.unibo.exam.utility.persistence.WriteBehindExecutor;
+import it.unibo.exam.utility.random.RandomService;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 class UtilityTest {
 
     private static final double DELTA = 0.001;
+    private static final long SEED = 2024L;
     private static final int TEST_X = 200;
     private static final int TEST_Y = 300;
     private static final int ENV_WIDTH = 800;
@@ -39,6 +51,10 @@ class UtilityTest {
     private static final int RECT_LARGE_SIZE = 500;
     private static final int RECT_CENTER_X = 350;
     private static final int RECT_CENTER_Y = 450;
+    private static final int QUEUE_CAPACITY = 2;
+    private static final int REDUNDANT_WRITES = 5;
+    private static final long WAIT_MILLIS = 5000;
+    private static final long BLOCKED_MILLIS = 100;
 
     @Test
     void testPoint2DCreation() {
@@ -181,4 +197,99 @@ class UtilityTest {
         final Point2D centerPoint = new Point2D(RECT_CENTER_X, RECT_CENTER_Y);
         assertTrue(rect.contains(centerPoint));
     }
+
+    @Test
+    void testRandomStreamsAreReproducibleAndIndependent() {
+        final RandomService service = new RandomService(SEED);
+        final SplittableRandom gym = service.stream("gym");
+        final SplittableRandom maze = service.stream("maze");
+        final SplittableRandom secondGym = service.stream("gym");
+
+        // Same seed, same requests: same numbers, whatever order the subsystems ask in
+        final RandomService replay = new RandomService(SEED);
+        final SplittableRandom replayMaze = replay.stream("maze");
+        final SplittableRandom replayGym = replay.stream("gym");
+        assertEquals(gym.nextLong(), replayGym.nextLong());
+        assertEquals(maze.nextLong(), replayMaze.nextLong());
+
+        assertNotEquals(gym.nextLong(), secondGym.nextLong());
+        assertNotEquals(new RandomService(SEED + 1).stream("gym").nextLong(), new RandomService(SEED).stream("gym").nextLong());
+    }
+
+    @Test
+    void testWriteBehindCoalescesAndBoundsTheQueue() throws InterruptedException {
+        final WriteBehindExecutor executor = new WriteBehindExecutor("test-writer", QUEUE_CAPACITY);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger latest = new AtomicInteger();
+        final Object key = new Object();
+        // Hold the writer so the queue fills up
+        executor.submit(() -> {
+            started.countDown();
+            awaitQuietly(gate);
+        });
+        assertTrue(started.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+        for (int i = 1; i <= REDUNDANT_WRITES; i++) {
+            final int value = i;
+            executor.submit(key, () -> latest.set(value));
+        }
+        executor.submit(() -> {
+            throw new IOException("disk full");
+        });
+        assertEquals(QUEUE_CAPACITY, executor.getStats().getQueueDepth());
+
+        // A third pending write waits for room
+        final CountDownLatch queued = new CountDownLatch(1);
+        final Thread producer = new Thread(() -> {
+            executor.submit(() -> { });
+            queued.countDown();
+        });
+        producer.start();
+        assertFalse(queued.await(BLOCKED_MILLIS, TimeUnit.MILLISECONDS));
+        gate.countDown();
+        assertTrue(queued.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+        assertTrue(executor.shutdown(WAIT_MILLIS));
+        assertEquals(REDUNDANT_WRITES, latest.get());
+        final WriteBehindExecutor.Stats stats = executor.getStats();
+        assertEquals(REDUNDANT_WRITES - 1, stats.getCoalesced());
+        assertEquals(1, stats.getFailed());
+        assertEquals(stats.getSubmitted() - stats.getCoalesced(), stats.getCompleted() + stats.getFailed());
+        assertEquals(QUEUE_CAPACITY, stats.getMaxQueueDepth());
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    void testWritesAfterATimedOutShutdownWaitForTheWriter() throws InterruptedException {
+        final WriteBehindExecutor executor = new WriteBehindExecutor("test-writer", QUEUE_CAPACITY);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.submit(() -> {
+            started.countDown();
+            awaitQuietly(gate);
+        });
+        assertTrue(started.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(executor.shutdown(BLOCKED_MILLIS));
+
+        // The writer is still busy: the write is queued behind it, not run in place
+        executor.submit(() -> ranOn.set(Thread.currentThread()));
+        assertNull(ranOn.get());
+        gate.countDown();
+        assertTrue(executor.shutdown(WAIT_MILLIS));
+        assertNotNull(ranOn.get());
+        assertNotEquals(Thread.currentThread(), ranOn.get());
+
+        // Once the writer has ended, writes run on the submitting thread
+        executor.submit(() -> ranOn.set(Thread.currentThread()));
+        assertEquals(Thread.currentThread(), ranOn.get());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }